@@ -0,0 +1,136 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tempi di avvio dell'applicazione in una nuova JVM sul profilo h2, dal lancio del processo:
+ * fino al messaggio di applicazione pronta e fino alla prima risposta 200 di una lettura dei prezzi.
+ *
+ * Usa il pacchetto di {@code mvn -Pavvio-rapido -DskipTests package} in {@code target/avvio-rapido}, in tre modalità:
+ * {@code standard} con scansione del classpath e springdoc a runtime, {@code avvio-rapido} con il profilo omonimo
+ * e l'indice dei componenti, {@code avvio-rapido-cds} con in più l'archivio AppCDS.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BenchmarkAvvio {
+
+	private static final Path PACCHETTO = Path.of("target", "avvio-rapido");
+	private static final String PRONTA = "Applicazione pronta";
+	private static final String PERCORSO = "/prezzi-settore-evento/lista-is-cancellato-false";
+
+	@Param({ "standard", "avvio-rapido", "avvio-rapido-cds" })
+	public String modalita;
+
+	private HttpClient http;
+	private Path jar;
+	private int porta;
+	private Process processo;
+
+	@Setup(Level.Trial)
+	public void verificaPacchetto() throws IOException {
+		try (var file = Files.list(PACCHETTO)) {
+			jar = file.filter(f -> f.toString().endsWith("-avvio-rapido.jar")).findFirst().orElseThrow();
+		} catch (IOException | RuntimeException e) {
+			throw new IllegalStateException("Pacchetto assente: eseguire prima mvn -Pavvio-rapido -DskipTests package", e);
+		}
+		http = HttpClient.newHttpClient();
+	}
+
+	@Setup(Level.Invocation)
+	public void avvia() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			porta = socket.getLocalPort();
+		}
+		List<String> comando = new ArrayList<>(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString()));
+		switch (modalita) {
+			case "standard" -> comando.addAll(List.of("-Dspring.index.ignore=true", "-Dspring.profiles.active=h2"));
+			case "avvio-rapido" -> comando.add("-Dspring.profiles.active=h2,avvio-rapido");
+			case "avvio-rapido-cds" -> comando.addAll(List.of("-XX:SharedArchiveFile=" + PACCHETTO.resolve("app.jsa"), "-Xlog:cds=error",
+					"-Dspring.profiles.active=h2,avvio-rapido"));
+			default -> throw new IllegalArgumentException(modalita);
+		}
+		comando.addAll(List.of("-jar", jar.toString(), "--server.port=" + porta, "--prezzo-settore-evento.grpc.porta=0",
+				"--spring.jpa.show-sql=false"));
+		processo = new ProcessBuilder(comando).redirectErrorStream(true).start();
+	}
+
+	@TearDown(Level.Invocation)
+	public void termina() throws InterruptedException {
+		processo.destroy();
+		if (!processo.waitFor(30, TimeUnit.SECONDS)) processo.destroyForcibly().waitFor();
+	}
+
+	@Benchmark
+	public void tempoAlPronto() throws IOException {
+		BufferedReader output = new BufferedReader(new InputStreamReader(processo.getInputStream()));
+		String riga;
+		while ((riga = output.readLine()) != null) {
+			if (riga.contains(PRONTA)) {
+				scarta(output);
+				return;
+			}
+		}
+		throw new IllegalStateException("Il processo è terminato prima di essere pronto");
+	}
+
+	@Benchmark
+	public int tempoAllaPrimaRichiesta() throws IOException, InterruptedException {
+		scarta(new BufferedReader(new InputStreamReader(processo.getInputStream())));
+		HttpRequest richiesta = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + PERCORSO)).build();
+		while (processo.isAlive()) {
+			try {
+				HttpResponse<Void> risposta = http.send(richiesta, HttpResponse.BodyHandlers.discarding());
+				if (risposta.statusCode() == 200) return risposta.statusCode();
+			} catch (ConnectException e) {
+				// server non ancora in ascolto
+			}
+			Thread.sleep(5);
+		}
+		throw new IllegalStateException("Il processo è terminato prima di servire una richiesta");
+	}
+
+	/**
+	 * Scarta l'output del processo in un thread, così che il processo non si blocchi con il buffer pieno.
+	 */
+	private static void scarta(BufferedReader output) {
+		Thread.ofVirtual().start(() -> {
+			try {
+				output.lines().forEach(riga -> {});
+			} catch (UncheckedIOException e) {
+				// il processo è stato terminato
+			}
+		});
+	}
+}
@@ -0,0 +1,87 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica.CodificaProtobuf;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Codifica e decodifica di una {@code List<PrezzoSettoreEvento>} nelle codifiche negoziabili dagli endpoint
+ * di lista. La dimensione del payload di ogni combinazione viene stampata durante il setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkCodifiche {
+
+	private static final TypeReference<List<PrezzoSettoreEvento>> TIPO_LISTA = new TypeReference<>() {};
+
+	@Param({ "10", "1000", "100000" })
+	public int righe;
+
+	@Param({ "json", "cbor", "smile", "protobuf" })
+	public String codifica;
+
+	private ObjectMapper mapper;
+	private List<PrezzoSettoreEvento> prezzi;
+	private byte[] payload;
+
+	@Setup
+	public void prepara() throws IOException {
+		ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+		mapper = switch (codifica) {
+		case "cbor" -> json.copyWith(new CBORFactory());
+		case "smile" -> json.copyWith(new SmileFactory());
+		default -> json;
+		};
+		prezzi = new ArrayList<>(righe);
+		for (int i = 0; i < righe; i++) {
+			prezzi.add(new PrezzoSettoreEvento(i + 1, 1 + i % 50, 1 + i / 50, 10 + (i % 50) * 0.5, false, i % 3));
+		}
+		payload = codifica();
+		System.out.println("dimensione payload " + codifica + " " + righe + " righe: " + payload.length + " byte");
+	}
+
+	@Benchmark
+	public byte[] codifica() throws IOException {
+		if (!"protobuf".equals(codifica)) return mapper.writeValueAsBytes(prezzi);
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		CodedOutputStream out = CodedOutputStream.newInstance(buffer, 8192);
+		CodificaProtobuf.scriviLista(prezzi, out);
+		out.flush();
+		return buffer.toByteArray();
+	}
+
+	@Benchmark
+	public List<PrezzoSettoreEvento> decodifica() throws IOException {
+		if (!"protobuf".equals(codifica)) return mapper.readValue(payload, TIPO_LISTA);
+		return CodificaProtobuf.leggiLista(CodedInputStream.newInstance(payload));
+	}
+}
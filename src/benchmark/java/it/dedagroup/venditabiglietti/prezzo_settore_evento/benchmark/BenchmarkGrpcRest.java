@@ -0,0 +1,135 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.Application;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.PrezziSettoreEventoGrpc;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.ServerGrpc;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+/**
+ * Latenza di una chiamata da un altro servizio, su loopback, tramite REST/JSON su HTTP/1.1 e tramite gRPC su HTTP/2,
+ * per il prezzo disponibile di un evento e settore e per la lista dei prezzi disponibili di un evento.
+ * Entrambi i client decodificano la risposta in {@link PrezzoSettoreEvento}. L'applicazione viene avviata
+ * con il server web e il server gRPC su porte libere, con cache e indice dei prezzi disattivati.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkGrpcRest {
+
+	private static final int EVENTI = 200;
+	private static final int SETTORI_PER_EVENTO = 50;
+	private static final TypeReference<List<PrezzoSettoreEvento>> TIPO_LISTA = new TypeReference<>() {};
+
+	private ConfigurableApplicationContext context;
+	private HttpClient http;
+	private String base;
+	private ObjectMapper objectMapper;
+	private ManagedChannel canale;
+	private PrezziSettoreEventoGrpc.BlockingStub stub;
+
+	@State(Scope.Thread)
+	public static class Richieste {
+
+		final SplittableRandom random = new SplittableRandom(42);
+
+		long evento() {
+			return 1 + random.nextInt(EVENTI);
+		}
+
+		long settore() {
+			return 1 + random.nextInt(SETTORI_PER_EVENTO);
+		}
+	}
+
+	@Setup(Level.Trial)
+	public void avvia() {
+		context = new SpringApplicationBuilder(Application.class)
+				.run("--spring.profiles.active=h2", "--server.port=0", "--prezzo-settore-evento.grpc.porta=0",
+						"--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+						"--spring.flyway.locations=classpath:db/migration/{vendor}",
+						"--prezzo-settore-evento.cache.abilitata=false",
+						"--prezzo-settore-evento.indice.abilitato=false",
+						"--prezzo-settore-evento.cache-http.abilitata=false");
+		PrezzoSettoreEventoService service = context.getBean(PrezzoSettoreEventoService.class);
+		context.getBean(JdbcTemplate.class).update("DELETE FROM prezzo_settore_evento");
+		List<PrezzoSettoreEvento> prezzi = new ArrayList<>(EVENTI * SETTORI_PER_EVENTO);
+		for (long idEvento = 1; idEvento <= EVENTI; idEvento++) {
+			for (long idSettore = 1; idSettore <= SETTORI_PER_EVENTO; idSettore++) {
+				prezzi.add(new PrezzoSettoreEvento(0, idSettore, idEvento, 10 + idSettore * 0.5, false, 0));
+			}
+		}
+		service.aggiungiPrezziSettoreEvento(prezzi);
+
+		objectMapper = context.getBean(ObjectMapper.class);
+		http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+		base = "http://localhost:" + ((ServletWebServerApplicationContext) context).getWebServer().getPort() + "/prezzi-settore-evento/";
+		canale = NettyChannelBuilder.forAddress("localhost", context.getBean(ServerGrpc.class).getPorta()).usePlaintext().build();
+		stub = PrezziSettoreEventoGrpc.newBlockingStub(canale);
+	}
+
+	@TearDown(Level.Trial)
+	public void chiudi() throws InterruptedException {
+		canale.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+		context.close();
+	}
+
+	@Benchmark
+	public List<PrezzoSettoreEvento> restEventoSettore(Richieste richieste) throws Exception {
+		return rest("lista-by-evento-settore-is-cancellato-false/id-evento/" + richieste.evento() + "/id-settore/" + richieste.settore());
+	}
+
+	@Benchmark
+	public List<PrezzoSettoreEvento> grpcEventoSettore(Richieste richieste) {
+		return stub.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(richieste.evento(), richieste.settore());
+	}
+
+	@Benchmark
+	public List<PrezzoSettoreEvento> restEvento(Richieste richieste) throws Exception {
+		return rest("lista-by-evento-is-cancellato-false/id-evento/" + richieste.evento());
+	}
+
+	@Benchmark
+	public List<PrezzoSettoreEvento> grpcEvento(Richieste richieste) {
+		return stub.findAllByIdEventoAndIsCancellatoFalse(richieste.evento());
+	}
+
+	private List<PrezzoSettoreEvento> rest(String percorso) throws Exception {
+		HttpResponse<byte[]> risposta = http.send(HttpRequest.newBuilder(URI.create(base + percorso)).build(), HttpResponse.BodyHandlers.ofByteArray());
+		return objectMapper.readValue(risposta.body(), TIPO_LISTA);
+	}
+}
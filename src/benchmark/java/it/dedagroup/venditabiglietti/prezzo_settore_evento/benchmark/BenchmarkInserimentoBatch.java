@@ -0,0 +1,97 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.Application;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.PrezzoSettoreEventoDtoRequest;
+
+/**
+ * Confronta le righe inserite al secondo tramite l'endpoint a singola riga {@code /add}
+ * e l'endpoint {@code /add-batch}, avviando l'applicazione con il profilo h2 su una porta casuale.
+ *
+ * Argomenti facoltativi: numero di righe per misura (default 5000) e dimensione delle richieste batch (default 500).
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java \
+ *     -Dexec.mainClass=it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark.BenchmarkInserimentoBatch
+ * </pre>
+ */
+public class BenchmarkInserimentoBatch {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	public static void main(String[] args) throws Exception {
+		int righe = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+		int dimensioneBatch = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+				.run("--spring.profiles.active=h2", "--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN");
+		try {
+			String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/prezzi-settore-evento";
+			HttpClient client = HttpClient.newHttpClient();
+
+			// riscaldamento di JIT, pool di connessioni e contesto di persistenza
+			inserisciSingole(client, base, 1_000_000, righe / 5);
+			inserisciBatch(client, base, 2_000_000, righe / 5, dimensioneBatch);
+
+			double singole = inserisciSingole(client, base, 3_000_000, righe);
+			double batch = inserisciBatch(client, base, 4_000_000, righe, dimensioneBatch);
+			System.out.printf("Righe per misura: %,d, dimensione batch: %d%n", righe, dimensioneBatch);
+			System.out.printf("%-12s %12s%n", "Endpoint", "righe/s");
+			System.out.printf("%-12s %,12.0f%n", "/add", singole);
+			System.out.printf("%-12s %,12.0f%n", "/add-batch", batch);
+			System.out.printf("Rapporto: %.1fx%n", batch / singole);
+		} finally {
+			context.close();
+		}
+	}
+
+	private static double inserisciSingole(HttpClient client, String base, long idEventoIniziale, int righe) throws Exception {
+		long inizio = System.nanoTime();
+		for (int i = 0; i < righe; i++) {
+			invia(client, base + "/add", richiesta(idEventoIniziale, i), 201);
+		}
+		return righe / ((System.nanoTime() - inizio) / 1e9);
+	}
+
+	private static double inserisciBatch(HttpClient client, String base, long idEventoIniziale, int righe, int dimensioneBatch) throws Exception {
+		long inizio = System.nanoTime();
+		for (int i = 0; i < righe; i += dimensioneBatch) {
+			List<PrezzoSettoreEventoDtoRequest> lista = new ArrayList<>(dimensioneBatch);
+			for (int j = i; j < Math.min(righe, i + dimensioneBatch); j++) {
+				lista.add(richiesta(idEventoIniziale, j));
+			}
+			invia(client, base + "/add-batch", lista, 201);
+		}
+		return righe / ((System.nanoTime() - inizio) / 1e9);
+	}
+
+	private static PrezzoSettoreEventoDtoRequest richiesta(long idEventoIniziale, int i) {
+		PrezzoSettoreEventoDtoRequest dto = new PrezzoSettoreEventoDtoRequest();
+		dto.setIdEvento(idEventoIniziale + i / 100);
+		dto.setIdSettore(1 + i % 100);
+		dto.setPrezzo(10 + i % 50);
+		return dto;
+	}
+
+	private static void invia(HttpClient client, String url, Object corpo, int statoAtteso) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(corpo)))
+				.build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != statoAtteso) {
+			throw new IllegalStateException("Risposta inattesa da " + url + ": " + response.statusCode() + " " + response.body());
+		}
+	}
+}
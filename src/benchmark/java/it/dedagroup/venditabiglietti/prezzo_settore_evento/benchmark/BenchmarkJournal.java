@@ -0,0 +1,92 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.TipoModifica;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.JournalModifiche;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.RecordJournal;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.RegistroModifiche;
+
+/**
+ * Throughput del journal delle modifiche: scrittura diretta di {@link JournalModifiche} da un solo thread e
+ * registrazione tramite il Disruptor di {@link RegistroModifiche} da 1, 4 e 8 thread produttori.
+ * La registrazione misura il ritmo sostenuto: con il ring buffer pieno i produttori attendono il consumatore.
+ * Il journal viene ricreato in una directory temporanea a ogni iterazione, senza forzare la scrittura su disco.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkJournal {
+
+	private static final long DIMENSIONE_SEGMENTO = 64L * 1024 * 1024;
+
+	private Path directory;
+	private JournalModifiche journal;
+	private RegistroModifiche registro;
+	private final RecordJournal record = new RecordJournal(0, 0, TipoModifica.MODIFICA_PREZZO, 1, 1, 1, 10.5, 1);
+
+	@Setup(Level.Iteration)
+	public void apri() throws IOException {
+		directory = Files.createTempDirectory("benchmark-journal");
+		journal = new JournalModifiche(directory.resolve("diretto"), DIMENSIONE_SEGMENTO);
+		registro = new RegistroModifiche(new JournalModifiche(directory.resolve("registro"), DIMENSIONE_SEGMENTO), 8192, false);
+	}
+
+	@TearDown(Level.Iteration)
+	public void chiudi() throws IOException {
+		journal.close();
+		registro.close();
+		try (Stream<Path> file = Files.walk(directory)) {
+			file.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+		}
+	}
+
+	@Benchmark
+	public long accodaDiretto() throws IOException {
+		return journal.accoda(record);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public void registra1Thread() {
+		registra();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void registra4Thread() {
+		registra();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public void registra8Thread() {
+		registra();
+	}
+
+	private void registra() {
+		registro.registra(TipoModifica.MODIFICA_PREZZO, 1_700_000_000_000L, 1, 1, 1, 10.5, 1);
+	}
+}
@@ -0,0 +1,95 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.Application;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.cache.LettureCondivise;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+/**
+ * Richieste concorrenti dei prezzi disponibili dello stesso evento, come all'apertura delle vendite, su H2 con
+ * cache e indice disattivati, così che ogni lettura sia un miss. Confronta la query eseguita da ogni richiesta
+ * con la lettura del servizio, in cui le richieste concorrenti condividono una sola query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class BenchmarkLettureCondivise {
+
+	private static final long ID_EVENTO = 1;
+
+	@Param({ "200" })
+	public int settori;
+
+	private ConfigurableApplicationContext context;
+	private PrezzoSettoreEventoService service;
+	private PrezzoSettoreEventoRepository repo;
+
+	@Setup(Level.Trial)
+	public void avvia() {
+		context = new SpringApplicationBuilder(Application.class)
+				.run("--spring.profiles.active=h2", "--spring.main.web-application-type=none",
+						"--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+						"--spring.flyway.locations=classpath:db/migration/{vendor}",
+						"--prezzo-settore-evento.cache.abilitata=false",
+						"--prezzo-settore-evento.indice.abilitato=false");
+		service = context.getBean(PrezzoSettoreEventoService.class);
+		repo = context.getBean(PrezzoSettoreEventoRepository.class);
+		// il classpath di test include i dati di prova delle migrazioni: si parte da una tabella vuota
+		context.getBean(JdbcTemplate.class).update("DELETE FROM prezzo_settore_evento");
+		List<PrezzoSettoreEvento> prezzi = new ArrayList<>();
+		for (long idSettore = 1; idSettore <= settori; idSettore++) {
+			prezzi.add(new PrezzoSettoreEvento(0, idSettore, ID_EVENTO, 10 + idSettore, false, 0));
+		}
+		service.aggiungiPrezziSettoreEvento(prezzi);
+	}
+
+	@TearDown(Level.Trial)
+	public void chiudi() {
+		MeterRegistry registry = context.getBean(MeterRegistry.class);
+		System.out.printf("%nLetture eseguite: %.0f, risparmiate: %.0f%n",
+				registry.get(LettureCondivise.ESEGUITE).tag("lettura", "prezzi-attivi-per-evento").counter().count(),
+				registry.get(LettureCondivise.RISPARMIATE).tag("lettura", "prezzi-attivi-per-evento").counter().count());
+		context.close();
+	}
+
+	/**
+	 * Riferimento: ogni richiesta esegue la propria query.
+	 */
+	@Benchmark
+	public List<PrezzoSettoreEvento> queryPerRichiesta() {
+		return repo.findAllByIdEventoAndIsCancellatoFalse(ID_EVENTO).orElseThrow();
+	}
+
+	@Benchmark
+	public List<PrezzoSettoreEvento> letturaCondivisa() {
+		return service.findAllByIdEventoAndIsCancellatoFalse(ID_EVENTO);
+	}
+}
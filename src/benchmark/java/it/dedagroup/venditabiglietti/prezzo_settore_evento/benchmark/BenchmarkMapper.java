@@ -0,0 +1,43 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.PrezzoSettoreEventoDtoRequest;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.mapper.PrezzoSettoreEventoMapper;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Conversione di un {@link PrezzoSettoreEventoDtoRequest} in {@link PrezzoSettoreEvento}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkMapper {
+
+	private final PrezzoSettoreEventoMapper mapper = new PrezzoSettoreEventoMapper();
+	private final PrezzoSettoreEventoDtoRequest dto = new PrezzoSettoreEventoDtoRequest();
+
+	public BenchmarkMapper() {
+		dto.setIdEvento(12);
+		dto.setIdSettore(3);
+		dto.setPrezzo(25.5);
+	}
+
+	@Benchmark
+	public PrezzoSettoreEvento toPrezzoSettoreEvento() {
+		return mapper.toPrezzoSettoreEvento(dto);
+	}
+}
@@ -0,0 +1,79 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.RigaPreventivoDtoRequest;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.PreventivoDtoResponse;
+
+/**
+ * Preventivo di un carrello di {@code righe} righe su H2 popolato da {@link ContestoPrezziH2}, confrontato con
+ * la lettura riga per riga dei prezzi disponibili per evento e settore usata finora dal servizio carrello.
+ * Circa una riga ogni venti riguarda un settore senza prezzi, che il preventivo legge comunque dal database
+ * per distinguerlo da un prezzo cancellato. Con {@code -prof gc} il valore
+ * {@code gc.alloc.rate.norm} riporta i byte allocati per preventivo.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkPreventivo {
+
+	private static final int CARRELLI = 64;
+
+	@State(Scope.Thread)
+	public static class Carrelli {
+
+		@Param({ "1", "10", "100" })
+		public int righe;
+
+		final List<List<RigaPreventivoDtoRequest>> carrelli = new ArrayList<>(CARRELLI);
+		int prossimo;
+
+		@Setup(Level.Trial)
+		public void genera(ContestoPrezziH2 contesto) {
+			SplittableRandom random = new SplittableRandom(42);
+			for (int c = 0; c < CARRELLI; c++) {
+				List<RigaPreventivoDtoRequest> carrello = new ArrayList<>(righe);
+				for (int i = 0; i < righe; i++) {
+					long idSettore = random.nextInt(20) == 0 ? contesto.settoriPerEvento + 1 : 1 + random.nextInt(contesto.settoriPerEvento);
+					carrello.add(new RigaPreventivoDtoRequest(1 + random.nextInt(contesto.eventi), idSettore, 1 + random.nextInt(4)));
+				}
+				carrelli.add(carrello);
+			}
+		}
+
+		List<RigaPreventivoDtoRequest> prossimo() {
+			return carrelli.get(prossimo++ & (CARRELLI - 1));
+		}
+	}
+
+	@Benchmark
+	public PreventivoDtoResponse preventivo(ContestoPrezziH2 contesto, Carrelli carrelli) {
+		return contesto.service.calcolaPreventivo(carrelli.prossimo());
+	}
+
+	@Benchmark
+	public void letturaPerRiga(ContestoPrezziH2 contesto, Carrelli carrelli, Blackhole blackhole) throws Exception {
+		for (RigaPreventivoDtoRequest riga : carrelli.prossimo()) {
+			blackhole.consume(contesto.service.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(riga.getIdEvento(), riga.getIdSettore()));
+		}
+	}
+}
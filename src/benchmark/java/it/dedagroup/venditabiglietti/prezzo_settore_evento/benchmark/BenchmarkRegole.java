@@ -0,0 +1,82 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.regole.CompilatoreRegole;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.regole.RegolaCompilata;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.regole.RegoleEvento;
+
+/**
+ * Valutazione di una regola di prezzo tipica, con moltiplicatore di domanda, tetto e arrotondamento, su un prezzo
+ * base casuale. Confronta la regola compilata, le regole dell'evento con i risultati memorizzati per settore,
+ * la compilazione a ogni richiesta e il prezzo senza regole.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkRegole {
+
+	private static final String ESPRESSIONE = "arrotonda(limita(base * domanda * (1 + 0.1 * 2), base, 150), 0.5)";
+	private static final List<String> FATTORI = List.of("domanda");
+	private static final int SETTORI = 20;
+
+	private final double[] fattori = { 1.3 };
+	private final double[] basi = new double[SETTORI];
+	private RegolaCompilata regola;
+	private RegoleEvento regoleEvento;
+	private RegoleEvento senzaRegole;
+
+	@Setup(Level.Trial)
+	public void prepara() {
+		for (int i = 0; i < SETTORI; i++) basi[i] = 20 + i * 5;
+		regola = CompilatoreRegole.compila(ESPRESSIONE, FATTORI);
+		regoleEvento = new RegoleEvento(1, Map.of(), regola, fattori);
+		senzaRegole = new RegoleEvento(1, Map.of(), null, fattori);
+	}
+
+	@Benchmark
+	public double compilata() {
+		return regola.valuta(basi[ThreadLocalRandom.current().nextInt(SETTORI)], fattori);
+	}
+
+	/**
+	 * Percorso delle letture: regola del settore o dell'evento e risultato memorizzato finché il prezzo base non cambia.
+	 */
+	@Benchmark
+	public double memorizzata() {
+		int settore = ThreadLocalRandom.current().nextInt(SETTORI);
+		return regoleEvento.applica(settore, basi[settore]);
+	}
+
+	/**
+	 * Riferimento: lettura e compilazione dell'espressione a ogni valutazione.
+	 */
+	@Benchmark
+	public double compilataOgniVolta() {
+		return CompilatoreRegole.compila(ESPRESSIONE, FATTORI).valuta(basi[ThreadLocalRandom.current().nextInt(SETTORI)], fattori);
+	}
+
+	@Benchmark
+	public double senzaRegola() {
+		int settore = ThreadLocalRandom.current().nextInt(SETTORI);
+		return senzaRegole.applica(settore, basi[settore]);
+	}
+}
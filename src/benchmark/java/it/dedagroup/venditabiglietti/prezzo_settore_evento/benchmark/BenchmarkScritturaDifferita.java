@@ -0,0 +1,89 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.Application;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.scrittura.ScritturaDifferita;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+/**
+ * Modifiche ripetute del prezzo di poche coppie evento/settore da più thread, come durante il calcolo dinamico
+ * dei prezzi, su H2. Confronta la modifica sincrona del servizio, una transazione per chiamata, con la
+ * {@link ScritturaDifferita}, che accorpa le modifiche per coppia e le scrive a lotti; in entrambi i casi
+ * la chiamata ritorna dopo il commit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+public class BenchmarkScritturaDifferita {
+
+	private static final long ID_EVENTO = 1;
+
+	@Param({ "10" })
+	public int settori;
+
+	private ConfigurableApplicationContext context;
+	private PrezzoSettoreEventoService service;
+	private ScritturaDifferita scritturaDifferita;
+
+	@Setup(Level.Trial)
+	public void avvia() {
+		context = new SpringApplicationBuilder(Application.class)
+				.run("--spring.profiles.active=h2", "--spring.main.web-application-type=none",
+						"--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+						"--spring.flyway.locations=classpath:db/migration/{vendor}",
+						"--prezzo-settore-evento.scrittura-differita.abilitata=true");
+		service = context.getBean(PrezzoSettoreEventoService.class);
+		scritturaDifferita = context.getBean(ScritturaDifferita.class);
+		// il classpath di test include i dati di prova delle migrazioni: si parte da una tabella vuota
+		context.getBean(JdbcTemplate.class).update("DELETE FROM prezzo_settore_evento");
+		List<PrezzoSettoreEvento> prezzi = new ArrayList<>();
+		for (long idSettore = 1; idSettore <= settori; idSettore++) {
+			prezzi.add(new PrezzoSettoreEvento(0, idSettore, ID_EVENTO, 10 + idSettore, false, 0));
+		}
+		service.aggiungiPrezziSettoreEvento(prezzi);
+	}
+
+	@TearDown(Level.Trial)
+	public void chiudi() {
+		context.close();
+	}
+
+	@Benchmark
+	public void sincrona() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		service.modificaPrezzoByIdSettoreAndIdEvento(10 + random.nextInt(100), 1 + random.nextInt(settori), ID_EVENTO);
+	}
+
+	@Benchmark
+	public void differita() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		scritturaDifferita.modifica(10 + random.nextInt(100), 1 + random.nextInt(settori), ID_EVENTO);
+	}
+}
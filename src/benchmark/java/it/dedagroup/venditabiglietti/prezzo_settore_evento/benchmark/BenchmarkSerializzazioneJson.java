@@ -0,0 +1,55 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Serializzazione JSON di una {@code List<PrezzoSettoreEvento>}, come avviene nelle risposte degli
+ * endpoint di lista, con un {@link ObjectMapper} configurato come quello di Spring Boot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkSerializzazioneJson {
+
+	@Param({ "10", "100", "1000" })
+	public int dimensione;
+
+	private ObjectMapper mapper;
+	private List<PrezzoSettoreEvento> prezzi;
+
+	@Setup
+	public void prepara() {
+		mapper = Jackson2ObjectMapperBuilder.json().build();
+		prezzi = new ArrayList<>(dimensione);
+		for (int i = 0; i < dimensione; i++) {
+			prezzi.add(new PrezzoSettoreEvento(i + 1, 1 + i % 50, 1 + i / 50, 10 + (i % 50) * 0.5, false, 0));
+		}
+	}
+
+	@Benchmark
+	public byte[] writeValueAsBytes() throws Exception {
+		return mapper.writeValueAsBytes(prezzi);
+	}
+}
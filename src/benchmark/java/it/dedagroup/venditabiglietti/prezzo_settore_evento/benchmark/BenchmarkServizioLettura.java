@@ -0,0 +1,67 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.PaginaDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Metodi di lettura di {@code PrezzoSettoreEventoServiceImpl} su H2 popolato da {@link ContestoPrezziH2}.
+ * Evento, settore e id sono scelti a caso a ogni invocazione tra quelli esistenti.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkServizioLettura {
+
+	@State(Scope.Thread)
+	public static class Casuale {
+		final SplittableRandom random = new SplittableRandom(42);
+	}
+
+	@Benchmark
+	public PrezzoSettoreEvento findById(ContestoPrezziH2 contesto, Casuale casuale) throws Exception {
+		return contesto.service.findById(contesto.idDisponibili[casuale.random.nextInt(contesto.idDisponibili.length)]);
+	}
+
+	@Benchmark
+	public PrezzoSettoreEvento findPrezzoSettoreEventoById(ContestoPrezziH2 contesto, Casuale casuale) {
+		return contesto.service.findPrezzoSettoreEventoById(contesto.idDisponibili[casuale.random.nextInt(contesto.idDisponibili.length)]);
+	}
+
+	@Benchmark
+	public List<PrezzoSettoreEvento> findAllByIdEventoAndIsCancellatoFalse(ContestoPrezziH2 contesto, Casuale casuale) throws Exception {
+		return contesto.service.findAllByIdEventoAndIsCancellatoFalse(1 + casuale.random.nextInt(contesto.eventi));
+	}
+
+	@Benchmark
+	public List<PrezzoSettoreEvento> findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(ContestoPrezziH2 contesto, Casuale casuale) throws Exception {
+		return contesto.service.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(
+				1 + casuale.random.nextInt(contesto.eventi), 1 + casuale.random.nextInt(contesto.settoriPerEvento));
+	}
+
+	@Benchmark
+	public double getPrezzoAttivo(ContestoPrezziH2 contesto, Casuale casuale) throws Exception {
+		return contesto.service.getPrezzoAttivo(
+				1 + casuale.random.nextInt(contesto.eventi), 1 + casuale.random.nextInt(contesto.settoriPerEvento));
+	}
+
+	@Benchmark
+	public PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdEventoAndIsCancellatoFalse(ContestoPrezziH2 contesto, Casuale casuale) throws Exception {
+		return contesto.service.findPaginaByIdEventoAndIsCancellatoFalse(1 + casuale.random.nextInt(contesto.eventi), null, 100);
+	}
+}
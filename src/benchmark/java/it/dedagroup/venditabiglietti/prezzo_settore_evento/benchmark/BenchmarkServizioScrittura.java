@@ -0,0 +1,48 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Metodi di scrittura di {@code PrezzoSettoreEventoServiceImpl} su H2 popolato da {@link ContestoPrezziH2},
+ * compresa la pubblicazione dell'evento di modifica e l'invalidazione di cache e indice dopo il commit.
+ *
+ * Gli inserimenti usano eventi sempre nuovi, quindi la tabella cresce durante la misura.
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkServizioScrittura {
+
+	@State(Scope.Thread)
+	public static class Casuale {
+		final SplittableRandom random = new SplittableRandom(42);
+	}
+
+	@Benchmark
+	public PrezzoSettoreEvento aggiungiPrezzoSettoreEvento(ContestoPrezziH2 contesto) {
+		PrezzoSettoreEvento pse = new PrezzoSettoreEvento(0, 1, contesto.prossimoEvento.getAndIncrement(), 25.0, false, 0);
+		contesto.service.aggiungiPrezzoSettoreEvento(pse);
+		return pse;
+	}
+
+	@Benchmark
+	public void modificaPrezzoByIdSettoreAndIdEvento(ContestoPrezziH2 contesto, Casuale casuale) {
+		contesto.service.modificaPrezzoByIdSettoreAndIdEvento(10 + casuale.random.nextInt(100),
+				1 + casuale.random.nextInt(contesto.settoriPerEvento), 1 + casuale.random.nextInt(contesto.eventi));
+	}
+}
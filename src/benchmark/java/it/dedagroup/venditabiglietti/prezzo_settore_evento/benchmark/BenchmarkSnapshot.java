@@ -0,0 +1,115 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.Application;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot.ScrittoreSnapshot;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot.SnapshotPrezzi;
+
+/**
+ * Popolamento della tabella dei prezzi su H2 con {@code righe} prezzi: importazione dello snapshot binario
+ * con {@link SnapshotPrezzi} e, per confronto, esecuzione di uno script SQL con un INSERT per riga,
+ * come fa l'inizializzazione da {@code data.sql}. La tabella viene svuotata prima di ogni esecuzione.
+ * All'avvio vengono stampate le dimensioni dello snapshot e dello script.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BenchmarkSnapshot {
+
+	@Param({ "100000" })
+	public int righe;
+
+	private ConfigurableApplicationContext context;
+	private SnapshotPrezzi snapshot;
+	private JdbcTemplate jdbcTemplate;
+	private DataSource dataSource;
+	private byte[] datiSnapshot;
+	private ByteArrayResource script;
+
+	@Setup(Level.Trial)
+	public void avvia() throws IOException {
+		context = new SpringApplicationBuilder(Application.class)
+				.run("--spring.profiles.active=h2", "--spring.main.web-application-type=none",
+						"--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+						"--spring.flyway.locations=classpath:db/migration/{vendor}");
+		snapshot = context.getBean(SnapshotPrezzi.class);
+		jdbcTemplate = context.getBean(JdbcTemplate.class);
+		dataSource = context.getBean(DataSource.class);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		StringBuilder sql = new StringBuilder();
+		try (ScrittoreSnapshot scrittore = new ScrittoreSnapshot(out)) {
+			PrezzoSettoreEvento pse = new PrezzoSettoreEvento();
+			for (int i = 1; i <= righe; i++) {
+				pse.setId(i);
+				pse.setIdEvento(1 + (i - 1) / 50);
+				pse.setIdSettore(1 + (i - 1) % 50);
+				pse.setPrezzo(10 + pse.getIdSettore() * 0.5);
+				pse.setCancellato(false);
+				scrittore.scrivi(pse);
+				sql.append(String.format(Locale.ROOT,
+						"INSERT INTO prezzo_settore_evento (id, id_settore, id_evento, prezzo, is_cancellato) VALUES (%d, %d, %d, %.1f, FALSE);%n",
+						pse.getId(), pse.getIdSettore(), pse.getIdEvento(), pse.getPrezzo()));
+			}
+			scrittore.completa();
+		}
+		datiSnapshot = out.toByteArray();
+		script = new ByteArrayResource(sql.toString().getBytes(StandardCharsets.UTF_8));
+		System.out.printf("%n%d righe: snapshot %d byte, script SQL %d byte%n", righe, datiSnapshot.length, script.contentLength());
+	}
+
+	@Setup(Level.Invocation)
+	public void svuota() {
+		jdbcTemplate.update("DELETE FROM prezzo_settore_evento");
+	}
+
+	@TearDown(Level.Trial)
+	public void chiudi() {
+		context.close();
+	}
+
+	@Benchmark
+	public long importaSnapshot() throws IOException {
+		return snapshot.importa(new ByteArrayInputStream(datiSnapshot), false, 1000);
+	}
+
+	@Benchmark
+	public void scriptSql() throws SQLException {
+		try (Connection connection = dataSource.getConnection()) {
+			ScriptUtils.executeSqlScript(connection, script);
+		}
+	}
+}
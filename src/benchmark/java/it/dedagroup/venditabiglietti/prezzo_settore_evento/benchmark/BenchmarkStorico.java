@@ -0,0 +1,126 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.Application;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.VersionePrezzoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.storico.StoricoPrezzi;
+
+/**
+ * Ricerca del prezzo a un istante casuale nello storico su H2, con {@code coppie} coppie evento/settore
+ * di {@code versioniPerPrezzo} versioni ciascuna, una al secondo. Per confronto misura la lettura del prezzo
+ * corrente dalla tabella dei prezzi, come prima dello storico, e la ricerca che scorre tutte le versioni della coppia.
+ * Cache e indice dei prezzi sono disattivati, così che ogni lettura arrivi al database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BenchmarkStorico {
+
+	private static final long ID_EVENTO = 1;
+
+	@Param({ "20" })
+	public int coppie;
+
+	@Param({ "1000", "10000" })
+	public int versioniPerPrezzo;
+
+	private ConfigurableApplicationContext context;
+	private PrezzoSettoreEventoService service;
+	private StoricoPrezzi storico;
+	private Instant inizio;
+
+	@Setup(Level.Trial)
+	public void avvia() {
+		context = new SpringApplicationBuilder(Application.class)
+				.run("--spring.profiles.active=h2", "--spring.main.web-application-type=none",
+						"--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+						"--spring.flyway.locations=classpath:db/migration/{vendor}",
+						"--prezzo-settore-evento.cache.abilitata=false",
+						"--prezzo-settore-evento.indice.abilitato=false");
+		service = context.getBean(PrezzoSettoreEventoService.class);
+		storico = context.getBean(StoricoPrezzi.class);
+		JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+		// il classpath di test include i dati di prova delle migrazioni: si parte da tabelle vuote
+		jdbcTemplate.update("DELETE FROM prezzo_settore_evento");
+		jdbcTemplate.update("DELETE FROM storico_prezzo_settore_evento");
+
+		List<PrezzoSettoreEvento> prezzi = new ArrayList<>();
+		for (long idSettore = 1; idSettore <= coppie; idSettore++) {
+			prezzi.add(new PrezzoSettoreEvento(0, idSettore, ID_EVENTO, 10 + idSettore, false, 0));
+		}
+		// le versioni storiche precedono quelle registrate dall'inserimento dei prezzi correnti
+		inizio = Instant.now().minusSeconds(versioniPerPrezzo + 1L).truncatedTo(ChronoUnit.SECONDS);
+		List<Object[]> righe = new ArrayList<>(versioniPerPrezzo);
+		for (long idSettore = 1; idSettore <= coppie; idSettore++) {
+			righe.clear();
+			for (int v = 0; v < versioniPerPrezzo; v++) {
+				righe.add(new Object[] { ID_EVENTO, idSettore, LocalDateTime.ofInstant(inizio.plusSeconds(v), ZoneOffset.UTC),
+						10 + idSettore + v * 0.01, idSettore, v });
+			}
+			jdbcTemplate.batchUpdate("INSERT INTO storico_prezzo_settore_evento "
+					+ "(id_evento, id_settore, valido_da, prezzo, id_prezzo_settore_evento, version) VALUES (?, ?, ?, ?, ?, ?)", righe);
+		}
+		service.aggiungiPrezziSettoreEvento(prezzi);
+	}
+
+	@TearDown(Level.Trial)
+	public void chiudi() {
+		context.close();
+	}
+
+	@Benchmark
+	public VersionePrezzoDtoResponse prezzoAlMomento() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		return service.getPrezzoAlMomento(ID_EVENTO, 1 + random.nextInt(coppie), inizio.plusMillis(random.nextLong(versioniPerPrezzo * 1000L)));
+	}
+
+	@Benchmark
+	public double prezzoCorrente() {
+		return service.getPrezzoAttivo(ID_EVENTO, 1 + ThreadLocalRandom.current().nextInt(coppie));
+	}
+
+	/**
+	 * Riferimento: legge tutte le versioni della coppia e cerca l'ultima non successiva all'istante.
+	 */
+	@Benchmark
+	public VersionePrezzoDtoResponse scansioneStorico() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Instant istante = inizio.plusMillis(random.nextLong(versioniPerPrezzo * 1000L));
+		VersionePrezzoDtoResponse trovata = null;
+		for (VersionePrezzoDtoResponse versione : storico.getVersioni(ID_EVENTO, 1 + random.nextInt(coppie))) {
+			if (versione.getValidoDa().isAfter(istante)) break;
+			trovata = versione;
+		}
+		return trovata;
+	}
+}
@@ -0,0 +1,59 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Confronta l'esecuzione delle richieste su thread di piattaforma (pool di Tomcat) e su thread virtuali,
+ * eseguendo due volte {@link GeneratoreCarico} con lo stesso carico ad alta concorrenza.
+ *
+ * Come i benchmark JMH si compila solo con il profilo {@code benchmark}. Gli argomenti sono inoltrati al
+ * generatore e sovrascrivono il carico predefinito. Per verificare che nessun thread virtuale resti vincolato
+ * al carrier durante una chiamata bloccante si aggiunge {@code -Djdk.tracePinnedThreads=short} alla JVM:
+ *
+ * <pre>
+ * MAVEN_OPTS="-Djdk.tracePinnedThreads=short" mvn -Pbenchmark test-compile exec:java \
+ *     -Dexec.mainClass=it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark.BenchmarkThreadVirtuali \
+ *     -Dexec.args="durata=30"
+ * </pre>
+ */
+public class BenchmarkThreadVirtuali {
+
+	private static final List<String> CARICO = List.of("durata=30", "letture-evento=1500", "letture-id=1500",
+			"modifiche=100", "raffica=50", "picco-inizio=10", "picco-durata=10", "picco-fattore=3", "max-in-volo=20000");
+
+	public static void main(String[] args) throws Exception {
+		String[] modalita = { "piattaforma", "virtuali" };
+		for (String nome : modalita) {
+			List<String> argomenti = new ArrayList<>(CARICO);
+			argomenti.addAll(List.of(args));
+			argomenti.add("thread-virtuali=" + nome.equals("virtuali"));
+			argomenti.add("risultati=" + file(nome));
+			System.out.println("== Thread " + nome);
+			GeneratoreCarico.main(argomenti.toArray(String[]::new));
+		}
+
+		ObjectMapper mapper = new ObjectMapper();
+		JsonNode piattaforma = mapper.readTree(new File(file("piattaforma"))).get("endpoint");
+		JsonNode virtuali = mapper.readTree(new File(file("virtuali"))).get("endpoint");
+		System.out.printf("%n%-38s %-12s %9s %8s %9s %9s %9s%n", "Endpoint", "Thread", "req/s", "errori%", "p50 ms", "p99 ms", "p999 ms");
+		for (int i = 0; i < piattaforma.size(); i++) {
+			riga(piattaforma.get(i), "piattaforma");
+			riga(virtuali.get(i), "virtuali");
+		}
+	}
+
+	private static String file(String modalita) {
+		return "target/risultati-thread-" + modalita + ".json";
+	}
+
+	private static void riga(JsonNode endpoint, String modalita) {
+		System.out.printf("%-38s %-12s %9.1f %8.2f %9.2f %9.2f %9.2f%n", endpoint.get("endpoint").asText(), modalita,
+				endpoint.get("throughput").asDouble(), endpoint.get("tassoErrore").asDouble(),
+				endpoint.get("p50Ms").asDouble(), endpoint.get("p99Ms").asDouble(), endpoint.get("p999Ms").asDouble());
+	}
+}
@@ -0,0 +1,89 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.Application;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+/**
+ * Contesto applicativo condiviso dai benchmark del servizio: avvia l'applicazione senza server web
+ * sul profilo h2 e popola il database con {@code eventi} x {@code settoriPerEvento} prezzi disponibili,
+ * più un prezzo cancellato ogni dieci per simulare lo storico delle modifiche.
+ *
+ * Il parametro {@code letturaInMemoria} abilita insieme la cache e l'indice dei prezzi, così da
+ * misurare sia il percorso che arriva al database sia quello servito dalla memoria.
+ */
+@State(Scope.Benchmark)
+public class ContestoPrezziH2 {
+
+	@Param({ "1000" })
+	public int eventi;
+
+	@Param({ "50" })
+	public int settoriPerEvento;
+
+	@Param({ "false", "true" })
+	public boolean letturaInMemoria;
+
+	ConfigurableApplicationContext context;
+	PrezzoSettoreEventoService service;
+	long[] idDisponibili;
+
+	/**
+	 * Primo id evento libero, usato dai benchmark di scrittura per non violare il vincolo di unicità.
+	 */
+	final AtomicLong prossimoEvento = new AtomicLong();
+
+	@Setup(Level.Trial)
+	public void avvia() {
+		context = new SpringApplicationBuilder(Application.class)
+				.run("--spring.profiles.active=h2", "--spring.main.web-application-type=none",
+						"--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+						"--spring.flyway.locations=classpath:db/migration/{vendor}",
+						"--prezzo-settore-evento.cache.abilitata=" + letturaInMemoria,
+						"--prezzo-settore-evento.indice.abilitato=" + letturaInMemoria);
+		service = context.getBean(PrezzoSettoreEventoService.class);
+		// il classpath di test include i dati di prova delle migrazioni: si parte da una tabella vuota
+		context.getBean(JdbcTemplate.class).update("DELETE FROM prezzo_settore_evento");
+
+		List<PrezzoSettoreEvento> blocco = new ArrayList<>();
+		List<PrezzoSettoreEvento> disponibili = new ArrayList<>(eventi * settoriPerEvento);
+		for (long idEvento = 1; idEvento <= eventi; idEvento++) {
+			for (long idSettore = 1; idSettore <= settoriPerEvento; idSettore++) {
+				if (idSettore % 10 == 0) {
+					blocco.add(new PrezzoSettoreEvento(0, idSettore, idEvento, 9.5, true, 0));
+				}
+				PrezzoSettoreEvento pse = new PrezzoSettoreEvento(0, idSettore, idEvento, 10 + idSettore * 0.5, false, 0);
+				blocco.add(pse);
+				disponibili.add(pse);
+			}
+			if (blocco.size() >= 1000) {
+				service.aggiungiPrezziSettoreEvento(blocco);
+				blocco = new ArrayList<>();
+			}
+		}
+		if (!blocco.isEmpty()) {
+			service.aggiungiPrezziSettoreEvento(blocco);
+		}
+		idDisponibili = disponibili.stream().mapToLong(PrezzoSettoreEvento::getId).toArray();
+		prossimoEvento.set(eventi + 1L);
+	}
+
+	@TearDown(Level.Trial)
+	public void chiudi() {
+		context.close();
+	}
+}
@@ -0,0 +1,345 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.Application;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.PrezzoSettoreEventoDtoRequest;
+
+/**
+ * Generatore di carico HTTP che simula l'apertura delle vendite di un evento.
+ *
+ * Il carico segue un modello aperto: per ogni endpoint le richieste arrivano secondo un processo di Poisson
+ * con la frequenza configurata, indipendentemente dalla durata delle risposte. La latenza è misurata
+ * dall'istante in cui la richiesta avrebbe dovuto partire, così che i ritardi accumulati dal generatore
+ * o dal servizio sotto carico non vengano nascosti. Durante il picco la frequenza di letture e modifiche
+ * viene moltiplicata per {@code picco-fattore}.
+ *
+ * Endpoint e frequenze predefinite (richieste al secondo):
+ * <ul>
+ * <li>{@code lista-by-evento-is-cancellato-false}: 300</li>
+ * <li>{@code id/{id}}: 300</li>
+ * <li>{@code modifica-prezzo}: 30, inviate a raffiche di {@code raffica} richieste</li>
+ * <li>{@code elimina-by-evento}: 0.2, sugli ultimi eventi, esclusi dalle letture</li>
+ * </ul>
+ *
+ * Senza {@code url} l'applicazione viene avviata nello stesso processo con il profilo h2 su una porta casuale,
+ * con le richieste eseguite su thread virtuali se {@code thread-virtuali=true}.
+ * Al termine stampa per endpoint richieste, throughput, tasso di errore e percentili p50/p99/p999, e li
+ * scrive in JSON nel file {@code risultati} per il confronto tra versioni.
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java \
+ *     -Dexec.mainClass=it.dedagroup.venditabiglietti.prezzo_settore_evento.benchmark.GeneratoreCarico \
+ *     -Dexec.args="durata=60 letture-evento=500 picco-fattore=5 risultati=target/carico.json"
+ * </pre>
+ */
+public class GeneratoreCarico {
+
+	private static final ObjectMapper MAPPER = new ObjectMapper();
+
+	private static final Map<String, String> PREDEFINITI = new LinkedHashMap<>();
+	static {
+		PREDEFINITI.put("url", "");
+		PREDEFINITI.put("thread-virtuali", "false");
+		PREDEFINITI.put("eventi", "500");
+		PREDEFINITI.put("settori", "50");
+		PREDEFINITI.put("primo-evento", "1");
+		PREDEFINITI.put("durata", "60");
+		PREDEFINITI.put("letture-evento", "300");
+		PREDEFINITI.put("letture-id", "300");
+		PREDEFINITI.put("modifiche", "30");
+		PREDEFINITI.put("raffica", "20");
+		PREDEFINITI.put("eliminazioni", "0.2");
+		PREDEFINITI.put("picco-inizio", "20");
+		PREDEFINITI.put("picco-durata", "10");
+		PREDEFINITI.put("picco-fattore", "4");
+		PREDEFINITI.put("max-in-volo", "5000");
+		PREDEFINITI.put("seme", "42");
+		PREDEFINITI.put("risultati", "target/risultati-carico.json");
+	}
+
+	private final Map<String, String> configurazione;
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final Semaphore inVolo;
+	private final String base;
+	private long inizio;
+
+	private GeneratoreCarico(Map<String, String> configurazione, String base) {
+		this.configurazione = configurazione;
+		this.base = base;
+		this.inVolo = new Semaphore(intero("max-in-volo"));
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> configurazione = new LinkedHashMap<>(PREDEFINITI);
+		for (String arg : args) {
+			int uguale = arg.indexOf('=');
+			if (uguale < 0 || !PREDEFINITI.containsKey(arg.substring(0, uguale))) {
+				throw new IllegalArgumentException("Argomento non valido: " + arg + ", ammessi: " + PREDEFINITI.keySet());
+			}
+			configurazione.put(arg.substring(0, uguale), arg.substring(uguale + 1));
+		}
+
+		ConfigurableApplicationContext context = null;
+		String url = configurazione.get("url");
+		if (url.isEmpty()) {
+			context = new SpringApplicationBuilder(Application.class)
+					.run("--spring.profiles.active=h2", "--server.port=0", "--spring.jpa.show-sql=false", "--logging.level.root=WARN",
+							"--spring.flyway.locations=classpath:db/migration/{vendor}",
+							"--prezzo-settore-evento.thread-virtuali.abilitati=" + configurazione.get("thread-virtuali"));
+			context.getBean(JdbcTemplate.class).update("DELETE FROM prezzo_settore_evento");
+			url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+		}
+		try {
+			new GeneratoreCarico(configurazione, url + "/prezzi-settore-evento").esegui();
+		} finally {
+			if (context != null) context.close();
+		}
+	}
+
+	private void esegui() throws Exception {
+		long primoEvento = intero("primo-evento");
+		int eventi = intero("eventi");
+		int settori = intero("settori");
+		long[] id = popola(primoEvento, eventi, settori);
+		// l'ultimo decimo degli eventi è riservato alle eliminazioni, per non trasformare le letture in 404
+		int eventiLetti = Math.max(1, eventi - Math.max(1, eventi / 10));
+		AtomicLong prossimaEliminazione = new AtomicLong(primoEvento + eventi - 1);
+		long inizioPicco = TimeUnit.SECONDS.toNanos(intero("picco-inizio"));
+		long finePicco = inizioPicco + TimeUnit.SECONDS.toNanos(intero("picco-durata"));
+		double fattore = decimale("picco-fattore");
+		DoubleUnaryOperator picco = t -> t >= inizioPicco && t < finePicco ? fattore : 1;
+		SplittableRandom random = new SplittableRandom(intero("seme"));
+
+		List<Flusso> flussi = List.of(
+				new Flusso("lista-by-evento-is-cancellato-false", decimale("letture-evento"), 1, picco, random.split(), r ->
+						get("/lista-by-evento-is-cancellato-false/id-evento/" + (primoEvento + r.nextInt(eventiLetti)))),
+				new Flusso("id", decimale("letture-id"), 1, picco, random.split(), r ->
+						get("/id/" + id[r.nextInt(Math.min(id.length, eventiLetti * settori))])),
+				new Flusso("modifica-prezzo", decimale("modifiche"), intero("raffica"), picco, random.split(), r ->
+						post("/modifica-prezzo", richiesta(primoEvento + r.nextInt(eventiLetti), 1 + r.nextInt(settori), 10 + r.nextInt(90)))),
+				new Flusso("elimina-by-evento", decimale("eliminazioni"), 1, t -> 1, random.split(), r ->
+						post("/elimina-by-evento/id-evento/" + Math.max(primoEvento + eventiLetti, prossimaEliminazione.getAndDecrement()), null)));
+
+		long durata = TimeUnit.SECONDS.toNanos(intero("durata"));
+		System.out.printf("Carico su %s per %d s, picco x%.1f da %d s per %d s%n", base, intero("durata"), fattore,
+				intero("picco-inizio"), intero("picco-durata"));
+		inizio = System.nanoTime();
+		List<Thread> generatori = new ArrayList<>();
+		for (Flusso flusso : flussi) {
+			Thread generatore = new Thread(() -> genera(flusso, durata), "carico-" + flusso.nome);
+			generatore.start();
+			generatori.add(generatore);
+		}
+		for (Thread generatore : generatori) {
+			generatore.join();
+		}
+		// attesa delle risposte ancora in volo
+		inVolo.tryAcquire(intero("max-in-volo"), 60, TimeUnit.SECONDS);
+		double secondi = (System.nanoTime() - inizio) / 1e9;
+		riporta(flussi, secondi);
+	}
+
+	/**
+	 * Invia le richieste di un flusso agli istanti di arrivo previsti fino alla fine della durata.
+	 * Gli intertempi sono esponenziali con media 1/frequenza; se il generatore è in ritardo le richieste
+	 * partono subito, ma la latenza resta misurata dall'istante previsto.
+	 */
+	private void genera(Flusso flusso, long durata) {
+		if (flusso.frequenza <= 0) return;
+		double previsto = 0;
+		while (true) {
+			double frequenza = flusso.frequenza / flusso.raffica * flusso.picco.applyAsDouble(previsto);
+			previsto += -Math.log(1 - flusso.random.nextDouble()) / frequenza * 1e9;
+			if (previsto >= durata) return;
+			long attesa = inizio + (long) previsto - System.nanoTime();
+			if (attesa > 0) LockSupport.parkNanos(attesa);
+			long istantePrevisto = inizio + (long) previsto;
+			for (int i = 0; i < flusso.raffica; i++) {
+				invia(flusso, istantePrevisto);
+			}
+		}
+	}
+
+	private void invia(Flusso flusso, long istantePrevisto) {
+		if (!inVolo.tryAcquire()) {
+			flusso.scartate.incrementAndGet();
+			return;
+		}
+		HttpRequest request = flusso.richiesta.apply(flusso.random).get();
+		client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, errore) -> {
+			long latenza = System.nanoTime() - istantePrevisto;
+			inVolo.release();
+			flusso.registra(latenza, errore != null ? -1 : response.statusCode());
+		});
+	}
+
+	private long[] popola(long primoEvento, int eventi, int settori) throws Exception {
+		List<Long> id = new ArrayList<>(eventi * settori);
+		List<PrezzoSettoreEventoDtoRequest> lista = new ArrayList<>();
+		for (long idEvento = primoEvento; idEvento < primoEvento + eventi; idEvento++) {
+			for (long idSettore = 1; idSettore <= settori; idSettore++) {
+				lista.add(richiesta(idEvento, idSettore, 10 + idSettore % 90));
+				if (lista.size() == 1000) {
+					inserisci(lista, id);
+				}
+			}
+		}
+		if (!lista.isEmpty()) inserisci(lista, id);
+		System.out.printf("Inseriti %,d prezzi per %,d eventi%n", id.size(), eventi);
+		return id.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private void inserisci(List<PrezzoSettoreEventoDtoRequest> lista, List<Long> id) throws Exception {
+		HttpResponse<String> response = client.send(post("/add-batch", lista).get(), HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 201) {
+			throw new IllegalStateException("Popolamento fallito: " + response.statusCode() + " " + response.body());
+		}
+		for (JsonNode nodo : MAPPER.readTree(response.body()).get("id")) {
+			id.add(nodo.asLong());
+		}
+		lista.clear();
+	}
+
+	private void riporta(List<Flusso> flussi, double secondi) throws Exception {
+		Map<String, Object> risultati = new LinkedHashMap<>();
+		risultati.put("configurazione", configurazione);
+		risultati.put("durataSecondi", secondi);
+		List<Map<String, Object>> endpoint = new ArrayList<>();
+		System.out.printf("%-38s %9s %9s %8s %7s %7s %9s %9s %9s %9s%n",
+				"Endpoint", "richieste", "req/s", "errori%", "4xx", "5xx", "p50 ms", "p99 ms", "p999 ms", "max ms");
+		for (Flusso flusso : flussi) {
+			Map<String, Object> riga = flusso.riepilogo(secondi);
+			endpoint.add(riga);
+			System.out.printf("%-38s %9d %9.1f %8.2f %7d %7d %9.2f %9.2f %9.2f %9.2f%n", flusso.nome,
+					riga.get("richieste"), riga.get("throughput"), riga.get("tassoErrore"), riga.get("risposte4xx"), riga.get("risposte5xx"),
+					riga.get("p50Ms"), riga.get("p99Ms"), riga.get("p999Ms"), riga.get("maxMs"));
+		}
+		risultati.put("endpoint", endpoint);
+		File file = new File(configurazione.get("risultati"));
+		if (file.getParentFile() != null) file.getParentFile().mkdirs();
+		MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, risultati);
+		System.out.println("Risultati salvati in " + file.getAbsolutePath());
+	}
+
+	private Supplier<HttpRequest> get(String percorso) {
+		return () -> HttpRequest.newBuilder(URI.create(base + percorso)).timeout(Duration.ofSeconds(30)).GET().build();
+	}
+
+	private Supplier<HttpRequest> post(String percorso, Object corpo) {
+		return () -> {
+			try {
+				HttpRequest.BodyPublisher publisher = corpo == null ? HttpRequest.BodyPublishers.noBody()
+						: HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(corpo));
+				return HttpRequest.newBuilder(URI.create(base + percorso)).timeout(Duration.ofSeconds(30))
+						.header("Content-Type", "application/json").POST(publisher).build();
+			} catch (Exception e) {
+				throw new IllegalStateException(e);
+			}
+		};
+	}
+
+	private static PrezzoSettoreEventoDtoRequest richiesta(long idEvento, long idSettore, double prezzo) {
+		PrezzoSettoreEventoDtoRequest dto = new PrezzoSettoreEventoDtoRequest();
+		dto.setIdEvento(idEvento);
+		dto.setIdSettore(idSettore);
+		dto.setPrezzo(prezzo);
+		return dto;
+	}
+
+	private int intero(String chiave) {
+		return Integer.parseInt(configurazione.get(chiave));
+	}
+
+	private double decimale(String chiave) {
+		return Double.parseDouble(configurazione.get(chiave));
+	}
+
+	/**
+	 * Flusso di richieste verso un endpoint, con i relativi contatori e le latenze registrate.
+	 */
+	private static class Flusso {
+
+		final String nome;
+		final double frequenza;
+		final int raffica;
+		final DoubleUnaryOperator picco;
+		final SplittableRandom random;
+		final Function<SplittableRandom, Supplier<HttpRequest>> richiesta;
+		final AtomicLong scartate = new AtomicLong();
+		private final Map<String, Long> esiti = new HashMap<>();
+		private long[] latenze = new long[1024];
+		private int numeroLatenze;
+
+		Flusso(String nome, double frequenza, int raffica, DoubleUnaryOperator picco, SplittableRandom random,
+				Function<SplittableRandom, Supplier<HttpRequest>> richiesta) {
+			this.nome = nome;
+			this.frequenza = frequenza;
+			this.raffica = Math.max(1, raffica);
+			this.picco = picco;
+			this.random = random;
+			this.richiesta = richiesta;
+		}
+
+		synchronized void registra(long latenza, int stato) {
+			String esito = stato < 0 ? "rete" : stato >= 500 ? "5xx" : stato >= 400 ? "4xx" : "ok";
+			esiti.merge(esito, 1L, Long::sum);
+			if (numeroLatenze == latenze.length) latenze = Arrays.copyOf(latenze, latenze.length * 2);
+			latenze[numeroLatenze++] = latenza;
+		}
+
+		synchronized Map<String, Object> riepilogo(double secondi) {
+			long[] ordinate = Arrays.copyOf(latenze, numeroLatenze);
+			Arrays.sort(ordinate);
+			long richieste = numeroLatenze + scartate.get();
+			long errori = richieste - esiti.getOrDefault("ok", 0L);
+			Map<String, Object> riga = new LinkedHashMap<>();
+			riga.put("endpoint", nome);
+			riga.put("richieste", richieste);
+			riga.put("throughput", numeroLatenze / secondi);
+			riga.put("tassoErrore", richieste == 0 ? 0.0 : 100.0 * errori / richieste);
+			riga.put("risposteOk", esiti.getOrDefault("ok", 0L));
+			riga.put("risposte4xx", esiti.getOrDefault("4xx", 0L));
+			riga.put("risposte5xx", esiti.getOrDefault("5xx", 0L));
+			riga.put("erroriRete", esiti.getOrDefault("rete", 0L));
+			riga.put("scartate", scartate.get());
+			riga.put("p50Ms", percentile(ordinate, 0.50));
+			riga.put("p99Ms", percentile(ordinate, 0.99));
+			riga.put("p999Ms", percentile(ordinate, 0.999));
+			riga.put("maxMs", ordinate.length == 0 ? 0.0 : ordinate[ordinate.length - 1] / 1e6);
+			return riga;
+		}
+
+		private static double percentile(long[] ordinate, double quantile) {
+			if (ordinate.length == 0) return 0.0;
+			int indice = (int) Math.ceil(quantile * ordinate.length) - 1;
+			return ordinate[Math.max(0, indice)] / 1e6;
+		}
+	}
+}
@@ -0,0 +1,55 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.index;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Report dell'occupazione di memoria dell'indice dei prezzi disponibili, confrontata con quella
+ * della lista di entità {@link PrezzoSettoreEvento} da cui viene costruito.
+ *
+ * Le dimensioni sono misurate con JOL percorrendo il grafo degli oggetti. Si esegue come
+ * applicazione a sé stante, indicando facoltativamente numero di eventi e settori per evento:
+ *
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java \
+ *     -Dexec.mainClass=it.dedagroup.venditabiglietti.prezzo_settore_evento.index.ReportOccupazioneIndicePrezzi \
+ *     -Dexec.args="10000 100"
+ * </pre>
+ */
+public class ReportOccupazioneIndicePrezzi {
+
+	public static void main(String[] args) {
+		int eventi = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int settoriPerEvento = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		long righe = (long) eventi * settoriPerEvento;
+
+		List<PrezzoSettoreEvento> prezzi = new ArrayList<>((int) righe);
+		long id = 1;
+		for (long idEvento = 1; idEvento <= eventi; idEvento++) {
+			for (long idSettore = 1; idSettore <= settoriPerEvento; idSettore++) {
+				prezzi.add(new PrezzoSettoreEvento(id++, idSettore, idEvento, 10 + idSettore * 0.5, false, 0));
+			}
+		}
+		MappaEventi indice = IndicePrezziAttivi.costruisci(prezzi);
+
+		long byteEntita = GraphLayout.parseInstance(prezzi).totalSize();
+		long byteIndice = GraphLayout.parseInstance(indice).totalSize();
+		double perMilione = 1_000_000.0 / righe;
+
+		System.out.printf("Righe: %,d (%,d eventi x %,d settori)%n", righe, eventi, settoriPerEvento);
+		System.out.printf("%-28s %16s %16s %12s%n", "Struttura", "byte totali", "byte/1M righe", "byte/riga");
+		riga("Lista di entita", byteEntita, perMilione, righe);
+		riga("Indice a chiavi primitive", byteIndice, perMilione, righe);
+		System.out.printf("Stima interna dell'indice: %,d byte%n", indice.byteOccupati());
+		System.out.printf("Rapporto entita/indice: %.1fx%n", (double) byteEntita / byteIndice);
+	}
+
+	private static void riga(String nome, long byteTotali, double perMilione, long righe) {
+		System.out.printf("%-28s %,16d %,16d %,12.1f%n", nome, byteTotali, Math.round(byteTotali * perMilione),
+				(double) byteTotali / righe);
+	}
+}
@@ -2,8 +2,38 @@ package it.dedagroup.venditabiglietti.prezzo_settore_evento;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.AvvioProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.CacheHttpProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.CachePrezziProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.GrpcProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.IndicePrezziProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.JournalProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.LetturaReattivaProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.ProgrammazioneProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.ScritturaDifferitaProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.SnapshotProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.ThreadVirtualiProperties;
+
+/**
+ * Le classi di configurazione delle proprietà sono elencate esplicitamente invece di essere cercate nel classpath
+ * all'avvio; una nuova classe {@code @ConfigurationProperties} va aggiunta all'elenco.
+ */
 @SpringBootApplication
+@EnableConfigurationProperties({
+		AvvioProperties.class,
+		CacheHttpProperties.class,
+		CachePrezziProperties.class,
+		GrpcProperties.class,
+		IndicePrezziProperties.class,
+		JournalProperties.class,
+		LetturaReattivaProperties.class,
+		ProgrammazioneProperties.class,
+		ScritturaDifferitaProperties.class,
+		SnapshotProperties.class,
+		ThreadVirtualiProperties.class
+})
 public class Application {
 
 	public static void main(String[] args) {
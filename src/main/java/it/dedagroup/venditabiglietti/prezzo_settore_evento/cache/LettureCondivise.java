@@ -0,0 +1,125 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Letture condivise: le letture concorrenti della stessa chiave condividono un'unica esecuzione del loader
+ * e il suo risultato, o la sua eccezione, invece di eseguire ciascuna la stessa query.
+ *
+ * La prima lettura di una chiave registra una {@link CompletableFuture} tra le letture in corso con
+ * {@code putIfAbsent} ed esegue il loader nel proprio thread; le letture che trovano la chiave già registrata
+ * ne attendono il completamento. Conclusa la lettura, la voce viene rimossa, solo se è ancora la stessa, prima di
+ * consegnare il risultato: il risultato è condiviso solo da letture concorrenti, mai da quelle successive. Per ogni
+ * chiave c'è al più una lettura in corso, senza lock oltre a quelli della {@link ConcurrentHashMap}.
+ *
+ * Dopo una scrittura, {@link #scollega}, {@link #scollegaSe} e {@link #scollegaTutte} rimuovono le letture in corso interessate:
+ * chi arriva dopo ne avvia una nuova invece di attendere un risultato letto prima della scrittura.
+ *
+ * Le letture risparmiate sono contate da {@value #RISPARMIATE}, quelle eseguite da {@value #ESEGUITE},
+ * entrambe con il tag {@code lettura}.
+ *
+ * @param <K> Il tipo della chiave.
+ * @param <V> Il tipo del risultato, condiviso tra i thread e da non modificare.
+ */
+public class LettureCondivise<K, V> {
+
+	public static final String RISPARMIATE = "prezzi.letture.condivise.risparmiate";
+	public static final String ESEGUITE = "prezzi.letture.condivise.eseguite";
+
+	private final Map<K, CompletableFuture<V>> inCorso = new ConcurrentHashMap<>();
+	private final Counter eseguite;
+	private final Counter risparmiate;
+
+	/**
+	 * @param nome Il nome della lettura, usato come tag delle metriche.
+	 * @param registry Il registro delle metriche.
+	 */
+	public LettureCondivise(String nome, MeterRegistry registry) {
+		this.eseguite = Counter.builder(ESEGUITE)
+				.description("Letture eseguite dal loader perché nessuna lettura della stessa chiave era in corso")
+				.tag("lettura", nome)
+				.register(registry);
+		this.risparmiate = Counter.builder(RISPARMIATE)
+				.description("Letture servite dal risultato di una lettura della stessa chiave già in corso")
+				.tag("lettura", nome)
+				.register(registry);
+		Gauge.builder("prezzi.letture.condivise.in.corso", inCorso, Map::size)
+				.description("Chiavi con una lettura in corso")
+				.tag("lettura", nome)
+				.register(registry);
+	}
+
+	/**
+	 * Esegue il loader, oppure attende la lettura della stessa chiave già in corso e ne restituisce il risultato.
+	 *
+	 * @param chiave La chiave letta.
+	 * @param loader La funzione che esegue la lettura; può restituire {@code null}.
+	 * @return Il risultato del loader.
+	 */
+	public V leggi(K chiave, Supplier<V> loader) {
+		CompletableFuture<V> esistente = inCorso.get(chiave);
+		if (esistente == null) {
+			CompletableFuture<V> mia = new CompletableFuture<>();
+			esistente = inCorso.putIfAbsent(chiave, mia);
+			if (esistente == null) return esegui(chiave, mia, loader);
+		}
+		risparmiate.increment();
+		try {
+			return esistente.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException r) throw r;
+			if (e.getCause() instanceof Error r) throw r;
+			throw e;
+		}
+	}
+
+	private V esegui(K chiave, CompletableFuture<V> mia, Supplier<V> loader) {
+		eseguite.increment();
+		V valore;
+		try {
+			valore = loader.get();
+		} catch (RuntimeException | Error e) {
+			inCorso.remove(chiave, mia);
+			mia.completeExceptionally(e);
+			throw e;
+		}
+		// rimossa prima del completamento: chi arriva a lettura conclusa ne avvia una nuova invece di riusarne il risultato
+		inCorso.remove(chiave, mia);
+		mia.complete(valore);
+		return valore;
+	}
+
+	/**
+	 * Separa dalle nuove letture quella in corso per la chiave, che resta condivisa solo da chi la sta già attendendo.
+	 *
+	 * @param chiave La chiave modificata.
+	 */
+	public void scollega(K chiave) {
+		inCorso.remove(chiave);
+	}
+
+	/**
+	 * Separa dalle nuove letture quelle in corso per le chiavi che soddisfano il filtro.
+	 *
+	 * @param filtro Il filtro delle chiavi interessate dalla modifica.
+	 */
+	public void scollegaSe(Predicate<? super K> filtro) {
+		inCorso.keySet().removeIf(filtro);
+	}
+
+	/**
+	 * Separa dalle nuove letture tutte quelle in corso.
+	 */
+	public void scollegaTutte() {
+		inCorso.clear();
+	}
+}
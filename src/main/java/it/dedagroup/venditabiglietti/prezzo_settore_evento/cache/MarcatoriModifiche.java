@@ -0,0 +1,94 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.CacheHttpProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+
+/**
+ * Marcatori di modifica dei prezzi settore evento, da cui si ricavano gli ETag degli endpoint di lettura
+ * senza leggere i prezzi né serializzare la risposta.
+ *
+ * Ogni marcatore è un contatore incrementato alla ricezione di un {@link PrezziEventoModificatiEvent},
+ * dopo il commit della transazione che lo ha pubblicato:
+ * <ul>
+ * <li>per evento, in un array di dimensione fissa indicizzato dall'id evento: eventi diversi possono condividere
+ * un contatore, e una modifica a uno dei due cambia l'ETag anche dell'altro senza renderlo mai errato;</li>
+ * <li>per le modifiche per settore, che possono riguardare qualunque evento;</li>
+ * <li>globale, incrementato a ogni modifica, per le liste per settore e di tutti i prezzi.</li>
+ * </ul>
+ *
+ * Il marcatore va letto prima dei prezzi: una modifica che avviene tra le due letture cambia il marcatore,
+ * quindi la risposta non potrà essere riconvalidata. Gli ETag contengono l'istante di avvio, così che
+ * i contatori ripartiti da zero dopo un riavvio non ne riproducano di già emessi.
+ *
+ * Come la {@link PrezziEventoCache}, i marcatori vedono solo le scritture eseguite da questa istanza: le modifiche
+ * eseguite da altre istanze, dalle modifiche programmate di un altro nodo o direttamente sul database non cambiano
+ * gli ETag. Per questo gli ETag contengono anche il periodo corrente, lungo
+ * {@link CacheHttpProperties#getScadenza()}: un ETag non viene riconvalidato oltre la fine del suo periodo,
+ * quindi una risposta resta obsoleta al più per la durata del periodo, come una voce della cache.
+ */
+@Component
+public class MarcatoriModifiche {
+
+	private static final int CONTATORI_EVENTO = 4096;
+
+	private final String avvio = Long.toString(System.currentTimeMillis(), 36);
+	private final AtomicLongArray perEvento = new AtomicLongArray(CONTATORI_EVENTO);
+	private final AtomicLong perSettore = new AtomicLong();
+	private final AtomicLong globale = new AtomicLong();
+
+	@Autowired
+	private CacheHttpProperties cacheHttp;
+
+	/**
+	 * Aggiorna i marcatori interessati da una modifica, dopo il commit della transazione di scrittura
+	 * e dopo l'invalidazione della {@link PrezziEventoCache} e dell'indice dei prezzi disponibili.
+	 *
+	 * @param event L'evento che descrive l'ambito della modifica.
+	 */
+	@Order(Ordered.LOWEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPrezziModificati(PrezziEventoModificatiEvent event) {
+		if (event.getIdEvento() != null) {
+			perEvento.incrementAndGet(indice(event.getIdEvento()));
+		} else {
+			perSettore.incrementAndGet();
+		}
+		globale.incrementAndGet();
+	}
+
+	/**
+	 * Restituisce l'ETag dei dati di un evento, valido per tutte le letture circoscritte all'evento.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @return L'ETag, senza virgolette.
+	 */
+	public String etagEvento(long idEvento) {
+		return "e" + avvio + "-" + periodo() + "-" + perSettore.get() + "-" + perEvento.get(indice(idEvento));
+	}
+
+	/**
+	 * Restituisce l'ETag di tutti i prezzi, valido per le letture non circoscritte a un evento.
+	 *
+	 * @return L'ETag, senza virgolette.
+	 */
+	public String etagGlobale() {
+		return "g" + avvio + "-" + periodo() + "-" + globale.get();
+	}
+
+	private String periodo() {
+		return Long.toString(System.currentTimeMillis() / Math.max(1, cacheHttp.getScadenza().toMillis()), 36);
+	}
+
+	private static int indice(long idEvento) {
+		return Long.hashCode(idEvento) & (CONTATORI_EVENTO - 1);
+	}
+}
@@ -0,0 +1,314 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.CachePrezziProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.StatisticheCacheDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Cache in memoria, limitata per dimensione e tempo di vita, dei prezzi settore evento.
+ *
+ * Mantiene due cache Caffeine: i prezzi disponibili raggruppati per id evento e i singoli
+ * prezzi settore evento per id. Le voci vengono invalidate alla ricezione di un
+ * {@link PrezziEventoModificatiEvent}, dopo il commit della transazione che lo ha pubblicato.
+ *
+ * Un contatore di generazione, incrementato a ogni invalidazione, impedisce che un caricamento
+ * iniziato prima del commit lasci in cache un valore non più aggiornato.
+ *
+ * I caricamenti passano da {@link LettureCondivise}, anche con la cache disabilitata: le richieste concorrenti
+ * della stessa chiave, ad esempio all'apertura delle vendite di un evento, eseguono una sola query e ne condividono
+ * il risultato. Dallo stesso strato passano le letture del servizio che non vengono memorizzate: i prezzi disponibili
+ * per evento e settore con la cache disabilitata, i prezzi per settore e quelli di una lista di eventi.
+ * Le invalidazioni separano dalle nuove richieste le letture in corso delle chiavi interessate,
+ * così che dopo una scrittura nessuna lettura riceva il risultato di una query iniziata prima del commit.
+ *
+ * La cache conserva copie dei prezzi fatte al caricamento, non le istanze lette dal repository, e ogni lettura
+ * riceve nuove copie: un chiamante che modifica un prezzo restituito, ad esempio per cancellarlo, non altera
+ * quello in cache né quello ricevuto dalle altre richieste.
+ *
+ * @see CachePrezziProperties
+ */
+@Component
+public class PrezziEventoCache {
+
+	static final String CACHE_ATTIVI_PER_EVENTO = "prezzi-attivi-per-evento";
+	static final String CACHE_PER_ID = "prezzo-settore-evento-per-id";
+	static final String LETTURE_ATTIVI_PER_EVENTO_SETTORE = "prezzi-attivi-per-evento-settore";
+	static final String LETTURE_PER_SETTORE = "prezzi-per-settore";
+	static final String LETTURE_ATTIVI_PER_SETTORE = "prezzi-attivi-per-settore";
+	static final String LETTURE_PER_EVENTI = "prezzi-per-eventi";
+
+	private final boolean abilitata;
+	private final Cache<Long, List<PrezzoSettoreEvento>> attiviPerEvento;
+	private final Cache<Long, PrezzoSettoreEvento> perId;
+	private final LettureCondivise<Long, List<PrezzoSettoreEvento>> caricamentiAttivi;
+	private final LettureCondivise<Long, PrezzoSettoreEvento> caricamentiPerId;
+	private final LettureCondivise<EventoSettore, List<PrezzoSettoreEvento>> lettureAttiviPerEventoSettore;
+	private final LettureCondivise<Long, List<PrezzoSettoreEvento>> letturePerSettore;
+	private final LettureCondivise<Long, List<PrezzoSettoreEvento>> lettureAttiviPerSettore;
+	private final LettureCondivise<List<Long>, List<PrezzoSettoreEvento>> letturePerEventi;
+	private final AtomicLong generazione = new AtomicLong();
+
+	public PrezziEventoCache(CachePrezziProperties properties, MeterRegistry registry) {
+		this.abilitata = properties.isAbilitata();
+		this.attiviPerEvento = Caffeine.newBuilder()
+				.maximumSize(properties.getDimensioneMassima())
+				.expireAfterWrite(properties.getScadenza())
+				.recordStats()
+				.build();
+		this.perId = Caffeine.newBuilder()
+				.maximumSize(properties.getDimensioneMassima())
+				.expireAfterWrite(properties.getScadenza())
+				.recordStats()
+				.build();
+		this.caricamentiAttivi = new LettureCondivise<>(CACHE_ATTIVI_PER_EVENTO, registry);
+		this.caricamentiPerId = new LettureCondivise<>(CACHE_PER_ID, registry);
+		this.lettureAttiviPerEventoSettore = new LettureCondivise<>(LETTURE_ATTIVI_PER_EVENTO_SETTORE, registry);
+		this.letturePerSettore = new LettureCondivise<>(LETTURE_PER_SETTORE, registry);
+		this.lettureAttiviPerSettore = new LettureCondivise<>(LETTURE_ATTIVI_PER_SETTORE, registry);
+		this.letturePerEventi = new LettureCondivise<>(LETTURE_PER_EVENTI, registry);
+	}
+
+	/**
+	 * Chiave delle letture dei prezzi disponibili per evento e settore.
+	 */
+	private record EventoSettore(long idEvento, long idSettore) {
+	}
+
+	/**
+	 * Restituisce i prezzi disponibili di un evento solo se sono già in cache, senza caricarli.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @return La lista non modificabile delle copie dei prezzi disponibili, oppure {@code null} se non è in cache.
+	 */
+	public List<PrezzoSettoreEvento> getAttiviByEventoSePresenti(long idEvento) {
+		return abilitata ? copie(attiviPerEvento.getIfPresent(idEvento)) : null;
+	}
+
+	/**
+	 * Restituisce il prezzo disponibile di un settore solo se i prezzi dell'evento sono già in cache,
+	 * senza caricarli e senza copiarli.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @return Il prezzo, oppure {@link Double#NaN} se l'evento non è in cache o non ha prezzi disponibili per il settore.
+	 */
+	public double getPrezzoSePresente(long idEvento, long idSettore) {
+		List<PrezzoSettoreEvento> attivi = abilitata ? attiviPerEvento.getIfPresent(idEvento) : null;
+		if (attivi != null) {
+			for (PrezzoSettoreEvento pse : attivi) {
+				if (pse.getIdSettore() == idSettore) return pse.getPrezzo();
+			}
+		}
+		return Double.NaN;
+	}
+
+	/**
+	 * Restituisce i prezzi disponibili di un evento, caricandoli tramite il loader in caso di miss.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param loader La funzione che legge i prezzi dal repository; può restituire {@code null}.
+	 * @return La lista non modificabile delle copie dei prezzi disponibili, oppure {@code null} se il loader non ne ha trovati.
+	 */
+	public List<PrezzoSettoreEvento> getAttiviByEvento(long idEvento, Supplier<List<PrezzoSettoreEvento>> loader) {
+		Supplier<List<PrezzoSettoreEvento>> copiato = () -> copie(loader.get());
+		if (!abilitata) return copie(caricamentiAttivi.leggi(idEvento, copiato));
+		return copie(leggi(attiviPerEvento, caricamentiAttivi, idEvento, copiato));
+	}
+
+	/**
+	 * Restituisce un prezzo settore evento per id, caricandolo tramite il loader in caso di miss.
+	 *
+	 * @param id L'id del prezzo settore evento.
+	 * @param loader La funzione che legge il prezzo dal repository; può restituire {@code null}.
+	 * @return Una copia del prezzo settore evento, oppure {@code null} se il loader non lo ha trovato.
+	 */
+	public PrezzoSettoreEvento getById(long id, Supplier<PrezzoSettoreEvento> loader) {
+		Supplier<PrezzoSettoreEvento> copiato = () -> copia(loader.get());
+		if (!abilitata) return copia(caricamentiPerId.leggi(id, copiato));
+		return copia(leggi(perId, caricamentiPerId, id, copiato));
+	}
+
+	/**
+	 * Legge i prezzi disponibili di un evento e di un settore senza memorizzarli, condividendo la lettura
+	 * con le richieste concorrenti della stessa coppia.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @param loader La funzione che legge i prezzi dal repository; può restituire {@code null}.
+	 * @return La lista non modificabile delle copie dei prezzi, oppure {@code null} se il loader non ne ha trovati.
+	 */
+	public List<PrezzoSettoreEvento> leggiAttiviByEventoESettore(long idEvento, long idSettore, Supplier<List<PrezzoSettoreEvento>> loader) {
+		return copie(lettureAttiviPerEventoSettore.leggi(new EventoSettore(idEvento, idSettore), loader));
+	}
+
+	/**
+	 * Legge tutti i prezzi di un settore senza memorizzarli, condividendo la lettura con le richieste concorrenti.
+	 *
+	 * @param idSettore L'id del settore.
+	 * @param loader La funzione che legge i prezzi dal repository; può restituire {@code null}.
+	 * @return La lista non modificabile delle copie dei prezzi, oppure {@code null} se il loader non ne ha trovati.
+	 */
+	public List<PrezzoSettoreEvento> leggiByIdSettore(long idSettore, Supplier<List<PrezzoSettoreEvento>> loader) {
+		return copie(letturePerSettore.leggi(idSettore, loader));
+	}
+
+	/**
+	 * Legge i prezzi disponibili di un settore senza memorizzarli, condividendo la lettura con le richieste concorrenti.
+	 *
+	 * @param idSettore L'id del settore.
+	 * @param loader La funzione che legge i prezzi dal repository; può restituire {@code null}.
+	 * @return La lista non modificabile delle copie dei prezzi, oppure {@code null} se il loader non ne ha trovati.
+	 */
+	public List<PrezzoSettoreEvento> leggiAttiviByIdSettore(long idSettore, Supplier<List<PrezzoSettoreEvento>> loader) {
+		return copie(lettureAttiviPerSettore.leggi(idSettore, loader));
+	}
+
+	/**
+	 * Legge i prezzi di una lista di eventi senza memorizzarli, condividendo la lettura con le richieste
+	 * concorrenti della stessa lista, nello stesso ordine.
+	 *
+	 * @param idEventi Gli id degli eventi.
+	 * @param loader La funzione che legge i prezzi dal repository.
+	 * @return La lista non modificabile delle copie dei prezzi.
+	 */
+	public List<PrezzoSettoreEvento> leggiByIdsEvento(List<Long> idEventi, Supplier<List<PrezzoSettoreEvento>> loader) {
+		return copie(letturePerEventi.leggi(Collections.unmodifiableList(new ArrayList<>(idEventi)), loader));
+	}
+
+	private static PrezzoSettoreEvento copia(PrezzoSettoreEvento pse) {
+		return pse == null ? null : pse.copia();
+	}
+
+	private static List<PrezzoSettoreEvento> copie(List<PrezzoSettoreEvento> lista) {
+		return lista == null ? null : lista.stream().map(PrezzoSettoreEvento::copia).toList();
+	}
+
+	/**
+	 * Il caricamento avviene fuori dai lock di Caffeine: con {@code cache.get(chiave, loader)} un loader
+	 * in attesa di una connessione bloccherebbe le invalidazioni della stessa chiave, eseguite dopo il
+	 * commit da thread che quella connessione la stanno ancora occupando. I miss concorrenti della stessa
+	 * chiave attendono invece il caricamento condiviso, che è l'unico a scrivere in cache.
+	 */
+	private <V> V leggi(Cache<Long, V> cache, LettureCondivise<Long, V> caricamenti, long chiave, Supplier<V> loader) {
+		V valore = cache.getIfPresent(chiave);
+		if (valore != null) return valore;
+		return caricamenti.leggi(chiave, () -> {
+			long generazioneLettura = generazione.get();
+			V caricato = loader.get();
+			if (caricato != null) {
+				cache.put(chiave, caricato);
+				if (generazione.get() != generazioneLettura) {
+					cache.asMap().remove(chiave, caricato);
+				}
+			}
+			return caricato;
+		});
+	}
+
+	/**
+	 * Invalida le voci interessate da una modifica, dopo il commit della transazione di scrittura.
+	 * Se l'evento è pubblicato fuori da una transazione l'invalidazione è immediata.
+	 * Avviene prima dell'aggiornamento dei {@link MarcatoriModifiche}, così che un nuovo ETag
+	 * non venga mai associato a prezzi ancora in cache.
+	 *
+	 * @param event L'evento che descrive l'ambito della modifica.
+	 */
+	@Order(Ordered.LOWEST_PRECEDENCE - 1)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPrezziModificati(PrezziEventoModificatiEvent event) {
+		if (event.getIdEvento() != null) {
+			invalidaEvento(event.getIdEvento());
+		} else if (event.getIdSettore() != null) {
+			invalidaSettore(event.getIdSettore());
+		} else {
+			invalidaTutto();
+		}
+	}
+
+	/**
+	 * Invalida i prezzi dell'evento; i caricamenti per id e le letture per settore in corso vengono separati tutti,
+	 * perché l'evento di un prezzo è noto solo a lettura conclusa.
+	 */
+	public void invalidaEvento(long idEvento) {
+		generazione.incrementAndGet();
+		caricamentiAttivi.scollega(idEvento);
+		caricamentiPerId.scollegaTutte();
+		lettureAttiviPerEventoSettore.scollegaSe(chiave -> chiave.idEvento() == idEvento);
+		letturePerSettore.scollegaTutte();
+		lettureAttiviPerSettore.scollegaTutte();
+		letturePerEventi.scollegaSe(idEventi -> idEventi.contains(idEvento));
+		attiviPerEvento.invalidate(idEvento);
+		rimuoviPerId(pse -> pse.getIdEvento() == idEvento);
+	}
+
+	/**
+	 * Invalida tutti i prezzi per evento, poiché non è noto quali eventi contengano il settore,
+	 * e i soli prezzi per id appartenenti al settore; per lo stesso motivo separa tutte le letture per lista di eventi.
+	 */
+	public void invalidaSettore(long idSettore) {
+		generazione.incrementAndGet();
+		caricamentiAttivi.scollegaTutte();
+		caricamentiPerId.scollegaTutte();
+		lettureAttiviPerEventoSettore.scollegaSe(chiave -> chiave.idSettore() == idSettore);
+		letturePerSettore.scollega(idSettore);
+		lettureAttiviPerSettore.scollega(idSettore);
+		letturePerEventi.scollegaTutte();
+		attiviPerEvento.invalidateAll();
+		rimuoviPerId(pse -> pse.getIdSettore() == idSettore);
+	}
+
+	public void invalidaTutto() {
+		generazione.incrementAndGet();
+		caricamentiAttivi.scollegaTutte();
+		caricamentiPerId.scollegaTutte();
+		lettureAttiviPerEventoSettore.scollegaTutte();
+		letturePerSettore.scollegaTutte();
+		lettureAttiviPerSettore.scollegaTutte();
+		letturePerEventi.scollegaTutte();
+		attiviPerEvento.invalidateAll();
+		perId.invalidateAll();
+	}
+
+	private void rimuoviPerId(Predicate<PrezzoSettoreEvento> filtro) {
+		perId.asMap().values().removeIf(filtro);
+	}
+
+	public boolean isAbilitata() {
+		return abilitata;
+	}
+
+	/**
+	 * Restituisce le statistiche di hit e miss delle cache gestite.
+	 *
+	 * @return Una lista con le statistiche di ciascuna cache.
+	 */
+	public List<StatisticheCacheDtoResponse> getStatistiche() {
+		return List.of(
+				statistiche(CACHE_ATTIVI_PER_EVENTO, attiviPerEvento),
+				statistiche(CACHE_PER_ID, perId));
+	}
+
+	private static StatisticheCacheDtoResponse statistiche(String nome, Cache<?, ?> cache) {
+		CacheStats stats = cache.stats();
+		return new StatisticheCacheDtoResponse(nome, stats.hitCount(), stats.missCount(), stats.hitRate(),
+				stats.evictionCount(), cache.estimatedSize());
+	}
+}
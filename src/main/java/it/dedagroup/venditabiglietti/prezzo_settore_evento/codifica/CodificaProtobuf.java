@@ -0,0 +1,167 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.ErrorMessage;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Codifica Protobuf dei prezzi settore evento e dei messaggi di errore, secondo lo schema
+ * {@code proto/prezzo_settore_evento.proto} distribuito tra le risorse dell'applicazione.
+ *
+ * I messaggi sono scritti e letti direttamente con {@link CodedOutputStream} e {@link CodedInputStream},
+ * senza classi generate da {@code protoc}: i prezzi vengono codificati dalle entità senza copie intermedie.
+ * TestSchemaProtobuf confronta la codifica con le classi che {@code protoc} genera dallo schema nei sorgenti di test.
+ * Come in proto3, i campi con il valore predefinito (zero, false, stringa vuota) non vengono scritti.
+ */
+public final class CodificaProtobuf {
+
+	public static final MediaType APPLICATION_PROTOBUF = new MediaType("application", "x-protobuf");
+
+	static final int PREZZO_ID = 1;
+	static final int PREZZO_ID_SETTORE = 2;
+	static final int PREZZO_ID_EVENTO = 3;
+	static final int PREZZO_PREZZO = 4;
+	static final int PREZZO_CANCELLATO = 5;
+	static final int PREZZO_VERSION = 6;
+
+	static final int LISTA_PREZZI = 1;
+	private static final int TAG_LISTA_PREZZI = LISTA_PREZZI << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+
+	static final int ERRORE_MESSAGE = 1;
+	static final int ERRORE_STATUS_CODE = 2;
+	static final int ERRORE_TIME_STAMP = 3;
+
+	private CodificaProtobuf() {
+	}
+
+	/**
+	 * Scrive un prezzo come messaggio {@code PrezzoSettoreEvento}.
+	 *
+	 * @param pse Il prezzo da scrivere.
+	 * @param out Lo stream di destinazione.
+	 * @throws IOException Se la scrittura fallisce.
+	 */
+	public static void scriviPrezzo(PrezzoSettoreEvento pse, CodedOutputStream out) throws IOException {
+		if (pse.getId() != 0) out.writeInt64(PREZZO_ID, pse.getId());
+		if (pse.getIdSettore() != 0) out.writeInt64(PREZZO_ID_SETTORE, pse.getIdSettore());
+		if (pse.getIdEvento() != 0) out.writeInt64(PREZZO_ID_EVENTO, pse.getIdEvento());
+		if (Double.doubleToRawLongBits(pse.getPrezzo()) != 0) out.writeDouble(PREZZO_PREZZO, pse.getPrezzo());
+		if (pse.isCancellato()) out.writeBool(PREZZO_CANCELLATO, true);
+		if (pse.getVersion() != 0) out.writeInt64(PREZZO_VERSION, pse.getVersion());
+	}
+
+	/**
+	 * Scrive una lista di prezzi come messaggio {@code ListaPrezziSettoreEvento}.
+	 *
+	 * @param prezzi I prezzi da scrivere.
+	 * @param out Lo stream di destinazione.
+	 * @throws IOException Se la scrittura fallisce.
+	 */
+	public static void scriviLista(Collection<PrezzoSettoreEvento> prezzi, CodedOutputStream out) throws IOException {
+		for (PrezzoSettoreEvento pse : prezzi) {
+			out.writeTag(LISTA_PREZZI, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+			out.writeUInt32NoTag(dimensionePrezzo(pse));
+			scriviPrezzo(pse, out);
+		}
+	}
+
+	/**
+	 * Scrive un messaggio di errore come messaggio {@code ErrorMessage}.
+	 *
+	 * @param errore Il messaggio di errore da scrivere.
+	 * @param out Lo stream di destinazione.
+	 * @throws IOException Se la scrittura fallisce.
+	 */
+	public static void scriviErrore(ErrorMessage errore, CodedOutputStream out) throws IOException {
+		if (errore.getMessage() != null && !errore.getMessage().isEmpty()) out.writeString(ERRORE_MESSAGE, errore.getMessage());
+		if (errore.getStatusCode() != 0) out.writeInt32(ERRORE_STATUS_CODE, errore.getStatusCode());
+		if (errore.getTimeStamp() != null) out.writeString(ERRORE_TIME_STAMP, errore.getTimeStamp().toString());
+	}
+
+	/**
+	 * Legge un messaggio {@code PrezzoSettoreEvento} fino alla fine dello stream o del limite corrente.
+	 *
+	 * @param in Lo stream di origine.
+	 * @return Il prezzo letto, non gestito dal contesto di persistenza.
+	 * @throws IOException Se la lettura fallisce o il messaggio non è valido.
+	 */
+	public static PrezzoSettoreEvento leggiPrezzo(CodedInputStream in) throws IOException {
+		PrezzoSettoreEvento pse = new PrezzoSettoreEvento();
+		for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+			switch (WireFormat.getTagFieldNumber(tag)) {
+			case PREZZO_ID -> pse.setId(in.readInt64());
+			case PREZZO_ID_SETTORE -> pse.setIdSettore(in.readInt64());
+			case PREZZO_ID_EVENTO -> pse.setIdEvento(in.readInt64());
+			case PREZZO_PREZZO -> pse.setPrezzo(in.readDouble());
+			case PREZZO_CANCELLATO -> pse.setCancellato(in.readBool());
+			case PREZZO_VERSION -> pse.setVersion(in.readInt64());
+			default -> in.skipField(tag);
+			}
+		}
+		return pse;
+	}
+
+	/**
+	 * Legge un messaggio {@code ListaPrezziSettoreEvento}.
+	 *
+	 * @param in Lo stream di origine.
+	 * @return La lista dei prezzi letti.
+	 * @throws IOException Se la lettura fallisce o il messaggio non è valido.
+	 */
+	public static List<PrezzoSettoreEvento> leggiLista(CodedInputStream in) throws IOException {
+		List<PrezzoSettoreEvento> prezzi = new ArrayList<>();
+		for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+			if (tag == TAG_LISTA_PREZZI) {
+				int limite = in.pushLimit(in.readRawVarint32());
+				prezzi.add(leggiPrezzo(in));
+				in.popLimit(limite);
+			} else {
+				in.skipField(tag);
+			}
+		}
+		return prezzi;
+	}
+
+	/**
+	 * Legge un messaggio {@code ErrorMessage}.
+	 *
+	 * @param in Lo stream di origine.
+	 * @return Il messaggio di errore letto.
+	 * @throws IOException Se la lettura fallisce o il messaggio non è valido.
+	 */
+	public static ErrorMessage leggiErrore(CodedInputStream in) throws IOException {
+		ErrorMessage errore = new ErrorMessage("", 0);
+		errore.setTimeStamp(null);
+		for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+			switch (WireFormat.getTagFieldNumber(tag)) {
+			case ERRORE_MESSAGE -> errore.setMessage(in.readString());
+			case ERRORE_STATUS_CODE -> errore.setStatusCode(in.readInt32());
+			case ERRORE_TIME_STAMP -> errore.setTimeStamp(LocalDateTime.parse(in.readString()));
+			default -> in.skipField(tag);
+			}
+		}
+		return errore;
+	}
+
+	private static int dimensionePrezzo(PrezzoSettoreEvento pse) {
+		int dimensione = 0;
+		if (pse.getId() != 0) dimensione += CodedOutputStream.computeInt64Size(PREZZO_ID, pse.getId());
+		if (pse.getIdSettore() != 0) dimensione += CodedOutputStream.computeInt64Size(PREZZO_ID_SETTORE, pse.getIdSettore());
+		if (pse.getIdEvento() != 0) dimensione += CodedOutputStream.computeInt64Size(PREZZO_ID_EVENTO, pse.getIdEvento());
+		if (Double.doubleToRawLongBits(pse.getPrezzo()) != 0) dimensione += CodedOutputStream.computeDoubleSize(PREZZO_PREZZO, pse.getPrezzo());
+		if (pse.isCancellato()) dimensione += CodedOutputStream.computeBoolSize(PREZZO_CANCELLATO, true);
+		if (pse.getVersion() != 0) dimensione += CodedOutputStream.computeInt64Size(PREZZO_VERSION, pse.getVersion());
+		return dimensione;
+	}
+}
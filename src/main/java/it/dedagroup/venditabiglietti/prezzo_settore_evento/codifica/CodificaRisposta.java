@@ -0,0 +1,64 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica;
+
+import java.util.List;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Codifiche dei corpi di risposta negoziabili con l'header Accept. JSON resta la codifica predefinita,
+ * usata anche quando l'header è assente, accetta qualunque tipo o non indica alcuna codifica nota.
+ *
+ * Ogni codifica ha un suffisso da aggiungere all'ETag, così che rappresentazioni diverse degli stessi dati
+ * non condividano lo stesso ETag forte.
+ */
+public enum CodificaRisposta {
+
+	JSON(MediaType.APPLICATION_JSON, ""),
+	CBOR(MediaType.APPLICATION_CBOR, "-cbor"),
+	SMILE(new MediaType("application", "x-jackson-smile"), "-smile"),
+	PROTOBUF(CodificaProtobuf.APPLICATION_PROTOBUF, "-protobuf");
+
+	private final MediaType mediaType;
+	private final String suffissoEtag;
+
+	CodificaRisposta(MediaType mediaType, String suffissoEtag) {
+		this.mediaType = mediaType;
+		this.suffissoEtag = suffissoEtag;
+	}
+
+	public MediaType getMediaType() {
+		return mediaType;
+	}
+
+	public String getSuffissoEtag() {
+		return suffissoEtag;
+	}
+
+	/**
+	 * Restituisce la codifica che verrà negoziata per un header Accept: i tipi accettati sono considerati
+	 * in ordine di qualità e specificità, come nella negoziazione di Spring MVC, e il primo che include
+	 * una codifica la determina.
+	 *
+	 * @param accept Il valore dell'header Accept, anche null.
+	 * @return La codifica negoziata, {@link #JSON} se nessun tipo accettato ne include una.
+	 */
+	public static CodificaRisposta negoziata(String accept) {
+		if (accept == null || accept.isBlank()) return JSON;
+		List<MediaType> accettati;
+		try {
+			accettati = MediaType.parseMediaTypes(accept);
+		} catch (InvalidMediaTypeException e) {
+			return JSON;
+		}
+		MimeTypeUtils.sortBySpecificity(accettati);
+		for (MediaType accettato : accettati) {
+			if (accettato.getQualityValue() == 0) continue;
+			for (CodificaRisposta codifica : values()) {
+				if (accettato.includes(codifica.mediaType)) return codifica;
+			}
+		}
+		return JSON;
+	}
+}
@@ -0,0 +1,109 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.Nullable;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.ErrorMessage;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Converter HTTP per il tipo {@code application/x-protobuf}: scrive e legge con {@link CodificaProtobuf}
+ * i prezzi settore evento, le liste di prezzi e i messaggi di errore. Per gli altri tipi non è applicabile,
+ * quindi la negoziazione ricade sulle altre codifiche.
+ */
+public class PrezziProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+	private static final int DIMENSIONE_BUFFER = 8192;
+
+	private enum Messaggio { PREZZO, LISTA, ERRORE }
+
+	public PrezziProtobufHttpMessageConverter() {
+		super(CodificaProtobuf.APPLICATION_PROTOBUF);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return messaggio(clazz) != null;
+	}
+
+	@Override
+	public boolean canRead(Type type, @Nullable Class<?> contextClass, @Nullable MediaType mediaType) {
+		Messaggio messaggio = messaggio(type);
+		return messaggio != null && (messaggio != Messaggio.LISTA || ResolvableType.forType(type).toClass().isAssignableFrom(ArrayList.class))
+				&& canRead(mediaType);
+	}
+
+	@Override
+	public boolean canWrite(@Nullable Type type, Class<?> clazz, @Nullable MediaType mediaType) {
+		return messaggio(type != null ? type : clazz) != null && canWrite(mediaType);
+	}
+
+	/**
+	 * Spring MVC chiede i tipi producibili passando la sola classe del valore restituito, in cui il tipo degli
+	 * elementi di una lista non è più risolvibile: per le collezioni la verifica resta a {@link #canWrite(Type, Class, MediaType)}.
+	 */
+	@Override
+	public List<MediaType> getSupportedMediaTypes(Class<?> clazz) {
+		return supports(clazz) || Collection.class.isAssignableFrom(clazz) ? getSupportedMediaTypes() : List.of();
+	}
+
+	@Override
+	public Object read(Type type, @Nullable Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+		CodedInputStream in = CodedInputStream.newInstance(inputMessage.getBody());
+		Messaggio messaggio = messaggio(type);
+		if (messaggio == null) {
+			throw new HttpMessageNotReadableException("Tipo non supportato dalla codifica Protobuf: " + type, inputMessage);
+		}
+		return switch (messaggio) {
+		case PREZZO -> CodificaProtobuf.leggiPrezzo(in);
+		case LISTA -> CodificaProtobuf.leggiLista(in);
+		case ERRORE -> CodificaProtobuf.leggiErrore(in);
+		};
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+		return read(clazz, null, inputMessage);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected void writeInternal(Object o, @Nullable Type type, HttpOutputMessage outputMessage) throws IOException {
+		CodedOutputStream out = CodedOutputStream.newInstance(outputMessage.getBody(), DIMENSIONE_BUFFER);
+		if (o instanceof PrezzoSettoreEvento pse) {
+			CodificaProtobuf.scriviPrezzo(pse, out);
+		} else if (o instanceof ErrorMessage errore) {
+			CodificaProtobuf.scriviErrore(errore, out);
+		} else {
+			CodificaProtobuf.scriviLista((Collection<PrezzoSettoreEvento>) o, out);
+		}
+		out.flush();
+	}
+
+	@Nullable
+	private static Messaggio messaggio(Type type) {
+		ResolvableType tipo = ResolvableType.forType(type);
+		Class<?> classe = tipo.resolve();
+		if (classe == null) return null;
+		if (PrezzoSettoreEvento.class.isAssignableFrom(classe)) return Messaggio.PREZZO;
+		if (ErrorMessage.class.isAssignableFrom(classe)) return Messaggio.ERRORE;
+		if (Collection.class.isAssignableFrom(classe) && tipo.asCollection().resolveGeneric(0) == PrezzoSettoreEvento.class) {
+			return Messaggio.LISTA;
+		}
+		return null;
+	}
+}
@@ -0,0 +1,27 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurazione dell'avvio dell'applicazione,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.avvio}.
+ *
+ * @see it.dedagroup.venditabiglietti.prezzo_settore_evento.metriche.TempiAvvio
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.avvio")
+public class AvvioProperties {
+
+	/**
+	 * Esecuzione di addestramento dell'archivio AppCDS: appena pronta l'applicazione serve una richiesta
+	 * a se stessa, così che anche le classi del percorso di una richiesta finiscano nell'archivio, e termina.
+	 */
+	private boolean addestramento = false;
+
+	/**
+	 * Il percorso richiesto durante l'addestramento.
+	 */
+	private String percorsoAddestramento = "/prezzi-settore-evento/lista-is-cancellato-false";
+}
@@ -0,0 +1,53 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationInitializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.controller.PrezzoSettoreEventoController;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.ServerGrpc;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.index.IndicePrezziAttivi;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.RegistroModifiche;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.programmazione.ProgrammatoreModifiche;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.scrittura.ScritturaDifferita;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * Avvio rapido, attivo con il profilo {@code avvio-rapido} insieme a quello del database.
+ *
+ * Il profilo abilita l'inizializzazione differita dei bean: quelli non necessari alle richieste dei prezzi,
+ * come la lettura reattiva, l'esportazione degli snapshot e buona parte di actuator, vengono creati al primo
+ * utilizzo. Restano immediati i bean elencati in {@link #CRITICI} e le loro dipendenze: le migrazioni del
+ * database e il pool di connessioni, l'EntityManagerFactory, il controller e il servizio dei prezzi, il server
+ * gRPC, l'indice, il journal, lo scheduler delle modifiche programmate e la scrittura differita. Altrimenti le migrazioni e l'avvio di Hibernate ricadrebbero sulla prima richiesta.
+ *
+ * Il profilo sostituisce inoltre la documentazione OpenAPI generata a runtime da springdoc con quella
+ * pregenerata, servita da {@link it.dedagroup.venditabiglietti.prezzo_settore_evento.controller.DocumentazioneApiController}.
+ * Il pacchetto con l'archivio AppCDS e l'indice dei componenti si costruisce con il profilo Maven {@code avvio-rapido}.
+ */
+@Configuration
+@Profile("avvio-rapido")
+public class AvvioRapidoConfig {
+
+	static final List<Class<?>> CRITICI = List.of(
+			DataSource.class,
+			FlywayMigrationInitializer.class,
+			EntityManagerFactory.class,
+			PrezzoSettoreEventoController.class,
+			ServerGrpc.class,
+			IndicePrezziAttivi.class,
+			RegistroModifiche.class,
+			ProgrammatoreModifiche.class,
+			ScritturaDifferita.class);
+
+	@Bean
+	static LazyInitializationExcludeFilter beanCritici() {
+		return (nome, definizione, tipo) -> tipo != null && CRITICI.stream().anyMatch(critico -> critico.isAssignableFrom(tipo));
+	}
+}
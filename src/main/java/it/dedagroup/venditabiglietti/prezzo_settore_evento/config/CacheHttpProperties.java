@@ -0,0 +1,54 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurazione delle GET condizionali e degli header di cache HTTP degli endpoint di lettura,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.cache-http}.
+ *
+ * @see it.dedagroup.venditabiglietti.prezzo_settore_evento.cache.MarcatoriModifiche
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.cache-http")
+public class CacheHttpProperties {
+
+	/**
+	 * Abilita gli ETag e la risposta 304 alle richieste con {@code If-None-Match} ancora valido.
+	 */
+	private boolean abilitata = false;
+
+	/**
+	 * Durata massima di validità di un ETag. I marcatori vedono solo le scritture di questa istanza:
+	 * allo scadere del periodo tutti gli ETag cambiano, così che le modifiche eseguite da altre istanze
+	 * o direttamente sul database siano visibili entro lo stesso limite della cache dei prezzi.
+	 */
+	private Duration scadenza = Duration.ofSeconds(60);
+
+	/**
+	 * Valore dell'header Cache-Control per gli endpoint non presenti in {@link #cacheControl}.
+	 * Con {@code no-cache} il client conserva la risposta ma la riconvalida a ogni uso.
+	 */
+	private String cacheControlPredefinito = "no-cache";
+
+	/**
+	 * Valore dell'header Cache-Control per endpoint, con chiave il nome dell'endpoint, ad esempio
+	 * {@code lista-by-evento-is-cancellato-false} o {@code pagina.lista-by-evento}.
+	 */
+	private Map<String, String> cacheControl = new HashMap<>();
+
+	/**
+	 * Restituisce il valore dell'header Cache-Control per un endpoint.
+	 *
+	 * @param endpoint Il nome dell'endpoint.
+	 * @return Il valore configurato per l'endpoint, altrimenti quello predefinito.
+	 */
+	public String getCacheControl(String endpoint) {
+		return cacheControl.getOrDefault(endpoint, cacheControlPredefinito);
+	}
+}
@@ -0,0 +1,31 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurazione della cache in memoria dei prezzi settore evento,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.cache}.
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.cache")
+public class CachePrezziProperties {
+
+	/**
+	 * Abilita la cache. Se disabilitata ogni lettura viene inoltrata al repository.
+	 */
+	private boolean abilitata = false;
+
+	/**
+	 * Numero massimo di voci mantenute per ciascuna cache.
+	 */
+	private long dimensioneMassima = 10_000;
+
+	/**
+	 * Tempo di vita di una voce dalla sua scrittura in cache.
+	 */
+	private Duration scadenza = Duration.ofSeconds(60);
+}
@@ -0,0 +1,47 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.util.List;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica.CodificaRisposta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica.PrezziProtobufHttpMessageConverter;
+
+/**
+ * Converter delle codifiche binarie negoziabili con l'header Accept, elencate in {@link CodificaRisposta}.
+ *
+ * CBOR e Smile usano una copia dell'{@link ObjectMapper} dell'applicazione, quindi gli stessi nomi di campo,
+ * moduli e formati delle date della risposta JSON; sostituiscono i converter predefiniti di Spring MVC, che
+ * userebbero un mapper con una configurazione diversa. Sono inseriti subito dopo il converter JSON, mentre il
+ * converter Protobuf è aggiunto in fondo: con Accept assente o generico la risposta resta JSON.
+ */
+@Configuration
+public class CodificheRispostaConfig implements WebMvcConfigurer {
+
+	private final ObjectMapper objectMapper;
+
+	public CodificheRispostaConfig(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+				|| converter instanceof MappingJackson2SmileHttpMessageConverter);
+		int json = 0;
+		while (json < converters.size() && !(converters.get(json) instanceof MappingJackson2HttpMessageConverter)) json++;
+		int posizione = Math.min(json + 1, converters.size());
+		converters.add(posizione, new MappingJackson2SmileHttpMessageConverter(objectMapper.copyWith(new SmileFactory())));
+		converters.add(posizione + 1, new MappingJackson2CborHttpMessageConverter(objectMapper.copyWith(new CBORFactory())));
+		converters.add(new PrezziProtobufHttpMessageConverter());
+	}
+}
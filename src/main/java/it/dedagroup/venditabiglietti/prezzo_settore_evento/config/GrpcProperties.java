@@ -0,0 +1,33 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurazione del server gRPC per le letture dei prezzi dagli altri servizi,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.grpc}.
+ *
+ * @see it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.ServerGrpc
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.grpc")
+public class GrpcProperties {
+
+	/**
+	 * Avvia il server gRPC insieme al server web.
+	 */
+	private boolean abilitato = true;
+
+	/**
+	 * Porta del server gRPC; con 0 viene scelta una porta libera.
+	 */
+	private int porta = 9086;
+
+	/**
+	 * Tempo concesso alle chiamate in corso per terminare alla chiusura dell'applicazione.
+	 */
+	private Duration attesaChiusura = Duration.ofSeconds(5);
+}
@@ -0,0 +1,19 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurazione dell'indice in memoria dei prezzi disponibili,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.indice}.
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.indice")
+public class IndicePrezziProperties {
+
+	/**
+	 * Abilita l'indice. Se disabilitato le ricerche di prezzo vengono inoltrate al repository.
+	 */
+	private boolean abilitato = false;
+}
@@ -0,0 +1,31 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.io.IOException;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.JournalModifiche;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.RegistroModifiche;
+
+/**
+ * Journal delle modifiche ai prezzi, attivo con {@code prezzo-settore-evento.journal.abilitato=true}.
+ *
+ * Il {@link RegistroModifiche} riceve i {@link it.dedagroup.venditabiglietti.prezzo_settore_evento.event.ModifichePrezziEvent}
+ * pubblicati dal servizio e li scrive nel {@link JournalModifiche}; alla chiusura del contesto scrive i record in sospeso
+ * e chiude i file. Per rileggere il journal si usa un
+ * {@link it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.LettoreJournal} sulla stessa directory.
+ *
+ * @see JournalProperties
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "prezzo-settore-evento.journal", name = "abilitato", havingValue = "true")
+public class JournalConfig {
+
+	@Bean(destroyMethod = "close")
+	public RegistroModifiche registroModifiche(JournalProperties properties) throws IOException {
+		JournalModifiche journal = new JournalModifiche(properties.getDirectory(), properties.getDimensioneSegmento().toBytes());
+		return new RegistroModifiche(journal, properties.getDimensioneBuffer(), properties.isForzaSuDisco());
+	}
+}
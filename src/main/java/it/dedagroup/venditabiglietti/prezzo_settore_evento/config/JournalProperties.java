@@ -0,0 +1,44 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Configurazione del journal delle modifiche ai prezzi,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.journal}.
+ *
+ * @see JournalConfig
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.journal")
+public class JournalProperties {
+
+	/**
+	 * Registra ogni scrittura sui prezzi nel journal.
+	 */
+	private boolean abilitato = false;
+
+	/**
+	 * Directory dei segmenti del journal, usata da un solo processo alla volta.
+	 */
+	private Path directory = Path.of("journal");
+
+	/**
+	 * Dimensione di ogni segmento; un record occupa 64 byte.
+	 */
+	private DataSize dimensioneSegmento = DataSize.ofMegabytes(64);
+
+	/**
+	 * Numero di slot del ring buffer tra i thread delle richieste e il thread di scrittura, una potenza di 2.
+	 */
+	private int dimensioneBuffer = 8192;
+
+	/**
+	 * Forza la scrittura su disco dopo ogni lotto di record, così che sopravvivano anche a un arresto del sistema.
+	 */
+	private boolean forzaSuDisco = false;
+}
@@ -0,0 +1,36 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurazione della connessione R2DBC usata dalle letture reattive,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.lettura-reattiva}.
+ *
+ * @see it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepositoryReattivo
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.lettura-reattiva")
+public class LetturaReattivaProperties {
+
+	/**
+	 * URL R2DBC dello stesso database del datasource JDBC, ad esempio {@code r2dbc:mysql://localhost:3306/venditabiglietti}.
+	 */
+	private String url;
+
+	/**
+	 * Utente del database.
+	 */
+	private String username;
+
+	/**
+	 * Password del database.
+	 */
+	private String password;
+
+	/**
+	 * Numero massimo di connessioni R2DBC aperte, in aggiunta a quelle del pool JDBC.
+	 */
+	private int dimensioneMassimaPool = 10;
+}
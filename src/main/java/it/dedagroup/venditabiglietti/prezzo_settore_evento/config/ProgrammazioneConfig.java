@@ -0,0 +1,27 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.programmazione.ModifichePrezzoProgrammate;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.programmazione.ProgrammatoreModifiche;
+
+/**
+ * Scheduler delle modifiche di prezzo programmate, attivo salvo {@code prezzo-settore-evento.programmazione.abilitata=false}.
+ *
+ * Il {@link ProgrammatoreModifiche} parte quando l'applicazione è pronta e si ferma alla chiusura del contesto;
+ * senza scheduler le modifiche vengono registrate e restano in attesa finché un'istanza abilitata non le applica.
+ *
+ * @see ProgrammazioneProperties
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "prezzo-settore-evento.programmazione", name = "abilitata", havingValue = "true", matchIfMissing = true)
+public class ProgrammazioneConfig {
+
+	@Bean(destroyMethod = "close")
+	public ProgrammatoreModifiche programmatoreModifiche(ModifichePrezzoProgrammate modifiche, ProgrammazioneProperties properties, MeterRegistry registry) {
+		return new ProgrammatoreModifiche(modifiche, properties, registry);
+	}
+}
@@ -0,0 +1,44 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurazione dello scheduler delle modifiche di prezzo programmate,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.programmazione}.
+ *
+ * @see ProgrammazioneConfig
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.programmazione")
+public class ProgrammazioneProperties {
+
+	/**
+	 * Applica le modifiche programmate alla scadenza. Se disabilitato le modifiche vengono solo registrate.
+	 */
+	private boolean abilitata = true;
+
+	/**
+	 * Durata di un tick della ruota temporale: le modifiche che scadono nello stesso tick vengono applicate insieme.
+	 */
+	private Duration durataTick = Duration.ofMillis(100);
+
+	/**
+	 * Numero di posizioni della ruota temporale, una potenza di 2.
+	 */
+	private int slot = 512;
+
+	/**
+	 * Le modifiche con istante entro l'orizzonte vengono caricate dal database nella ruota; il caricamento si ripete
+	 * ogni metà orizzonte e all'avvio recupera anche le modifiche scadute mentre il servizio era fermo.
+	 */
+	private Duration orizzonte = Duration.ofMinutes(10);
+
+	/**
+	 * Numero massimo di modifiche applicate con un solo aggiornamento.
+	 */
+	private int dimensioneBatch = 1000;
+}
@@ -0,0 +1,28 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.scrittura.ModifichePrezzoDifferite;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.scrittura.ScritturaDifferita;
+
+/**
+ * Scrittura differita delle modifiche di prezzo, attiva con {@code prezzo-settore-evento.scrittura-differita.abilitata=true}.
+ *
+ * Con la {@link ScritturaDifferita} il controller accoda le modifiche del prezzo per settore ed evento senza
+ * {@code If-Match} e risponde dopo il commit del lotto che le contiene; alla chiusura del contesto le modifiche
+ * ancora in coda vengono scritte prima di rilasciare il database.
+ *
+ * @see ScritturaDifferitaProperties
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "prezzo-settore-evento.scrittura-differita", name = "abilitata", havingValue = "true")
+public class ScritturaDifferitaConfig {
+
+	@Bean(destroyMethod = "close")
+	public ScritturaDifferita scritturaDifferita(ModifichePrezzoDifferite modifiche, ScritturaDifferitaProperties properties, MeterRegistry registry) {
+		return new ScritturaDifferita(modifiche, properties, registry);
+	}
+}
@@ -0,0 +1,49 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurazione della scrittura differita delle modifiche di prezzo,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.scrittura-differita}.
+ *
+ * @see ScritturaDifferitaConfig
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.scrittura-differita")
+public class ScritturaDifferitaProperties {
+
+	/**
+	 * Accorpa le modifiche del prezzo per settore ed evento senza {@code If-Match} e le scrive a lotti.
+	 */
+	private boolean abilitata = false;
+
+	/**
+	 * Numero di slot del ring buffer tra i thread delle richieste e il thread di scrittura, una potenza di 2.
+	 */
+	private int dimensioneBuffer = 8192;
+
+	/**
+	 * Numero di coppie evento/settore in attesa oltre il quale il lotto viene scritto subito.
+	 */
+	private int dimensioneBatch = 500;
+
+	/**
+	 * Attesa massima della prima modifica di un lotto prima della scrittura: più è lunga, più modifiche
+	 * della stessa coppia vengono accorpate, a costo della latenza delle richieste.
+	 */
+	private Duration intervallo = Duration.ofMillis(5);
+
+	/**
+	 * Attesa massima della conferma del commit da parte della richiesta, oltre la quale la modifica non è confermata.
+	 */
+	private Duration attesaConferma = Duration.ofSeconds(10);
+
+	/**
+	 * Attesa massima alla chiusura per scrivere le modifiche ancora in coda.
+	 */
+	private Duration attesaChiusura = Duration.ofSeconds(10);
+}
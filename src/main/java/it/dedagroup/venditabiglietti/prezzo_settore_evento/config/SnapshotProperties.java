@@ -0,0 +1,34 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.nio.file.Path;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurazione dello snapshot binario dei prezzi,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.snapshot}.
+ *
+ * @see it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot.CaricatoreSnapshot
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.snapshot")
+public class SnapshotProperties {
+
+	/**
+	 * Snapshot da importare all'avvio, al posto dei dati di esempio; se assente non viene importato nulla.
+	 */
+	private Path file;
+
+	/**
+	 * Sostituisce i prezzi già presenti. Se falso lo snapshot viene importato solo in una tabella vuota,
+	 * così che i riavvii successivi non lo importino di nuovo.
+	 */
+	private boolean sostituisci = false;
+
+	/**
+	 * Numero di righe inserite per ogni batch JDBC.
+	 */
+	private int dimensioneBatch = 1000;
+}
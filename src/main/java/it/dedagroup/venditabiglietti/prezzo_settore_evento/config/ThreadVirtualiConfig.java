@@ -0,0 +1,42 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Esecuzione delle richieste su thread virtuali, attiva con {@code prezzo-settore-evento.thread-virtuali.abilitati=true}.
+ *
+ * Tomcat esegue ogni richiesta su un nuovo thread virtuale, per cui le chiamate JDBC bloccanti del servizio
+ * sospendono il thread virtuale senza occupare un thread di piattaforma. Lo stesso vale per le elaborazioni
+ * asincrone di Spring MVC, come le risposte in streaming, che usano l'esecutore {@code applicationTaskExecutor}.
+ *
+ * La concorrenza verso il database resta limitata dal pool di connessioni: i thread virtuali in eccesso
+ * attendono una connessione libera fino a {@code spring.datasource.hikari.connection-timeout}. I percorsi che
+ * bloccano un thread virtuale sul carrier (blocchi {@code synchronized} attorno a I/O) vanno evitati; con
+ * {@code -Djdk.tracePinnedThreads=short} la JVM li segnala.
+ *
+ * @see ThreadVirtualiProperties
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "prezzo-settore-evento.thread-virtuali", name = "abilitati", havingValue = "true")
+public class ThreadVirtualiConfig {
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> esecutoreTomcatVirtuale() {
+		return protocolHandler -> protocolHandler.setExecutor(
+				Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("http-virtuale-", 0).factory()));
+	}
+
+	@Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+	public AsyncTaskExecutor applicationTaskExecutor() {
+		return new TaskExecutorAdapter(
+				Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-virtuale-", 0).factory()));
+	}
+}
@@ -0,0 +1,22 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Configurazione dell'esecuzione delle richieste su thread virtuali,
+ * letta dalle proprietà con prefisso {@code prezzo-settore-evento.thread-virtuali}.
+ *
+ * @see ThreadVirtualiConfig
+ */
+@Data
+@ConfigurationProperties(prefix = "prezzo-settore-evento.thread-virtuali")
+public class ThreadVirtualiProperties {
+
+	/**
+	 * Esegue le richieste HTTP e le elaborazioni asincrone di Spring MVC su thread virtuali
+	 * invece che sul pool di thread di Tomcat.
+	 */
+	private boolean abilitati = false;
+}
@@ -0,0 +1,31 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.controller;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Serve la documentazione OpenAPI pregenerata quando springdoc è disattivato con
+ * {@code springdoc.api-docs.enabled=false}, allo stesso percorso in cui springdoc la genererebbe a runtime.
+ * Il file {@value #DOCUMENTAZIONE} viene rigenerato dal test {@code TestDocumentazioneOpenApi}, che fallisce
+ * se non corrisponde più a quella generata da springdoc.
+ */
+@RestController
+@ConditionalOnProperty(name = "springdoc.api-docs.enabled", havingValue = "false")
+public class DocumentazioneApiController {
+
+	public static final String DOCUMENTAZIONE = "openapi/prezzo-settore-evento.json";
+
+	private final Resource documentazione = new ClassPathResource(DOCUMENTAZIONE);
+
+	@GetMapping(path = "${springdoc.api-docs.path:/v3/api-docs}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<Resource> getDocumentazione(){
+		return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(documentazione);
+	}
+}
@@ -1,8 +1,16 @@
 package it.dedagroup.venditabiglietti.prezzo_settore_evento.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -11,8 +19,16 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -20,17 +36,47 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.cache.MarcatoriModifiche;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.cache.PrezziEventoCache;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica.CodificaRisposta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.CacheHttpProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.ModificaPrezzoProgrammataDtoRequest;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.PrezzoSettoreEventoDtoRequest;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.RegolaPrezzoDtoRequest;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.RigaPreventivoDtoRequest;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.ErrorMessage;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.ErroreRigaDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.EsitoInserimentoBatchDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.ModificaPrezzoProgrammataDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.PaginaDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.PreventivoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.RegolePrezzoEventoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.StatisticheCacheDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.VersionePrezzoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotValidDataException;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.mapper.PrezzoSettoreEventoMapper;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.ModificaPrezzoProgrammata;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.RegolaPrezzo;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.programmazione.ModifichePrezzoProgrammate;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.regole.RegolePrezzi;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepositoryPreventivo;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.scrittura.ScritturaDifferita;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot.SnapshotPrezzi;
+import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Valid;
+import jakarta.validation.Validator;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 
 /**
  * Controller che gestisce le operazioni relative ai prezzi settore evento.
+ * I prezzi e i messaggi di errore sono restituiti in JSON oppure, secondo l'header Accept,
+ * nelle codifiche binarie CBOR, Smile o Protobuf elencate in {@link CodificaRisposta}.
  */
 @RestController
 @Validated
@@ -44,6 +90,24 @@ public class PrezzoSettoreEventoController {
 	private PrezzoSettoreEventoService pseService;
 	@Autowired
 	private PrezzoSettoreEventoMapper pseMapper;
+	@Autowired
+	private PrezziEventoCache pseCache;
+	@Autowired
+	private MarcatoriModifiche marcatori;
+	@Autowired
+	private CacheHttpProperties cacheHttp;
+	@Autowired
+	private Validator validator;
+	@Autowired
+	private ObjectMapper objectMapper;
+	@Autowired
+	private SnapshotPrezzi snapshot;
+	@Autowired
+	private ModifichePrezzoProgrammate modificheProgrammate;
+	@Autowired
+	private RegolePrezzi regolePrezzi;
+	@Autowired(required = false)
+	private ScritturaDifferita scritturaDifferita;
 	
 	/**
 	 * Aggiunge un nuovo prezzo settore evento.
@@ -73,16 +137,65 @@ public class PrezzoSettoreEventoController {
 	}
 	       
 	
+	/**
+	 * Aggiunge più prezzi settore evento in un'unica transazione.
+	 * Gli elementi non validi vengono scartati e riportati nella risposta senza interrompere l'inserimento degli altri.
+	 * 
+	 * @param richieste Le richieste per aggiungere i prezzi settore evento.
+	 * @return ResponseEntity con l'esito dell'inserimento.
+	 */
+	@Operation(
+		    summary = "Aggiungi più prezzi settore evento",
+		    description = "Questo endpoint consente di inserire una lista di prezzi settore evento in un'unica transazione. "
+		                + "Ogni elemento viene validato singolarmente: gli elementi non validi vengono scartati e riportati, con la loro posizione, nella risposta. "
+		                + "Se almeno un elemento è stato inserito viene restituito un codice 201, altrimenti un codice 400. "
+		                + "La lista può contenere al massimo 1000 elementi."
+		)
+		@ApiResponses(value = {
+		    @ApiResponse(description = "Inserimento eseguito", responseCode = "201"),
+		    @ApiResponse(description = "Nessun elemento valido", responseCode = "400", content = @Content(
+		        mediaType = MediaType.APPLICATION_JSON_VALUE,
+		        schema = @Schema(implementation = EsitoInserimentoBatchDtoResponse.class)
+		    ))
+		})
+	@PostMapping("/prezzi-settore-evento/add-batch")
+	public ResponseEntity<EsitoInserimentoBatchDtoResponse> aggiungiPrezziSettoreEvento(
+			@RequestBody
+			@Size(min = 1, max = 1000, message = "La lista deve contenere da 1 a 1000 elementi")
+			List<PrezzoSettoreEventoDtoRequest> richieste){
+		List<PrezzoSettoreEvento> validi = new ArrayList<>();
+		List<ErroreRigaDtoResponse> errori = new ArrayList<>();
+		for (int i = 0; i < richieste.size(); i++) {
+			PrezzoSettoreEventoDtoRequest richiesta = richieste.get(i);
+			List<String> messaggi = richiesta == null
+					? List.of("Elemento nullo")
+					: validator.validate(richiesta).stream().map(ConstraintViolation::getMessage).toList();
+			if (messaggi.isEmpty()) {
+				validi.add(pseMapper.toPrezzoSettoreEvento(richiesta));
+			} else {
+				errori.add(new ErroreRigaDtoResponse(i, messaggi));
+			}
+		}
+		if (!validi.isEmpty()) {
+			pseService.aggiungiPrezziSettoreEvento(validi);
+		}
+		EsitoInserimentoBatchDtoResponse esito = new EsitoInserimentoBatchDtoResponse(validi.size(),
+				validi.stream().map(PrezzoSettoreEvento::getId).toList(), errori);
+		return ResponseEntity.status(validi.isEmpty() ? HttpStatus.BAD_REQUEST : HttpStatus.CREATED).body(esito);
+	}
+	
 	/**
 	 * Ottiene la lista dei prezzi settore evento per un determinato settore.
 	 * 
 	 * @param idSettore L'id del settore.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
 	 * @return ResponseEntity con la lista dei prezzi settore evento.
 	 */
 	@Operation(summary = "Visualizza la lista dei prezzi settore evento per un determinato settore",
 			description = "Questo endpoint restituisce la lista dei prezzi dei settori per un determinato settore.")
 	@ApiResponses(value = {
 			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
 			        mediaType = MediaType.APPLICATION_JSON_VALUE,
 			        schema = @Schema(implementation = ErrorMessage.class)
@@ -90,30 +203,33 @@ public class PrezzoSettoreEventoController {
 	})
 	@GetMapping("/prezzi-settore-evento/lista-by-settore/id-settore/{idSettore}")
 	public ResponseEntity<List<PrezzoSettoreEvento>> getListaPrezzoSettoreEventoByIdSettore(
-			@PathVariable
+			@PathVariable("idSettore")
 			@Min(value = 1, message = "L'id del settore non è valido") 
-			long id){
-		return ResponseEntity.status(HttpStatus.OK).body(pseService.findAllByIdSettore(id));
+			long idSettore,
+			WebRequest request){
+		return condizionale(request, "lista-by-settore", marcatori.etagGlobale(), () -> pseService.findAllByIdSettore(idSettore));
 	}
 	
 	/**
 	 * Ottiene la lista dei prezzi settore evento per un determinato evento.
 	 * 
 	 * @param idEvento L'id dell'evento.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
 	 * @return ResponseEntity con la lista dei prezzi settore evento.
 	 */
 	@Operation(summary = "Visualizza la lista dei prezzi settore evento per un determinato evento",
 			   description = "Questo endpoint restituisce la lista dei prezzi dei settori per un determinato evento")
 	@ApiResponses(value = {
 			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
 			        mediaType = MediaType.APPLICATION_JSON_VALUE,
 			        schema = @Schema(implementation = ErrorMessage.class)
 			    ))
 	})
 	@GetMapping("/prezzi-settore-evento/lista-by-evento/id-evento/{idEvento}")
-	public ResponseEntity<List<PrezzoSettoreEvento>> getListaPrezzoSettoreEventoByIdEvento(@PathVariable @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento){
-		return ResponseEntity.status(HttpStatus.OK).body(pseService.findAllByIdEvento(idEvento));
+	public ResponseEntity<List<PrezzoSettoreEvento>> getListaPrezzoSettoreEventoByIdEvento(@PathVariable @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento, WebRequest request){
+		return condizionale(request, "lista-by-evento", marcatori.etagEvento(idEvento), () -> pseService.findAllByIdEvento(idEvento));
 	}
 	
 	/**
@@ -121,25 +237,30 @@ public class PrezzoSettoreEventoController {
 	 * 
 	 * @param idPse L'id del PrezzoSettoreEvento.
 	 * @param idSettore Il nuovo id del settore.
-	 * @return ResponseEntity con lo stato della richiesta.
+	 * @param ifMatch L'ETag del prezzo letto, se la modifica è condizionata alla sua versione.
+	 * @return ResponseEntity con lo stato della richiesta e l'ETag della nuova versione.
 	 */
 	@Operation(summary = "Modifica l'id del settore",
-			   description = "Questo endpoint restituisce un'id del settore modificato")
+			   description = "Questo endpoint restituisce un'id del settore modificato. "
+			   		+ "Con l'header If-Match, che contiene l'ETag restituito dalla lettura per id, la modifica avviene solo se il prezzo non è cambiato nel frattempo.")
 	@ApiResponses(value = {
 			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
 			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
 			        mediaType = MediaType.APPLICATION_JSON_VALUE,
 			        schema = @Schema(implementation = ErrorMessage.class)
+			    )),
+			@ApiResponse(description = "Prezzo modificato da un'altra richiesta o versione di If-Match non attuale",responseCode = "409", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
 			    ))
 	})
 	@PostMapping("/prezzi-settore-evento/modifica-settore/id-pse/{idPse}/idSettore/{idSettore}")
 	public ResponseEntity<Void> modificaIdSettore(
 			@PathVariable("idPse") @Min(value = 1, message = "L'id del PrezzoSettoreEvento non è valido") long idPse,
-			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore){
-		PrezzoSettoreEvento pse = pseService.findById(idPse);
-		pse.setIdSettore(idSettore);
-		pseService.modificaPrezzoSettoreEvento(pse);
-		return ResponseEntity.status(HttpStatus.OK).build();
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+		PrezzoSettoreEvento pse = pseService.modificaIdSettore(idPse, idSettore, versioneAttesa(ifMatch));
+		return ResponseEntity.status(HttpStatus.OK).eTag(String.valueOf(pse.getVersion())).build();
 	}
 	
 	
@@ -148,49 +269,77 @@ public class PrezzoSettoreEventoController {
 	 * 
 	 * @param idPse L'id del PrezzoSettoreEvento.
 	 * @param idEvento Il nuovo id dell'evento.
-	 * @return ResponseEntity con lo stato della richiesta.
+	 * @param ifMatch L'ETag del prezzo letto, se la modifica è condizionata alla sua versione.
+	 * @return ResponseEntity con lo stato della richiesta e l'ETag della nuova versione.
 	 */
 
 	@Operation(summary = "Modifica l'id dell'evento",
-			description = "Questo endpoint permette di modificare l'id dell'evento")
+			description = "Questo endpoint permette di modificare l'id dell'evento. "
+					+ "Con l'header If-Match, che contiene l'ETag restituito dalla lettura per id, la modifica avviene solo se il prezzo non è cambiato nel frattempo.")
 	@ApiResponses(value = {
 			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
 			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
 			        mediaType = MediaType.APPLICATION_JSON_VALUE,
 			        schema = @Schema(implementation = ErrorMessage.class)
+			    )),
+			@ApiResponse(description = "Prezzo modificato da un'altra richiesta o versione di If-Match non attuale",responseCode = "409", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
 			    ))
 	})
 
 	@PostMapping("/prezzi-settore-evento/modifica-evento/id-pse/{idPse}/id-evento/{idEvento}")
 	public ResponseEntity<Void> modificaIdEvento(
 			@PathVariable("idPse") @Min(value = 1, message = "L'id del PrezzoSettoreEvento non è valido") long idPse,
-			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento){
-		PrezzoSettoreEvento pse = pseService.findById(idPse);
-		pse.setIdEvento(idEvento);
-		pseService.modificaPrezzoSettoreEvento(pse);
-		return ResponseEntity.status(HttpStatus.OK).build();
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+		PrezzoSettoreEvento pse = pseService.modificaIdEvento(idPse, idEvento, versioneAttesa(ifMatch));
+		return ResponseEntity.status(HttpStatus.OK).eTag(String.valueOf(pse.getVersion())).build();
 	}
 	
 	
 	/**
 	 * Modifica il prezzo di un prezzo settore evento per un determinato settore ed evento.
+	 * Con la scrittura differita abilitata, la modifica senza If-Match viene accodata alla {@link ScritturaDifferita}
+	 * e la risposta arriva dopo il commit del lotto che la contiene.
 	 * 
 	 * @param request La richiesta con i nuovi dati.
-	 * @return ResponseEntity con lo stato della richiesta.
+	 * @param ifMatch L'ETag del prezzo disponibile letto, se la modifica è condizionata alla sua versione.
+	 * @return ResponseEntity con lo stato della richiesta; con If-Match anche l'ETag della nuova versione.
 	 */
 	@Operation(summary = "Modifica il prezzo per un determinato settore ed evento",
-			   description = "Questo endpoint permette di modificare il prezzo di un determinato settore ed evento")
+			   description = "Questo endpoint permette di modificare il prezzo di un determinato settore ed evento. "
+			   		+ "Con l'header If-Match viene modificato solo il prezzo disponibile e solo se la sua versione corrisponde all'ETag indicato. "
+			   		+ "Con la scrittura differita abilitata le modifiche senza If-Match vengono scritte a lotti e la risposta arriva dopo il commit.")
 	@ApiResponses(value = {
 			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
 			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
 			        mediaType = MediaType.APPLICATION_JSON_VALUE,
 			        schema = @Schema(implementation = ErrorMessage.class)
+			    )),
+			@ApiResponse(description = "Prezzo modificato da un'altra richiesta o versione di If-Match non attuale",responseCode = "409", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    )),
+			@ApiResponse(description = "Scrittura differita in chiusura o commit non confermato in tempo",responseCode = "503", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
 			    ))
 	})
 	@PostMapping("/prezzi-settore-evento/modifica-prezzo")
-	public ResponseEntity<Void> modificaPrezzoByIdSettoreAndIdEvento(@Valid @RequestBody PrezzoSettoreEventoDtoRequest request){
-		pseService.modificaPrezzoByIdSettoreAndIdEvento(request.getPrezzo(), request.getIdSettore(), request.getIdEvento());
-		return ResponseEntity.status(HttpStatus.OK).build();
+	public ResponseEntity<Void> modificaPrezzoByIdSettoreAndIdEvento(@Valid @RequestBody PrezzoSettoreEventoDtoRequest request,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+		Long versione = versioneAttesa(ifMatch);
+		if (versione == null) {
+			if (scritturaDifferita != null) {
+				scritturaDifferita.modifica(request.getPrezzo(), request.getIdSettore(), request.getIdEvento());
+			} else {
+				pseService.modificaPrezzoByIdSettoreAndIdEvento(request.getPrezzo(), request.getIdSettore(), request.getIdEvento());
+			}
+			return ResponseEntity.status(HttpStatus.OK).build();
+		}
+		long nuovaVersione = pseService.modificaPrezzoByIdSettoreAndIdEvento(request.getPrezzo(), request.getIdSettore(), request.getIdEvento(), versione);
+		return ResponseEntity.status(HttpStatus.OK).eTag(String.valueOf(nuovaVersione)).build();
 	}
 	
 	/**
@@ -198,12 +347,14 @@ public class PrezzoSettoreEventoController {
 	 * 
 	 * @param idEvento L'id dell'evento.
 	 * @param idSettore L'id del settore.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
 	 * @return ResponseEntity con la lista dei prezzi settore evento.
 	 */
 	@Operation(summary = "Visualizza la lista dei prezzi per determinato evento e settore",
 			   description = "Questo endpoint resitutisce la lista dei prezzi per un determinato evento e settore")
 	@ApiResponses(value = {
 			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
 			        mediaType = MediaType.APPLICATION_JSON_VALUE,
 			        schema = @Schema(implementation = ErrorMessage.class)
@@ -212,8 +363,10 @@ public class PrezzoSettoreEventoController {
 	@GetMapping("/prezzi-settore-evento/lista-by-evento-settore/id-evento/{idEvento}/id-settore/{idSettore}")
 	public ResponseEntity<List<PrezzoSettoreEvento>> getListaPrezzoSettoreEventoByIdEventoAndIdSettore(
 			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
-			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore){
-		return ResponseEntity.status(HttpStatus.OK).body(pseService.findAllByIdEventoAndIdSettore(idEvento, idSettore));
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore,
+			WebRequest request){
+		return condizionale(request, "lista-by-evento-settore", marcatori.etagEvento(idEvento),
+				() -> pseService.findAllByIdEventoAndIdSettore(idEvento, idSettore));
 	}
 	
 	/**
@@ -221,12 +374,14 @@ public class PrezzoSettoreEventoController {
 	 * 
 	 * @param idEvento L'id dell'evento.
 	 * @param idSettore L'id del settore.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
 	 * @return ResponseEntity con la lista dei prezzi settore evento disponibili.
 	 */
 	@Operation(summary = "Visualizza la lista dei prezzi per un determinato evento e settore che sono disponibili",
 			   description = "Questo endpoint restituisce la lista dei prezzi per un determinato evento e settore,nel caso in cui siano disponibili")
 	@ApiResponses(value = {
 			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
 			        mediaType = MediaType.APPLICATION_JSON_VALUE,
 			        schema = @Schema(implementation = ErrorMessage.class)
@@ -235,20 +390,24 @@ public class PrezzoSettoreEventoController {
 	@GetMapping("/prezzi-settore-evento/lista-by-evento-settore-is-cancellato-false/id-evento/{idEvento}/id-settore/{idSettore}")
 	public ResponseEntity<List<PrezzoSettoreEvento>> getListaPrezzoSettoreEventoByIdEventoAndIdSettoreAndIsCancellatoFalse(
 			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
-			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore){
-		return ResponseEntity.status(HttpStatus.OK).body(pseService.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(idEvento, idSettore));
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore,
+			WebRequest request){
+		return condizionale(request, "lista-by-evento-settore-is-cancellato-false", marcatori.etagEvento(idEvento),
+				() -> pseService.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(idEvento, idSettore));
 	}
 	
 	/**
 	 * Ottiene la lista dei prezzi settore evento per un determinato evento che sono disponibili.
 	 * 
 	 * @param idEvento L'id dell'evento.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
 	 * @return ResponseEntity con la lista dei prezzi settore evento disponibili.
 	 */
 	@Operation(summary = "Visualizza la lista dei prezzi per un determinato evento che sono disponibili",
 			   description = "Questo endpoint restituisce la lista dei prezzi per un determinato evento, nel caso in cui siano disponibili")
 	@ApiResponses(value = {
 			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
 			        mediaType = MediaType.APPLICATION_JSON_VALUE,
 			        schema = @Schema(implementation = ErrorMessage.class)
@@ -256,20 +415,24 @@ public class PrezzoSettoreEventoController {
 	})
 	@GetMapping("/prezzi-settore-evento/lista-by-evento-is-cancellato-false/id-evento/{id}")
 	public ResponseEntity<List<PrezzoSettoreEvento>> getListaPrezzoSettoreEventoByIdEventoAndIsCancellatoFalse(
-			@PathVariable("id") @Min(value = 1, message = "L'id dell'evento non è valido") long id){
-		return ResponseEntity.status(HttpStatus.OK).body(pseService.findAllByIdEventoAndIsCancellatoFalse(id));
+			@PathVariable("id") @Min(value = 1, message = "L'id dell'evento non è valido") long id,
+			WebRequest request){
+		return condizionale(request, "lista-by-evento-is-cancellato-false", marcatori.etagEvento(id),
+				() -> pseService.findAllByIdEventoAndIsCancellatoFalse(id));
 	}
 	
 	/**
 	 * Ottiene la lista dei prezzi settore evento per un determinato settore che sono disponibili.
 	 * 
 	 * @param idSettore L'id del settore.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
 	 * @return ResponseEntity con la lista dei prezzi settore evento disponibili.
 	 */
 	@Operation(summary = "Visualizza la lista dei prezzi per un determinato settore che sono disponibili",
 			   description = "Questo endpoint restituisce la lista dei prezzi per un determinato settore, nel caso in cui siano disponibili")
 	@ApiResponses(value = {
 			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
 			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
 			        mediaType = MediaType.APPLICATION_JSON_VALUE,
 			        schema = @Schema(implementation = ErrorMessage.class)
@@ -277,30 +440,39 @@ public class PrezzoSettoreEventoController {
 	})
 	@GetMapping("/prezzi-settore-evento/lista-by-settore-is-cancellato-false/id-settore/{id}")
 	public ResponseEntity<List<PrezzoSettoreEvento>> getListaPrezzoSettoreEventoByIdSettoreAndIsCancellatoFalse(
-			@PathVariable("id") @Min(value = 1, message = "L'id del settore non è valido") long id){
-		return ResponseEntity.status(HttpStatus.OK).body(pseService.findAllByIdSettoreAndIsCancellatoFalse(id));
+			@PathVariable("id") @Min(value = 1, message = "L'id del settore non è valido") long id,
+			WebRequest request){
+		return condizionale(request, "lista-by-settore-is-cancellato-false", marcatori.etagGlobale(),
+				() -> pseService.findAllByIdSettoreAndIsCancellatoFalse(id));
 	}
 	
 	/**
 	 * Elimina un prezzo settore evento per id.
 	 * 
 	 * @param idPse L'id del PrezzoSettoreEvento.
-	 * @return ResponseEntity con lo stato della richiesta.
+	 * @param ifMatch L'ETag del prezzo letto, se l'eliminazione è condizionata alla sua versione.
+	 * @return ResponseEntity con lo stato della richiesta e l'ETag della nuova versione.
 	 */
 	@Operation(summary = "Elimina un oggetto prezzo settore evento per id",
-			   description = "Questo endpoint elimina un oggetto prezzo settore evento attraverso l'id")
+			   description = "Questo endpoint elimina un oggetto prezzo settore evento attraverso l'id. "
+			   		+ "Con l'header If-Match l'eliminazione avviene solo se il prezzo non è cambiato dopo la lettura.")
 	@ApiResponses(value = {
 			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
 			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
 			        mediaType = MediaType.APPLICATION_JSON_VALUE,
 			        schema = @Schema(implementation = ErrorMessage.class)
+			    )),
+			@ApiResponse(description = "Prezzo modificato da un'altra richiesta o versione di If-Match non attuale",responseCode = "409", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
 			    ))
 	})
 	@PostMapping("/prezzi-settore-evento/elimina-by-id/{id}")
 	public ResponseEntity<Void> eliminaPrezzoSettoreEventoById(
-			@PathVariable("id") @Min(value = 1, message = "L'id del PrezzoSettoreEvento non è valido") long id){
-		pseService.eliminaPrezzoSettoreEvento(pseService.findById(id));
-		return ResponseEntity.status(HttpStatus.OK).build();
+			@PathVariable("id") @Min(value = 1, message = "L'id del PrezzoSettoreEvento non è valido") long id,
+			@RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+		PrezzoSettoreEvento pse = pseService.eliminaPrezzoSettoreEventoById(id, versioneAttesa(ifMatch));
+		return ResponseEntity.status(HttpStatus.OK).eTag(String.valueOf(pse.getVersion())).build();
 	}
 	
 	
@@ -373,17 +545,618 @@ public class PrezzoSettoreEventoController {
 	}
 	
 	@GetMapping("/prezzi-settore-evento/lista-is-cancellato-false")
-	public ResponseEntity<List<PrezzoSettoreEvento>> getAllIsCancellatoFalse(){
-		return ResponseEntity.status(HttpStatus.OK).body(pseService.findAllByIsCancellatoFalse());
+	public ResponseEntity<List<PrezzoSettoreEvento>> getAllIsCancellatoFalse(WebRequest request){
+		return condizionale(request, "lista-is-cancellato-false", marcatori.etagGlobale(), pseService::findAllByIsCancellatoFalse);
+	}
+	
+	/**
+	 * Esporta in streaming i prezzi settore evento disponibili nel formato NDJSON, un oggetto JSON per riga,
+	 * ordinati per id. La risposta viene scritta mentre le righe vengono lette dal database,
+	 * quindi la memoria occupata non dipende dal numero di prezzi esportati.
+	 * 
+	 * @param idEventoDa Il primo id evento incluso.
+	 * @param idEventoA L'ultimo id evento incluso.
+	 * @param idSettoreDa Il primo id settore incluso.
+	 * @param idSettoreA L'ultimo id settore incluso.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
+	 * @return ResponseEntity con il corpo della risposta in streaming.
+	 */
+	@Operation(summary = "Esporta in streaming i prezzi disponibili",
+			   description = "Con Accept application/x-ndjson questo endpoint restituisce i prezzi disponibili un oggetto JSON per riga, ordinati per id. "
+			   		+ "I parametri facoltativi limitano l'esportazione a intervalli di id evento e id settore, per sincronizzazioni parziali.")
+	@GetMapping(path = "/prezzi-settore-evento/lista-is-cancellato-false", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> esportaAllIsCancellatoFalse(
+			@RequestParam(defaultValue = "1") @Min(value = 1, message = "L'id evento iniziale non è valido") long idEventoDa,
+			@RequestParam(defaultValue = "" + Long.MAX_VALUE) long idEventoA,
+			@RequestParam(defaultValue = "1") @Min(value = 1, message = "L'id settore iniziale non è valido") long idSettoreDa,
+			@RequestParam(defaultValue = "" + Long.MAX_VALUE) long idSettoreA,
+			WebRequest request){
+		ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		StreamingResponseBody body = out -> {
+			try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+				generator.setRootValueSeparator(null);
+				pseService.esportaPrezziAttivi(idEventoDa, idEventoA, idSettoreDa, idSettoreA, pse -> {
+					try {
+						writer.writeValue(generator, pse);
+						generator.writeRaw('\n');
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			}
+		};
+		ResponseEntity<StreamingResponseBody> risposta = condizionale(request, "lista-is-cancellato-false.ndjson",
+				marcatori.etagGlobale() + "-ndjson", () -> body);
+		if (!risposta.hasBody()) return risposta;
+		return ResponseEntity.status(HttpStatus.OK).headers(risposta.getHeaders()).contentType(MediaType.APPLICATION_NDJSON).body(body);
 	}
 	
 	@GetMapping("/prezzi-settore-evento/id/{id}")
-	public ResponseEntity<PrezzoSettoreEvento> findById(@PathVariable @Min(value = 1,message = "l'Id del prezzo settore evento non è valido")long id){
-		return ResponseEntity.status(HttpStatus.OK).body(pseService.findById(id));
+	public ResponseEntity<PrezzoSettoreEvento> findById(@PathVariable @Min(value = 1,message = "l'Id del prezzo settore evento non è valido")long id,
+			WebRequest request){
+		// il prezzo restituito dipende anche dalle regole, che non cambiano la versione: il marcatore va letto prima del prezzo
+		String marcatore = marcatori.etagGlobale();
+		PrezzoSettoreEvento pse = pseService.findById(id);
+		String etag = pse.getVersion() + "-" + marcatore + CodificaRisposta.negoziata(request.getHeader(HttpHeaders.ACCEPT)).getSuffissoEtag();
+		return ResponseEntity.status(HttpStatus.OK).eTag(etag).varyBy(HttpHeaders.ACCEPT)
+				.header(HttpHeaders.CACHE_CONTROL, cacheHttp.getCacheControl("id")).body(pse);
 	}
 	
 	@PostMapping("/prezzi-settore-evento/ids-evento")
 	public ResponseEntity<List<PrezzoSettoreEvento>> findAllByIdsEvento(@RequestBody List<Long> idEventi){
 		return ResponseEntity.status(HttpStatus.OK).body(pseService.getListaPseByIdsEvento(idEventi));
 	}
+	
+	/**
+	 * Calcola il preventivo di un carrello: il prezzo disponibile di ciascuna riga e il totale.
+	 * 
+	 * @param righe Le righe del carrello, con evento, settore e quantità.
+	 * @return ResponseEntity con il preventivo.
+	 */
+	@Operation(summary = "Calcola il preventivo di un carrello",
+			   description = "Questo endpoint restituisce, con una sola lettura dal database, il prezzo disponibile di ciascuna riga del carrello, "
+			   		+ "l'importo per la quantità richiesta e il totale. Le righe senza prezzo disponibile vengono riportate nello stato CANCELLATO, "
+			   		+ "se esistono solo prezzi cancellati, o MANCANTE, e non concorrono al totale. Il carrello può contenere al massimo 256 righe.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@PostMapping("/prezzi-settore-evento/preventivo")
+	public ResponseEntity<PreventivoDtoResponse> calcolaPreventivo(
+			@RequestBody
+			@Size(min = 1, max = PrezzoSettoreEventoRepositoryPreventivo.COPPIE_MASSIME, message = "Il carrello deve contenere da 1 a 256 righe")
+			List<@Valid @NotNull(message = "Riga nulla") RigaPreventivoDtoRequest> righe){
+		return ResponseEntity.status(HttpStatus.OK).body(pseService.calcolaPreventivo(righe));
+	}
+	
+	/**
+	 * Ottiene una pagina dei prezzi settore evento per un determinato settore, con paginazione a cursore.
+	 * 
+	 * @param idSettore L'id del settore.
+	 * @param cursore Il cursore restituito dalla pagina precedente, assente per la prima pagina.
+	 * @param dimensione Il numero massimo di elementi della pagina.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
+	 * @return ResponseEntity con la pagina dei prezzi settore evento e il cursore della pagina successiva.
+	 */
+	@Operation(summary = "Visualizza una pagina dei prezzi settore evento per un determinato settore",
+			   description = "Questo endpoint restituisce i prezzi settore evento per un determinato settore ordinati per id, una pagina alla volta. "
+			   		+ "Per la pagina successiva si passa il cursoreSuccessivo della risposta, che è null sull'ultima pagina.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/pagina/lista-by-settore/id-settore/{idSettore}")
+	public ResponseEntity<PaginaDtoResponse<PrezzoSettoreEvento>> getPaginaPrezzoSettoreEventoByIdSettore(
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore,
+			@RequestParam(required = false) String cursore,
+			@RequestParam(defaultValue = "100") @Min(value = 1, message = "La dimensione della pagina non è valida") @Max(value = 1000, message = "La dimensione massima della pagina è 1000") int dimensione,
+			WebRequest request){
+		return condizionale(request, "pagina.lista-by-settore", marcatori.etagGlobale(),
+				() -> pseService.findPaginaByIdSettore(idSettore, cursore, dimensione));
+	}
+	
+	/**
+	 * Ottiene una pagina dei prezzi settore evento per un determinato evento, con paginazione a cursore.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param cursore Il cursore restituito dalla pagina precedente, assente per la prima pagina.
+	 * @param dimensione Il numero massimo di elementi della pagina.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
+	 * @return ResponseEntity con la pagina dei prezzi settore evento e il cursore della pagina successiva.
+	 */
+	@Operation(summary = "Visualizza una pagina dei prezzi settore evento per un determinato evento",
+			   description = "Questo endpoint restituisce i prezzi settore evento per un determinato evento ordinati per id, una pagina alla volta. "
+			   		+ "Per la pagina successiva si passa il cursoreSuccessivo della risposta, che è null sull'ultima pagina.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/pagina/lista-by-evento/id-evento/{idEvento}")
+	public ResponseEntity<PaginaDtoResponse<PrezzoSettoreEvento>> getPaginaPrezzoSettoreEventoByIdEvento(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@RequestParam(required = false) String cursore,
+			@RequestParam(defaultValue = "100") @Min(value = 1, message = "La dimensione della pagina non è valida") @Max(value = 1000, message = "La dimensione massima della pagina è 1000") int dimensione,
+			WebRequest request){
+		return condizionale(request, "pagina.lista-by-evento", marcatori.etagEvento(idEvento),
+				() -> pseService.findPaginaByIdEvento(idEvento, cursore, dimensione));
+	}
+	
+	/**
+	 * Ottiene una pagina dei prezzi settore evento per un determinato evento e settore, con paginazione a cursore.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @param cursore Il cursore restituito dalla pagina precedente, assente per la prima pagina.
+	 * @param dimensione Il numero massimo di elementi della pagina.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
+	 * @return ResponseEntity con la pagina dei prezzi settore evento e il cursore della pagina successiva.
+	 */
+	@Operation(summary = "Visualizza una pagina dei prezzi settore evento per un determinato evento e settore",
+			   description = "Questo endpoint restituisce i prezzi settore evento per un determinato evento e settore ordinati per id, una pagina alla volta. "
+			   		+ "Per la pagina successiva si passa il cursoreSuccessivo della risposta, che è null sull'ultima pagina.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/pagina/lista-by-evento-settore/id-evento/{idEvento}/id-settore/{idSettore}")
+	public ResponseEntity<PaginaDtoResponse<PrezzoSettoreEvento>> getPaginaPrezzoSettoreEventoByIdEventoAndIdSettore(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore,
+			@RequestParam(required = false) String cursore,
+			@RequestParam(defaultValue = "100") @Min(value = 1, message = "La dimensione della pagina non è valida") @Max(value = 1000, message = "La dimensione massima della pagina è 1000") int dimensione,
+			WebRequest request){
+		return condizionale(request, "pagina.lista-by-evento-settore", marcatori.etagEvento(idEvento),
+				() -> pseService.findPaginaByIdEventoAndIdSettore(idEvento, idSettore, cursore, dimensione));
+	}
+	
+	/**
+	 * Ottiene una pagina dei prezzi settore evento disponibili per un determinato settore, con paginazione a cursore.
+	 * 
+	 * @param idSettore L'id del settore.
+	 * @param cursore Il cursore restituito dalla pagina precedente, assente per la prima pagina.
+	 * @param dimensione Il numero massimo di elementi della pagina.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
+	 * @return ResponseEntity con la pagina dei prezzi settore evento e il cursore della pagina successiva.
+	 */
+	@Operation(summary = "Visualizza una pagina dei prezzi settore evento disponibili per un determinato settore",
+			   description = "Questo endpoint restituisce i prezzi settore evento disponibili per un determinato settore ordinati per id, una pagina alla volta. "
+			   		+ "Per la pagina successiva si passa il cursoreSuccessivo della risposta, che è null sull'ultima pagina.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/pagina/lista-by-settore-is-cancellato-false/id-settore/{idSettore}")
+	public ResponseEntity<PaginaDtoResponse<PrezzoSettoreEvento>> getPaginaPrezzoSettoreEventoByIdSettoreAndIsCancellatoFalse(
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore,
+			@RequestParam(required = false) String cursore,
+			@RequestParam(defaultValue = "100") @Min(value = 1, message = "La dimensione della pagina non è valida") @Max(value = 1000, message = "La dimensione massima della pagina è 1000") int dimensione,
+			WebRequest request){
+		return condizionale(request, "pagina.lista-by-settore-is-cancellato-false", marcatori.etagGlobale(),
+				() -> pseService.findPaginaByIdSettoreAndIsCancellatoFalse(idSettore, cursore, dimensione));
+	}
+	
+	/**
+	 * Ottiene una pagina dei prezzi settore evento disponibili per un determinato evento, con paginazione a cursore.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param cursore Il cursore restituito dalla pagina precedente, assente per la prima pagina.
+	 * @param dimensione Il numero massimo di elementi della pagina.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
+	 * @return ResponseEntity con la pagina dei prezzi settore evento e il cursore della pagina successiva.
+	 */
+	@Operation(summary = "Visualizza una pagina dei prezzi settore evento disponibili per un determinato evento",
+			   description = "Questo endpoint restituisce i prezzi settore evento disponibili per un determinato evento ordinati per id, una pagina alla volta. "
+			   		+ "Per la pagina successiva si passa il cursoreSuccessivo della risposta, che è null sull'ultima pagina.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/pagina/lista-by-evento-is-cancellato-false/id-evento/{idEvento}")
+	public ResponseEntity<PaginaDtoResponse<PrezzoSettoreEvento>> getPaginaPrezzoSettoreEventoByIdEventoAndIsCancellatoFalse(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@RequestParam(required = false) String cursore,
+			@RequestParam(defaultValue = "100") @Min(value = 1, message = "La dimensione della pagina non è valida") @Max(value = 1000, message = "La dimensione massima della pagina è 1000") int dimensione,
+			WebRequest request){
+		return condizionale(request, "pagina.lista-by-evento-is-cancellato-false", marcatori.etagEvento(idEvento),
+				() -> pseService.findPaginaByIdEventoAndIsCancellatoFalse(idEvento, cursore, dimensione));
+	}
+	
+	/**
+	 * Ottiene una pagina dei prezzi settore evento disponibili per un determinato evento e settore, con paginazione a cursore.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @param cursore Il cursore restituito dalla pagina precedente, assente per la prima pagina.
+	 * @param dimensione Il numero massimo di elementi della pagina.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
+	 * @return ResponseEntity con la pagina dei prezzi settore evento e il cursore della pagina successiva.
+	 */
+	@Operation(summary = "Visualizza una pagina dei prezzi settore evento disponibili per un determinato evento e settore",
+			   description = "Questo endpoint restituisce i prezzi settore evento disponibili per un determinato evento e settore ordinati per id, una pagina alla volta. "
+			   		+ "Per la pagina successiva si passa il cursoreSuccessivo della risposta, che è null sull'ultima pagina.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/pagina/lista-by-evento-settore-is-cancellato-false/id-evento/{idEvento}/id-settore/{idSettore}")
+	public ResponseEntity<PaginaDtoResponse<PrezzoSettoreEvento>> getPaginaPrezzoSettoreEventoByIdEventoAndIdSettoreAndIsCancellatoFalse(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore,
+			@RequestParam(required = false) String cursore,
+			@RequestParam(defaultValue = "100") @Min(value = 1, message = "La dimensione della pagina non è valida") @Max(value = 1000, message = "La dimensione massima della pagina è 1000") int dimensione,
+			WebRequest request){
+		return condizionale(request, "pagina.lista-by-evento-settore-is-cancellato-false", marcatori.etagEvento(idEvento),
+				() -> pseService.findPaginaByIdEventoAndIdSettoreAndIsCancellatoFalse(idEvento, idSettore, cursore, dimensione));
+	}
+	
+	/**
+	 * Ottiene una pagina dei prezzi settore evento disponibili, con paginazione a cursore.
+	 * 
+	 * @param cursore Il cursore restituito dalla pagina precedente, assente per la prima pagina.
+	 * @param dimensione Il numero massimo di elementi della pagina.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
+	 * @return ResponseEntity con la pagina dei prezzi settore evento e il cursore della pagina successiva.
+	 */
+	@Operation(summary = "Visualizza una pagina dei prezzi settore evento disponibili",
+			   description = "Questo endpoint restituisce i prezzi settore evento disponibili ordinati per id, una pagina alla volta. "
+			   		+ "Per la pagina successiva si passa il cursoreSuccessivo della risposta, che è null sull'ultima pagina.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/pagina/lista-is-cancellato-false")
+	public ResponseEntity<PaginaDtoResponse<PrezzoSettoreEvento>> getPaginaAllIsCancellatoFalse(
+			@RequestParam(required = false) String cursore,
+			@RequestParam(defaultValue = "100") @Min(value = 1, message = "La dimensione della pagina non è valida") @Max(value = 1000, message = "La dimensione massima della pagina è 1000") int dimensione,
+			WebRequest request){
+		return condizionale(request, "pagina.lista-is-cancellato-false", marcatori.etagGlobale(),
+				() -> pseService.findPaginaByIsCancellatoFalse(cursore, dimensione));
+	}
+	
+	/**
+	 * Ottiene il prezzo disponibile di un settore per un determinato evento.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
+	 * @return ResponseEntity con il prezzo disponibile.
+	 */
+	@Operation(summary = "Visualizza il prezzo disponibile di un settore per un evento",
+			   description = "Questo endpoint restituisce il prezzo attualmente disponibile per un determinato evento e settore")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Dati non modificati rispetto all'ETag di If-None-Match", responseCode = "304"),
+			@ApiResponse(description = "Prezzo non trovato",responseCode = "404", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/prezzo-attivo/id-evento/{idEvento}/id-settore/{idSettore}")
+	public ResponseEntity<Double> getPrezzoAttivo(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore,
+			WebRequest request){
+		return condizionale(request, "prezzo-attivo", marcatori.etagEvento(idEvento), () -> pseService.getPrezzoAttivo(idEvento, idSettore));
+	}
+	
+	/**
+	 * Restituisce il prezzo di un settore per un evento disponibile a un dato istante, ad esempio quello della vendita
+	 * di un biglietto, con il periodo in cui è rimasto valido.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @param istante L'istante in formato ISO-8601, ad esempio {@code 2024-03-01T10:15:30Z}.
+	 * @return ResponseEntity con la versione del prezzo valida all'istante.
+	 */
+	@Operation(summary = "Visualizza il prezzo di un settore per un evento a un dato istante",
+			   description = "Questo endpoint restituisce dallo storico dei prezzi la versione disponibile all'istante indicato, con il periodo di validità")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Nessun prezzo disponibile all'istante",responseCode = "404", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/prezzo-al-momento/id-evento/{idEvento}/id-settore/{idSettore}")
+	public ResponseEntity<VersionePrezzoDtoResponse> getPrezzoAlMomento(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore,
+			@RequestParam("istante") Instant istante){
+		return ResponseEntity.status(HttpStatus.OK).body(pseService.getPrezzoAlMomento(idEvento, idSettore, istante));
+	}
+	
+	/**
+	 * Restituisce lo storico del prezzo di un settore per un evento, dalla versione meno recente.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @return ResponseEntity con le versioni del prezzo e i rispettivi periodi di validità.
+	 */
+	@Operation(summary = "Visualizza lo storico del prezzo di un settore per un evento",
+			   description = "Questo endpoint restituisce le versioni del prezzo dalla meno recente; le versioni senza prezzo indicano i periodi in cui nessun prezzo era disponibile")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Storico non trovato",responseCode = "404", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/storico/id-evento/{idEvento}/id-settore/{idSettore}")
+	public ResponseEntity<List<VersionePrezzoDtoResponse>> getStoricoPrezzo(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore){
+		return ResponseEntity.status(HttpStatus.OK).body(pseService.getStoricoPrezzo(idEvento, idSettore));
+	}
+	
+	/**
+	 * Programma più modifiche di prezzo da applicare agli istanti indicati, in un'unica transazione.
+	 * Gli elementi non validi vengono scartati e riportati nella risposta senza interrompere la registrazione degli altri.
+	 * 
+	 * @param richieste Le modifiche da programmare.
+	 * @return ResponseEntity con l'esito della registrazione e gli id delle modifiche programmate.
+	 */
+	@Operation(
+		    summary = "Programma modifiche di prezzo",
+		    description = "Questo endpoint registra una lista di modifiche di prezzo da applicare ciascuna al proprio istante. "
+		                + "Le modifiche che scadono insieme vengono applicate con un unico aggiornamento; quelle con istante già passato vengono applicate subito. "
+		                + "Se più modifiche della stessa coppia evento/settore vengono applicate insieme prevale quella con l'istante più recente. "
+		                + "Ogni elemento viene validato singolarmente: gli elementi non validi vengono scartati e riportati, con la loro posizione, nella risposta. "
+		                + "Se almeno un elemento è stato registrato viene restituito un codice 201, altrimenti un codice 400. "
+		                + "La lista può contenere al massimo 1000 elementi."
+		)
+		@ApiResponses(value = {
+		    @ApiResponse(description = "Modifiche programmate", responseCode = "201"),
+		    @ApiResponse(description = "Nessun elemento valido", responseCode = "400", content = @Content(
+		        mediaType = MediaType.APPLICATION_JSON_VALUE,
+		        schema = @Schema(implementation = EsitoInserimentoBatchDtoResponse.class)
+		    ))
+		})
+	@PostMapping("/prezzi-settore-evento/modifiche-programmate")
+	public ResponseEntity<EsitoInserimentoBatchDtoResponse> programmaModifichePrezzo(
+			@RequestBody
+			@Size(min = 1, max = 1000, message = "La lista deve contenere da 1 a 1000 elementi")
+			List<ModificaPrezzoProgrammataDtoRequest> richieste){
+		List<ModificaPrezzoProgrammata> valide = new ArrayList<>();
+		List<ErroreRigaDtoResponse> errori = new ArrayList<>();
+		for (int i = 0; i < richieste.size(); i++) {
+			ModificaPrezzoProgrammataDtoRequest richiesta = richieste.get(i);
+			List<String> messaggi = richiesta == null
+					? List.of("Elemento nullo")
+					: validator.validate(richiesta).stream().map(ConstraintViolation::getMessage).toList();
+			if (messaggi.isEmpty()) {
+				valide.add(pseMapper.toModificaPrezzoProgrammata(richiesta));
+			} else {
+				errori.add(new ErroreRigaDtoResponse(i, messaggi));
+			}
+		}
+		if (!valide.isEmpty()) {
+			modificheProgrammate.programma(valide);
+		}
+		EsitoInserimentoBatchDtoResponse esito = new EsitoInserimentoBatchDtoResponse(valide.size(),
+				valide.stream().map(ModificaPrezzoProgrammata::getId).toList(), errori);
+		return ResponseEntity.status(valide.isEmpty() ? HttpStatus.BAD_REQUEST : HttpStatus.CREATED).body(esito);
+	}
+	
+	/**
+	 * Restituisce le modifiche di prezzo programmate per un evento e non ancora applicate, in ordine di istante.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @return ResponseEntity con le modifiche in attesa.
+	 */
+	@Operation(summary = "Visualizza le modifiche di prezzo programmate per un evento",
+			   description = "Questo endpoint restituisce le modifiche di prezzo dell'evento non ancora applicate, in ordine di istante")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/prezzi-settore-evento/modifiche-programmate/id-evento/{idEvento}")
+	public ResponseEntity<List<ModificaPrezzoProgrammataDtoResponse>> getModificheProgrammate(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento){
+		return ResponseEntity.status(HttpStatus.OK).body(modificheProgrammate.getDaApplicare(idEvento).stream()
+				.map(pseMapper::toModificaPrezzoProgrammataDtoResponse).toList());
+	}
+	
+	/**
+	 * Crea o sostituisce la regola di prezzo di un settore per un evento, o quella dell'intero evento con id settore 0.
+	 * 
+	 * @param request La richiesta con l'espressione della regola.
+	 * @return ResponseEntity con la regola salvata.
+	 */
+	@Operation(
+		    summary = "Salva una regola di prezzo",
+		    description = "Questo endpoint crea o sostituisce la regola che calcola il prezzo di un settore per un evento a partire dal prezzo memorizzato. "
+		                + "Con id settore 0 la regola vale per tutti i settori dell'evento senza una regola propria. "
+		                + "L'espressione usa numeri, + - * /, parentesi, la variabile base con il prezzo memorizzato, i fattori dell'evento per nome "
+		                + "e le funzioni min, max, limita(x, minimo, massimo) e arrotonda(x, passo), ad esempio limita(base * domanda, base, 150). "
+		                + "La regola si applica ai prezzi disponibili restituiti da tutte le letture, REST e gRPC, e al preventivo; lo storico restituisce il prezzo memorizzato. "
+		                + "Se l'espressione non è valida o usa fattori non definiti per l'evento viene restituito un codice 400."
+		)
+		@ApiResponses(value = {
+		    @ApiResponse(description = "Regola salvata", responseCode = "200"),
+		    @ApiResponse(description = "Regola non valida", responseCode = "400", content = @Content(
+		        mediaType = MediaType.APPLICATION_JSON_VALUE,
+		        schema = @Schema(implementation = ErrorMessage.class)
+		    ))
+		})
+	@PostMapping("/prezzi-settore-evento/regole")
+	public ResponseEntity<RegolaPrezzo> salvaRegolaPrezzo(@Valid @RequestBody RegolaPrezzoDtoRequest request){
+		return ResponseEntity.status(HttpStatus.OK).body(regolePrezzi.salvaRegola(request.getIdEvento(), request.getIdSettore(), request.getEspressione()));
+	}
+	
+	/**
+	 * Elimina la regola di prezzo di un settore per un evento, o quella dell'intero evento con id settore 0.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @return ResponseEntity con lo stato della richiesta.
+	 */
+	@Operation(summary = "Elimina una regola di prezzo",
+			   description = "Questo endpoint elimina la regola di un settore per un evento, o quella dell'intero evento con id settore 0")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Regola eliminata", responseCode = "200"),
+			@ApiResponse(description = "Regola non trovata",responseCode = "404", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@PostMapping("/prezzi-settore-evento/regole/elimina/id-evento/{idEvento}/id-settore/{idSettore}")
+	public ResponseEntity<Void> eliminaRegolaPrezzo(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@PathVariable("idSettore") @Min(value = 0, message = "L'id del settore non è valido") long idSettore){
+		regolePrezzi.eliminaRegola(idEvento, idSettore);
+		return ResponseEntity.status(HttpStatus.OK).build();
+	}
+	
+	/**
+	 * Imposta i valori dei fattori di un evento usati dalle regole di prezzo.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param fattori I valori dei fattori per nome.
+	 * @return ResponseEntity con le regole e tutti i fattori dell'evento.
+	 */
+	@Operation(summary = "Imposta i fattori delle regole di prezzo di un evento",
+			   description = "Questo endpoint crea o aggiorna i fattori indicati, ad esempio {\"domanda\": 1.2}; i prezzi calcolati dalle regole dell'evento cambiano subito. "
+			   		+ "I nomi usano lettere minuscole, cifre e trattini bassi")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Fattori impostati", responseCode = "200"),
+			@ApiResponse(description = "Fattori non validi",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@PostMapping("/prezzi-settore-evento/regole/fattori/id-evento/{idEvento}")
+	public ResponseEntity<RegolePrezzoEventoDtoResponse> impostaFattoriPrezzo(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@RequestBody Map<String, Double> fattori){
+		regolePrezzi.impostaFattori(idEvento, fattori);
+		return getRegolePrezzo(idEvento);
+	}
+	
+	/**
+	 * Restituisce le regole di prezzo di un evento e i valori dei fattori.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @return ResponseEntity con le regole e i fattori dell'evento.
+	 */
+	@Operation(summary = "Visualizza le regole di prezzo di un evento",
+			   description = "Questo endpoint restituisce le regole di prezzo dell'evento, ordinate per settore, e i valori dei fattori")
+	@GetMapping("/prezzi-settore-evento/regole/id-evento/{idEvento}")
+	public ResponseEntity<RegolePrezzoEventoDtoResponse> getRegolePrezzo(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento){
+		return ResponseEntity.status(HttpStatus.OK)
+				.body(new RegolePrezzoEventoDtoResponse(idEvento, regolePrezzi.getRegole(idEvento), regolePrezzi.getFattori(idEvento)));
+	}
+	
+	/**
+	 * Restituisce le statistiche di utilizzo della cache dei prezzi settore evento.
+	 * 
+	 * @return ResponseEntity con le statistiche di ciascuna cache.
+	 */
+	@Operation(summary = "Visualizza le statistiche della cache dei prezzi",
+			   description = "Questo endpoint restituisce hit, miss, eviction e dimensione delle cache dei prezzi settore evento")
+	@GetMapping("/prezzi-settore-evento/cache/statistiche")
+	public ResponseEntity<List<StatisticheCacheDtoResponse>> getStatisticheCache(){
+		return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noStore()).body(pseCache.getStatistiche());
+	}
+	
+	/**
+	 * Esporta tutti i prezzi settore evento, compresi quelli cancellati, in uno snapshot binario con CRC,
+	 * da importare all'avvio di un altro ambiente con {@code prezzo-settore-evento.snapshot.file}.
+	 * Lo snapshot viene scritto in streaming mentre le righe vengono lette dal database.
+	 * 
+	 * @return ResponseEntity con lo snapshot in streaming.
+	 */
+	@Operation(summary = "Esporta lo snapshot binario dei prezzi",
+			   description = "Questo endpoint restituisce l'intera tabella dei prezzi settore evento in uno snapshot binario compatto e verificato da CRC, "
+			   		+ "da usare per popolare gli ambienti di staging e di test di carico.")
+	@GetMapping(path = "/prezzi-settore-evento/admin/snapshot", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+	public ResponseEntity<StreamingResponseBody> esportaSnapshot(){
+		StreamingResponseBody body = out -> snapshot.esporta(out);
+		return ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noStore())
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"prezzi-settore-evento.snapshot\"")
+				.contentType(MediaType.APPLICATION_OCTET_STREAM).body(body);
+	}
+	
+	/**
+	 * Costruisce la risposta di una GET condizionale: l'ETag deriva dal marcatore di modifica dei dati letti,
+	 * quindi se corrisponde all'header If-None-Match la risposta è 304 e i prezzi non vengono letti.
+	 * Il marcatore va letto prima di invocare {@code corpo}. All'ETag si aggiunge il suffisso della
+	 * {@link CodificaRisposta} negoziata con l'header Accept, diverso per ogni rappresentazione.
+	 * 
+	 * @param request La richiesta, con l'eventuale header If-None-Match.
+	 * @param endpoint Il nome dell'endpoint, per l'header Cache-Control configurato.
+	 * @param etag L'ETag dei dati letti dall'endpoint.
+	 * @param corpo La lettura dei dati, eseguita solo se la risposta non è 304.
+	 * @return ResponseEntity 304 senza corpo oppure 200 con ETag e corpo.
+	 */
+	private <T> ResponseEntity<T> condizionale(WebRequest request, String endpoint, String etag, Supplier<T> corpo) {
+		String cacheControl = cacheHttp.getCacheControl(endpoint);
+		if (!cacheHttp.isAbilitata()) {
+			return ResponseEntity.status(HttpStatus.OK).header(HttpHeaders.CACHE_CONTROL, cacheControl).body(corpo.get());
+		}
+		etag += CodificaRisposta.negoziata(request.getHeader(HttpHeaders.ACCEPT)).getSuffissoEtag();
+		if (request.checkNotModified(etag)) {
+			// L'ETag è già stato impostato da checkNotModified
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED).header(HttpHeaders.CACHE_CONTROL, cacheControl)
+					.varyBy(HttpHeaders.ACCEPT).build();
+		}
+		return ResponseEntity.status(HttpStatus.OK).eTag(etag).header(HttpHeaders.CACHE_CONTROL, cacheControl)
+				.varyBy(HttpHeaders.ACCEPT).body(corpo.get());
+	}
+	
+	/**
+	 * Legge la versione attesa dall'header If-Match, che contiene l'ETag restituito dalla lettura o dalla modifica
+	 * del prezzo: la versione, seguita nelle letture dal marcatore delle modifiche e dal suffisso della
+	 * {@link CodificaRisposta} con cui il prezzo è stato letto.
+	 * 
+	 * @param ifMatch Il valore dell'header If-Match.
+	 * @return La versione attesa, null se l'header è assente o vale {@code *}.
+	 * @throws NotValidDataException Se l'header non contiene un ETag di versione.
+	 */
+	private Long versioneAttesa(String ifMatch) {
+		if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+		String etag = ifMatch.trim();
+		if (etag.length() > 2 && etag.startsWith("\"") && etag.endsWith("\"")) etag = etag.substring(1, etag.length() - 1);
+		int suffisso = etag.indexOf('-');
+		if (suffisso > 0) etag = etag.substring(0, suffisso);
+		try {
+			return Long.parseLong(etag);
+		} catch (NumberFormatException e) {
+			throw new NotValidDataException("L'header If-Match non contiene un ETag valido");
+		}
+	}
 }
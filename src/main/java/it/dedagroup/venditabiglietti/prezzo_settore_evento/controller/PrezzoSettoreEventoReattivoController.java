@@ -0,0 +1,200 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.ErrorMessage;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoReattivoService;
+import jakarta.validation.constraints.Min;
+import reactor.core.publisher.Flux;
+
+/**
+ * Controller delle letture non bloccanti dei prezzi settore evento.
+ *
+ * Le risposte sono flussi letti dal database tramite R2DBC: il thread della richiesta viene rilasciato subito e
+ * con Accept {@code application/x-ndjson} ogni prezzo viene scritto appena letto, richiedendo al database
+ * l'elemento successivo solo dopo la scrittura del precedente. Con Accept {@code application/json} i prezzi
+ * vengono raccolti in un array JSON, come negli endpoint di {@link PrezzoSettoreEventoController}.
+ */
+@RestController
+@Validated
+@RequestMapping(path = "/prezzi-settore-evento/reattivo", produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+@Tag(name = "Lettura non bloccante dei Prezzi Settore Evento",
+description = "Questo modulo fornisce le stesse letture dei prezzi settore evento per evento e per settore tramite un driver non bloccante, "
+		+ "con i risultati in streaming NDJSON ordinati per id.")
+public class PrezzoSettoreEventoReattivoController {
+
+	@Autowired
+	private PrezzoSettoreEventoReattivoService pseService;
+
+	/**
+	 * Ottiene in streaming i prezzi settore evento per un determinato evento.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @return Il flusso dei prezzi settore evento.
+	 */
+	@Operation(summary = "Visualizza in streaming i prezzi settore evento per un determinato evento",
+			   description = "Questo endpoint restituisce i prezzi dei settori per un determinato evento, ordinati per id.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/lista-by-evento/id-evento/{idEvento}")
+	public Flux<PrezzoSettoreEvento> getListaPrezzoSettoreEventoByIdEvento(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento){
+		return pseService.findAllByIdEvento(idEvento);
+	}
+
+	/**
+	 * Ottiene in streaming i prezzi settore evento per un determinato settore.
+	 *
+	 * @param idSettore L'id del settore.
+	 * @return Il flusso dei prezzi settore evento.
+	 */
+	@Operation(summary = "Visualizza in streaming i prezzi settore evento per un determinato settore",
+			   description = "Questo endpoint restituisce i prezzi dei settori per un determinato settore, ordinati per id.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/lista-by-settore/id-settore/{idSettore}")
+	public Flux<PrezzoSettoreEvento> getListaPrezzoSettoreEventoByIdSettore(
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore){
+		return pseService.findAllByIdSettore(idSettore);
+	}
+
+	/**
+	 * Ottiene in streaming i prezzi settore evento per un determinato evento e settore.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @return Il flusso dei prezzi settore evento.
+	 */
+	@Operation(summary = "Visualizza in streaming i prezzi settore evento per un determinato evento e settore",
+			   description = "Questo endpoint restituisce i prezzi dei settori per un determinato evento e settore, ordinati per id.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/lista-by-evento-settore/id-evento/{idEvento}/id-settore/{idSettore}")
+	public Flux<PrezzoSettoreEvento> getListaPrezzoSettoreEventoByIdEventoAndIdSettore(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore){
+		return pseService.findAllByIdEventoAndIdSettore(idEvento, idSettore);
+	}
+
+	/**
+	 * Ottiene in streaming i prezzi settore evento disponibili per un determinato evento.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @return Il flusso dei prezzi settore evento disponibili.
+	 */
+	@Operation(summary = "Visualizza in streaming i prezzi disponibili per un determinato evento",
+			   description = "Questo endpoint restituisce i prezzi non cancellati dei settori per un determinato evento, ordinati per id.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/lista-by-evento-is-cancellato-false/id-evento/{idEvento}")
+	public Flux<PrezzoSettoreEvento> getListaPrezzoSettoreEventoByIdEventoAndIsCancellatoFalse(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento){
+		return pseService.findAllByIdEventoAndIsCancellatoFalse(idEvento);
+	}
+
+	/**
+	 * Ottiene in streaming i prezzi settore evento disponibili per un determinato settore.
+	 *
+	 * @param idSettore L'id del settore.
+	 * @return Il flusso dei prezzi settore evento disponibili.
+	 */
+	@Operation(summary = "Visualizza in streaming i prezzi disponibili per un determinato settore",
+			   description = "Questo endpoint restituisce i prezzi non cancellati per un determinato settore, ordinati per id.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/lista-by-settore-is-cancellato-false/id-settore/{idSettore}")
+	public Flux<PrezzoSettoreEvento> getListaPrezzoSettoreEventoByIdSettoreAndIsCancellatoFalse(
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore){
+		return pseService.findAllByIdSettoreAndIsCancellatoFalse(idSettore);
+	}
+
+	/**
+	 * Ottiene in streaming i prezzi settore evento disponibili per un determinato evento e settore.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @return Il flusso dei prezzi settore evento disponibili.
+	 */
+	@Operation(summary = "Visualizza in streaming i prezzi disponibili per un determinato evento e settore",
+			   description = "Questo endpoint restituisce i prezzi non cancellati per un determinato evento e settore, ordinati per id.")
+	@ApiResponses(value = {
+			@ApiResponse(description = "Operazione riuscita", responseCode = "200"),
+			@ApiResponse(description = "Richiesta non valida",responseCode = "400", content = @Content(
+			        mediaType = MediaType.APPLICATION_JSON_VALUE,
+			        schema = @Schema(implementation = ErrorMessage.class)
+			    ))
+	})
+	@GetMapping("/lista-by-evento-settore-is-cancellato-false/id-evento/{idEvento}/id-settore/{idSettore}")
+	public Flux<PrezzoSettoreEvento> getListaPrezzoSettoreEventoByIdEventoAndIdSettoreAndIsCancellatoFalse(
+			@PathVariable("idEvento") @Min(value = 1, message = "L'id dell'evento non è valido") long idEvento,
+			@PathVariable("idSettore") @Min(value = 1, message = "L'id del settore non è valido") long idSettore){
+		return pseService.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(idEvento, idSettore);
+	}
+
+	/**
+	 * Ottiene in streaming tutti i prezzi settore evento disponibili.
+	 *
+	 * @return Il flusso dei prezzi settore evento disponibili.
+	 */
+	@Operation(summary = "Visualizza in streaming tutti i prezzi disponibili",
+			   description = "Questo endpoint restituisce tutti i prezzi non cancellati, ordinati per id.")
+	@GetMapping("/lista-is-cancellato-false")
+	public Flux<PrezzoSettoreEvento> getAllIsCancellatoFalse(){
+		return pseService.findAllByIsCancellatoFalse();
+	}
+
+	/**
+	 * Ottiene in streaming i prezzi settore evento per una lista di eventi.
+	 *
+	 * @param idEventi Gli id degli eventi.
+	 * @return Il flusso dei prezzi settore evento.
+	 */
+	@Operation(summary = "Visualizza in streaming i prezzi settore evento per una lista di eventi",
+			   description = "Questo endpoint restituisce i prezzi dei settori per gli eventi indicati nel corpo della richiesta, ordinati per id.")
+	@PostMapping("/ids-evento")
+	public Flux<PrezzoSettoreEvento> findAllByIdsEvento(@RequestBody List<Long> idEventi){
+		return pseService.getListaPseByIdsEvento(idEventi);
+	}
+}
@@ -0,0 +1,39 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request;
+
+import java.time.Instant;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Classe DTO utilizzata per la richiesta di programmazione di una modifica del prezzo di un settore per un evento,
+ * da applicare a un istante futuro.
+ */
+@Data
+public class ModificaPrezzoProgrammataDtoRequest {
+
+    /**
+     * L'ID del settore del prezzo da modificare.
+     */
+    @Min(value = 1, message = "Id settore non valido")
+    private long idSettore;
+
+    /**
+     * L'ID dell'evento del prezzo da modificare.
+     */
+    @Min(value = 1, message = "Id evento non valido")
+    private long idEvento;
+
+    /**
+     * Il nuovo prezzo.
+     */
+    @Min(value = 0, message = "Prezzo non valido")
+    private double prezzo;
+
+    /**
+     * L'istante da cui il nuovo prezzo è in vigore, in formato ISO-8601.
+     */
+    @NotNull(message = "Istante mancante")
+    private Instant istante;
+}
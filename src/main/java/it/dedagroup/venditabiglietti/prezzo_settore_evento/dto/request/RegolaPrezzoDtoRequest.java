@@ -0,0 +1,32 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Classe DTO utilizzata per la richiesta di creazione o modifica della regola di prezzo di un settore per un evento.
+ */
+@Data
+public class RegolaPrezzoDtoRequest {
+
+    /**
+     * L'ID dell'evento della regola.
+     */
+    @Min(value = 1, message = "Id evento non valido")
+    private long idEvento;
+
+    /**
+     * L'ID del settore della regola, 0 per la regola valida per tutti i settori dell'evento senza una regola propria.
+     */
+    @Min(value = 0, message = "Id settore non valido")
+    private long idSettore;
+
+    /**
+     * L'espressione della regola, ad esempio {@code limita(base * domanda, base, 150)}.
+     */
+    @NotBlank(message = "Espressione mancante")
+    @Size(max = 500, message = "L'espressione può contenere al massimo 500 caratteri")
+    private String espressione;
+}
@@ -0,0 +1,36 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classe DTO che descrive una riga di carrello di cui calcolare il preventivo:
+ * l'evento, il settore e il numero di biglietti richiesti.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RigaPreventivoDtoRequest {
+
+	/**
+	 * L'ID dell'evento della riga.
+	 */
+	@Min(value = 1, message = "Id evento non valido")
+	private long idEvento;
+
+	/**
+	 * L'ID del settore della riga.
+	 */
+	@Min(value = 1, message = "Id settore non valido")
+	private long idSettore;
+
+	/**
+	 * Il numero di biglietti della riga.
+	 */
+	@Min(value = 1, message = "Quantità non valida")
+	@Max(value = 1000, message = "La quantità massima di una riga è 1000")
+	private int quantita;
+}
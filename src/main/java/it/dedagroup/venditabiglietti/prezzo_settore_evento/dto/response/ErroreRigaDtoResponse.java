@@ -0,0 +1,26 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classe DTO che descrive gli errori di validazione di un singolo elemento di una richiesta multipla.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErroreRigaDtoResponse {
+
+	/**
+	 * La posizione, a partire da zero, dell'elemento nella richiesta.
+	 */
+	private int indice;
+
+	/**
+	 * I messaggi di errore relativi all'elemento.
+	 */
+	private List<String> messaggi;
+}
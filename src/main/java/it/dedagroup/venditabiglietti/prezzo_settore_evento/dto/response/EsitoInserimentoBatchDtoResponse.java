@@ -0,0 +1,32 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classe DTO che riporta l'esito di un inserimento multiplo di prezzi settore evento:
+ * gli id degli elementi inseriti e gli errori degli elementi scartati.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EsitoInserimentoBatchDtoResponse {
+
+	/**
+	 * Il numero di prezzi settore evento inseriti.
+	 */
+	private int inseriti;
+
+	/**
+	 * Gli id assegnati ai prezzi settore evento inseriti, nell'ordine della richiesta.
+	 */
+	private List<Long> id;
+
+	/**
+	 * Gli errori degli elementi non validi, che non sono stati inseriti.
+	 */
+	private List<ErroreRigaDtoResponse> errori;
+}
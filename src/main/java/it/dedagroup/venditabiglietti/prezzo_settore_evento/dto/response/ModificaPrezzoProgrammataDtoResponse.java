@@ -0,0 +1,51 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classe DTO con una modifica di prezzo programmata.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModificaPrezzoProgrammataDtoResponse {
+
+	/**
+	 * L'ID della modifica.
+	 */
+	private long id;
+
+	/**
+	 * L'ID dell'evento.
+	 */
+	private long idEvento;
+
+	/**
+	 * L'ID del settore.
+	 */
+	private long idSettore;
+
+	/**
+	 * Il nuovo prezzo.
+	 */
+	private double prezzo;
+
+	/**
+	 * L'istante da cui il nuovo prezzo è in vigore.
+	 */
+	private Instant istante;
+
+	/**
+	 * Indica se la modifica è già stata applicata.
+	 */
+	private boolean applicata;
+
+	/**
+	 * L'istante in cui la modifica è stata applicata, null finché non viene applicata.
+	 */
+	private Instant applicataIl;
+}
@@ -0,0 +1,29 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classe DTO che rappresenta una pagina di risultati ottenuta con paginazione a cursore (keyset).
+ * Per ottenere la pagina successiva si ripete la richiesta passando il valore di {@code cursoreSuccessivo}.
+ *
+ * @param <T> Il tipo degli elementi della pagina.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaDtoResponse<T> {
+
+	/**
+	 * Gli elementi della pagina, ordinati per id.
+	 */
+	private List<T> elementi;
+
+	/**
+	 * Il cursore da usare per richiedere la pagina successiva, {@code null} se questa è l'ultima pagina.
+	 */
+	private String cursoreSuccessivo;
+}
@@ -0,0 +1,31 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classe DTO con il preventivo di un carrello: il prezzo di ciascuna riga e il totale delle righe disponibili.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PreventivoDtoResponse {
+
+	/**
+	 * Le righe del preventivo, nell'ordine della richiesta.
+	 */
+	private List<RigaPreventivoDtoResponse> righe;
+
+	/**
+	 * La somma degli importi delle righe disponibili.
+	 */
+	private double totale;
+
+	/**
+	 * True se tutte le righe sono disponibili, quindi il totale copre l'intero carrello.
+	 */
+	private boolean completo;
+}
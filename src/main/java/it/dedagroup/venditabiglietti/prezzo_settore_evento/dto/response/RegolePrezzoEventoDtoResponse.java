@@ -0,0 +1,33 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.RegolaPrezzo;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classe DTO con le regole di prezzo di un evento e i fattori da esse utilizzati.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegolePrezzoEventoDtoResponse {
+
+	/**
+	 * L'ID dell'evento.
+	 */
+	private long idEvento;
+
+	/**
+	 * Le regole dell'evento, ordinate per settore; quella con id settore 0 vale per i settori senza una regola propria.
+	 */
+	private List<RegolaPrezzo> regole;
+
+	/**
+	 * I valori dei fattori dell'evento, per nome.
+	 */
+	private Map<String, Double> fattori;
+}
@@ -0,0 +1,44 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classe DTO con il prezzo di una riga di preventivo, nello stesso ordine delle righe della richiesta.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RigaPreventivoDtoResponse {
+
+	/**
+	 * L'ID dell'evento della riga.
+	 */
+	private long idEvento;
+
+	/**
+	 * L'ID del settore della riga.
+	 */
+	private long idSettore;
+
+	/**
+	 * Il numero di biglietti della riga.
+	 */
+	private int quantita;
+
+	/**
+	 * Il prezzo disponibile di un biglietto, null se la riga non è {@link StatoRigaPreventivo#DISPONIBILE}.
+	 */
+	private Double prezzoUnitario;
+
+	/**
+	 * Il prezzo unitario moltiplicato per la quantità, null se la riga non è {@link StatoRigaPreventivo#DISPONIBILE}.
+	 */
+	private Double importo;
+
+	/**
+	 * L'esito della ricerca del prezzo della riga.
+	 */
+	private StatoRigaPreventivo stato;
+}
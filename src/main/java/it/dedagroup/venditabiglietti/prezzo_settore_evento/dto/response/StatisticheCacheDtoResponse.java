@@ -0,0 +1,44 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classe DTO che riporta le statistiche di utilizzo di una cache dei prezzi settore evento.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatisticheCacheDtoResponse {
+
+	/**
+	 * Il nome della cache.
+	 */
+	private String nome;
+
+	/**
+	 * Il numero di letture servite dalla cache.
+	 */
+	private long hit;
+
+	/**
+	 * Il numero di letture che hanno richiesto un accesso al repository.
+	 */
+	private long miss;
+
+	/**
+	 * Il rapporto tra hit e richieste totali.
+	 */
+	private double hitRate;
+
+	/**
+	 * Il numero di voci rimosse per dimensione o scadenza.
+	 */
+	private long eviction;
+
+	/**
+	 * Il numero stimato di voci attualmente presenti.
+	 */
+	private long dimensione;
+}
@@ -0,0 +1,22 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response;
+
+/**
+ * Esito della ricerca del prezzo di una riga di preventivo.
+ */
+public enum StatoRigaPreventivo {
+
+	/**
+	 * Esiste un prezzo disponibile per l'evento e il settore della riga.
+	 */
+	DISPONIBILE,
+
+	/**
+	 * Per l'evento e il settore della riga esistono solo prezzi cancellati.
+	 */
+	CANCELLATO,
+
+	/**
+	 * Non esiste alcun prezzo per l'evento e il settore della riga.
+	 */
+	MANCANTE
+}
@@ -0,0 +1,52 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response;
+
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Classe DTO con una versione dello storico dei prezzi di un settore per un evento,
+ * valida dall'istante {@code validoDa} incluso all'istante {@code validoA} escluso.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionePrezzoDtoResponse {
+
+	/**
+	 * L'ID dell'evento.
+	 */
+	private long idEvento;
+
+	/**
+	 * L'ID del settore.
+	 */
+	private long idSettore;
+
+	/**
+	 * Il prezzo disponibile nella versione, null se nel periodo nessun prezzo era disponibile.
+	 */
+	private Double prezzo;
+
+	/**
+	 * L'ID del prezzo settore evento da cui deriva la versione.
+	 */
+	private long idPrezzoSettoreEvento;
+
+	/**
+	 * La versione del prezzo settore evento dopo la modifica.
+	 */
+	private long version;
+
+	/**
+	 * L'istante da cui la versione è valida.
+	 */
+	private Instant validoDa;
+
+	/**
+	 * L'istante da cui è valida la versione successiva, null per la versione corrente.
+	 */
+	private Instant validoA;
+}
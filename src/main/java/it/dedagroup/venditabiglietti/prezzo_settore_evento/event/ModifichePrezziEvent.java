@@ -0,0 +1,50 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.event;
+
+import java.util.List;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento applicativo pubblicato dal servizio per ogni scrittura sui prezzi settore evento, con il dettaglio della modifica
+ * destinato al journal delle modifiche. A differenza di {@link PrezziEventoModificatiEvent}, che descrive solo l'ambito
+ * da invalidare, riporta i valori scritti.
+ *
+ * Le scritture di singoli prezzi riferiscono le entità scritte, lette dopo il commit così da riportare gli id e le versioni
+ * assegnati dal database. Le scritture massive, che non caricano le entità, riportano l'ambito e i valori impostati;
+ * un id a 0 significa che la modifica non è circoscritta a quella dimensione.
+ */
+@Getter
+@AllArgsConstructor
+public class ModifichePrezziEvent {
+
+	private final TipoModifica tipo;
+
+	/**
+	 * Istante della modifica in millisecondi dall'epoca.
+	 */
+	private final long istante;
+
+	/**
+	 * I prezzi scritti, vuota per le scritture massive.
+	 */
+	private final List<PrezzoSettoreEvento> prezzi;
+
+	private final long idEvento;
+	private final long idSettore;
+	private final double prezzo;
+	private final long versione;
+
+	public static ModifichePrezziEvent perPrezzo(TipoModifica tipo, PrezzoSettoreEvento pse) {
+		return perPrezzi(tipo, List.of(pse));
+	}
+
+	public static ModifichePrezziEvent perPrezzi(TipoModifica tipo, List<PrezzoSettoreEvento> prezzi) {
+		return new ModifichePrezziEvent(tipo, System.currentTimeMillis(), prezzi, 0, 0, 0, 0);
+	}
+
+	public static ModifichePrezziEvent perAmbito(TipoModifica tipo, long idEvento, long idSettore, double prezzo, long versione) {
+		return new ModifichePrezziEvent(tipo, System.currentTimeMillis(), List.of(), idEvento, idSettore, prezzo, versione);
+	}
+}
@@ -0,0 +1,21 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.event;
+
+import java.util.List;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.ModificaPrezzoProgrammata;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento applicativo pubblicato dopo la registrazione di nuove modifiche di prezzo programmate,
+ * così che lo scheduler aggiunga alla ruota temporale quelle che scadono entro il suo orizzonte.
+ */
+@Getter
+@AllArgsConstructor
+public class ModifichePrezzoProgrammateEvent {
+
+	/**
+	 * Le modifiche registrate, con gli id assegnati.
+	 */
+	private final List<ModificaPrezzoProgrammata> modifiche;
+}
@@ -0,0 +1,43 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento applicativo pubblicato dal servizio dopo ogni scrittura sui prezzi settore evento.
+ * Indica l'ambito della modifica: un evento, un settore oppure una coppia evento/settore.
+ * Un campo {@code null} significa che la modifica non è circoscritta a quella dimensione.
+ *
+ * I componenti che mantengono copie in memoria dei prezzi (ad esempio la cache) lo ascoltano
+ * per invalidare i dati non più validi.
+ */
+@Getter
+@AllArgsConstructor
+public class PrezziEventoModificatiEvent {
+
+	/**
+	 * L'id dell'evento modificato, {@code null} se la modifica riguarda più eventi.
+	 */
+	private final Long idEvento;
+
+	/**
+	 * L'id del settore modificato, {@code null} se la modifica riguarda più settori.
+	 */
+	private final Long idSettore;
+
+	public static PrezziEventoModificatiEvent perEvento(long idEvento) {
+		return new PrezziEventoModificatiEvent(idEvento, null);
+	}
+
+	public static PrezziEventoModificatiEvent perSettore(long idSettore) {
+		return new PrezziEventoModificatiEvent(null, idSettore);
+	}
+
+	public static PrezziEventoModificatiEvent perEventoESettore(long idEvento, long idSettore) {
+		return new PrezziEventoModificatiEvent(idEvento, idSettore);
+	}
+
+	public static PrezziEventoModificatiEvent perTutti() {
+		return new PrezziEventoModificatiEvent(null, null);
+	}
+}
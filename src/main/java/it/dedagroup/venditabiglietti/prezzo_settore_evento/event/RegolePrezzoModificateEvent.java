@@ -0,0 +1,18 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Evento applicativo pubblicato dopo una modifica delle regole di prezzo o dei fattori di un evento,
+ * così che le regole compilate dell'evento vengano ricostruite dopo il commit.
+ */
+@Getter
+@AllArgsConstructor
+public class RegolePrezzoModificateEvent {
+
+	/**
+	 * L'id dell'evento delle regole modificate.
+	 */
+	private final long idEvento;
+}
@@ -0,0 +1,44 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.event;
+
+/**
+ * Tipo di una scrittura sui prezzi settore evento, con il codice con cui viene registrata nel journal delle modifiche.
+ * I codici sono persistiti e non vanno riassegnati.
+ */
+public enum TipoModifica {
+
+	INSERIMENTO(1),
+	MODIFICA(2),
+	MODIFICA_PREZZO(3),
+	MODIFICA_SETTORE(4),
+	MODIFICA_EVENTO(5),
+	CANCELLAZIONE(6),
+	CANCELLAZIONE_PER_EVENTO(7),
+	CANCELLAZIONE_PER_SETTORE(8),
+	CANCELLAZIONE_PER_EVENTO_SETTORE(9);
+
+	private static final TipoModifica[] PER_CODICE = new TipoModifica[16];
+
+	static {
+		for (TipoModifica tipo : values()) PER_CODICE[tipo.codice] = tipo;
+	}
+
+	private final byte codice;
+
+	TipoModifica(int codice) {
+		this.codice = (byte) codice;
+	}
+
+	public byte getCodice() {
+		return codice;
+	}
+
+	/**
+	 * Restituisce il tipo corrispondente a un codice.
+	 *
+	 * @param codice Il codice letto dal journal.
+	 * @return Il tipo, {@code null} se il codice non corrisponde ad alcun tipo.
+	 */
+	public static TipoModifica daCodice(byte codice) {
+		return codice > 0 && codice < PER_CODICE.length ? PER_CODICE[codice] : null;
+	}
+}
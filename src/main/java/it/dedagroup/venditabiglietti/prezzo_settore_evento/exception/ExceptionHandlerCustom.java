@@ -1,13 +1,21 @@
 package it.dedagroup.venditabiglietti.prezzo_settore_evento.exception;
 
+import java.util.Locale;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
 
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.ErrorMessage;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotFoundExceptionCustom;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotValidDataException;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.ScritturaNonConfermataException;
 import jakarta.validation.ConstraintViolationException;
 
 /**
@@ -24,6 +32,8 @@ import jakarta.validation.ConstraintViolationException;
 @RestControllerAdvice
 public class ExceptionHandlerCustom{
 	
+	static final String VINCOLO_PREZZO_DISPONIBILE = "uk_pse_evento_settore_attivo";
+	
 	/**
 	 * Gestisce le eccezioni di tipo {@link NotValidDataException} restituendo una risposta HTTP BAD_REQUEST
 	 * con i dettagli dell'errore incapsulati in un oggetto {@link ErrorMessage}.
@@ -48,9 +58,77 @@ public class ExceptionHandlerCustom{
 		return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ErrorMessage(e.getMessage(), HttpStatus.NOT_FOUND.value()));
 	}
 	
+	/**
+	 * Gestisce le violazioni dei vincoli del database restituendo una risposta HTTP CONFLICT. Solo la violazione
+	 * del vincolo {@value #VINCOLO_PREZZO_DISPONIBILE} indica un prezzo già disponibile per lo stesso evento e settore;
+	 * per gli altri vincoli, come chiavi primarie e colonne obbligatorie, il messaggio resta generico.
+	 * 
+	 * @param e L'eccezione di tipo {@link DataIntegrityViolationException} catturata.
+	 * @return Una risposta HTTP CONFLICT con i dettagli dell'errore.
+	 */
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	ResponseEntity<ErrorMessage> getDataIntegrityViolationException(DataIntegrityViolationException e){
+		String messaggio = violaVincolo(e, VINCOLO_PREZZO_DISPONIBILE)
+				? "Esiste già un prezzo disponibile per lo stesso evento e settore"
+				: "L'operazione viola un vincolo dei dati";
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorMessage(messaggio, HttpStatus.CONFLICT.value()));
+	}
+	
+	/**
+	 * Verifica se tra le cause dell'eccezione c'è la violazione del vincolo indicato. Il nome estratto da Hibernate
+	 * dipende dal database: H2, ad esempio, lo restituisce in maiuscolo e preceduto dallo schema.
+	 */
+	static boolean violaVincolo(Throwable e, String vincolo) {
+		for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+			if (causa instanceof org.hibernate.exception.ConstraintViolationException violazione) {
+				String nome = violazione.getConstraintName();
+				return nome != null && nome.toLowerCase(Locale.ROOT).contains(vincolo);
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * Gestisce i conflitti di lock ottimistico, quando il prezzo è stato modificato da un'altra richiesta
+	 * dopo la lettura o la versione indicata con {@code If-Match} non è più attuale, restituendo una risposta HTTP CONFLICT.
+	 * 
+	 * @param e L'eccezione di tipo {@link OptimisticLockingFailureException} catturata.
+	 * @return Una risposta HTTP CONFLICT con i dettagli dell'errore.
+	 */
+	@ExceptionHandler(OptimisticLockingFailureException.class)
+	ResponseEntity<ErrorMessage> getOptimisticLockingFailureException(OptimisticLockingFailureException e){
+		return ResponseEntity.status(HttpStatus.CONFLICT).body(new ErrorMessage("Il prezzo settore evento è stato modificato da un'altra richiesta, rileggerlo e riprovare", HttpStatus.CONFLICT.value()));
+	}
+	
+	/**
+	 * Gestisce le scritture differite non confermate restituendo una risposta HTTP SERVICE_UNAVAILABLE:
+	 * il client può ripetere la modifica, che sostituisce quella eventualmente già scritta.
+	 * 
+	 * @param e L'eccezione di tipo {@link ScritturaNonConfermataException} catturata.
+	 * @return Una risposta HTTP SERVICE_UNAVAILABLE con i dettagli dell'errore.
+	 */
+	@ExceptionHandler(ScritturaNonConfermataException.class)
+	ResponseEntity<ErrorMessage> getScritturaNonConfermataException(ScritturaNonConfermataException e){
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ErrorMessage(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE.value()));
+	}
+	
+	/**
+	 * Gestisce le violazioni dei vincoli sui parametri delle richieste restituendo una risposta HTTP BAD_REQUEST.
+	 * Alle richieste che accettano solo NDJSON, come l'esportazione in streaming, il messaggio di errore viene
+	 * restituito in JSON: altrimenti nessun formato sarebbe accettabile e la risposta diventerebbe un errore 500.
+	 * 
+	 * @param e L'eccezione di tipo {@link ConstraintViolationException} catturata.
+	 * @param request La richiesta, con l'header Accept.
+	 * @return Una risposta HTTP BAD_REQUEST con i dettagli dell'errore.
+	 */
 	@ExceptionHandler(ConstraintViolationException.class)
-	ResponseEntity<ErrorMessage> getNotFoundException(ConstraintViolationException e){
-		return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(new ErrorMessage(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
+	ResponseEntity<ErrorMessage> getNotFoundException(ConstraintViolationException e, WebRequest request){
+		ResponseEntity.BodyBuilder risposta = ResponseEntity.status(HttpStatus.BAD_REQUEST);
+		String accept = request.getHeader(HttpHeaders.ACCEPT);
+		if (accept != null && MediaType.parseMediaTypes(accept).stream().allMatch(MediaType.APPLICATION_NDJSON::equalsTypeAndSubtype)) {
+			risposta.contentType(MediaType.APPLICATION_JSON);
+		}
+		return risposta.body(new ErrorMessage(e.getMessage(), HttpStatus.BAD_REQUEST.value()));
 	}
 	
 	
@@ -0,0 +1,20 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model;
+
+import lombok.Getter;
+
+/**
+ * Eccezione che rappresenta una scrittura differita di cui non è stato possibile confermare il commit,
+ * perché il servizio è in chiusura o la conferma non è arrivata in tempo. La scrittura può essere stata eseguita o no.
+ */
+@Getter
+public class ScritturaNonConfermataException extends RuntimeException {
+
+    /**
+     * Costruttore della classe ScritturaNonConfermataException.
+     *
+     * @param message Il messaggio di errore associato all'eccezione.
+     */
+    public ScritturaNonConfermataException(String message) {
+        super(message);
+    }
+}
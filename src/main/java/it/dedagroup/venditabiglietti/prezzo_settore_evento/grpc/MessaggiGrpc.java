@@ -0,0 +1,215 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import io.grpc.MethodDescriptor.Marshaller;
+import io.grpc.Status;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica.CodificaProtobuf;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Messaggi di richiesta del servizio gRPC {@code PrezziSettoreEvento} e marshaller di tutti i messaggi del servizio,
+ * secondo lo schema {@code proto/prezzo_settore_evento.proto}. I prezzi e le liste di prezzi usano la stessa codifica
+ * delle risposte REST {@code application/x-protobuf}, scritta da {@link CodificaProtobuf}.
+ */
+public final class MessaggiGrpc {
+
+	static final int ID = 1;
+
+	static final int EVENTO_SETTORE_ID_EVENTO = 1;
+	static final int EVENTO_SETTORE_ID_SETTORE = 2;
+
+	static final int IDS_EVENTO_ID_EVENTO = 1;
+
+	static final int ESPORTAZIONE_ID_EVENTO_DA = 1;
+	static final int ESPORTAZIONE_ID_EVENTO_A = 2;
+	static final int ESPORTAZIONE_ID_SETTORE_DA = 3;
+	static final int ESPORTAZIONE_ID_SETTORE_A = 4;
+
+	public static final Marshaller<PrezzoSettoreEvento> PREZZO = new MarshallerProtobuf<>(CodificaProtobuf::scriviPrezzo, CodificaProtobuf::leggiPrezzo);
+	public static final Marshaller<List<PrezzoSettoreEvento>> LISTA = new MarshallerProtobuf<>(CodificaProtobuf::scriviLista, CodificaProtobuf::leggiLista);
+	public static final Marshaller<IdRichiesta> ID_RICHIESTA = new MarshallerProtobuf<>(MessaggiGrpc::scriviId, MessaggiGrpc::leggiId);
+	public static final Marshaller<EventoSettoreRichiesta> EVENTO_SETTORE_RICHIESTA = new MarshallerProtobuf<>(MessaggiGrpc::scriviEventoSettore, MessaggiGrpc::leggiEventoSettore);
+	public static final Marshaller<IdsEventoRichiesta> IDS_EVENTO_RICHIESTA = new MarshallerProtobuf<>(MessaggiGrpc::scriviIdsEvento, MessaggiGrpc::leggiIdsEvento);
+	public static final Marshaller<EsportazioneRichiesta> ESPORTAZIONE_RICHIESTA = new MarshallerProtobuf<>(MessaggiGrpc::scriviEsportazione, MessaggiGrpc::leggiEsportazione);
+
+	private MessaggiGrpc() {
+	}
+
+	/**
+	 * Richiesta per id: del prezzo, dell'evento o del settore a seconda del metodo chiamato.
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class IdRichiesta {
+		private long id;
+	}
+
+	/**
+	 * Richiesta per evento e settore.
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class EventoSettoreRichiesta {
+		private long idEvento;
+		private long idSettore;
+	}
+
+	/**
+	 * Richiesta dei prezzi di più eventi.
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class IdsEventoRichiesta {
+		private List<Long> idEventi = new ArrayList<>();
+	}
+
+	/**
+	 * Richiesta di esportazione dei prezzi disponibili, con intervalli inclusivi di id evento e id settore.
+	 * Come nei messaggi proto3, il valore 0 indica un estremo assente.
+	 */
+	@Data
+	@NoArgsConstructor
+	@AllArgsConstructor
+	public static class EsportazioneRichiesta {
+		private long idEventoDa;
+		private long idEventoA;
+		private long idSettoreDa;
+		private long idSettoreA;
+	}
+
+	private static void scriviId(IdRichiesta richiesta, CodedOutputStream out) throws IOException {
+		if (richiesta.getId() != 0) out.writeInt64(ID, richiesta.getId());
+	}
+
+	private static IdRichiesta leggiId(CodedInputStream in) throws IOException {
+		IdRichiesta richiesta = new IdRichiesta();
+		for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+			if (WireFormat.getTagFieldNumber(tag) == ID) richiesta.setId(in.readInt64());
+			else in.skipField(tag);
+		}
+		return richiesta;
+	}
+
+	private static void scriviEventoSettore(EventoSettoreRichiesta richiesta, CodedOutputStream out) throws IOException {
+		if (richiesta.getIdEvento() != 0) out.writeInt64(EVENTO_SETTORE_ID_EVENTO, richiesta.getIdEvento());
+		if (richiesta.getIdSettore() != 0) out.writeInt64(EVENTO_SETTORE_ID_SETTORE, richiesta.getIdSettore());
+	}
+
+	private static EventoSettoreRichiesta leggiEventoSettore(CodedInputStream in) throws IOException {
+		EventoSettoreRichiesta richiesta = new EventoSettoreRichiesta();
+		for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+			switch (WireFormat.getTagFieldNumber(tag)) {
+			case EVENTO_SETTORE_ID_EVENTO -> richiesta.setIdEvento(in.readInt64());
+			case EVENTO_SETTORE_ID_SETTORE -> richiesta.setIdSettore(in.readInt64());
+			default -> in.skipField(tag);
+			}
+		}
+		return richiesta;
+	}
+
+	private static void scriviIdsEvento(IdsEventoRichiesta richiesta, CodedOutputStream out) throws IOException {
+		if (richiesta.getIdEventi().isEmpty()) return;
+		int dimensione = 0;
+		for (long idEvento : richiesta.getIdEventi()) dimensione += CodedOutputStream.computeInt64SizeNoTag(idEvento);
+		out.writeTag(IDS_EVENTO_ID_EVENTO, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+		out.writeUInt32NoTag(dimensione);
+		for (long idEvento : richiesta.getIdEventi()) out.writeInt64NoTag(idEvento);
+	}
+
+	private static IdsEventoRichiesta leggiIdsEvento(CodedInputStream in) throws IOException {
+		IdsEventoRichiesta richiesta = new IdsEventoRichiesta();
+		for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+			if (WireFormat.getTagFieldNumber(tag) != IDS_EVENTO_ID_EVENTO) {
+				in.skipField(tag);
+			} else if (WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+				// campo repeated packed, la forma predefinita in proto3
+				int limite = in.pushLimit(in.readRawVarint32());
+				while (in.getBytesUntilLimit() > 0) richiesta.getIdEventi().add(in.readInt64());
+				in.popLimit(limite);
+			} else {
+				richiesta.getIdEventi().add(in.readInt64());
+			}
+		}
+		return richiesta;
+	}
+
+	private static void scriviEsportazione(EsportazioneRichiesta richiesta, CodedOutputStream out) throws IOException {
+		if (richiesta.getIdEventoDa() != 0) out.writeInt64(ESPORTAZIONE_ID_EVENTO_DA, richiesta.getIdEventoDa());
+		if (richiesta.getIdEventoA() != 0) out.writeInt64(ESPORTAZIONE_ID_EVENTO_A, richiesta.getIdEventoA());
+		if (richiesta.getIdSettoreDa() != 0) out.writeInt64(ESPORTAZIONE_ID_SETTORE_DA, richiesta.getIdSettoreDa());
+		if (richiesta.getIdSettoreA() != 0) out.writeInt64(ESPORTAZIONE_ID_SETTORE_A, richiesta.getIdSettoreA());
+	}
+
+	private static EsportazioneRichiesta leggiEsportazione(CodedInputStream in) throws IOException {
+		EsportazioneRichiesta richiesta = new EsportazioneRichiesta();
+		for (int tag = in.readTag(); tag != 0; tag = in.readTag()) {
+			switch (WireFormat.getTagFieldNumber(tag)) {
+			case ESPORTAZIONE_ID_EVENTO_DA -> richiesta.setIdEventoDa(in.readInt64());
+			case ESPORTAZIONE_ID_EVENTO_A -> richiesta.setIdEventoA(in.readInt64());
+			case ESPORTAZIONE_ID_SETTORE_DA -> richiesta.setIdSettoreDa(in.readInt64());
+			case ESPORTAZIONE_ID_SETTORE_A -> richiesta.setIdSettoreA(in.readInt64());
+			default -> in.skipField(tag);
+			}
+		}
+		return richiesta;
+	}
+
+	@FunctionalInterface
+	private interface Scrittura<T> {
+		void scrivi(T messaggio, CodedOutputStream out) throws IOException;
+	}
+
+	@FunctionalInterface
+	private interface Lettura<T> {
+		T leggi(CodedInputStream in) throws IOException;
+	}
+
+	private static final class MarshallerProtobuf<T> implements Marshaller<T> {
+
+		private final Scrittura<? super T> scrittura;
+		private final Lettura<? extends T> lettura;
+
+		MarshallerProtobuf(Scrittura<? super T> scrittura, Lettura<? extends T> lettura) {
+			this.scrittura = scrittura;
+			this.lettura = lettura;
+		}
+
+		@Override
+		public InputStream stream(T messaggio) {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			CodedOutputStream out = CodedOutputStream.newInstance(buffer);
+			try {
+				scrittura.scrivi(messaggio, out);
+				out.flush();
+			} catch (IOException e) {
+				throw Status.INTERNAL.withDescription("Scrittura del messaggio non riuscita").withCause(e).asRuntimeException();
+			}
+			return new ByteArrayInputStream(buffer.toByteArray());
+		}
+
+		@Override
+		public T parse(InputStream stream) {
+			try {
+				return lettura.leggi(CodedInputStream.newInstance(stream));
+			} catch (IOException e) {
+				throw Status.INTERNAL.withDescription("Messaggio non valido").withCause(e).asRuntimeException();
+			}
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc;
+
+import java.util.Iterator;
+import java.util.List;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.MethodDescriptor;
+import io.grpc.MethodDescriptor.Marshaller;
+import io.grpc.MethodDescriptor.MethodType;
+import io.grpc.stub.AbstractBlockingStub;
+import io.grpc.stub.ClientCalls;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.MessaggiGrpc.EsportazioneRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.MessaggiGrpc.EventoSettoreRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.MessaggiGrpc.IdRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.MessaggiGrpc.IdsEventoRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Descrittori dei metodi del servizio gRPC {@code PrezziSettoreEvento}, definito in {@code proto/prezzo_settore_evento.proto},
+ * e stub bloccante per i client Java. Ha lo stesso ruolo della classe generata da {@code protoc-gen-grpc-java},
+ * con i messaggi codificati da {@link MessaggiGrpc}: TestSchemaProtobuf verifica metodi e messaggi sulla classe generata.
+ */
+public final class PrezziSettoreEventoGrpc {
+
+	public static final String SERVICE_NAME = "it.dedagroup.venditabiglietti.prezzo_settore_evento.PrezziSettoreEvento";
+
+	public static final MethodDescriptor<IdRichiesta, PrezzoSettoreEvento> FIND_BY_ID =
+			unario("FindById", MessaggiGrpc.ID_RICHIESTA, MessaggiGrpc.PREZZO);
+	public static final MethodDescriptor<IdRichiesta, List<PrezzoSettoreEvento>> FIND_ALL_BY_ID_EVENTO =
+			unario("FindAllByIdEvento", MessaggiGrpc.ID_RICHIESTA, MessaggiGrpc.LISTA);
+	public static final MethodDescriptor<IdRichiesta, List<PrezzoSettoreEvento>> FIND_ALL_BY_ID_SETTORE =
+			unario("FindAllByIdSettore", MessaggiGrpc.ID_RICHIESTA, MessaggiGrpc.LISTA);
+	public static final MethodDescriptor<EventoSettoreRichiesta, List<PrezzoSettoreEvento>> FIND_ALL_BY_ID_EVENTO_AND_ID_SETTORE =
+			unario("FindAllByIdEventoAndIdSettore", MessaggiGrpc.EVENTO_SETTORE_RICHIESTA, MessaggiGrpc.LISTA);
+	public static final MethodDescriptor<IdRichiesta, List<PrezzoSettoreEvento>> FIND_ALL_BY_ID_EVENTO_AND_IS_CANCELLATO_FALSE =
+			unario("FindAllByIdEventoAndIsCancellatoFalse", MessaggiGrpc.ID_RICHIESTA, MessaggiGrpc.LISTA);
+	public static final MethodDescriptor<IdRichiesta, List<PrezzoSettoreEvento>> FIND_ALL_BY_ID_SETTORE_AND_IS_CANCELLATO_FALSE =
+			unario("FindAllByIdSettoreAndIsCancellatoFalse", MessaggiGrpc.ID_RICHIESTA, MessaggiGrpc.LISTA);
+	public static final MethodDescriptor<EventoSettoreRichiesta, List<PrezzoSettoreEvento>> FIND_ALL_BY_ID_EVENTO_AND_ID_SETTORE_AND_IS_CANCELLATO_FALSE =
+			unario("FindAllByIdEventoAndIdSettoreAndIsCancellatoFalse", MessaggiGrpc.EVENTO_SETTORE_RICHIESTA, MessaggiGrpc.LISTA);
+	public static final MethodDescriptor<IdsEventoRichiesta, List<PrezzoSettoreEvento>> FIND_ALL_BY_IDS_EVENTO =
+			unario("FindAllByIdsEvento", MessaggiGrpc.IDS_EVENTO_RICHIESTA, MessaggiGrpc.LISTA);
+	public static final MethodDescriptor<EsportazioneRichiesta, PrezzoSettoreEvento> ESPORTA_PREZZI_ATTIVI =
+			MethodDescriptor.<EsportazioneRichiesta, PrezzoSettoreEvento>newBuilder()
+					.setType(MethodType.SERVER_STREAMING)
+					.setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE_NAME, "EsportaPrezziAttivi"))
+					.setRequestMarshaller(MessaggiGrpc.ESPORTAZIONE_RICHIESTA)
+					.setResponseMarshaller(MessaggiGrpc.PREZZO)
+					.build();
+
+	private PrezziSettoreEventoGrpc() {
+	}
+
+	private static <Q, R> MethodDescriptor<Q, R> unario(String metodo, Marshaller<Q> richiesta, Marshaller<R> risposta) {
+		return MethodDescriptor.<Q, R>newBuilder()
+				.setType(MethodType.UNARY)
+				.setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE_NAME, metodo))
+				.setRequestMarshaller(richiesta)
+				.setResponseMarshaller(risposta)
+				.setSafe(true)
+				.setIdempotent(true)
+				.build();
+	}
+
+	/**
+	 * Crea uno stub bloccante sul canale indicato.
+	 *
+	 * @param channel Il canale verso il servizio.
+	 * @return Lo stub.
+	 */
+	public static BlockingStub newBlockingStub(Channel channel) {
+		return new BlockingStub(channel, CallOptions.DEFAULT);
+	}
+
+	/**
+	 * Stub bloccante del servizio: i metodi lanciano {@link io.grpc.StatusRuntimeException} in caso di errore.
+	 */
+	public static final class BlockingStub extends AbstractBlockingStub<BlockingStub> {
+
+		private BlockingStub(Channel channel, CallOptions callOptions) {
+			super(channel, callOptions);
+		}
+
+		@Override
+		protected BlockingStub build(Channel channel, CallOptions callOptions) {
+			return new BlockingStub(channel, callOptions);
+		}
+
+		public PrezzoSettoreEvento findById(long id) {
+			return ClientCalls.blockingUnaryCall(getChannel(), FIND_BY_ID, getCallOptions(), new IdRichiesta(id));
+		}
+
+		public List<PrezzoSettoreEvento> findAllByIdEvento(long idEvento) {
+			return ClientCalls.blockingUnaryCall(getChannel(), FIND_ALL_BY_ID_EVENTO, getCallOptions(), new IdRichiesta(idEvento));
+		}
+
+		public List<PrezzoSettoreEvento> findAllByIdSettore(long idSettore) {
+			return ClientCalls.blockingUnaryCall(getChannel(), FIND_ALL_BY_ID_SETTORE, getCallOptions(), new IdRichiesta(idSettore));
+		}
+
+		public List<PrezzoSettoreEvento> findAllByIdEventoAndIdSettore(long idEvento, long idSettore) {
+			return ClientCalls.blockingUnaryCall(getChannel(), FIND_ALL_BY_ID_EVENTO_AND_ID_SETTORE, getCallOptions(),
+					new EventoSettoreRichiesta(idEvento, idSettore));
+		}
+
+		public List<PrezzoSettoreEvento> findAllByIdEventoAndIsCancellatoFalse(long idEvento) {
+			return ClientCalls.blockingUnaryCall(getChannel(), FIND_ALL_BY_ID_EVENTO_AND_IS_CANCELLATO_FALSE, getCallOptions(), new IdRichiesta(idEvento));
+		}
+
+		public List<PrezzoSettoreEvento> findAllByIdSettoreAndIsCancellatoFalse(long idSettore) {
+			return ClientCalls.blockingUnaryCall(getChannel(), FIND_ALL_BY_ID_SETTORE_AND_IS_CANCELLATO_FALSE, getCallOptions(), new IdRichiesta(idSettore));
+		}
+
+		public List<PrezzoSettoreEvento> findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore) {
+			return ClientCalls.blockingUnaryCall(getChannel(), FIND_ALL_BY_ID_EVENTO_AND_ID_SETTORE_AND_IS_CANCELLATO_FALSE, getCallOptions(),
+					new EventoSettoreRichiesta(idEvento, idSettore));
+		}
+
+		public List<PrezzoSettoreEvento> findAllByIdsEvento(List<Long> idEventi) {
+			return ClientCalls.blockingUnaryCall(getChannel(), FIND_ALL_BY_IDS_EVENTO, getCallOptions(), new IdsEventoRichiesta(idEventi));
+		}
+
+		/**
+		 * Riceve in streaming i prezzi disponibili: l'iteratore va consumato fino in fondo, oppure la chiamata
+		 * va annullata tramite il {@link io.grpc.Context} corrente.
+		 */
+		public Iterator<PrezzoSettoreEvento> esportaPrezziAttivi(EsportazioneRichiesta richiesta) {
+			return ClientCalls.blockingServerStreamingCall(getChannel(), ESPORTA_PREZZI_ATTIVI, getCallOptions(), richiesta);
+		}
+	}
+}
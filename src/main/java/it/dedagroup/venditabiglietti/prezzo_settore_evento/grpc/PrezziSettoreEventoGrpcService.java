@@ -0,0 +1,173 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import io.grpc.BindableService;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotFoundExceptionCustom;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotValidDataException;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.MessaggiGrpc.EsportazioneRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.MessaggiGrpc.EventoSettoreRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.MessaggiGrpc.IdRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+import jakarta.validation.ConstraintViolationException;
+
+/**
+ * Implementazione del servizio gRPC {@code PrezziSettoreEvento}: ogni metodo delega a {@link PrezzoSettoreEventoService}
+ * con le stesse validazioni dell'endpoint REST corrispondente, quindi cache, indice e metriche del servizio valgono
+ * per entrambi i protocolli. Le eccezioni sono convertite nello stato gRPC equivalente allo stato HTTP restituito da
+ * {@link it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.ExceptionHandlerCustom}.
+ *
+ * L'esportazione in streaming rispetta il controllo di flusso del client: la lettura dal database si sospende finché
+ * il trasporto non è pronto a ricevere altri messaggi. Come l'esportazione NDJSON, viene eseguita sull'esecutore
+ * {@code applicationTaskExecutor}, perché i thread delle chiamate gRPC devono restare liberi di notificare che il
+ * trasporto è di nuovo pronto.
+ *
+ * @see ServerGrpc
+ */
+@Component
+public class PrezziSettoreEventoGrpcService implements BindableService {
+
+	private static final long ATTESA_PRONTO_MILLIS = 100;
+
+	private final PrezzoSettoreEventoService pseService;
+	private final AsyncTaskExecutor esecutore;
+
+	public PrezziSettoreEventoGrpcService(PrezzoSettoreEventoService pseService,
+			@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor esecutore) {
+		this.pseService = pseService;
+		this.esecutore = esecutore;
+	}
+
+	@Override
+	public ServerServiceDefinition bindService() {
+		return ServerServiceDefinition.builder(PrezziSettoreEventoGrpc.SERVICE_NAME)
+				.addMethod(PrezziSettoreEventoGrpc.FIND_BY_ID, ServerCalls.asyncUnaryCall(unario((IdRichiesta r) -> {
+					valida(r.getId(), "l'Id del prezzo settore evento non è valido");
+					return pseService.findById(r.getId());
+				})))
+				.addMethod(PrezziSettoreEventoGrpc.FIND_ALL_BY_ID_EVENTO, ServerCalls.asyncUnaryCall(unario((IdRichiesta r) -> {
+					valida(r.getId(), "L'id dell'evento non è valido");
+					return pseService.findAllByIdEvento(r.getId());
+				})))
+				.addMethod(PrezziSettoreEventoGrpc.FIND_ALL_BY_ID_SETTORE, ServerCalls.asyncUnaryCall(unario((IdRichiesta r) -> {
+					valida(r.getId(), "L'id del settore non è valido");
+					return pseService.findAllByIdSettore(r.getId());
+				})))
+				.addMethod(PrezziSettoreEventoGrpc.FIND_ALL_BY_ID_EVENTO_AND_ID_SETTORE, ServerCalls.asyncUnaryCall(unario((EventoSettoreRichiesta r) -> {
+					valida(r.getIdEvento(), "L'id dell'evento non è valido");
+					valida(r.getIdSettore(), "L'id del settore non è valido");
+					return pseService.findAllByIdEventoAndIdSettore(r.getIdEvento(), r.getIdSettore());
+				})))
+				.addMethod(PrezziSettoreEventoGrpc.FIND_ALL_BY_ID_EVENTO_AND_IS_CANCELLATO_FALSE, ServerCalls.asyncUnaryCall(unario((IdRichiesta r) -> {
+					valida(r.getId(), "L'id dell'evento non è valido");
+					return pseService.findAllByIdEventoAndIsCancellatoFalse(r.getId());
+				})))
+				.addMethod(PrezziSettoreEventoGrpc.FIND_ALL_BY_ID_SETTORE_AND_IS_CANCELLATO_FALSE, ServerCalls.asyncUnaryCall(unario((IdRichiesta r) -> {
+					valida(r.getId(), "L'id del settore non è valido");
+					return pseService.findAllByIdSettoreAndIsCancellatoFalse(r.getId());
+				})))
+				.addMethod(PrezziSettoreEventoGrpc.FIND_ALL_BY_ID_EVENTO_AND_ID_SETTORE_AND_IS_CANCELLATO_FALSE, ServerCalls.asyncUnaryCall(unario((EventoSettoreRichiesta r) -> {
+					valida(r.getIdEvento(), "L'id dell'evento non è valido");
+					valida(r.getIdSettore(), "L'id del settore non è valido");
+					return pseService.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(r.getIdEvento(), r.getIdSettore());
+				})))
+				.addMethod(PrezziSettoreEventoGrpc.FIND_ALL_BY_IDS_EVENTO, ServerCalls.asyncUnaryCall(unario(
+						r -> pseService.getListaPseByIdsEvento(r.getIdEventi()))))
+				.addMethod(PrezziSettoreEventoGrpc.ESPORTA_PREZZI_ATTIVI, ServerCalls.asyncServerStreamingCall(this::esportaPrezziAttivi))
+				.build();
+	}
+
+	private void esportaPrezziAttivi(EsportazioneRichiesta richiesta, StreamObserver<PrezzoSettoreEvento> risposta) {
+		ServerCallStreamObserver<PrezzoSettoreEvento> osservatore = (ServerCallStreamObserver<PrezzoSettoreEvento>) risposta;
+		ReentrantLock lock = new ReentrantLock();
+		Condition pronto = lock.newCondition();
+		Runnable segnala = () -> {
+			lock.lock();
+			try {
+				pronto.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		};
+		osservatore.setOnReadyHandler(segnala);
+		osservatore.setOnCancelHandler(segnala);
+		long idEventoDa = richiesta.getIdEventoDa() == 0 ? 1 : richiesta.getIdEventoDa();
+		long idEventoA = richiesta.getIdEventoA() == 0 ? Long.MAX_VALUE : richiesta.getIdEventoA();
+		long idSettoreDa = richiesta.getIdSettoreDa() == 0 ? 1 : richiesta.getIdSettoreDa();
+		long idSettoreA = richiesta.getIdSettoreA() == 0 ? Long.MAX_VALUE : richiesta.getIdSettoreA();
+		esecutore.execute(() -> {
+			try {
+				valida(idEventoDa, "L'id evento iniziale non è valido");
+				valida(idSettoreDa, "L'id settore iniziale non è valido");
+				pseService.esportaPrezziAttivi(idEventoDa, idEventoA, idSettoreDa, idSettoreA, pse -> {
+					attendiPronto(osservatore, lock, pronto);
+					osservatore.onNext(pse);
+				});
+				osservatore.onCompleted();
+			} catch (RuntimeException e) {
+				if (!osservatore.isCancelled()) osservatore.onError(stato(e));
+			}
+		});
+	}
+
+	/**
+	 * Attende che il trasporto accetti altri messaggi; se il client annulla la chiamata interrompe l'esportazione,
+	 * e con essa la transazione di lettura, lanciando un'eccezione dal consumer.
+	 */
+	private static void attendiPronto(ServerCallStreamObserver<?> osservatore, ReentrantLock lock, Condition pronto) {
+		lock.lock();
+		try {
+			while (!osservatore.isReady()) {
+				if (osservatore.isCancelled()) throw Status.CANCELLED.withDescription("Esportazione annullata dal client").asRuntimeException();
+				pronto.await(ATTESA_PRONTO_MILLIS, TimeUnit.MILLISECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw Status.CANCELLED.withDescription("Esportazione interrotta").withCause(e).asRuntimeException();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private static <Q, R> ServerCalls.UnaryMethod<Q, R> unario(Function<Q, R> metodo) {
+		return (richiesta, risposta) -> {
+			R risultato;
+			try {
+				risultato = metodo.apply(richiesta);
+			} catch (RuntimeException e) {
+				risposta.onError(stato(e));
+				return;
+			}
+			risposta.onNext(risultato);
+			risposta.onCompleted();
+		};
+	}
+
+	private static void valida(long id, String messaggio) {
+		if (id < 1) throw new NotValidDataException(messaggio);
+	}
+
+	private static StatusRuntimeException stato(RuntimeException e) {
+		if (e instanceof StatusRuntimeException sre) return sre;
+		Status status;
+		if (e instanceof NotFoundExceptionCustom) status = Status.NOT_FOUND;
+		else if (e instanceof NotValidDataException || e instanceof ConstraintViolationException) status = Status.INVALID_ARGUMENT;
+		else status = Status.INTERNAL;
+		return status.withDescription(e.getMessage()).withCause(e).asRuntimeException();
+	}
+}
@@ -0,0 +1,67 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.context.ServletWebServerInitializedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.GrpcProperties;
+
+/**
+ * Server gRPC HTTP/2 che espone {@link PrezziSettoreEventoGrpcService} accanto al controller REST,
+ * attivo con {@code prezzo-settore-evento.grpc.abilitato=true}.
+ *
+ * Il server viene avviato quando il server web dell'applicazione è pronto, quindi non parte nei contesti
+ * senza server web, come i test con MockMvc e i benchmark del servizio, che possono usare il servizio
+ * gRPC in-process. Alla chiusura del contesto smette di accettare chiamate e attende quelle in corso
+ * fino a {@code prezzo-settore-evento.grpc.attesa-chiusura}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "prezzo-settore-evento.grpc", name = "abilitato", havingValue = "true", matchIfMissing = true)
+public class ServerGrpc implements ApplicationListener<ServletWebServerInitializedEvent>, DisposableBean {
+
+	private final PrezziSettoreEventoGrpcService servizio;
+	private final GrpcProperties properties;
+	private Server server;
+
+	public ServerGrpc(PrezziSettoreEventoGrpcService servizio, GrpcProperties properties) {
+		this.servizio = servizio;
+		this.properties = properties;
+	}
+
+	@Override
+	public synchronized void onApplicationEvent(ServletWebServerInitializedEvent event) {
+		if (server != null || event.getApplicationContext().getServerNamespace() != null) return;
+		try {
+			server = NettyServerBuilder.forPort(properties.getPorta()).addService(servizio).build().start();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Avvio del server gRPC sulla porta " + properties.getPorta() + " non riuscito", e);
+		}
+	}
+
+	/**
+	 * Restituisce la porta su cui il server è in ascolto, utile quando è configurata a 0.
+	 *
+	 * @return La porta del server, -1 se il server non è avviato.
+	 */
+	public synchronized int getPorta() {
+		return server == null ? -1 : server.getPort();
+	}
+
+	@Override
+	public synchronized void destroy() throws InterruptedException {
+		if (server == null) return;
+		server.shutdown();
+		if (!server.awaitTermination(properties.getAttesaChiusura().toMillis(), TimeUnit.MILLISECONDS)) {
+			server.shutdownNow();
+		}
+		server = null;
+	}
+}
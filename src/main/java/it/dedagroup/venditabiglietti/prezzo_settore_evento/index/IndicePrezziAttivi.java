@@ -0,0 +1,188 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.index;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.cache.MarcatoriModifiche;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.IndicePrezziProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+
+/**
+ * Indice in memoria dei prezzi disponibili (non cancellati), organizzato come evento → settore → prezzo
+ * su mappe a chiavi primitive.
+ *
+ * L'indice viene caricato all'avvio con {@link PrezzoSettoreEventoRepository#findAllByIsCancellatoFalse()}
+ * e aggiornato dopo il commit di ogni scrittura, alla ricezione di un {@link PrezziEventoModificatiEvent}.
+ * Lo stato è pubblicato come riferimento volatile a una {@link MappaEventi} immutabile: i lettori non
+ * prendono lock e la ricerca di un prezzo non alloca oggetti. Gli aggiornamenti sono serializzati e
+ * rileggono dal repository gli eventi coinvolti, così che l'ultima istantanea pubblicata rifletta sempre
+ * l'ultimo commit. Il lock di scrittura è un {@link ReentrantLock} e non un blocco {@code synchronized},
+ * poiché durante la rilettura un thread virtuale resterebbe altrimenti vincolato al proprio carrier.
+ *
+ * Se per la stessa coppia evento/settore esistono più prezzi disponibili, l'indice mantiene quello con id maggiore.
+ */
+@Component
+public class IndicePrezziAttivi {
+
+	private static final Logger log = LogManager.getLogger(IndicePrezziAttivi.class);
+
+	@Autowired
+	private PrezzoSettoreEventoRepository repo;
+
+	private final boolean abilitato;
+	private final ReentrantLock lockScrittura = new ReentrantLock();
+	private volatile MappaEventi eventi = MappaEventi.VUOTA;
+	private volatile boolean caricato;
+
+	public IndicePrezziAttivi(IndicePrezziProperties properties) {
+		this.abilitato = properties.isAbilitato();
+	}
+
+	/**
+	 * Carica l'indice all'avvio dell'applicazione, se abilitato.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void caricaAllAvvio() {
+		if (!abilitato) return;
+		long inizio = System.nanoTime();
+		ricarica();
+		log.info("Indice prezzi caricato: {} eventi, {} byte stimati in {} ms",
+				eventi.dimensione(), getByteOccupati(), (System.nanoTime() - inizio) / 1_000_000);
+	}
+
+	/**
+	 * Ricostruisce l'intero indice a partire dai prezzi disponibili nel repository.
+	 */
+	public void ricarica() {
+		lockScrittura.lock();
+		try {
+			eventi = costruisci(repo.findAllByIsCancellatoFalse().orElse(List.of()));
+			caricato = true;
+		} finally {
+			lockScrittura.unlock();
+		}
+	}
+
+	/**
+	 * Costruisce una mappa eventi a partire da una lista di prezzi disponibili.
+	 * Le righe vengono inserite in ordine di id, così che a parità di evento e settore prevalga l'id maggiore.
+	 *
+	 * @param prezzi I prezzi disponibili.
+	 * @return La mappa eventi immutabile.
+	 */
+	static MappaEventi costruisci(List<PrezzoSettoreEvento> prezzi) {
+		Map<Long, MappaPrezziSettore.Costruttore> perEvento = new HashMap<>();
+		prezzi.stream()
+				.sorted(Comparator.comparingLong(PrezzoSettoreEvento::getId))
+				.forEach(pse -> perEvento.computeIfAbsent(pse.getIdEvento(), k -> new MappaPrezziSettore.Costruttore())
+						.aggiungi(pse.getIdSettore(), pse.getPrezzo()));
+		long[] idEventi = new long[perEvento.size()];
+		MappaPrezziSettore[] istantanee = new MappaPrezziSettore[perEvento.size()];
+		int n = 0;
+		for (Map.Entry<Long, MappaPrezziSettore.Costruttore> voce : perEvento.entrySet()) {
+			idEventi[n] = voce.getKey();
+			istantanee[n] = voce.getValue().costruisci();
+			n++;
+		}
+		return MappaEventi.di(idEventi, istantanee, n);
+	}
+
+	/**
+	 * Aggiorna l'indice dopo il commit di una scrittura.
+	 * Gli eventi ricevuti prima del caricamento iniziale vengono ignorati, poiché il caricamento
+	 * avviene dopo di essi e ne legge già l'effetto.
+	 *
+	 * La rilettura non apre una nuova transazione: dopo il commit la connessione della scrittura è
+	 * ancora associata al thread e viene riusata. Una transazione {@code REQUIRES_NEW} chiederebbe al
+	 * pool una seconda connessione mentre la prima è ancora occupata, e con molte scritture concorrenti
+	 * il pool si esaurirebbe.
+	 *
+	 * L'aggiornamento precede quello dei {@link MarcatoriModifiche}, come l'invalidazione della cache.
+	 *
+	 * @param event L'evento che descrive l'ambito della modifica.
+	 */
+	@Order(Ordered.LOWEST_PRECEDENCE - 1)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onPrezziModificati(PrezziEventoModificatiEvent event) {
+		if (!abilitato) return;
+		lockScrittura.lock();
+		try {
+			if (!caricato) return;
+			if (event.getIdEvento() != null) {
+				long idEvento = event.getIdEvento();
+				eventi = eventi.con(idEvento, costruisciEvento(repo.findAllByIdEventoAndIsCancellatoFalse(idEvento).orElse(List.of())));
+			} else if (event.getIdSettore() != null) {
+				long idSettore = event.getIdSettore();
+				eventi = eventi.trasforma(mappa -> mappa.senza(idSettore));
+			} else {
+				eventi = costruisci(repo.findAllByIsCancellatoFalse().orElse(List.of()));
+			}
+		} finally {
+			lockScrittura.unlock();
+		}
+	}
+
+	private static MappaPrezziSettore costruisciEvento(List<PrezzoSettoreEvento> prezzi) {
+		MappaPrezziSettore.Costruttore costruttore = new MappaPrezziSettore.Costruttore();
+		prezzi.stream()
+				.sorted(Comparator.comparingLong(PrezzoSettoreEvento::getId))
+				.forEach(pse -> costruttore.aggiungi(pse.getIdSettore(), pse.getPrezzo()));
+		return costruttore.costruisci();
+	}
+
+	/**
+	 * Restituisce il prezzo disponibile di un settore per un evento.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @return Il prezzo, oppure {@link Double#NaN} se non esiste un prezzo disponibile.
+	 */
+	public double prezzo(long idEvento, long idSettore) {
+		MappaPrezziSettore mappa = eventi.get(idEvento);
+		return mappa == null ? Double.NaN : mappa.prezzo(idSettore);
+	}
+
+	/**
+	 * Restituisce l'istantanea immutabile dei prezzi di un evento.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @return L'istantanea, vuota se l'evento non ha prezzi disponibili.
+	 */
+	public MappaPrezziSettore getIstantaneaEvento(long idEvento) {
+		MappaPrezziSettore mappa = eventi.get(idEvento);
+		return mappa == null ? MappaPrezziSettore.VUOTA : mappa;
+	}
+
+	/**
+	 * Indica se l'indice è abilitato e ha completato il caricamento iniziale.
+	 */
+	public boolean isDisponibile() {
+		return abilitato && caricato;
+	}
+
+	public int getNumeroEventi() {
+		return eventi.dimensione();
+	}
+
+	/**
+	 * Stima i byte occupati dall'indice, considerando riferimenti compressi a 4 byte.
+	 */
+	public long getByteOccupati() {
+		return eventi.byteOccupati();
+	}
+}
@@ -0,0 +1,63 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.index;
+
+/**
+ * Funzioni di supporto comuni alle mappe a indirizzamento aperto con chiavi {@code long}.
+ *
+ * Le mappe usano la chiave {@code 0} come marcatore di cella vuota: gli id di eventi e settori
+ * sono sempre positivi, quindi non può mai comparire come chiave valida.
+ */
+final class IndirizzamentoAperto {
+
+	static final long VUOTO = 0L;
+
+	/**
+	 * Fattore di carico massimo: le tabelle sono dimensionate per essere piene al più a metà,
+	 * così che le sequenze di scansione lineare restino brevi.
+	 */
+	private static final int FATTORE_CAPACITA = 2;
+
+	private IndirizzamentoAperto() {
+	}
+
+	/**
+	 * Calcola la capacità, potenza di due, necessaria a contenere il numero di chiavi indicato.
+	 */
+	static int capacitaPer(int chiavi) {
+		int minima = Math.max(2, chiavi * FATTORE_CAPACITA);
+		return Integer.highestOneBit(minima - 1) << 1;
+	}
+
+	/**
+	 * Restituisce la cella iniziale di una chiave, mescolandone i bit (finalizzatore di MurmurHash3)
+	 * perché id consecutivi non finiscano in celle adiacenti.
+	 */
+	static int cella(long chiave, int maschera) {
+		return (int) mescola(chiave) & maschera;
+	}
+
+	/**
+	 * Restituisce il segmento di una chiave, dai bit alti dello stesso mescolamento di {@link #cella}:
+	 * le chiavi di un segmento restano distribuite su tutte le celle del segmento.
+	 */
+	static int segmento(long chiave, int maschera) {
+		return (int) (mescola(chiave) >>> 32) & maschera;
+	}
+
+	private static long mescola(long chiave) {
+		long h = chiave;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	/**
+	 * Stima l'occupazione in byte di un array con intestazione a 16 byte ed elementi della dimensione indicata.
+	 */
+	static long byteArray(int lunghezza, int byteElemento) {
+		long grezzi = 16L + (long) lunghezza * byteElemento;
+		return (grezzi + 7) & ~7L;
+	}
+}
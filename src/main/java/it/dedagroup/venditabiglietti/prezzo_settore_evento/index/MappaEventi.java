@@ -0,0 +1,230 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.index;
+
+import static it.dedagroup.venditabiglietti.prezzo_settore_evento.index.IndirizzamentoAperto.VUOTO;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * Mappa immutabile da id evento all'istantanea dei prezzi dell'evento, suddivisa in segmenti a indirizzamento aperto.
+ *
+ * Ogni modifica produce una nuova mappa (copy-on-write) che condivide con la precedente tutti i segmenti tranne
+ * quello dell'evento modificato: l'aggiornamento di un evento copia l'array dei segmenti e un solo segmento,
+ * entrambi dell'ordine della radice quadrata del numero di eventi, invece dell'intera tabella. Con 10.000 eventi
+ * un aggiornamento copia circa 128 riferimenti ai segmenti e un segmento di circa 80 eventi.
+ * Le letture restano prive di lock e di allocazioni.
+ *
+ * Il numero di segmenti è la potenza di due il cui quadrato contiene gli eventi e viene raddoppiato, ricostruendo
+ * l'intera mappa, quando gli eventi superano il quadruplo del quadrato: il costo della ricostruzione è ripartito
+ * sugli inserimenti che la precedono.
+ */
+final class MappaEventi {
+
+	static final MappaEventi VUOTA = new MappaEventi(new Segmento[] { Segmento.VUOTO }, 0);
+
+	private final Segmento[] segmenti;
+	private final int maschera;
+	private final int dimensione;
+
+	private MappaEventi(Segmento[] segmenti, int dimensione) {
+		this.segmenti = segmenti;
+		this.maschera = segmenti.length - 1;
+		this.dimensione = dimensione;
+	}
+
+	/**
+	 * Restituisce l'istantanea dei prezzi dell'evento, o {@code null} se l'evento non ha prezzi disponibili.
+	 */
+	MappaPrezziSettore get(long idEvento) {
+		if (idEvento == VUOTO) return null;
+		return segmenti[IndirizzamentoAperto.segmento(idEvento, maschera)].get(idEvento);
+	}
+
+	int dimensione() {
+		return dimensione;
+	}
+
+	/**
+	 * Restituisce una nuova mappa in cui l'evento è associato all'istantanea indicata,
+	 * oppure rimosso se l'istantanea è {@code null} o vuota. Solo il segmento dell'evento viene copiato.
+	 */
+	MappaEventi con(long idEvento, MappaPrezziSettore mappa) {
+		int s = IndirizzamentoAperto.segmento(idEvento, maschera);
+		Segmento precedente = segmenti[s];
+		Segmento nuovo = precedente.con(idEvento, mappa);
+		int nuovaDimensione = dimensione - precedente.dimensione + nuovo.dimensione;
+		Segmento[] nuoviSegmenti = segmenti.clone();
+		nuoviSegmenti[s] = nuovo;
+		if (nuovaDimensione > 4L * segmenti.length * segmenti.length) {
+			return ridistribuisci(nuoviSegmenti, nuovaDimensione);
+		}
+		return new MappaEventi(nuoviSegmenti, nuovaDimensione);
+	}
+
+	/**
+	 * Restituisce una nuova mappa ottenuta applicando la trasformazione a ogni istantanea;
+	 * gli eventi la cui istantanea risulta vuota vengono rimossi.
+	 */
+	MappaEventi trasforma(UnaryOperator<MappaPrezziSettore> trasformazione) {
+		Segmento[] nuoviSegmenti = new Segmento[segmenti.length];
+		int nuovaDimensione = 0;
+		for (int s = 0; s < segmenti.length; s++) {
+			nuoviSegmenti[s] = segmenti[s].trasforma(trasformazione);
+			nuovaDimensione += nuoviSegmenti[s].dimensione;
+		}
+		return new MappaEventi(nuoviSegmenti, nuovaDimensione);
+	}
+
+	/**
+	 * Costruisce una mappa a partire da array paralleli di eventi e istantanee.
+	 */
+	static MappaEventi di(long[] idEventi, MappaPrezziSettore[] istantanee, int n) {
+		int numeroSegmenti = segmentiPer(n);
+		int mascheraSegmenti = numeroSegmenti - 1;
+		int[] perSegmento = new int[numeroSegmenti];
+		for (int j = 0; j < n; j++) {
+			if (idEventi[j] == VUOTO || istantanee[j].dimensione() == 0) continue;
+			perSegmento[IndirizzamentoAperto.segmento(idEventi[j], mascheraSegmenti)]++;
+		}
+		long[][] tabelleEventi = new long[numeroSegmenti][];
+		MappaPrezziSettore[][] tabellePrezzi = new MappaPrezziSettore[numeroSegmenti][];
+		for (int s = 0; s < numeroSegmenti; s++) {
+			tabelleEventi[s] = new long[IndirizzamentoAperto.capacitaPer(perSegmento[s])];
+			tabellePrezzi[s] = new MappaPrezziSettore[tabelleEventi[s].length];
+		}
+		int dimensione = 0;
+		for (int j = 0; j < n; j++) {
+			if (idEventi[j] == VUOTO || istantanee[j].dimensione() == 0) continue;
+			int s = IndirizzamentoAperto.segmento(idEventi[j], mascheraSegmenti);
+			inserisci(tabelleEventi[s], tabellePrezzi[s], idEventi[j], istantanee[j]);
+			dimensione++;
+		}
+		Segmento[] segmenti = new Segmento[numeroSegmenti];
+		for (int s = 0; s < numeroSegmenti; s++) {
+			segmenti[s] = new Segmento(tabelleEventi[s], tabellePrezzi[s], perSegmento[s]);
+		}
+		return new MappaEventi(segmenti, dimensione);
+	}
+
+	/**
+	 * Ricostruisce la mappa con il numero di segmenti adatto alla dimensione indicata.
+	 */
+	private static MappaEventi ridistribuisci(Segmento[] segmenti, int dimensione) {
+		long[] idEventi = new long[dimensione];
+		MappaPrezziSettore[] istantanee = new MappaPrezziSettore[dimensione];
+		int n = 0;
+		for (Segmento segmento : segmenti) {
+			for (int i = 0; i < segmento.eventi.length; i++) {
+				if (segmento.eventi[i] == VUOTO) continue;
+				idEventi[n] = segmento.eventi[i];
+				istantanee[n] = segmento.prezzi[i];
+				n++;
+			}
+		}
+		return di(idEventi, istantanee, n);
+	}
+
+	/**
+	 * Calcola il numero di segmenti, potenza di due, il cui quadrato contiene il numero di eventi indicato.
+	 */
+	static int segmentiPer(int eventi) {
+		int segmenti = 1;
+		while ((long) segmenti * segmenti < eventi) {
+			segmenti <<= 1;
+		}
+		return segmenti;
+	}
+
+	private static void inserisci(long[] tabellaEventi, MappaPrezziSettore[] tabellaPrezzi, long idEvento, MappaPrezziSettore mappa) {
+		int maschera = tabellaEventi.length - 1;
+		int i = IndirizzamentoAperto.cella(idEvento, maschera);
+		while (tabellaEventi[i] != VUOTO) {
+			i = (i + 1) & maschera;
+		}
+		tabellaEventi[i] = idEvento;
+		tabellaPrezzi[i] = mappa;
+	}
+
+	/**
+	 * Stima i byte occupati dalla mappa e da tutte le istantanee che contiene.
+	 */
+	long byteOccupati() {
+		long totale = 24 + IndirizzamentoAperto.byteArray(segmenti.length, 4);
+		for (Segmento segmento : segmenti) {
+			totale += segmento.byteOccupati();
+		}
+		return totale;
+	}
+
+	/**
+	 * Segmento immutabile a indirizzamento aperto da id evento all'istantanea dei prezzi dell'evento.
+	 */
+	private static final class Segmento {
+
+		static final Segmento VUOTO = new Segmento(new long[2], new MappaPrezziSettore[2], 0);
+
+		private final long[] eventi;
+		private final MappaPrezziSettore[] prezzi;
+		private final int maschera;
+		private final int dimensione;
+
+		private Segmento(long[] eventi, MappaPrezziSettore[] prezzi, int dimensione) {
+			this.eventi = eventi;
+			this.prezzi = prezzi;
+			this.maschera = eventi.length - 1;
+			this.dimensione = dimensione;
+		}
+
+		MappaPrezziSettore get(long idEvento) {
+			int i = IndirizzamentoAperto.cella(idEvento, maschera);
+			while (true) {
+				long chiave = eventi[i];
+				if (chiave == idEvento) return prezzi[i];
+				if (chiave == IndirizzamentoAperto.VUOTO) return null;
+				i = (i + 1) & maschera;
+			}
+		}
+
+		Segmento con(long idEvento, MappaPrezziSettore mappa) {
+			boolean rimozione = mappa == null || mappa.dimensione() == 0;
+			int stimaDimensione = dimensione + (rimozione ? 0 : 1);
+			long[] nuoviEventi = new long[IndirizzamentoAperto.capacitaPer(stimaDimensione)];
+			MappaPrezziSettore[] nuoviPrezzi = new MappaPrezziSettore[nuoviEventi.length];
+			int nuovaDimensione = 0;
+			for (int i = 0; i < eventi.length; i++) {
+				if (eventi[i] != IndirizzamentoAperto.VUOTO && eventi[i] != idEvento) {
+					inserisci(nuoviEventi, nuoviPrezzi, eventi[i], prezzi[i]);
+					nuovaDimensione++;
+				}
+			}
+			if (!rimozione) {
+				inserisci(nuoviEventi, nuoviPrezzi, idEvento, mappa);
+				nuovaDimensione++;
+			}
+			return new Segmento(nuoviEventi, nuoviPrezzi, nuovaDimensione);
+		}
+
+		Segmento trasforma(UnaryOperator<MappaPrezziSettore> trasformazione) {
+			long[] nuoviEventi = new long[eventi.length];
+			MappaPrezziSettore[] nuoviPrezzi = new MappaPrezziSettore[eventi.length];
+			int nuovaDimensione = 0;
+			for (int i = 0; i < eventi.length; i++) {
+				if (eventi[i] == IndirizzamentoAperto.VUOTO) continue;
+				MappaPrezziSettore trasformata = trasformazione.apply(prezzi[i]);
+				if (trasformata.dimensione() > 0) {
+					inserisci(nuoviEventi, nuoviPrezzi, eventi[i], trasformata);
+					nuovaDimensione++;
+				}
+			}
+			return new Segmento(nuoviEventi, nuoviPrezzi, nuovaDimensione);
+		}
+
+		long byteOccupati() {
+			long totale = 24 + IndirizzamentoAperto.byteArray(eventi.length, Long.BYTES)
+					+ IndirizzamentoAperto.byteArray(prezzi.length, 4);
+			for (MappaPrezziSettore mappa : prezzi) {
+				if (mappa != null) totale += mappa.byteOccupati();
+			}
+			return totale;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.index;
+
+import static it.dedagroup.venditabiglietti.prezzo_settore_evento.index.IndirizzamentoAperto.VUOTO;
+
+import java.util.Arrays;
+
+/**
+ * Istantanea immutabile dei prezzi disponibili di un singolo evento, indicizzati per id settore.
+ *
+ * È una tabella a indirizzamento aperto con scansione lineare su due array primitivi paralleli
+ * ({@code long[]} per i settori e {@code double[]} per i prezzi): la ricerca non alloca oggetti
+ * e, poiché l'istanza non cambia mai dopo la costruzione, può essere letta da più thread senza lock.
+ */
+public final class MappaPrezziSettore {
+
+	static final MappaPrezziSettore VUOTA = new Costruttore().costruisci();
+
+	private final long[] settori;
+	private final double[] prezzi;
+	private final int maschera;
+	private final int dimensione;
+
+	private MappaPrezziSettore(long[] settori, double[] prezzi, int dimensione) {
+		this.settori = settori;
+		this.prezzi = prezzi;
+		this.maschera = settori.length - 1;
+		this.dimensione = dimensione;
+	}
+
+	/**
+	 * Restituisce il prezzo del settore indicato.
+	 *
+	 * @param idSettore L'id del settore.
+	 * @return Il prezzo del settore, oppure {@link Double#NaN} se il settore non è presente.
+	 */
+	public double prezzo(long idSettore) {
+		if (idSettore == VUOTO) return Double.NaN;
+		int i = IndirizzamentoAperto.cella(idSettore, maschera);
+		while (true) {
+			long chiave = settori[i];
+			if (chiave == idSettore) return prezzi[i];
+			if (chiave == VUOTO) return Double.NaN;
+			i = (i + 1) & maschera;
+		}
+	}
+
+	public boolean contiene(long idSettore) {
+		return !Double.isNaN(prezzo(idSettore));
+	}
+
+	public int dimensione() {
+		return dimensione;
+	}
+
+	/**
+	 * Restituisce una nuova istantanea priva del settore indicato, o questa stessa se il settore non è presente.
+	 */
+	MappaPrezziSettore senza(long idSettore) {
+		if (!contiene(idSettore)) return this;
+		Costruttore costruttore = new Costruttore();
+		for (int i = 0; i < settori.length; i++) {
+			if (settori[i] != VUOTO && settori[i] != idSettore) costruttore.aggiungi(settori[i], prezzi[i]);
+		}
+		return costruttore.costruisci();
+	}
+
+	/**
+	 * Stima i byte occupati dall'istantanea, inclusa l'intestazione dell'oggetto.
+	 */
+	long byteOccupati() {
+		return 24 + IndirizzamentoAperto.byteArray(settori.length, Long.BYTES)
+				+ IndirizzamentoAperto.byteArray(prezzi.length, Double.BYTES);
+	}
+
+	/**
+	 * Raccoglie le coppie settore/prezzo di un evento e costruisce l'istantanea immutabile.
+	 * Se un settore viene aggiunto più volte prevale l'ultimo prezzo inserito.
+	 */
+	public static final class Costruttore {
+
+		private long[] settori = new long[8];
+		private double[] prezzi = new double[8];
+		private int n;
+
+		public Costruttore aggiungi(long idSettore, double prezzo) {
+			if (idSettore == VUOTO) return this;
+			if (n == settori.length) {
+				settori = Arrays.copyOf(settori, n * 2);
+				prezzi = Arrays.copyOf(prezzi, n * 2);
+			}
+			settori[n] = idSettore;
+			prezzi[n] = prezzo;
+			n++;
+			return this;
+		}
+
+		public boolean isVuoto() {
+			return n == 0;
+		}
+
+		public MappaPrezziSettore costruisci() {
+			int capacita = IndirizzamentoAperto.capacitaPer(n);
+			long[] tabellaSettori = new long[capacita];
+			double[] tabellaPrezzi = new double[capacita];
+			int maschera = capacita - 1;
+			int dimensione = 0;
+			for (int j = 0; j < n; j++) {
+				int i = IndirizzamentoAperto.cella(settori[j], maschera);
+				while (tabellaSettori[i] != VUOTO && tabellaSettori[i] != settori[j]) {
+					i = (i + 1) & maschera;
+				}
+				if (tabellaSettori[i] == VUOTO) dimensione++;
+				tabellaSettori[i] = settori[j];
+				tabellaPrezzi[i] = prezzi[j];
+			}
+			return new MappaPrezziSettore(tabellaSettori, tabellaPrezzi, dimensione);
+		}
+	}
+}
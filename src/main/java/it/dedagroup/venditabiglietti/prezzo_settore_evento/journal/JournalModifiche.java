@@ -0,0 +1,217 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.TipoModifica;
+
+/**
+ * Journal append-only delle modifiche ai prezzi, su file mappati in memoria e suddivisi in segmenti.
+ *
+ * Ogni record occupa {@value #DIMENSIONE_RECORD} byte little-endian: offset, istante, id prezzo, id evento,
+ * id settore, prezzo e versione su 8 byte ciascuno, il codice del {@link TipoModifica} su un byte e in coda
+ * il CRC32C dei byte precedenti. I segmenti sono file {@code modifiche-<primo offset>.journal} di dimensione
+ * fissa creati già alla dimensione finale: un record è valido se il tipo è noto, l'offset è quello atteso e
+ * il CRC corrisponde, quindi un record scritto a metà da un processo interrotto viene riconosciuto e
+ * all'apertura la scrittura riprende da quel punto.
+ *
+ * La scrittura non è thread-safe: il journal ha un solo scrittore, il thread di {@link RegistroModifiche}.
+ * I record sono scritti nella page cache del sistema operativo e sopravvivono alla terminazione del processo;
+ * {@link #forza()} li rende persistenti anche in caso di arresto del sistema. Un file di lock impedisce che
+ * due processi scrivano nella stessa directory.
+ *
+ * @see LettoreJournal
+ */
+public class JournalModifiche implements Closeable {
+
+	public static final int DIMENSIONE_RECORD = 64;
+
+	static final int OFFSET = 0;
+	static final int ISTANTE = 8;
+	static final int ID_PSE = 16;
+	static final int ID_EVENTO = 24;
+	static final int ID_SETTORE = 32;
+	static final int PREZZO = 40;
+	static final int VERSIONE = 48;
+	static final int TIPO = 56;
+	static final int CRC = 60;
+
+	private static final String PREFISSO = "modifiche-";
+	private static final String SUFFISSO = ".journal";
+
+	private final Path directory;
+	private final int recordPerSegmento;
+	private final FileChannel canaleLock;
+	private final FileLock lock;
+	private final ByteBuffer record = ByteBuffer.allocate(DIMENSIONE_RECORD).order(ByteOrder.LITTLE_ENDIAN);
+	private final CRC32C crc = new CRC32C();
+
+	private MappedByteBuffer segmento;
+	private long primoOffsetSegmento;
+	private int capacitaSegmento;
+	private int posizione;
+	private volatile long prossimoOffset;
+
+	/**
+	 * Apre il journal nella directory indicata, creandola se necessario, e si posiziona dopo l'ultimo record valido.
+	 *
+	 * @param directory La directory dei segmenti.
+	 * @param dimensioneSegmento La dimensione in byte dei nuovi segmenti.
+	 * @throws IOException Se i file non possono essere aperti.
+	 * @throws IllegalStateException Se il journal è già aperto in scrittura da un altro processo o da un'altra istanza.
+	 */
+	public JournalModifiche(Path directory, long dimensioneSegmento) throws IOException {
+		if (dimensioneSegmento < DIMENSIONE_RECORD) {
+			throw new IllegalArgumentException("Un segmento deve contenere almeno un record");
+		}
+		this.directory = directory;
+		this.recordPerSegmento = (int) Math.min(dimensioneSegmento / DIMENSIONE_RECORD, Integer.MAX_VALUE / DIMENSIONE_RECORD);
+		Files.createDirectories(directory);
+		canaleLock = FileChannel.open(directory.resolve("journal.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		FileLock acquisito;
+		try {
+			acquisito = canaleLock.tryLock();
+		} catch (OverlappingFileLockException e) {
+			acquisito = null;
+		}
+		if (acquisito == null) {
+			canaleLock.close();
+			throw new IllegalStateException("Il journal in " + directory + " è già aperto in scrittura");
+		}
+		lock = acquisito;
+
+		List<Long> segmenti = segmenti(directory);
+		if (segmenti.isEmpty()) {
+			apriSegmento(0);
+		} else {
+			apriSegmento(segmenti.get(segmenti.size() - 1));
+			ByteBuffer vista = segmento.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+			while (posizione < capacitaSegmento && valido(vista, posizione, primoOffsetSegmento + posizione, crc)) posizione++;
+		}
+		prossimoOffset = primoOffsetSegmento + posizione;
+	}
+
+	/**
+	 * Accoda un record, assegnandogli l'offset successivo.
+	 *
+	 * @param r Il record da scrivere; il campo offset viene impostato.
+	 * @return L'offset assegnato.
+	 * @throws IOException Se non è possibile creare un nuovo segmento.
+	 */
+	public long accoda(RecordJournal r) throws IOException {
+		if (posizione == capacitaSegmento) apriSegmento(primoOffsetSegmento + capacitaSegmento);
+		long offset = primoOffsetSegmento + posizione;
+		r.setOffset(offset);
+		record.putLong(OFFSET, offset)
+				.putLong(ISTANTE, r.getIstante())
+				.putLong(ID_PSE, r.getIdPse())
+				.putLong(ID_EVENTO, r.getIdEvento())
+				.putLong(ID_SETTORE, r.getIdSettore())
+				.putDouble(PREZZO, r.getPrezzo())
+				.putLong(VERSIONE, r.getVersione())
+				.putInt(TIPO, r.getTipo().getCodice());
+		crc.reset();
+		crc.update(record.array(), 0, CRC);
+		record.putInt(CRC, (int) crc.getValue());
+		segmento.put(posizione * DIMENSIONE_RECORD, record.array(), 0, DIMENSIONE_RECORD);
+		posizione++;
+		prossimoOffset = offset + 1;
+		return offset;
+	}
+
+	/**
+	 * Forza la scrittura su disco dei record del segmento corrente.
+	 */
+	public void forza() {
+		segmento.force();
+	}
+
+	/**
+	 * @return L'offset che verrà assegnato al prossimo record, pari al numero di record scritti.
+	 */
+	public long getProssimoOffset() {
+		return prossimoOffset;
+	}
+
+	public Path getDirectory() {
+		return directory;
+	}
+
+	@Override
+	public void close() throws IOException {
+		forza();
+		lock.release();
+		canaleLock.close();
+	}
+
+	private void apriSegmento(long primoOffset) throws IOException {
+		Path file = directory.resolve(nomeSegmento(primoOffset));
+		try (FileChannel canale = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			long dimensione = canale.size() >= DIMENSIONE_RECORD ? canale.size() : (long) recordPerSegmento * DIMENSIONE_RECORD;
+			capacitaSegmento = (int) (dimensione / DIMENSIONE_RECORD);
+			segmento = canale.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacitaSegmento * DIMENSIONE_RECORD);
+		}
+		primoOffsetSegmento = primoOffset;
+		posizione = 0;
+	}
+
+	static String nomeSegmento(long primoOffset) {
+		return String.format("%s%020d%s", PREFISSO, primoOffset, SUFFISSO);
+	}
+
+	/**
+	 * Elenca il primo offset dei segmenti presenti nella directory, in ordine crescente.
+	 */
+	static List<Long> segmenti(Path directory) throws IOException {
+		List<Long> segmenti = new ArrayList<>();
+		if (!Files.isDirectory(directory)) return segmenti;
+		try (Stream<Path> file = Files.list(directory)) {
+			file.map(f -> f.getFileName().toString())
+					.filter(nome -> nome.startsWith(PREFISSO) && nome.endsWith(SUFFISSO))
+					.map(nome -> Long.parseLong(nome.substring(PREFISSO.length(), nome.length() - SUFFISSO.length())))
+					.sorted()
+					.forEach(segmenti::add);
+		}
+		return segmenti;
+	}
+
+	/**
+	 * Verifica che il record nella posizione indicata di un segmento sia stato scritto per intero.
+	 *
+	 * @param vista Una vista little-endian del segmento, di cui vengono modificati posizione e limite.
+	 */
+	static boolean valido(ByteBuffer vista, int posizione, long offsetAtteso, CRC32C crc) {
+		int inizio = posizione * DIMENSIONE_RECORD;
+		if (TipoModifica.daCodice(vista.get(inizio + TIPO)) == null || vista.getLong(inizio + OFFSET) != offsetAtteso) return false;
+		vista.limit(inizio + CRC).position(inizio);
+		crc.reset();
+		crc.update(vista);
+		vista.clear();
+		return (int) crc.getValue() == vista.getInt(inizio + CRC);
+	}
+
+	static void leggi(ByteBuffer vista, int posizione, RecordJournal destinazione) {
+		int inizio = posizione * DIMENSIONE_RECORD;
+		destinazione.setOffset(vista.getLong(inizio + OFFSET));
+		destinazione.setIstante(vista.getLong(inizio + ISTANTE));
+		destinazione.setIdPse(vista.getLong(inizio + ID_PSE));
+		destinazione.setIdEvento(vista.getLong(inizio + ID_EVENTO));
+		destinazione.setIdSettore(vista.getLong(inizio + ID_SETTORE));
+		destinazione.setPrezzo(vista.getDouble(inizio + PREZZO));
+		destinazione.setVersione(vista.getLong(inizio + VERSIONE));
+		destinazione.setTipo(TipoModifica.daCodice(vista.get(inizio + TIPO)));
+	}
+}
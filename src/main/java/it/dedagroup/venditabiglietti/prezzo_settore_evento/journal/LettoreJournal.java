@@ -0,0 +1,119 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32C;
+
+/**
+ * Lettore del {@link JournalModifiche}: rilegge i record a partire da un offset oppure segue il journal
+ * mentre viene scritto, anche da un altro processo. Ogni lettore mappa in sola lettura un segmento alla volta
+ * e non è thread-safe; più lettori sulla stessa directory sono indipendenti.
+ *
+ * Il record passato al consumer viene riusato per il record successivo e va copiato se deve essere conservato.
+ */
+public class LettoreJournal implements Closeable {
+
+	private final Path directory;
+	private final RecordJournal record = new RecordJournal();
+	private final CRC32C crc = new CRC32C();
+
+	private ByteBuffer segmento;
+	private long primoOffsetSegmento = -1;
+	private int capacitaSegmento;
+
+	public LettoreJournal(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Rilegge i record dall'offset indicato fino all'ultimo record scritto.
+	 *
+	 * @param offsetDa L'offset del primo record da leggere.
+	 * @param consumer Il consumer dei record.
+	 * @return L'offset del primo record non ancora scritto, da cui riprendere la lettura.
+	 * @throws IOException Se i segmenti non possono essere letti.
+	 */
+	public long leggi(long offsetDa, Consumer<RecordJournal> consumer) throws IOException {
+		return leggiFinche(offsetDa, r -> {
+			consumer.accept(r);
+			return true;
+		});
+	}
+
+	/**
+	 * Segue il journal dall'offset indicato: legge i record già scritti e poi quelli nuovi man mano che vengono
+	 * scritti, controllando ogni {@code intervallo}, finché il consumer restituisce true e il thread non viene interrotto.
+	 *
+	 * @param offsetDa L'offset del primo record da leggere.
+	 * @param intervallo L'attesa tra due controlli quando non ci sono record nuovi.
+	 * @param consumer Il consumer dei record, che restituisce false per terminare la lettura.
+	 * @return L'offset del primo record non letto.
+	 * @throws IOException Se i segmenti non possono essere letti.
+	 */
+	public long segui(long offsetDa, Duration intervallo, Predicate<RecordJournal> consumer) throws IOException {
+		long offset = offsetDa;
+		boolean[] continua = { true };
+		while (continua[0] && !Thread.currentThread().isInterrupted()) {
+			long precedente = offset;
+			offset = leggiFinche(offset, r -> continua[0] = consumer.test(r));
+			if (offset == precedente && continua[0]) {
+				try {
+					Thread.sleep(intervallo);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		return offset;
+	}
+
+	private long leggiFinche(long offsetDa, Predicate<RecordJournal> consumer) throws IOException {
+		long offset = offsetDa;
+		while (posiziona(offset)) {
+			int posizione = (int) (offset - primoOffsetSegmento);
+			if (!JournalModifiche.valido(segmento, posizione, offset, crc)) break;
+			JournalModifiche.leggi(segmento, posizione, record);
+			offset++;
+			if (!consumer.test(record)) break;
+		}
+		return offset;
+	}
+
+	/**
+	 * Mappa il segmento che contiene l'offset indicato.
+	 *
+	 * @return false se il segmento non esiste ancora.
+	 */
+	private boolean posiziona(long offset) throws IOException {
+		if (segmento != null && offset >= primoOffsetSegmento && offset < primoOffsetSegmento + capacitaSegmento) return true;
+		List<Long> segmenti = JournalModifiche.segmenti(directory);
+		long primoOffset = -1;
+		for (long primo : segmenti) {
+			if (primo <= offset) primoOffset = primo;
+		}
+		if (primoOffset < 0) return false;
+		try (FileChannel canale = FileChannel.open(directory.resolve(JournalModifiche.nomeSegmento(primoOffset)), StandardOpenOption.READ)) {
+			int capacita = (int) (canale.size() / JournalModifiche.DIMENSIONE_RECORD);
+			if (offset >= primoOffset + capacita) return false;
+			segmento = canale.map(FileChannel.MapMode.READ_ONLY, 0, (long) capacita * JournalModifiche.DIMENSIONE_RECORD)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			capacitaSegmento = capacita;
+			primoOffsetSegmento = primoOffset;
+		}
+		return true;
+	}
+
+	@Override
+	public void close() {
+		segmento = null;
+	}
+}
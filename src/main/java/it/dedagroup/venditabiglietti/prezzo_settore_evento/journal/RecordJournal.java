@@ -0,0 +1,42 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.journal;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.TipoModifica;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Un record del journal delle modifiche: una scrittura su un prezzo, o su un insieme di prezzi per le scritture massive.
+ * Le istanze sono mutabili perché vengono riusate dal ring buffer di {@link RegistroModifiche} e da {@link LettoreJournal}.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordJournal {
+
+	/**
+	 * Posizione del record nel journal, assegnata in scrittura e crescente senza buchi a partire da 0.
+	 */
+	private long offset;
+
+	/**
+	 * Istante della modifica in millisecondi dall'epoca.
+	 */
+	private long istante;
+
+	private TipoModifica tipo;
+
+	/**
+	 * L'id del prezzo, 0 per le scritture massive.
+	 */
+	private long idPse;
+
+	private long idEvento;
+	private long idSettore;
+	private double prezzo;
+
+	/**
+	 * La versione del prezzo dopo la modifica, 0 per le scritture massive in cui non è nota.
+	 */
+	private long versione;
+}
@@ -0,0 +1,138 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.lmax.disruptor.BlockingWaitStrategy;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.ModifichePrezziEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.TipoModifica;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Registra le modifiche ai prezzi nel {@link JournalModifiche} fuori dal thread della richiesta.
+ *
+ * Dopo il commit di ogni scrittura il thread della richiesta copia i valori del {@link ModifichePrezziEvent} in uno slot
+ * preallocato di un ring buffer del Disruptor, senza allocare, e un unico thread consumatore li accoda al journal.
+ * Il consumatore riceve i record a lotti e, se richiesto, forza la scrittura su disco una volta per lotto.
+ * Le scritture annullate dal rollback non vengono registrate.
+ *
+ * Se il consumatore resta indietro e il ring buffer si riempie, i thread delle richieste attendono uno slot libero:
+ * nessuna modifica viene scartata. Alla chiusura i record ancora nel ring buffer vengono scritti prima di chiudere il journal.
+ */
+public class RegistroModifiche implements Closeable {
+
+	private static final Logger log = LogManager.getLogger(RegistroModifiche.class);
+	private static final long ATTESA_CHIUSURA_SECONDI = 10;
+
+	private final JournalModifiche journal;
+	private final Disruptor<RecordJournal> disruptor;
+	private final RingBuffer<RecordJournal> ringBuffer;
+	private volatile long offsetScritto = -1;
+
+	/**
+	 * @param journal Il journal su cui scrivere, di cui il registro diventa l'unico scrittore.
+	 * @param dimensioneBuffer Il numero di slot del ring buffer, una potenza di 2.
+	 * @param forzaSuDisco Se forzare la scrittura su disco alla fine di ogni lotto.
+	 */
+	public RegistroModifiche(JournalModifiche journal, int dimensioneBuffer, boolean forzaSuDisco) {
+		this.journal = journal;
+		this.disruptor = new Disruptor<>(RecordJournal::new, dimensioneBuffer,
+				r -> {
+					Thread thread = new Thread(r, "journal-modifiche");
+					thread.setDaemon(true);
+					return thread;
+				},
+				ProducerType.MULTI, new BlockingWaitStrategy());
+		disruptor.handleEventsWith((record, sequenza, fineLotto) -> {
+			journal.accoda(record);
+			if (fineLotto) {
+				if (forzaSuDisco) journal.forza();
+				offsetScritto = record.getOffset();
+			}
+		});
+		disruptor.setDefaultExceptionHandler(new ExceptionHandler<RecordJournal>() {
+			@Override
+			public void handleEventException(Throwable e, long sequenza, RecordJournal record) {
+				log.error("Registrazione nel journal non riuscita: {}", record, e);
+			}
+
+			@Override
+			public void handleOnStartException(Throwable e) {
+				log.error("Avvio del journal delle modifiche non riuscito", e);
+			}
+
+			@Override
+			public void handleOnShutdownException(Throwable e) {
+				log.error("Chiusura del journal delle modifiche non riuscita", e);
+			}
+		});
+		this.ringBuffer = disruptor.start();
+	}
+
+	/**
+	 * Registra nel journal le modifiche descritte dall'evento, dopo il commit della transazione che le ha eseguite.
+	 *
+	 * @param event La modifica eseguita dal servizio.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onModifichePrezzi(ModifichePrezziEvent event) {
+		if (event.getPrezzi().isEmpty()) {
+			registra(event.getTipo(), event.getIstante(), 0, event.getIdEvento(), event.getIdSettore(), event.getPrezzo(), event.getVersione());
+			return;
+		}
+		for (PrezzoSettoreEvento pse : event.getPrezzi()) {
+			registra(event.getTipo(), event.getIstante(), pse.getId(), pse.getIdEvento(), pse.getIdSettore(), pse.getPrezzo(), pse.getVersion());
+		}
+	}
+
+	/**
+	 * Pubblica un record nel ring buffer; l'offset viene assegnato dal thread consumatore.
+	 */
+	public void registra(TipoModifica tipo, long istante, long idPse, long idEvento, long idSettore, double prezzo, long versione) {
+		long sequenza = ringBuffer.next();
+		try {
+			RecordJournal record = ringBuffer.get(sequenza);
+			record.setTipo(tipo);
+			record.setIstante(istante);
+			record.setIdPse(idPse);
+			record.setIdEvento(idEvento);
+			record.setIdSettore(idSettore);
+			record.setPrezzo(prezzo);
+			record.setVersione(versione);
+		} finally {
+			ringBuffer.publish(sequenza);
+		}
+	}
+
+	/**
+	 * @return L'offset dell'ultimo record accodato al journal, -1 se nessun record è stato ancora scritto da questo registro.
+	 */
+	public long getOffsetScritto() {
+		return offsetScritto;
+	}
+
+	/**
+	 * Scrive i record ancora nel ring buffer e chiude il journal.
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			disruptor.shutdown(ATTESA_CHIUSURA_SECONDI, TimeUnit.SECONDS);
+		} catch (TimeoutException e) {
+			log.warn("Record del journal non scritti entro {} secondi dalla chiusura", ATTESA_CHIUSURA_SECONDI);
+			disruptor.halt();
+		}
+		journal.close();
+	}
+}
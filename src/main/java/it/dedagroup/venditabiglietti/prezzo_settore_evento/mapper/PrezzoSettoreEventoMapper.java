@@ -1,8 +1,15 @@
 package it.dedagroup.venditabiglietti.prezzo_settore_evento.mapper;
 
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
 import org.springframework.stereotype.Component;
 
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.ModificaPrezzoProgrammataDtoRequest;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.PrezzoSettoreEventoDtoRequest;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.ModificaPrezzoProgrammataDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.ModificaPrezzoProgrammata;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
 
 /**
@@ -31,4 +38,32 @@ public class PrezzoSettoreEventoMapper {
 		pse.setPrezzo(dto.getPrezzo());
 		return pse;
 	}
+
+	/**
+	 * Converte una richiesta di modifica programmata in un'istanza di {@link ModificaPrezzoProgrammata},
+	 * con l'istante in UTC troncato ai microsecondi come nel database.
+	 * 
+	 * @param dto L'oggetto DTO da convertire.
+	 * @return La modifica programmata, non ancora applicata.
+	 */
+	public ModificaPrezzoProgrammata toModificaPrezzoProgrammata(ModificaPrezzoProgrammataDtoRequest dto) {
+		ModificaPrezzoProgrammata modifica = new ModificaPrezzoProgrammata();
+		modifica.setIdEvento(dto.getIdEvento());
+		modifica.setIdSettore(dto.getIdSettore());
+		modifica.setPrezzo(dto.getPrezzo());
+		modifica.setIstante(LocalDateTime.ofInstant(dto.getIstante().truncatedTo(ChronoUnit.MICROS), ZoneOffset.UTC));
+		return modifica;
+	}
+	
+	/**
+	 * Converte una {@link ModificaPrezzoProgrammata} nel DTO di risposta.
+	 * 
+	 * @param modifica La modifica programmata.
+	 * @return Il DTO con gli istanti convertiti da UTC.
+	 */
+	public ModificaPrezzoProgrammataDtoResponse toModificaPrezzoProgrammataDtoResponse(ModificaPrezzoProgrammata modifica) {
+		return new ModificaPrezzoProgrammataDtoResponse(modifica.getId(), modifica.getIdEvento(), modifica.getIdSettore(),
+				modifica.getPrezzo(), modifica.getIstante().toInstant(ZoneOffset.UTC), modifica.isApplicata(),
+				modifica.getApplicataIl() == null ? null : modifica.getApplicataIl().toInstant(ZoneOffset.UTC));
+	}
 }
@@ -0,0 +1,67 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.metriche;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+/**
+ * Misura la durata di ogni metodo pubblico di {@link PrezzoSettoreEventoService} con il timer
+ * {@value #NOME}, con i tag {@code metodo}, {@code transazionale} ed {@code esito}.
+ *
+ * L'aspetto ha precedenza massima, quindi avvolge l'interceptor transazionale: per i metodi
+ * transazionali la durata comprende apertura della transazione, flush e commit.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricheServizio {
+
+	public static final String NOME = "prezzi.settore.evento.servizio";
+
+	private final MeterRegistry registry;
+	private final Map<Method, String> transazionale = new ConcurrentHashMap<>();
+
+	public MetricheServizio(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	@Around("execution(public * it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService+.*(..))")
+	public Object misura(ProceedingJoinPoint joinPoint) throws Throwable {
+		Timer.Sample campione = Timer.start(registry);
+		String esito = "ok";
+		try {
+			return joinPoint.proceed();
+		} catch (Throwable e) {
+			esito = e.getClass().getSimpleName();
+			throw e;
+		} finally {
+			Method metodo = AopUtils.getMostSpecificMethod(
+					((MethodSignature) joinPoint.getSignature()).getMethod(), joinPoint.getTarget().getClass());
+			campione.stop(Timer.builder(NOME)
+					.description("Durata dei metodi del servizio dei prezzi settore evento")
+					.tag("metodo", metodo.getName())
+					.tag("transazionale", transazionale.computeIfAbsent(metodo, MetricheServizio::isTransazionale))
+					.tag("esito", esito)
+					.register(registry));
+		}
+	}
+
+	private static String isTransazionale(Method metodo) {
+		return String.valueOf(AnnotatedElementUtils.hasAnnotation(metodo, jakarta.transaction.Transactional.class)
+				|| AnnotatedElementUtils.hasAnnotation(metodo, org.springframework.transaction.annotation.Transactional.class));
+	}
+}
@@ -0,0 +1,72 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.metriche;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.AvvioProperties;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Registra i tempi di avvio misurati dall'avvio della JVM: quando l'applicazione è pronta a ricevere richieste
+ * e quando la prima richiesta è stata servita. La seconda comprende l'inizializzazione dei bean differiti
+ * e del DispatcherServlet, che avviene alla prima richiesta.
+ *
+ * In addestramento, appena pronta, l'applicazione serve una richiesta a se stessa e termina.
+ *
+ * @see AvvioProperties
+ */
+@Component
+public class TempiAvvio extends OncePerRequestFilter implements ApplicationListener<ApplicationReadyEvent> {
+
+	private static final Logger log = LogManager.getLogger(TempiAvvio.class);
+
+	private final AvvioProperties properties;
+	private final AtomicBoolean primaRichiestaServita = new AtomicBoolean();
+
+	public TempiAvvio(AvvioProperties properties) {
+		this.properties = properties;
+	}
+
+	@Override
+	public void onApplicationEvent(ApplicationReadyEvent event) {
+		log.info("Applicazione pronta in {} ms dall'avvio della JVM", ManagementFactory.getRuntimeMXBean().getUptime());
+		if (!properties.isAddestramento()) return;
+		String porta = event.getApplicationContext().getEnvironment().getProperty("local.server.port");
+		try {
+			HttpResponse<Void> risposta = HttpClient.newHttpClient().send(
+					HttpRequest.newBuilder(URI.create("http://localhost:" + porta + properties.getPercorsoAddestramento())).build(),
+					HttpResponse.BodyHandlers.discarding());
+			log.info("Addestramento: {} {}", properties.getPercorsoAddestramento(), risposta.statusCode());
+		} catch (IOException e) {
+			log.warn("Addestramento: richiesta a {} non riuscita", properties.getPercorsoAddestramento(), e);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		System.exit(SpringApplication.exit(event.getApplicationContext()));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		filterChain.doFilter(request, response);
+		if (!primaRichiestaServita.get() && primaRichiestaServita.compareAndSet(false, true)) {
+			log.info("Prima richiesta servita in {} ms dall'avvio della JVM", ManagementFactory.getRuntimeMXBean().getUptime());
+		}
+	}
+}
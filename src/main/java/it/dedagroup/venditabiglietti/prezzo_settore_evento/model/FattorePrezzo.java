@@ -0,0 +1,47 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Valore con nome di un evento usato dalle {@link RegolaPrezzo}, ad esempio il moltiplicatore della domanda.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class FattorePrezzo {
+
+	/**
+	 * Identificatore univoco del fattore.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fattore_prezzo_seq")
+	@SequenceGenerator(name = "fattore_prezzo_seq", sequenceName = "fattore_prezzo_seq", allocationSize = 50)
+	private long id;
+
+	/**
+	 * Identificatore dell'evento.
+	 */
+	@Column(nullable = false)
+	private long idEvento;
+
+	/**
+	 * Nome con cui le regole dell'evento fanno riferimento al fattore.
+	 */
+	@Column(nullable = false, length = 50)
+	private String nome;
+
+	/**
+	 * Valore del fattore.
+	 */
+	@Column(nullable = false)
+	private double valore;
+}
@@ -0,0 +1,68 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Modifica del prezzo disponibile di un settore per un evento, da applicare a un istante futuro.
+ * Gli istanti sono in UTC.
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class ModificaPrezzoProgrammata {
+
+	/**
+	 * Identificatore univoco della modifica, generato da una sequenza con allocazione a blocchi
+	 * così che le modifiche registrate insieme vengano inserite in batch JDBC.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "modifica_prezzo_programmata_seq")
+	@SequenceGenerator(name = "modifica_prezzo_programmata_seq", sequenceName = "modifica_prezzo_programmata_seq", allocationSize = 50)
+	private long id;
+
+	/**
+	 * Identificatore dell'evento del prezzo da modificare.
+	 */
+	@Column(nullable = false)
+	private long idEvento;
+
+	/**
+	 * Identificatore del settore del prezzo da modificare.
+	 */
+	@Column(nullable = false)
+	private long idSettore;
+
+	/**
+	 * Nuovo importo del prezzo.
+	 */
+	@Column(nullable = false)
+	private double prezzo;
+
+	/**
+	 * Istante da cui il nuovo prezzo è in vigore, in UTC.
+	 */
+	@Column(nullable = false)
+	private LocalDateTime istante;
+
+	/**
+	 * Flag che indica se la modifica è già stata applicata.
+	 */
+	@Column(nullable = false)
+	private boolean applicata = false;
+
+	/**
+	 * Istante in cui la modifica è stata applicata, in UTC; null finché non viene applicata.
+	 */
+	private LocalDateTime applicataIl;
+}
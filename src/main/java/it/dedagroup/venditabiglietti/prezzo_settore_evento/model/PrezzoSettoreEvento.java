@@ -5,6 +5,7 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -21,9 +22,13 @@ public class PrezzoSettoreEvento {
 
 	/**
 	 * Identificatore univoco del prezzo del settore per un evento.
+	 * Generato da una sequenza con allocazione a blocchi, che consente a Hibernate di raggruppare
+	 * gli inserimenti in batch JDBC. Sui database privi di sequenze (MySQL) Hibernate usa una
+	 * tabella con lo stesso nome.
 	 */
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prezzo_settore_evento_seq")
+	@SequenceGenerator(name = "prezzo_settore_evento_seq", sequenceName = "prezzo_settore_evento_seq", allocationSize = 50)
 	private long id;
 
 	/**
@@ -49,10 +54,23 @@ public class PrezzoSettoreEvento {
 	 */
 	@Column(nullable = false)
 	private boolean isCancellato = false;
-	
-//	@Column
-//	@Version
-//	private long version;
+
+	/**
+	 * Versione per il lock ottimistico, incrementata a ogni modifica.
+	 * Una scrittura basata su una versione non più attuale fallisce con un conflitto.
+	 */
+	@Version
+	@Column(nullable = false)
+	private long version;
+
+	/**
+	 * Restituisce una copia non gestita dal contesto di persistenza, con gli stessi valori e la stessa versione.
+	 *
+	 * @return La copia del prezzo settore evento.
+	 */
+	public PrezzoSettoreEvento copia() {
+		return new PrezzoSettoreEvento(id, idSettore, idEvento, prezzo, isCancellato, version);
+	}
 
 }
 
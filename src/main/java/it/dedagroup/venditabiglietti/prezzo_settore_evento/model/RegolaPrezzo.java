@@ -0,0 +1,55 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Regola che calcola il prezzo di un settore per un evento a partire dal prezzo memorizzato
+ * nel {@link PrezzoSettoreEvento} e dai {@link FattorePrezzo} dell'evento.
+ *
+ * @see it.dedagroup.venditabiglietti.prezzo_settore_evento.regole.CompilatoreRegole
+ */
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class RegolaPrezzo {
+
+	/**
+	 * Id del settore della regola valida per tutti i settori dell'evento che non hanno una regola propria.
+	 */
+	public static final long TUTTI_I_SETTORI = 0;
+
+	/**
+	 * Identificatore univoco della regola.
+	 */
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "regola_prezzo_seq")
+	@SequenceGenerator(name = "regola_prezzo_seq", sequenceName = "regola_prezzo_seq", allocationSize = 50)
+	private long id;
+
+	/**
+	 * Identificatore dell'evento.
+	 */
+	@Column(nullable = false)
+	private long idEvento;
+
+	/**
+	 * Identificatore del settore, {@link #TUTTI_I_SETTORI} per la regola dell'intero evento.
+	 */
+	@Column(nullable = false)
+	private long idSettore;
+
+	/**
+	 * Espressione della regola, ad esempio {@code min(base * domanda, 120)}.
+	 */
+	@Column(nullable = false, length = 500)
+	private String espressione;
+}
@@ -0,0 +1,136 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.programmazione;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.ModifichePrezziEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.ModifichePrezzoProgrammateEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.TipoModifica;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.ModificaPrezzoProgrammata;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.ModificaPrezzoProgrammataRepository;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.storico.StoricoPrezzi;
+
+/**
+ * Registrazione e applicazione delle modifiche di prezzo programmate.
+ *
+ * Le modifiche vengono salvate nel database, così che sopravvivano ai riavvii, e applicate dal
+ * {@link ProgrammatoreModifiche} alla scadenza. Le modifiche che scadono insieme vengono applicate in un'unica
+ * transazione con un solo aggiornamento dei prezzi, invece di una transazione per prezzo come farebbero altrettante
+ * chiamate di modifica del prezzo. Come le altre scritture, l'applicazione aggiorna lo {@link StoricoPrezzi} e pubblica
+ * gli eventi per la cache, l'indice e il journal.
+ */
+@Service
+public class ModifichePrezzoProgrammate {
+
+	/**
+	 * Ordina le modifiche di una coppia evento/settore per istante e, a parità, per id.
+	 */
+	private static final Comparator<ModificaPrezzoProgrammata> ULTIMA = Comparator
+			.comparing(ModificaPrezzoProgrammata::getIstante)
+			.thenComparingLong(ModificaPrezzoProgrammata::getId);
+
+	@Autowired
+	private ModificaPrezzoProgrammataRepository repoModifiche;
+	@Autowired
+	private PrezzoSettoreEventoRepository repo;
+	@Autowired
+	private StoricoPrezzi storico;
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Registra nuove modifiche programmate. Le modifiche con istante già passato vengono applicate al primo tick.
+	 *
+	 * @param modifiche Le modifiche da registrare.
+	 * @return Le modifiche registrate, con gli id assegnati.
+	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
+	 */
+	@Transactional(rollbackFor = DataAccessException.class)
+	public List<ModificaPrezzoProgrammata> programma(List<ModificaPrezzoProgrammata> modifiche) {
+		List<ModificaPrezzoProgrammata> salvate = repoModifiche.saveAll(modifiche);
+		eventPublisher.publishEvent(new ModifichePrezzoProgrammateEvent(salvate));
+		return salvate;
+	}
+
+	/**
+	 * Trova le modifiche di un evento non ancora applicate, ordinate per istante.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @return Le modifiche da applicare.
+	 */
+	@Transactional(readOnly = true)
+	public List<ModificaPrezzoProgrammata> getDaApplicare(long idEvento) {
+		return repoModifiche.findAllByIdEventoAndApplicataFalseOrderByIstanteAscIdAsc(idEvento);
+	}
+
+	/**
+	 * Trova le modifiche non ancora applicate con istante precedente a un limite, comprese quelle già scadute.
+	 *
+	 * @param limite L'istante limite escluso, in UTC.
+	 * @return Le modifiche da applicare.
+	 */
+	@Transactional(readOnly = true)
+	public List<ModificaPrezzoProgrammata> getDaApplicareEntro(LocalDateTime limite) {
+		return repoModifiche.findAllByApplicataFalseAndIstanteBefore(limite);
+	}
+
+	/**
+	 * Applica le modifiche indicate non ancora applicate, bloccandole fino al commit. Per ogni coppia evento/settore
+	 * si applica la modifica con istante più recente, a meno che la coppia non ne abbia già una applicata con istante
+	 * successivo; le altre vengono segnate come applicate perché superate. Così una modifica meno recente non prevale
+	 * anche se viene applicata dopo, in un altro lotto o al nuovo tentativo di un lotto fallito.
+	 *
+	 * @param ids Gli id delle modifiche scadute.
+	 * @return Le modifiche applicate o superate; quelle già applicate, ad esempio da un'altra istanza, non sono incluse.
+	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
+	 */
+	@Transactional(rollbackFor = DataAccessException.class)
+	public List<ModificaPrezzoProgrammata> applica(Collection<Long> ids) {
+		List<ModificaPrezzoProgrammata> modifiche = repoModifiche.findAllDaApplicareForUpdate(ids);
+		if (modifiche.isEmpty()) return modifiche;
+		Map<List<Long>, ModificaPrezzoProgrammata> perCoppia = modifiche.stream().collect(Collectors.toMap(
+				m -> List.of(m.getIdEvento(), m.getIdSettore()), m -> m,
+				(a, b) -> ULTIMA.compare(a, b) >= 0 ? a : b));
+		scartaSuperate(perCoppia);
+		List<Long> effettive = perCoppia.values().stream().map(ModificaPrezzoProgrammata::getId).toList();
+		if (!effettive.isEmpty()) {
+			repo.applicaModificheProgrammate(effettive);
+			storico.registraModificheProgrammate(effettive);
+		}
+		repoModifiche.segnaApplicate(modifiche.stream().map(ModificaPrezzoProgrammata::getId).toList(),
+				LocalDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS));
+		perCoppia.values().stream().mapToLong(ModificaPrezzoProgrammata::getIdEvento).distinct()
+				.forEach(idEvento -> eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEvento(idEvento)));
+		for (ModificaPrezzoProgrammata m : perCoppia.values()) {
+			eventPublisher.publishEvent(ModifichePrezziEvent.perAmbito(TipoModifica.MODIFICA_PREZZO, m.getIdEvento(), m.getIdSettore(), m.getPrezzo(), 0));
+		}
+		return modifiche;
+	}
+
+	/**
+	 * Rimuove le modifiche delle coppie che ne hanno già una applicata successiva, secondo lo stesso ordine
+	 * usato all'interno di un lotto.
+	 */
+	private void scartaSuperate(Map<List<Long>, ModificaPrezzoProgrammata> perCoppia) {
+		LocalDateTime prima = perCoppia.values().stream().map(ModificaPrezzoProgrammata::getIstante).min(Comparator.naturalOrder()).orElseThrow();
+		List<Long> idEventi = perCoppia.keySet().stream().map(coppia -> coppia.get(0)).distinct().toList();
+		for (ModificaPrezzoProgrammata applicata : repoModifiche.findAllByIdEventoInAndApplicataTrueAndIstanteGreaterThanEqual(idEventi, prima)) {
+			perCoppia.computeIfPresent(List.of(applicata.getIdEvento(), applicata.getIdSettore()),
+					(coppia, m) -> ULTIMA.compare(m, applicata) > 0 ? m : null);
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.programmazione;
+
+import java.io.Closeable;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.ProgrammazioneProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.ModifichePrezzoProgrammateEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.ModificaPrezzoProgrammata;
+
+/**
+ * Scheduler delle modifiche di prezzo programmate, basato su una {@link RuotaTemporale}.
+ *
+ * Un unico thread avanza la ruota a ogni tick e applica insieme, con {@link ModifichePrezzoProgrammate#applica},
+ * le modifiche scadute nello stesso tick, ordinate per istante e a lotti della dimensione configurata. La ruota
+ * contiene solo le modifiche che scadono entro l'orizzonte: vengono caricate dal database all'avvio e poi ogni metà
+ * orizzonte, mentre quelle registrate nel frattempo vi entrano dopo il commit. Il caricamento all'avvio comprende
+ * le modifiche scadute mentre il servizio era fermo, che vengono applicate al primo tick. Se l'applicazione di un
+ * lotto fallisce, le sue modifiche tornano nella ruota e vengono ritentate dopo {@value #ATTESA_RIPROVA_MS} ms.
+ *
+ * Il ritardo di applicazione di ogni modifica rispetto al suo istante è misurato dal timer {@value #RITARDO}.
+ *
+ * @see ProgrammazioneProperties
+ */
+public class ProgrammatoreModifiche implements Closeable {
+
+	private static final Logger log = LogManager.getLogger(ProgrammatoreModifiche.class);
+
+	public static final String RITARDO = "prezzi.modifiche.programmate.ritardo";
+	private static final long ATTESA_RIPROVA_MS = 5_000;
+	private static final long ATTESA_CHIUSURA_MS = 10_000;
+
+	private final ModifichePrezzoProgrammate modifiche;
+	private final long durataTick;
+	private final long orizzonte;
+	private final int dimensioneBatch;
+	private final RuotaTemporale ruota;
+	/**
+	 * Istante delle modifiche nella ruota, per id.
+	 */
+	private final Map<Long, LocalDateTime> inRuota = new ConcurrentHashMap<>();
+	private final Comparator<Long> perIstante = Comparator.<Long, LocalDateTime>comparing(id -> inRuota.getOrDefault(id, LocalDateTime.MIN))
+			.thenComparingLong(id -> id);
+	private final Timer ritardo;
+	private final Counter lottiFalliti;
+	private final Thread thread;
+	private volatile boolean attivo = true;
+	private long prossimoCaricamento;
+
+	public ProgrammatoreModifiche(ModifichePrezzoProgrammate modifiche, ProgrammazioneProperties properties, MeterRegistry registry) {
+		this.modifiche = modifiche;
+		this.durataTick = properties.getDurataTick().toMillis();
+		this.orizzonte = properties.getOrizzonte().toMillis();
+		this.dimensioneBatch = properties.getDimensioneBatch();
+		this.ruota = new RuotaTemporale(durataTick, properties.getSlot(), System.currentTimeMillis());
+		this.ritardo = Timer.builder(RITARDO)
+				.description("Ritardo di applicazione delle modifiche di prezzo programmate rispetto al loro istante")
+				.register(registry);
+		this.lottiFalliti = Counter.builder("prezzi.modifiche.programmate.lotti.falliti")
+				.description("Lotti di modifiche programmate la cui applicazione è fallita ed è stata ritentata")
+				.register(registry);
+		Gauge.builder("prezzi.modifiche.programmate.in.ruota", ruota, RuotaTemporale::dimensione)
+				.description("Modifiche di prezzo programmate caricate nella ruota temporale e non ancora scadute")
+				.register(registry);
+		this.thread = new Thread(this::esegui, "modifiche-programmate");
+		thread.setDaemon(true);
+	}
+
+	/**
+	 * Avvia il thread dello scheduler quando l'applicazione è pronta, dopo le migrazioni del database.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void avvia() {
+		if (!thread.isAlive()) thread.start();
+	}
+
+	/**
+	 * Aggiunge alla ruota le modifiche appena registrate che scadono entro l'orizzonte, dopo il commit.
+	 *
+	 * @param event Le modifiche registrate.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onModificheProgrammate(ModifichePrezzoProgrammateEvent event) {
+		long limite = System.currentTimeMillis() + orizzonte;
+		for (ModificaPrezzoProgrammata m : event.getModifiche()) {
+			if (millisecondi(m.getIstante()) < limite) aggiungi(m);
+		}
+	}
+
+	/**
+	 * @return Il numero di modifiche caricate nella ruota e non ancora scadute.
+	 */
+	public int getInRuota() {
+		return ruota.dimensione();
+	}
+
+	private void esegui() {
+		List<Long> scadute = new ArrayList<>();
+		while (attivo) {
+			long adesso = System.currentTimeMillis();
+			try {
+				if (adesso >= prossimoCaricamento) {
+					carica(adesso);
+					prossimoCaricamento = adesso + orizzonte / 2;
+				}
+				ruota.avanza(adesso, scadute::add);
+				scadute.sort(perIstante);
+				for (int da = 0; da < scadute.size(); da += dimensioneBatch) {
+					applica(scadute.subList(da, Math.min(da + dimensioneBatch, scadute.size())));
+				}
+			} catch (RuntimeException e) {
+				log.error("Avanzamento dello scheduler delle modifiche programmate non riuscito", e);
+			}
+			scadute.clear();
+			try {
+				TimeUnit.MILLISECONDS.sleep(durataTick - System.currentTimeMillis() % durataTick);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void carica(long adesso) {
+		List<ModificaPrezzoProgrammata> daApplicare = modifiche.getDaApplicareEntro(
+				LocalDateTime.ofInstant(Instant.ofEpochMilli(adesso + orizzonte), ZoneOffset.UTC));
+		int aggiunte = 0;
+		for (ModificaPrezzoProgrammata m : daApplicare) {
+			if (aggiungi(m)) aggiunte++;
+		}
+		if (aggiunte > 0) log.info("Caricate {} modifiche di prezzo programmate entro {} ms", aggiunte, orizzonte);
+	}
+
+	private boolean aggiungi(ModificaPrezzoProgrammata m) {
+		if (inRuota.putIfAbsent(m.getId(), m.getIstante()) != null) return false;
+		ruota.aggiungi(m.getId(), millisecondi(m.getIstante()));
+		return true;
+	}
+
+	private void applica(List<Long> lotto) {
+		List<ModificaPrezzoProgrammata> applicate;
+		try {
+			applicate = modifiche.applica(lotto);
+		} catch (RuntimeException e) {
+			log.error("Applicazione di {} modifiche di prezzo programmate non riuscita, nuovo tentativo tra {} ms", lotto.size(), ATTESA_RIPROVA_MS, e);
+			lottiFalliti.increment();
+			long riprova = System.currentTimeMillis() + ATTESA_RIPROVA_MS;
+			for (Long id : lotto) ruota.aggiungi(id, riprova);
+			return;
+		}
+		long adesso = System.currentTimeMillis();
+		for (ModificaPrezzoProgrammata m : applicate) {
+			ritardo.record(Math.max(0, adesso - millisecondi(m.getIstante())), TimeUnit.MILLISECONDS);
+		}
+		lotto.forEach(inRuota::remove);
+		log.debug("Applicate {} modifiche di prezzo programmate", applicate.size());
+	}
+
+	private static long millisecondi(LocalDateTime istante) {
+		return istante.toInstant(ZoneOffset.UTC).toEpochMilli();
+	}
+
+	/**
+	 * Ferma il thread dello scheduler dopo il tick in corso; le modifiche non ancora scadute restano nel database.
+	 */
+	@Override
+	public void close() {
+		attivo = false;
+		try {
+			thread.join(durataTick + ATTESA_CHIUSURA_MS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.programmazione;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+/**
+ * Ruota temporale con hashing degli identificatori da scadere a un dato istante.
+ *
+ * La ruota ha {@code slot} posizioni, ciascuna della durata di un tick: un identificatore che scade al tick {@code t}
+ * va nella posizione {@code t mod slot}. A ogni tick si visita una sola posizione e si consegnano gli identificatori
+ * scaduti, lasciando quelli dei giri successivi: inserimento e scadenza costano O(1) qualunque sia il numero
+ * di identificatori in attesa, e quelli che scadono nello stesso tick vengono consegnati insieme.
+ *
+ * {@link #aggiungi} può essere invocato da qualunque thread: gli identificatori passano da una coda concorrente
+ * e vengono distribuiti nelle posizioni dal thread che invoca {@link #avanza}, l'unico che accede alle posizioni.
+ */
+public class RuotaTemporale {
+
+	private final long durataTick;
+	private final int maschera;
+	private final List<Voce>[] slot;
+	private final Queue<Voce> nuove = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger dimensione = new AtomicInteger();
+	private long tickCorrente;
+
+	/**
+	 * @param durataTick La durata di un tick in millisecondi.
+	 * @param numeroSlot Il numero di posizioni, una potenza di 2.
+	 * @param adesso L'istante iniziale in millisecondi: il primo {@link #avanza} consegna gli identificatori scaduti da qui in poi.
+	 */
+	@SuppressWarnings("unchecked")
+	public RuotaTemporale(long durataTick, int numeroSlot, long adesso) {
+		if (durataTick <= 0) throw new IllegalArgumentException("Durata del tick non valida: " + durataTick);
+		if (Integer.bitCount(numeroSlot) != 1) throw new IllegalArgumentException("Il numero di slot deve essere una potenza di 2: " + numeroSlot);
+		this.durataTick = durataTick;
+		this.maschera = numeroSlot - 1;
+		this.slot = new List[numeroSlot];
+		for (int i = 0; i < numeroSlot; i++) slot[i] = new ArrayList<>();
+		this.tickCorrente = adesso / durataTick - 1;
+	}
+
+	/**
+	 * Aggiunge un identificatore da consegnare al primo {@link #avanza} dopo la scadenza.
+	 * Una scadenza già passata viene consegnata al primo {@link #avanza}.
+	 *
+	 * @param id L'identificatore.
+	 * @param scadenza L'istante di scadenza in millisecondi.
+	 */
+	public void aggiungi(long id, long scadenza) {
+		nuove.add(new Voce(id, scadenza / durataTick));
+		dimensione.incrementAndGet();
+	}
+
+	/**
+	 * Avanza la ruota fino all'istante indicato, visitando le posizioni dei tick trascorsi dall'ultima invocazione,
+	 * e consegna gli identificatori scaduti. Dopo una pausa più lunga di un giro ogni posizione viene visitata una
+	 * sola volta. Va invocato sempre dallo stesso thread.
+	 *
+	 * @param adesso L'istante corrente in millisecondi.
+	 * @param scadute La funzione che riceve gli identificatori scaduti.
+	 */
+	public void avanza(long adesso, LongConsumer scadute) {
+		long ultimo = adesso / durataTick;
+		distribuisci(scadute);
+		for (long tick = Math.max(tickCorrente + 1, ultimo - maschera); tick <= ultimo; tick++) {
+			List<Voce> voci = slot[(int) (tick & maschera)];
+			int restanti = 0;
+			for (int i = 0; i < voci.size(); i++) {
+				Voce voce = voci.get(i);
+				if (voce.tick <= ultimo) {
+					scadute.accept(voce.id);
+					dimensione.decrementAndGet();
+				} else {
+					voci.set(restanti++, voce);
+				}
+			}
+			voci.subList(restanti, voci.size()).clear();
+		}
+		tickCorrente = Math.max(tickCorrente, ultimo);
+	}
+
+	/**
+	 * @return Il numero di identificatori in attesa di scadere.
+	 */
+	public int dimensione() {
+		return dimensione.get();
+	}
+
+	/**
+	 * Sposta gli identificatori aggiunti nelle rispettive posizioni, consegnando subito quelli già scaduti.
+	 */
+	private void distribuisci(LongConsumer scadute) {
+		Voce voce;
+		while ((voce = nuove.poll()) != null) {
+			if (voce.tick <= tickCorrente) {
+				scadute.accept(voce.id);
+				dimensione.decrementAndGet();
+			} else {
+				slot[(int) (voce.tick & maschera)].add(voce);
+			}
+		}
+	}
+
+	private static final class Voce {
+
+		final long id;
+		final long tick;
+
+		Voce(long id, long tick) {
+			this.id = id;
+			this.tick = tick;
+		}
+	}
+}
@@ -0,0 +1,299 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.regole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotValidDataException;
+
+/**
+ * Compilatore delle espressioni delle regole di prezzo in {@link RegolaCompilata}.
+ *
+ * Un'espressione usa numeri, le quattro operazioni, le parentesi, la variabile {@value #BASE} con il prezzo
+ * memorizzato, i fattori dell'evento per nome e le funzioni {@code min(a, b, ...)}, {@code max(a, b, ...)},
+ * {@code limita(x, minimo, massimo)} e {@code arrotonda(x, passo)}, che arrotonda al multiplo di {@code passo} più vicino.
+ * Ad esempio {@code limita(base * domanda, base, 150)} moltiplica il prezzo per il fattore {@code domanda}
+ * senza scendere sotto il prezzo memorizzato né superare 150; se il minimo supera il massimo prevale il massimo.
+ *
+ * L'espressione viene letta una sola volta, con un parser a discesa ricorsiva, e ogni nodo diventa una lambda
+ * che invoca direttamente quelle dei figli; le sottoespressioni costanti vengono calcolate durante la compilazione.
+ * La valutazione non interpreta testo né cerca fattori per nome e non alloca oggetti.
+ */
+public final class CompilatoreRegole {
+
+	/**
+	 * Nome della variabile con il prezzo memorizzato.
+	 */
+	public static final String BASE = "base";
+
+	public static final int LUNGHEZZA_MASSIMA = 500;
+
+	private static final Set<String> FUNZIONI = Set.of("min", "max", "limita", "arrotonda");
+	private static final Pattern NOME = Pattern.compile("[a-z][a-z0-9_]{0,49}");
+
+	private final String testo;
+	private final Map<String, Integer> fattori;
+	private int pos;
+
+	private CompilatoreRegole(String testo, List<String> fattori) {
+		this.testo = testo;
+		this.fattori = new HashMap<>();
+		for (int i = 0; i < fattori.size(); i++) this.fattori.put(fattori.get(i), i);
+	}
+
+	/**
+	 * Compila un'espressione.
+	 *
+	 * @param espressione Il testo della regola.
+	 * @param fattori I nomi dei fattori dell'evento: il fattore in posizione {@code i} verrà letto
+	 *                dalla posizione {@code i} dell'array passato a {@link RegolaCompilata#valuta}.
+	 * @return La regola compilata.
+	 * @throws NotValidDataException Se l'espressione non è valida o usa fattori non definiti.
+	 */
+	public static RegolaCompilata compila(String espressione, List<String> fattori) {
+		if (espressione == null || espressione.isBlank()) throw new NotValidDataException("Regola vuota");
+		if (espressione.length() > LUNGHEZZA_MASSIMA) {
+			throw new NotValidDataException("La regola può contenere al massimo " + LUNGHEZZA_MASSIMA + " caratteri");
+		}
+		CompilatoreRegole compilatore = new CompilatoreRegole(espressione, fattori);
+		Nodo nodo = compilatore.espressione();
+		compilatore.spazi();
+		if (compilatore.pos < espressione.length()) throw compilatore.errore("carattere inatteso '" + espressione.charAt(compilatore.pos) + "'");
+		return nodo.regola;
+	}
+
+	/**
+	 * Indica se un nome può essere usato per un fattore: lettere minuscole, cifre e trattini bassi,
+	 * al più 50 caratteri, diverso da {@value #BASE} e dai nomi delle funzioni.
+	 *
+	 * @param nome Il nome.
+	 * @return {@code true} se il nome è valido.
+	 */
+	public static boolean isNomeFattoreValido(String nome) {
+		return nome != null && NOME.matcher(nome).matches() && !BASE.equals(nome) && !FUNZIONI.contains(nome);
+	}
+
+	private Nodo espressione() {
+		Nodo nodo = termine();
+		while (true) {
+			if (accetta('+')) nodo = binario(nodo, termine(), Operazione.SOMMA);
+			else if (accetta('-')) nodo = binario(nodo, termine(), Operazione.DIFFERENZA);
+			else return nodo;
+		}
+	}
+
+	private Nodo termine() {
+		Nodo nodo = unario();
+		while (true) {
+			if (accetta('*')) nodo = binario(nodo, unario(), Operazione.PRODOTTO);
+			else if (accetta('/')) nodo = binario(nodo, unario(), Operazione.QUOZIENTE);
+			else return nodo;
+		}
+	}
+
+	private Nodo unario() {
+		if (accetta('-')) {
+			Nodo operando = unario();
+			if (operando.costante) return Nodo.costante(-operando.valore);
+			RegolaCompilata r = operando.regola;
+			return new Nodo((base, f) -> -r.valuta(base, f));
+		}
+		return primario();
+	}
+
+	private Nodo primario() {
+		spazi();
+		if (accetta('(')) {
+			Nodo nodo = espressione();
+			atteso(')');
+			return nodo;
+		}
+		if (pos < testo.length() && (Character.isDigit(testo.charAt(pos)) || testo.charAt(pos) == '.')) return numero();
+		if (pos < testo.length() && testo.charAt(pos) >= 'a' && testo.charAt(pos) <= 'z') {
+			int inizio = pos;
+			String nome = nome();
+			if (accetta('(')) return funzione(nome, inizio);
+			return variabile(nome, inizio);
+		}
+		throw errore(pos < testo.length() ? "carattere inatteso '" + testo.charAt(pos) + "'" : "espressione incompleta");
+	}
+
+	private Nodo numero() {
+		int inizio = pos;
+		while (pos < testo.length() && (Character.isDigit(testo.charAt(pos)) || testo.charAt(pos) == '.')) pos++;
+		try {
+			return Nodo.costante(Double.parseDouble(testo.substring(inizio, pos)));
+		} catch (NumberFormatException e) {
+			pos = inizio;
+			throw errore("numero non valido");
+		}
+	}
+
+	private String nome() {
+		int inizio = pos;
+		while (pos < testo.length() && (Character.isLetterOrDigit(testo.charAt(pos)) || testo.charAt(pos) == '_')) pos++;
+		return testo.substring(inizio, pos);
+	}
+
+	private Nodo variabile(String nome, int inizio) {
+		if (BASE.equals(nome)) return new Nodo((base, f) -> base);
+		Integer indice = fattori.get(nome);
+		if (indice == null) {
+			pos = inizio;
+			throw errore("fattore '" + nome + "' non definito per l'evento");
+		}
+		int i = indice;
+		return new Nodo((base, f) -> f[i]);
+	}
+
+	private Nodo funzione(String nome, int inizio) {
+		List<Nodo> argomenti = new ArrayList<>();
+		do {
+			argomenti.add(espressione());
+		} while (accetta(','));
+		atteso(')');
+		int fine = pos;
+		pos = inizio;
+		Nodo nodo = switch (nome) {
+			case "min" -> piega(argomenti, Operazione.MINIMO);
+			case "max" -> piega(argomenti, Operazione.MASSIMO);
+			case "limita" -> {
+				if (argomenti.size() != 3) throw errore("limita richiede 3 argomenti");
+				yield binario(binario(argomenti.get(0), argomenti.get(1), Operazione.MASSIMO), argomenti.get(2), Operazione.MINIMO);
+			}
+			case "arrotonda" -> {
+				if (argomenti.size() != 2) throw errore("arrotonda richiede 2 argomenti");
+				Nodo passo = argomenti.get(1);
+				if (!passo.costante || !(passo.valore > 0)) throw errore("il passo di arrotonda deve essere un numero positivo");
+				yield arrotonda(argomenti.get(0), passo.valore);
+			}
+			default -> throw errore("funzione '" + nome + "' non definita");
+		};
+		pos = fine;
+		return nodo;
+	}
+
+	private Nodo piega(List<Nodo> argomenti, Operazione operazione) {
+		if (argomenti.size() < 2) throw errore("la funzione richiede almeno 2 argomenti");
+		Nodo nodo = argomenti.get(0);
+		for (int i = 1; i < argomenti.size(); i++) nodo = binario(nodo, argomenti.get(i), operazione);
+		return nodo;
+	}
+
+	private static Nodo arrotonda(Nodo valore, double passo) {
+		if (valore.costante) return Nodo.costante(Math.round(valore.valore / passo) * passo);
+		RegolaCompilata r = valore.regola;
+		return new Nodo((base, f) -> Math.round(r.valuta(base, f) / passo) * passo);
+	}
+
+	/**
+	 * Combina due nodi, calcolando subito il risultato se entrambi sono costanti
+	 * e risparmiando l'invocazione del figlio costante se lo è uno solo.
+	 */
+	private static Nodo binario(Nodo sinistro, Nodo destro, Operazione operazione) {
+		if (sinistro.costante && destro.costante) return Nodo.costante(operazione.applica(sinistro.valore, destro.valore));
+		if (destro.costante) return new Nodo(operazione.conCostante(sinistro.regola, destro.valore));
+		if (sinistro.costante) return new Nodo(operazione.costanteCon(sinistro.valore, destro.regola));
+		return new Nodo(operazione.combina(sinistro.regola, destro.regola));
+	}
+
+	private void spazi() {
+		while (pos < testo.length() && Character.isWhitespace(testo.charAt(pos))) pos++;
+	}
+
+	private boolean accetta(char c) {
+		spazi();
+		if (pos < testo.length() && testo.charAt(pos) == c) {
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	private void atteso(char c) {
+		if (!accetta(c)) throw errore("atteso '" + c + "'");
+	}
+
+	private NotValidDataException errore(String messaggio) {
+		return new NotValidDataException("Regola non valida alla posizione " + (pos + 1) + ": " + messaggio);
+	}
+
+	/**
+	 * Operazioni binarie. Ogni operazione crea lambda proprie per ciascuna combinazione di operandi,
+	 * così che ogni punto di chiamata della regola compilata esegua sempre la stessa operazione.
+	 */
+	private enum Operazione {
+
+		SOMMA {
+			double applica(double a, double b) { return a + b; }
+			RegolaCompilata combina(RegolaCompilata a, RegolaCompilata b) { return (x, f) -> a.valuta(x, f) + b.valuta(x, f); }
+			RegolaCompilata conCostante(RegolaCompilata a, double k) { return (x, f) -> a.valuta(x, f) + k; }
+			RegolaCompilata costanteCon(double k, RegolaCompilata b) { return (x, f) -> k + b.valuta(x, f); }
+		},
+		DIFFERENZA {
+			double applica(double a, double b) { return a - b; }
+			RegolaCompilata combina(RegolaCompilata a, RegolaCompilata b) { return (x, f) -> a.valuta(x, f) - b.valuta(x, f); }
+			RegolaCompilata conCostante(RegolaCompilata a, double k) { return (x, f) -> a.valuta(x, f) - k; }
+			RegolaCompilata costanteCon(double k, RegolaCompilata b) { return (x, f) -> k - b.valuta(x, f); }
+		},
+		PRODOTTO {
+			double applica(double a, double b) { return a * b; }
+			RegolaCompilata combina(RegolaCompilata a, RegolaCompilata b) { return (x, f) -> a.valuta(x, f) * b.valuta(x, f); }
+			RegolaCompilata conCostante(RegolaCompilata a, double k) { return (x, f) -> a.valuta(x, f) * k; }
+			RegolaCompilata costanteCon(double k, RegolaCompilata b) { return (x, f) -> k * b.valuta(x, f); }
+		},
+		QUOZIENTE {
+			double applica(double a, double b) { return a / b; }
+			RegolaCompilata combina(RegolaCompilata a, RegolaCompilata b) { return (x, f) -> a.valuta(x, f) / b.valuta(x, f); }
+			RegolaCompilata conCostante(RegolaCompilata a, double k) { return (x, f) -> a.valuta(x, f) / k; }
+			RegolaCompilata costanteCon(double k, RegolaCompilata b) { return (x, f) -> k / b.valuta(x, f); }
+		},
+		MINIMO {
+			double applica(double a, double b) { return Math.min(a, b); }
+			RegolaCompilata combina(RegolaCompilata a, RegolaCompilata b) { return (x, f) -> Math.min(a.valuta(x, f), b.valuta(x, f)); }
+			RegolaCompilata conCostante(RegolaCompilata a, double k) { return (x, f) -> Math.min(a.valuta(x, f), k); }
+			RegolaCompilata costanteCon(double k, RegolaCompilata b) { return (x, f) -> Math.min(k, b.valuta(x, f)); }
+		},
+		MASSIMO {
+			double applica(double a, double b) { return Math.max(a, b); }
+			RegolaCompilata combina(RegolaCompilata a, RegolaCompilata b) { return (x, f) -> Math.max(a.valuta(x, f), b.valuta(x, f)); }
+			RegolaCompilata conCostante(RegolaCompilata a, double k) { return (x, f) -> Math.max(a.valuta(x, f), k); }
+			RegolaCompilata costanteCon(double k, RegolaCompilata b) { return (x, f) -> Math.max(k, b.valuta(x, f)); }
+		};
+
+		abstract double applica(double a, double b);
+
+		abstract RegolaCompilata combina(RegolaCompilata a, RegolaCompilata b);
+
+		abstract RegolaCompilata conCostante(RegolaCompilata a, double k);
+
+		abstract RegolaCompilata costanteCon(double k, RegolaCompilata b);
+	}
+
+	/**
+	 * Nodo compilato dell'espressione, con il valore se costante.
+	 */
+	private static final class Nodo {
+
+		final RegolaCompilata regola;
+		final boolean costante;
+		final double valore;
+
+		Nodo(RegolaCompilata regola) {
+			this(regola, false, Double.NaN);
+		}
+
+		private Nodo(RegolaCompilata regola, boolean costante, double valore) {
+			this.regola = regola;
+			this.costante = costante;
+			this.valore = valore;
+		}
+
+		static Nodo costante(double valore) {
+			return new Nodo((base, f) -> valore, true, valore);
+		}
+	}
+}
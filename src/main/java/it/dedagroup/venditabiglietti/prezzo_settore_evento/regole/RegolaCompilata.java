@@ -0,0 +1,18 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.regole;
+
+/**
+ * Regola di prezzo compilata da {@link CompilatoreRegole}: una composizione di lambda che si valuta
+ * senza rileggere l'espressione, con i fattori risolti in posizioni dell'array al momento della compilazione.
+ */
+@FunctionalInterface
+public interface RegolaCompilata {
+
+	/**
+	 * Valuta la regola.
+	 *
+	 * @param base Il prezzo memorizzato del settore per l'evento.
+	 * @param fattori I valori dei fattori dell'evento, nell'ordine dei nomi passati al compilatore.
+	 * @return Il prezzo calcolato.
+	 */
+	double valuta(double base, double[] fattori);
+}
@@ -0,0 +1,73 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.regole;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Regole compilate di un evento con i valori dei fattori, immutabili: una modifica delle regole o dei fattori
+ * produce una nuova istanza. I prezzi calcolati vengono memorizzati per settore insieme al prezzo memorizzato
+ * da cui derivano e restano validi finché questo non cambia; regole e fattori nuovi scartano la memoria insieme all'istanza.
+ *
+ * Un risultato non finito o negativo, ad esempio per una divisione per zero, non è un prezzo valido:
+ * al suo posto si usa il prezzo memorizzato.
+ */
+public class RegoleEvento {
+
+	private static final Logger log = LogManager.getLogger(RegoleEvento.class);
+
+	private final long idEvento;
+	private final Map<Long, RegolaCompilata> perSettore;
+	private final RegolaCompilata perEvento;
+	private final double[] fattori;
+	private final Map<Long, Risultato> calcolati = new ConcurrentHashMap<>();
+
+	/**
+	 * @param idEvento L'id dell'evento.
+	 * @param perSettore Le regole dei singoli settori.
+	 * @param perEvento La regola dei settori senza una regola propria, null se non esiste.
+	 * @param fattori I valori dei fattori, nell'ordine dei nomi usati per compilare le regole.
+	 */
+	public RegoleEvento(long idEvento, Map<Long, RegolaCompilata> perSettore, RegolaCompilata perEvento, double[] fattori) {
+		this.idEvento = idEvento;
+		this.perSettore = Map.copyOf(perSettore);
+		this.perEvento = perEvento;
+		this.fattori = fattori.clone();
+	}
+
+	/**
+	 * Calcola il prezzo di un settore applicando la sua regola, o quella dell'evento, al prezzo memorizzato.
+	 *
+	 * @param idSettore L'id del settore.
+	 * @param base Il prezzo memorizzato.
+	 * @return Il prezzo calcolato, oppure {@code base} se al settore non si applica alcuna regola.
+	 */
+	public double applica(long idSettore, double base) {
+		RegolaCompilata regola = perSettore.get(idSettore);
+		if (regola == null) regola = perEvento;
+		if (regola == null) return base;
+		Risultato calcolato = calcolati.get(idSettore);
+		if (calcolato != null && calcolato.base == base) return calcolato.prezzo;
+		double prezzo = regola.valuta(base, fattori);
+		if (!(prezzo >= 0) || Double.isInfinite(prezzo)) {
+			log.warn("Regola dell'evento {} per il settore {} con prezzo {}: risultato non valido {}, uso il prezzo memorizzato",
+					idEvento, idSettore, base, prezzo);
+			prezzo = base;
+		}
+		calcolati.put(idSettore, new Risultato(base, prezzo));
+		return prezzo;
+	}
+
+	private static final class Risultato {
+
+		final double base;
+		final double prezzo;
+
+		Risultato(double base, double prezzo) {
+			this.base = base;
+			this.prezzo = prezzo;
+		}
+	}
+}
@@ -0,0 +1,281 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.regole;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.RegolePrezzoModificateEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotFoundExceptionCustom;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotValidDataException;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.FattorePrezzo;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.RegolaPrezzo;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.FattorePrezzoRepository;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.RegolaPrezzoRepository;
+
+/**
+ * Regole di prezzo degli eventi, applicate in lettura al prezzo memorizzato nel {@link PrezzoSettoreEvento}
+ * da tutte le letture dei prezzi, così che liste, preventivo e prezzo attivo restituiscano lo stesso prezzo.
+ * Il prezzo memorizzato resta consultabile nello storico dei prezzi.
+ *
+ * Le regole vengono compilate con {@link CompilatoreRegole} al primo utilizzo, o all'avvio, e dopo il commit
+ * di ogni modifica delle regole o dei fattori di un evento, che ricompila solo quell'evento. Lo stato è pubblicato
+ * come riferimento volatile a una mappa immutabile di {@link RegoleEvento}: le letture non prendono lock e,
+ * per gli eventi senza regole, costano una ricerca nella mappa. Gli aggiornamenti sono serializzati con un
+ * {@link ReentrantLock}, come nell'{@link it.dedagroup.venditabiglietti.prezzo_settore_evento.index.IndicePrezziAttivi}.
+ *
+ * Ogni modifica pubblica anche un {@link PrezziEventoModificatiEvent} per l'evento, così che gli ETag dei
+ * prezzi dell'evento cambino; la ricompilazione avviene prima che gli ETag vengano aggiornati.
+ */
+@Service
+public class RegolePrezzi {
+
+	private static final Logger log = LogManager.getLogger(RegolePrezzi.class);
+
+	@Autowired
+	private RegolaPrezzoRepository repoRegole;
+	@Autowired
+	private FattorePrezzoRepository repoFattori;
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	private final ReentrantLock lockScrittura = new ReentrantLock();
+	private volatile Map<Long, RegoleEvento> regole;
+
+	/**
+	 * Calcola il prezzo di un settore per un evento applicando la regola del settore, o quella dell'evento,
+	 * al prezzo memorizzato.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @param base Il prezzo memorizzato.
+	 * @return Il prezzo calcolato, oppure {@code base} se non si applica alcuna regola.
+	 */
+	public double applica(long idEvento, long idSettore, double base) {
+		Map<Long, RegoleEvento> correnti = regole;
+		if (correnti == null) correnti = carica();
+		RegoleEvento regoleEvento = correnti.get(idEvento);
+		return regoleEvento == null ? base : regoleEvento.applica(idSettore, base);
+	}
+
+	/**
+	 * Restituisce un prezzo settore evento disponibile con il prezzo calcolato dalle regole. Se una regola modifica
+	 * il prezzo viene restituita una copia, così che le istanze in cache o gestite dal contesto di persistenza
+	 * conservino il prezzo memorizzato; i prezzi cancellati e quelli senza regole sono restituiti invariati.
+	 *
+	 * @param pse Il prezzo settore evento letto.
+	 * @return Il prezzo settore evento con il prezzo calcolato.
+	 */
+	public PrezzoSettoreEvento applica(PrezzoSettoreEvento pse) {
+		if (pse.isCancellato()) return pse;
+		double prezzo = applica(pse.getIdEvento(), pse.getIdSettore(), pse.getPrezzo());
+		if (prezzo == pse.getPrezzo()) return pse;
+		PrezzoSettoreEvento calcolato = pse.copia();
+		calcolato.setPrezzo(prezzo);
+		return calcolato;
+	}
+
+	/**
+	 * Applica le regole a una lista di prezzi settore evento, come {@link #applica(PrezzoSettoreEvento)}.
+	 *
+	 * @param prezzi I prezzi settore evento letti.
+	 * @return Una nuova lista con i prezzi calcolati, nello stesso ordine.
+	 */
+	public List<PrezzoSettoreEvento> applica(List<PrezzoSettoreEvento> prezzi) {
+		List<PrezzoSettoreEvento> calcolati = new ArrayList<>(prezzi.size());
+		for (PrezzoSettoreEvento pse : prezzi) calcolati.add(applica(pse));
+		return calcolati;
+	}
+
+	/**
+	 * Compila le regole all'avvio dell'applicazione, se non sono già state compilate da una lettura.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	public void caricaAllAvvio() {
+		carica();
+	}
+
+	private Map<Long, RegoleEvento> carica() {
+		lockScrittura.lock();
+		try {
+			if (regole == null) {
+				Map<Long, List<FattorePrezzo>> fattori = repoFattori.findAll().stream()
+						.sorted(Comparator.comparing(FattorePrezzo::getNome))
+						.collect(Collectors.groupingBy(FattorePrezzo::getIdEvento));
+				Map<Long, RegoleEvento> compilate = new HashMap<>();
+				repoRegole.findAll().stream()
+						.collect(Collectors.groupingBy(RegolaPrezzo::getIdEvento))
+						.forEach((idEvento, regoleEvento) -> compilate.put(idEvento,
+								compila(idEvento, regoleEvento, fattori.getOrDefault(idEvento, List.of()))));
+				regole = Map.copyOf(compilate);
+				log.info("Regole di prezzo compilate per {} eventi", compilate.size());
+			}
+			return regole;
+		} finally {
+			lockScrittura.unlock();
+		}
+	}
+
+	/**
+	 * Ricompila le regole di un evento dopo il commit della loro modifica, prima dell'aggiornamento degli ETag.
+	 *
+	 * @param event L'evento con l'id dell'evento modificato.
+	 */
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onRegoleModificate(RegolePrezzoModificateEvent event) {
+		lockScrittura.lock();
+		try {
+			if (regole == null) return;
+			long idEvento = event.getIdEvento();
+			List<RegolaPrezzo> regoleEvento = repoRegole.findAllByIdEventoOrderByIdSettore(idEvento);
+			Map<Long, RegoleEvento> aggiornate = new HashMap<>(regole);
+			if (regoleEvento.isEmpty()) {
+				aggiornate.remove(idEvento);
+			} else {
+				aggiornate.put(idEvento, compila(idEvento, regoleEvento, repoFattori.findAllByIdEventoOrderByNome(idEvento)));
+			}
+			regole = Map.copyOf(aggiornate);
+		} finally {
+			lockScrittura.unlock();
+		}
+	}
+
+	/**
+	 * Compila le regole di un evento. Una regola salvata che non si compila più viene ignorata,
+	 * così che le altre regole dell'evento restino in vigore.
+	 */
+	static RegoleEvento compila(long idEvento, List<RegolaPrezzo> regole, List<FattorePrezzo> fattori) {
+		List<String> nomi = fattori.stream().map(FattorePrezzo::getNome).toList();
+		double[] valori = fattori.stream().mapToDouble(FattorePrezzo::getValore).toArray();
+		Map<Long, RegolaCompilata> perSettore = new HashMap<>();
+		RegolaCompilata perEvento = null;
+		for (RegolaPrezzo regola : regole) {
+			RegolaCompilata compilata;
+			try {
+				compilata = CompilatoreRegole.compila(regola.getEspressione(), nomi);
+			} catch (NotValidDataException e) {
+				log.error("Regola {} dell'evento {} ignorata: {}", regola.getId(), idEvento, e.getMessage());
+				continue;
+			}
+			if (regola.getIdSettore() == RegolaPrezzo.TUTTI_I_SETTORI) {
+				perEvento = compilata;
+			} else {
+				perSettore.put(regola.getIdSettore(), compilata);
+			}
+		}
+		return new RegoleEvento(idEvento, perSettore, perEvento, valori);
+	}
+
+	/**
+	 * Crea o sostituisce la regola di un settore per un evento, dopo averla compilata con i fattori dell'evento.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore, {@link RegolaPrezzo#TUTTI_I_SETTORI} per la regola dell'evento.
+	 * @param espressione L'espressione della regola.
+	 * @return La regola salvata.
+	 * @throws NotValidDataException Se l'espressione non è valida o usa fattori non definiti per l'evento.
+	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
+	 */
+	@Transactional(rollbackFor = DataAccessException.class)
+	public RegolaPrezzo salvaRegola(long idEvento, long idSettore, String espressione) {
+		CompilatoreRegole.compila(espressione, repoFattori.findAllByIdEventoOrderByNome(idEvento).stream().map(FattorePrezzo::getNome).toList());
+		RegolaPrezzo regola = repoRegole.findByIdEventoAndIdSettore(idEvento, idSettore)
+				.orElseGet(() -> new RegolaPrezzo(0, idEvento, idSettore, null));
+		regola.setEspressione(espressione);
+		RegolaPrezzo salvata = repoRegole.save(regola);
+		notifica(idEvento);
+		return salvata;
+	}
+
+	/**
+	 * Elimina la regola di un settore per un evento: il settore torna al prezzo memorizzato
+	 * o alla regola dell'evento.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore, {@link RegolaPrezzo#TUTTI_I_SETTORI} per la regola dell'evento.
+	 * @throws NotFoundExceptionCustom Se la regola non esiste.
+	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
+	 */
+	@Transactional(rollbackFor = DataAccessException.class)
+	public void eliminaRegola(long idEvento, long idSettore) {
+		RegolaPrezzo regola = repoRegole.findByIdEventoAndIdSettore(idEvento, idSettore)
+				.orElseThrow(() -> new NotFoundExceptionCustom("Nessuna regola con id_evento " + idEvento + " e con id_settore " + idSettore));
+		repoRegole.delete(regola);
+		notifica(idEvento);
+	}
+
+	/**
+	 * Imposta i valori dei fattori di un evento, creando quelli non ancora definiti. I fattori non indicati
+	 * restano invariati; un fattore non si può eliminare, poiché le regole dell'evento potrebbero usarlo.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param valori I valori dei fattori per nome.
+	 * @return Tutti i fattori dell'evento, ordinati per nome.
+	 * @throws NotValidDataException Se un nome non è valido o un valore non è un numero finito.
+	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
+	 */
+	@Transactional(rollbackFor = DataAccessException.class)
+	public List<FattorePrezzo> impostaFattori(long idEvento, Map<String, Double> valori) {
+		if (valori == null || valori.isEmpty()) throw new NotValidDataException("Nessun fattore indicato");
+		valori.forEach((nome, valore) -> {
+			if (!CompilatoreRegole.isNomeFattoreValido(nome)) throw new NotValidDataException("Nome del fattore non valido: " + nome);
+			if (valore == null || !Double.isFinite(valore)) throw new NotValidDataException("Valore del fattore " + nome + " non valido");
+		});
+		Map<String, FattorePrezzo> fattori = repoFattori.findAllByIdEventoOrderByNome(idEvento).stream()
+				.collect(Collectors.toMap(FattorePrezzo::getNome, Function.identity()));
+		valori.forEach((nome, valore) -> fattori.computeIfAbsent(nome, n -> new FattorePrezzo(0, idEvento, n, 0)).setValore(valore));
+		repoFattori.saveAll(fattori.values());
+		notifica(idEvento);
+		return fattori.values().stream().sorted(Comparator.comparing(FattorePrezzo::getNome)).toList();
+	}
+
+	/**
+	 * Trova le regole di un evento, ordinate per settore.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @return Le regole dell'evento.
+	 */
+	@Transactional(readOnly = true)
+	public List<RegolaPrezzo> getRegole(long idEvento) {
+		return repoRegole.findAllByIdEventoOrderByIdSettore(idEvento);
+	}
+
+	/**
+	 * Trova i valori dei fattori di un evento.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @return I valori dei fattori per nome, in ordine di nome.
+	 */
+	@Transactional(readOnly = true)
+	public Map<String, Double> getFattori(long idEvento) {
+		Map<String, Double> fattori = new LinkedHashMap<>();
+		repoFattori.findAllByIdEventoOrderByNome(idEvento).forEach(f -> fattori.put(f.getNome(), f.getValore()));
+		return fattori;
+	}
+
+	private void notifica(long idEvento) {
+		eventPublisher.publishEvent(new RegolePrezzoModificateEvent(idEvento));
+		eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEvento(idEvento));
+	}
+}
@@ -0,0 +1,21 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.FattorePrezzo;
+
+/**
+ * Repository per l'entità {@code FattorePrezzo}.
+ */
+public interface FattorePrezzoRepository extends JpaRepository<FattorePrezzo, Long> {
+
+    /**
+     * Trova i fattori di un evento.
+     *
+     * @param idEvento L'identificatore dell'evento.
+     * @return I fattori dell'evento, ordinati per nome.
+     */
+    List<FattorePrezzo> findAllByIdEventoOrderByNome(long idEvento);
+}
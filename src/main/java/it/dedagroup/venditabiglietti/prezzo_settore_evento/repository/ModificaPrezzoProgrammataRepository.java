@@ -0,0 +1,68 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.ModificaPrezzoProgrammata;
+import jakarta.persistence.LockModeType;
+
+/**
+ * Repository per l'entità {@code ModificaPrezzoProgrammata}.
+ */
+public interface ModificaPrezzoProgrammataRepository extends JpaRepository<ModificaPrezzoProgrammata, Long> {
+
+    /**
+     * Trova le modifiche da applicare con istante precedente a un limite, per caricarle nello scheduler.
+     *
+     * @param limite L'istante limite escluso, in UTC.
+     * @return Le modifiche non ancora applicate.
+     */
+    List<ModificaPrezzoProgrammata> findAllByApplicataFalseAndIstanteBefore(LocalDateTime limite);
+
+    /**
+     * Trova le modifiche da applicare di un evento, ordinate per istante.
+     *
+     * @param idEvento L'identificatore dell'evento.
+     * @return Le modifiche non ancora applicate.
+     */
+    List<ModificaPrezzoProgrammata> findAllByIdEventoAndApplicataFalseOrderByIstanteAscIdAsc(long idEvento);
+
+    /**
+     * Trova le modifiche già applicate degli eventi indicati con istante non precedente a un limite,
+     * per scartare quelle superate da una modifica più recente applicata in precedenza.
+     *
+     * @param idEvento Gli identificatori degli eventi.
+     * @param istante L'istante limite incluso, in UTC.
+     * @return Le modifiche applicate.
+     */
+    List<ModificaPrezzoProgrammata> findAllByIdEventoInAndApplicataTrueAndIstanteGreaterThanEqual(Collection<Long> idEvento, LocalDateTime istante);
+
+    /**
+     * Trova e blocca fino alla fine della transazione le modifiche non ancora applicate tra quelle indicate,
+     * così che più istanze del servizio non applichino la stessa modifica.
+     *
+     * @param ids Gli identificatori delle modifiche.
+     * @return Le modifiche non ancora applicate.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM ModificaPrezzoProgrammata m WHERE m.id IN :ids AND m.applicata = false")
+    List<ModificaPrezzoProgrammata> findAllDaApplicareForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Segna come applicate le modifiche indicate.
+     *
+     * @param ids Gli identificatori delle modifiche.
+     * @param applicataIl L'istante di applicazione, in UTC.
+     * @return Il numero di modifiche segnate.
+     */
+    @Modifying
+    @Query("UPDATE ModificaPrezzoProgrammata m SET m.applicata = true, m.applicataIl = :applicataIl WHERE m.id IN :ids")
+    int segnaApplicate(@Param("ids") Collection<Long> ids, @Param("applicataIl") LocalDateTime applicataIl);
+}
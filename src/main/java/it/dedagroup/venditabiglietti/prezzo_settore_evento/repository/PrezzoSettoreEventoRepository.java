@@ -1,7 +1,6 @@
 package it.dedagroup.venditabiglietti.prezzo_settore_evento.repository;
 
-import java.util.List;
-import java.util.Optional;
+import java.util.Collection;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -12,104 +11,89 @@ import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEv
 
 /**
  * Repository per l'entità {@code PrezzoSettoreEvento}.
- * Estende {@code JpaRepository} per fornire operazioni di base di accesso ai dati.
+ * Estende {@code JpaRepository} per fornire operazioni di base di accesso ai dati,
+ * {@link PrezzoSettoreEventoRepositoryPreventivo} per la lettura dei prezzi di più coppie evento/settore
+ * e {@link PrezzoSettoreEventoRepositoryProiezioni} per le letture di liste e pagine di prezzi non gestiti.
  */
-public interface PrezzoSettoreEventoRepository extends JpaRepository<PrezzoSettoreEvento, Long> {
+public interface PrezzoSettoreEventoRepository extends JpaRepository<PrezzoSettoreEvento, Long>, PrezzoSettoreEventoRepositoryPreventivo,
+        PrezzoSettoreEventoRepositoryProiezioni {
 
     /**
-     * Trova tutti i prezzi del settore per un determinato identificatore di settore.
-     *
-     * @param id L'identificatore del settore.
-     * @return Un'opzione contenente una lista di prezzi del settore, se presenti.
-     */
-    Optional<List<PrezzoSettoreEvento>> findAllByIdSettore(long id);
-
-    /**
-     * Trova tutti i prezzi del settore per un determinato identificatore di evento.
-     *
-     * @param id L'identificatore dell'evento.
-     * @return Un'opzione contenente una lista di prezzi del settore, se presenti.
-     */
-    Optional<List<PrezzoSettoreEvento>> findAllByIdEvento(long id);
-
-    /**
-     * Modifica il prezzo del settore per un evento specifico.
+     * Modifica il prezzo del settore per un evento specifico, incrementando la versione delle righe modificate.
      *
      * @param nuovoPrezzo Il nuovo prezzo da impostare.
      * @param idSettore   L'identificatore del settore.
      * @param idEvento    L'identificatore dell'evento.
      */
     @Modifying
-    @Query("UPDATE PrezzoSettoreEvento pse SET pse.prezzo = :nuovoPrezzo WHERE pse.idSettore = :idSettore AND pse.idEvento = :idEvento")
+    @Query("UPDATE PrezzoSettoreEvento pse SET pse.prezzo = :nuovoPrezzo, pse.version = pse.version + 1 WHERE pse.idSettore = :idSettore AND pse.idEvento = :idEvento")
     void modificaPrezzoByIdSettoreAndIdEvento(
             @Param("nuovoPrezzo") double nuovoPrezzo,
             @Param("idSettore") long idSettore,
             @Param("idEvento") long idEvento
     );
-
-    /**
-     * Trova tutti i prezzi del settore per un determinato identificatore di evento e settore.
-     *
-     * @param idEvento L'identificatore dell'evento.
-     * @param idSettore L'identificatore del settore.
-     * @return Un'opzione contenente una lista di prezzi del settore, se presenti.
-     */
-    Optional<List<PrezzoSettoreEvento>> findAllByIdEventoAndIdSettore(long idEvento, long idSettore);
     
     /**
-     * Imposta il flag di disponibilità su falso per tutti i prezzi del settore associati a un dato identificatore di settore.
+     * Imposta il flag di disponibilità su falso per tutti i prezzi del settore associati a un dato identificatore di settore, incrementandone la versione.
      *
      * @param idSettore L'identificatore del settore.
      */
     @Modifying
-    @Query("UPDATE PrezzoSettoreEvento pse SET pse.isCancellato = true WHERE pse.idSettore = :idSettore")
+    @Query("UPDATE PrezzoSettoreEvento pse SET pse.isCancellato = true, pse.version = pse.version + 1 WHERE pse.idSettore = :idSettore")
     void eliminaByIdSettore(@Param("idSettore") long idSettore);
     
     /**
-     * Imposta il flag di disponibilità su falso per tutti i prezzi del settore associati a un dato identificatore di evento.
+     * Imposta il flag di disponibilità su falso per tutti i prezzi del settore associati a un dato identificatore di evento, incrementandone la versione.
      *
      * @param idEvento L'identificatore dell'evento.
      */
     @Modifying
-    @Query("UPDATE PrezzoSettoreEvento pse SET pse.isCancellato = true WHERE pse.idEvento = :idEvento")
+    @Query("UPDATE PrezzoSettoreEvento pse SET pse.isCancellato = true, pse.version = pse.version + 1 WHERE pse.idEvento = :idEvento")
     void eliminaByIdEvento(@Param("idEvento") long idEvento);
     
     /**
-     * Imposta il flag di disponibilità su falso per un dato prezzo del settore associato a un identificatore di settore ed evento.
+     * Imposta il flag di disponibilità su falso per un dato prezzo del settore associato a un identificatore di settore ed evento, incrementandone la versione.
      *
      * @param idSettore L'identificatore del settore.
      * @param idEvento  L'identificatore dell'evento.
      */
     @Modifying
-    @Query("UPDATE PrezzoSettoreEvento pse SET pse.isCancellato = true WHERE pse.idSettore = :idSettore AND pse.idEvento = :idEvento")
+    @Query("UPDATE PrezzoSettoreEvento pse SET pse.isCancellato = true, pse.version = pse.version + 1 WHERE pse.idSettore = :idSettore AND pse.idEvento = :idEvento")
     void eliminaByIdSettoreAndIdEvento(@Param("idSettore") long idSettore, @Param("idEvento") long idEvento);
-    
-    /**
-     * Trova tutti i prezzi del settore per un determinato identificatore di evento con flag di disponibilità true.
-     *
-     * @param id L'identificatore dell'evento.
-     * @return Un'opzione contenente una lista di prezzi del settore disponibili, se presenti.
-     */
-    Optional<List<PrezzoSettoreEvento>> findAllByIdEventoAndIsCancellatoFalse(long id);
-    
+
     /**
-     * Trova tutti i prezzi del settore per un determinato identificatore di settore con flag di disponibilità true.
+     * Modifica il prezzo disponibile del settore per un evento specifico solo se la sua versione è quella attesa,
+     * incrementandola. Aggiornamento condizionale usato al posto di un lock per le modifiche con {@code If-Match}.
      *
-     * @param id L'identificatore del settore.
-     * @return Un'opzione contenente una lista di prezzi del settore disponibili, se presenti.
+     * @param nuovoPrezzo Il nuovo prezzo da impostare.
+     * @param idSettore   L'identificatore del settore.
+     * @param idEvento    L'identificatore dell'evento.
+     * @param versione    La versione attesa del prezzo disponibile.
+     * @return Il numero di righe modificate, 0 se la versione non corrisponde o non c'è un prezzo disponibile.
      */
-    Optional<List<PrezzoSettoreEvento>> findAllByIdSettoreAndIsCancellatoFalse(long id);
-    
+    @Modifying
+    @Query("UPDATE PrezzoSettoreEvento pse SET pse.prezzo = :nuovoPrezzo, pse.version = pse.version + 1 "
+            + "WHERE pse.idSettore = :idSettore AND pse.idEvento = :idEvento AND pse.isCancellato = false AND pse.version = :versione")
+    int modificaPrezzoAttivoSeVersione(
+            @Param("nuovoPrezzo") double nuovoPrezzo,
+            @Param("idSettore") long idSettore,
+            @Param("idEvento") long idEvento,
+            @Param("versione") long versione
+    );
+
     /**
-     * Trova tutti i prezzi del settore per un determinato identificatore di evento e settore con flag di disponibilità true.
+     * Applica con un solo aggiornamento le modifiche programmate indicate ai prezzi disponibili delle rispettive
+     * coppie evento/settore, incrementandone la versione. Le modifiche devono riguardare coppie diverse.
+     * I prezzi vengono cercati a partire dagli eventi delle modifiche, così che l'aggiornamento usi l'indice per evento.
      *
-     * @param idEvento L'identificatore dell'evento.
-     * @param idSettore L'identificatore del settore.
-     * @return Un'opzione contenente una lista di prezzi del settore disponibili, se presenti.
+     * @param idModifiche Gli identificatori delle {@code ModificaPrezzoProgrammata} da applicare.
+     * @return Il numero di prezzi modificati; le coppie senza un prezzo disponibile non vengono modificate.
      */
-    Optional<List<PrezzoSettoreEvento>> findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore);
-    
-    Optional<List<PrezzoSettoreEvento>> findAllByIsCancellatoFalse();
-    
-    List<PrezzoSettoreEvento> findAllByIdEventoIn(List<Long> idEvento);
+    @Modifying
+    @Query("UPDATE PrezzoSettoreEvento pse SET pse.prezzo = (SELECT m.prezzo FROM ModificaPrezzoProgrammata m "
+            + "WHERE m.id IN :idModifiche AND m.idEvento = pse.idEvento AND m.idSettore = pse.idSettore), pse.version = pse.version + 1 "
+            + "WHERE pse.idEvento IN (SELECT m.idEvento FROM ModificaPrezzoProgrammata m WHERE m.id IN :idModifiche) "
+            + "AND pse.isCancellato = false AND EXISTS (SELECT 1 FROM ModificaPrezzoProgrammata m "
+            + "WHERE m.id IN :idModifiche AND m.idEvento = pse.idEvento AND m.idSettore = pse.idSettore)")
+    int applicaModificheProgrammate(@Param("idModifiche") Collection<Long> idModifiche);
 }
@@ -0,0 +1,33 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.repository;
+
+/**
+ * Frammento di {@link PrezzoSettoreEventoRepository} per la lettura dei prezzi di più coppie evento/settore
+ * con una sola query, usato dal preventivo del carrello.
+ */
+public interface PrezzoSettoreEventoRepositoryPreventivo {
+
+	/**
+	 * Numero massimo di coppie evento/settore per query.
+	 */
+	int COPPIE_MASSIME = 256;
+
+	/**
+	 * Legge con una sola query tutti i prezzi, disponibili e cancellati, delle coppie evento/settore indicate
+	 * e li passa al lettore man mano che vengono letti, senza creare entità.
+	 *
+	 * @param idEventi Gli identificatori degli eventi delle coppie.
+	 * @param idSettori Gli identificatori dei settori delle coppie, nella stessa posizione dei rispettivi eventi.
+	 * @param coppie Il numero di coppie da leggere, da 1 a {@link #COPPIE_MASSIME}.
+	 * @param lettore La funzione che riceve ciascun prezzo letto.
+	 */
+	void leggiPrezziByCoppieEventoSettore(long[] idEventi, long[] idSettori, int coppie, LettorePrezzo lettore);
+
+	/**
+	 * Riceve i campi di un prezzo letto senza conversioni in oggetti.
+	 */
+	@FunctionalInterface
+	interface LettorePrezzo {
+
+		void leggi(long idEvento, long idSettore, double prezzo, boolean cancellato);
+	}
+}
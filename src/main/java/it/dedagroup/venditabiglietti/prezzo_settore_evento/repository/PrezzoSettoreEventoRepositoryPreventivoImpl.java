@@ -0,0 +1,73 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Implementazione del frammento {@link PrezzoSettoreEventoRepositoryPreventivo} su JDBC.
+ *
+ * La query legge dall'indice {@code uk_pse_evento_settore_attivo} le righe degli eventi delle coppie con
+ * {@code id_evento IN (...)}; le righe dei settori non richiesti vengono scartate dal lettore. Su MySQL
+ * si aggiunge un IN su valori di riga, {@code (id_evento, id_settore) IN ((?, ?), ...)}, che l'ottimizzatore
+ * risolve come intervalli sullo stesso indice così che vengano lette solo le coppie richieste. Su H2 l'IN su
+ * valori di riga non usa indici ed è valutato confrontando ogni riga con ogni coppia: con 100 coppie
+ * la query diventa diverse volte più lenta del filtro sui settori eseguito dal lettore.
+ *
+ * Il numero di coppie viene arrotondato alla potenza di due successiva ripetendo l'ultima coppia: così le query
+ * distinte sono al più nove, il loro testo è costruito una volta sola e i prepared statement restano riutilizzabili.
+ */
+public class PrezzoSettoreEventoRepositoryPreventivoImpl implements PrezzoSettoreEventoRepositoryPreventivo {
+
+	private static final String SELECT = "SELECT id_evento, id_settore, prezzo, is_cancellato FROM prezzo_settore_evento "
+			+ "WHERE id_evento IN (";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final boolean filtroCoppie;
+	private final String[] queryPerDimensione = new String[Integer.numberOfTrailingZeros(COPPIE_MASSIME) + 1];
+
+	public PrezzoSettoreEventoRepositoryPreventivoImpl(JdbcTemplate jdbcTemplate) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.filtroCoppie = "MySQL".equals(jdbcTemplate.execute(
+				(ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+		for (int i = 0; i < queryPerDimensione.length; i++) {
+			StringBuilder sql = new StringBuilder(SELECT);
+			for (int j = 0; j < 1 << i; j++) {
+				sql.append(j == 0 ? "?" : ", ?");
+			}
+			if (filtroCoppie) {
+				sql.append(") AND (id_evento, id_settore) IN (");
+				for (int j = 0; j < 1 << i; j++) {
+					sql.append(j == 0 ? "(?, ?)" : ", (?, ?)");
+				}
+			}
+			queryPerDimensione[i] = sql.append(')').toString();
+		}
+	}
+
+	@Override
+	public void leggiPrezziByCoppieEventoSettore(long[] idEventi, long[] idSettori, int coppie, LettorePrezzo lettore) {
+		if (coppie < 1 || coppie > COPPIE_MASSIME) {
+			throw new IllegalArgumentException("Numero di coppie non valido: " + coppie);
+		}
+		int dimensione = coppie == 1 ? 1 : Integer.highestOneBit(coppie - 1) << 1;
+		jdbcTemplate.query(queryPerDimensione[Integer.numberOfTrailingZeros(dimensione)], ps -> {
+			for (int i = 0; i < dimensione; i++) {
+				int coppia = Math.min(i, coppie - 1);
+				ps.setLong(i + 1, idEventi[coppia]);
+				if (filtroCoppie) {
+					ps.setLong(dimensione + 2 * i + 1, idEventi[coppia]);
+					ps.setLong(dimensione + 2 * i + 2, idSettori[coppia]);
+				}
+			}
+		}, rs -> {
+			long idEvento = rs.getLong(1);
+			long idSettore = rs.getLong(2);
+			for (int i = 0; i < coppie; i++) {
+				if (idEventi[i] == idEvento && idSettori[i] == idSettore) {
+					lettore.leggi(idEvento, idSettore, rs.getDouble(3), rs.getBoolean(4));
+					return;
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,179 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.repository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Frammento di {@link PrezzoSettoreEventoRepository} per le letture di liste e pagine di prezzi.
+ *
+ * Le letture sono eseguite in transazioni di sola lettura: Hibernate non esegue il flush e, su MySQL, la connessione
+ * JDBC viene marcata read-only. I prezzi restituiti sono proiezioni costruite dalla query e non entità gestite:
+ * non vengono registrati nel contesto di persistenza né copiati per il dirty checking, e per modificarli vanno
+ * salvati con {@code save} come le entità staccate.
+ */
+@Transactional(readOnly = true)
+public interface PrezzoSettoreEventoRepositoryProiezioni {
+
+	/**
+	 * Trova tutti i prezzi del settore per un determinato identificatore di settore.
+	 *
+	 * @param id L'identificatore del settore.
+	 * @return Un'opzione contenente una lista di prezzi del settore, se presenti.
+	 */
+	Optional<List<PrezzoSettoreEvento>> findAllByIdSettore(long id);
+
+	/**
+	 * Trova tutti i prezzi del settore per un determinato identificatore di evento.
+	 *
+	 * @param id L'identificatore dell'evento.
+	 * @return Un'opzione contenente una lista di prezzi del settore, se presenti.
+	 */
+	Optional<List<PrezzoSettoreEvento>> findAllByIdEvento(long id);
+
+	/**
+	 * Trova tutti i prezzi del settore per un determinato identificatore di evento e settore.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @param idSettore L'identificatore del settore.
+	 * @return Un'opzione contenente una lista di prezzi del settore, se presenti.
+	 */
+	Optional<List<PrezzoSettoreEvento>> findAllByIdEventoAndIdSettore(long idEvento, long idSettore);
+
+	/**
+	 * Trova tutti i prezzi del settore per un determinato identificatore di evento con flag di disponibilità true.
+	 *
+	 * @param id L'identificatore dell'evento.
+	 * @return Un'opzione contenente una lista di prezzi del settore disponibili, se presenti.
+	 */
+	Optional<List<PrezzoSettoreEvento>> findAllByIdEventoAndIsCancellatoFalse(long id);
+
+	/**
+	 * Trova tutti i prezzi del settore per un determinato identificatore di settore con flag di disponibilità true.
+	 *
+	 * @param id L'identificatore del settore.
+	 * @return Un'opzione contenente una lista di prezzi del settore disponibili, se presenti.
+	 */
+	Optional<List<PrezzoSettoreEvento>> findAllByIdSettoreAndIsCancellatoFalse(long id);
+
+	/**
+	 * Trova tutti i prezzi del settore per un determinato identificatore di evento e settore con flag di disponibilità true.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @param idSettore L'identificatore del settore.
+	 * @return Un'opzione contenente una lista di prezzi del settore disponibili, se presenti.
+	 */
+	Optional<List<PrezzoSettoreEvento>> findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore);
+
+	/**
+	 * Trova tutti i prezzi del settore con flag di disponibilità true.
+	 *
+	 * @return Un'opzione contenente una lista di prezzi del settore disponibili.
+	 */
+	Optional<List<PrezzoSettoreEvento>> findAllByIsCancellatoFalse();
+
+	/**
+	 * Trova tutti i prezzi del settore degli eventi indicati.
+	 *
+	 * @param idEvento Gli identificatori degli eventi.
+	 * @return La lista dei prezzi del settore degli eventi.
+	 */
+	List<PrezzoSettoreEvento> findAllByIdEventoIn(List<Long> idEvento);
+
+	/**
+	 * Trova una pagina di prezzi del settore per un determinato identificatore di settore con id maggiore del cursore, ordinati per id.
+	 *
+	 * @param idSettore L'identificatore del settore.
+	 * @param dopoId L'id dell'ultimo elemento della pagina precedente, 0 per la prima pagina.
+	 * @param pagina La pagina richiesta; viene usata solo la dimensione, come limite del numero di righe.
+	 * @return La lista dei prezzi della pagina.
+	 */
+	List<PrezzoSettoreEvento> findPaginaByIdSettore(long idSettore, long dopoId, Pageable pagina);
+
+	/**
+	 * Trova una pagina di prezzi del settore per un determinato identificatore di evento con id maggiore del cursore, ordinati per id.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @param dopoId L'id dell'ultimo elemento della pagina precedente, 0 per la prima pagina.
+	 * @param pagina La pagina richiesta; viene usata solo la dimensione, come limite del numero di righe.
+	 * @return La lista dei prezzi della pagina.
+	 */
+	List<PrezzoSettoreEvento> findPaginaByIdEvento(long idEvento, long dopoId, Pageable pagina);
+
+	/**
+	 * Trova una pagina di prezzi del settore per un determinato identificatore di evento e settore con id maggiore del cursore, ordinati per id.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @param idSettore L'identificatore del settore.
+	 * @param dopoId L'id dell'ultimo elemento della pagina precedente, 0 per la prima pagina.
+	 * @param pagina La pagina richiesta; viene usata solo la dimensione, come limite del numero di righe.
+	 * @return La lista dei prezzi della pagina.
+	 */
+	List<PrezzoSettoreEvento> findPaginaByIdEventoAndIdSettore(long idEvento, long idSettore, long dopoId, Pageable pagina);
+
+	/**
+	 * Trova una pagina di prezzi del settore per un determinato identificatore di settore con flag di disponibilità true con id maggiore del cursore, ordinati per id.
+	 *
+	 * @param idSettore L'identificatore del settore.
+	 * @param dopoId L'id dell'ultimo elemento della pagina precedente, 0 per la prima pagina.
+	 * @param pagina La pagina richiesta; viene usata solo la dimensione, come limite del numero di righe.
+	 * @return La lista dei prezzi della pagina.
+	 */
+	List<PrezzoSettoreEvento> findPaginaByIdSettoreAndIsCancellatoFalse(long idSettore, long dopoId, Pageable pagina);
+
+	/**
+	 * Trova una pagina di prezzi del settore per un determinato identificatore di evento con flag di disponibilità true con id maggiore del cursore, ordinati per id.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @param dopoId L'id dell'ultimo elemento della pagina precedente, 0 per la prima pagina.
+	 * @param pagina La pagina richiesta; viene usata solo la dimensione, come limite del numero di righe.
+	 * @return La lista dei prezzi della pagina.
+	 */
+	List<PrezzoSettoreEvento> findPaginaByIdEventoAndIsCancellatoFalse(long idEvento, long dopoId, Pageable pagina);
+
+	/**
+	 * Trova una pagina di prezzi del settore per un determinato identificatore di evento e settore con flag di disponibilità true con id maggiore del cursore, ordinati per id.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @param idSettore L'identificatore del settore.
+	 * @param dopoId L'id dell'ultimo elemento della pagina precedente, 0 per la prima pagina.
+	 * @param pagina La pagina richiesta; viene usata solo la dimensione, come limite del numero di righe.
+	 * @return La lista dei prezzi della pagina.
+	 */
+	List<PrezzoSettoreEvento> findPaginaByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore, long dopoId, Pageable pagina);
+
+	/**
+	 * Trova una pagina di prezzi del settore con flag di disponibilità true, con id maggiore del cursore, ordinati per id.
+	 *
+	 * @param dopoId L'id dell'ultimo elemento della pagina precedente, 0 per la prima pagina.
+	 * @param pagina La pagina richiesta; viene usata solo la dimensione, come limite del numero di righe.
+	 * @return La lista dei prezzi della pagina.
+	 */
+	List<PrezzoSettoreEvento> findPaginaByIsCancellatoFalse(long dopoId, Pageable pagina);
+
+	/**
+	 * Scorre in avanti, ordinati per id, i prezzi disponibili compresi negli intervalli di eventi e settori indicati.
+	 * Le righe vengono lette dal database a blocchi della dimensione di fetch e, non essendo entità gestite,
+	 * il contesto di persistenza non cresce con il numero di righe; lo stream deve essere consumato e chiuso
+	 * all'interno di una transazione.
+	 *
+	 * @param idEventoDa  Il primo id evento incluso.
+	 * @param idEventoA   L'ultimo id evento incluso.
+	 * @param idSettoreDa Il primo id settore incluso.
+	 * @param idSettoreA  L'ultimo id settore incluso.
+	 * @return Uno stream dei prezzi disponibili.
+	 */
+	Stream<PrezzoSettoreEvento> streamAllAttivi(long idEventoDa, long idEventoA, long idSettoreDa, long idSettoreA);
+
+	/**
+	 * Scorre in avanti, ordinati per id, tutti i prezzi, compresi quelli cancellati, come {@link #streamAllAttivi}.
+	 *
+	 * @return Uno stream di tutti i prezzi.
+	 */
+	Stream<PrezzoSettoreEvento> streamAll();
+}
@@ -0,0 +1,168 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.LetturaReattivaProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import reactor.core.publisher.Flux;
+
+/**
+ * Repository in sola lettura dei prezzi settore evento su driver R2DBC non bloccante.
+ *
+ * Le query sono le stesse di {@link PrezzoSettoreEventoRepository}, ordinate per id; le righe vengono emesse man mano
+ * che il driver le legge e al ritmo richiesto dal sottoscrittore. Le scritture restano su JPA.
+ *
+ * Il pool di connessioni R2DBC è creato qui e non registrato come bean: un {@code ConnectionFactory} nel contesto
+ * disattiverebbe la configurazione automatica del datasource JDBC usato da JPA e da Flyway.
+ */
+@Repository
+public class PrezzoSettoreEventoRepositoryReattivo implements DisposableBean {
+
+	private static final String SELECT = "SELECT id, id_settore, id_evento, prezzo, is_cancellato, version FROM prezzo_settore_evento ";
+
+	private final ConnectionPool pool;
+	private final DatabaseClient client;
+
+	public PrezzoSettoreEventoRepositoryReattivo(LetturaReattivaProperties properties) {
+		ConnectionFactoryOptions opzioni = ConnectionFactoryOptions.parse(properties.getUrl()).mutate()
+				.option(ConnectionFactoryOptions.USER, properties.getUsername())
+				.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+				.build();
+		pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(opzioni))
+				.initialSize(0)
+				.maxSize(properties.getDimensioneMassimaPool())
+				.build());
+		client = DatabaseClient.create(pool);
+	}
+
+	/**
+	 * Trova tutti i prezzi del settore per un determinato identificatore di evento.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @return I prezzi dell'evento ordinati per id.
+	 */
+	public Flux<PrezzoSettoreEvento> findAllByIdEvento(long idEvento) {
+		return client.sql(SELECT + "WHERE id_evento = :idEvento ORDER BY id")
+				.bind("idEvento", idEvento)
+				.map(PrezzoSettoreEventoRepositoryReattivo::mappa)
+				.all();
+	}
+
+	/**
+	 * Trova tutti i prezzi del settore per un determinato identificatore di settore.
+	 *
+	 * @param idSettore L'identificatore del settore.
+	 * @return I prezzi del settore ordinati per id.
+	 */
+	public Flux<PrezzoSettoreEvento> findAllByIdSettore(long idSettore) {
+		return client.sql(SELECT + "WHERE id_settore = :idSettore ORDER BY id")
+				.bind("idSettore", idSettore)
+				.map(PrezzoSettoreEventoRepositoryReattivo::mappa)
+				.all();
+	}
+
+	/**
+	 * Trova tutti i prezzi del settore per un determinato identificatore di evento e settore.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @param idSettore L'identificatore del settore.
+	 * @return I prezzi dell'evento e del settore ordinati per id.
+	 */
+	public Flux<PrezzoSettoreEvento> findAllByIdEventoAndIdSettore(long idEvento, long idSettore) {
+		return client.sql(SELECT + "WHERE id_evento = :idEvento AND id_settore = :idSettore ORDER BY id")
+				.bind("idEvento", idEvento)
+				.bind("idSettore", idSettore)
+				.map(PrezzoSettoreEventoRepositoryReattivo::mappa)
+				.all();
+	}
+
+	/**
+	 * Trova i prezzi disponibili per un determinato identificatore di evento.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @return I prezzi disponibili dell'evento ordinati per id.
+	 */
+	public Flux<PrezzoSettoreEvento> findAllByIdEventoAndIsCancellatoFalse(long idEvento) {
+		return client.sql(SELECT + "WHERE id_evento = :idEvento AND is_cancellato = FALSE ORDER BY id")
+				.bind("idEvento", idEvento)
+				.map(PrezzoSettoreEventoRepositoryReattivo::mappa)
+				.all();
+	}
+
+	/**
+	 * Trova i prezzi disponibili per un determinato identificatore di settore.
+	 *
+	 * @param idSettore L'identificatore del settore.
+	 * @return I prezzi disponibili del settore ordinati per id.
+	 */
+	public Flux<PrezzoSettoreEvento> findAllByIdSettoreAndIsCancellatoFalse(long idSettore) {
+		return client.sql(SELECT + "WHERE id_settore = :idSettore AND is_cancellato = FALSE ORDER BY id")
+				.bind("idSettore", idSettore)
+				.map(PrezzoSettoreEventoRepositoryReattivo::mappa)
+				.all();
+	}
+
+	/**
+	 * Trova i prezzi disponibili per un determinato identificatore di evento e settore.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @param idSettore L'identificatore del settore.
+	 * @return I prezzi disponibili dell'evento e del settore ordinati per id.
+	 */
+	public Flux<PrezzoSettoreEvento> findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore) {
+		return client.sql(SELECT + "WHERE id_evento = :idEvento AND id_settore = :idSettore AND is_cancellato = FALSE ORDER BY id")
+				.bind("idEvento", idEvento)
+				.bind("idSettore", idSettore)
+				.map(PrezzoSettoreEventoRepositoryReattivo::mappa)
+				.all();
+	}
+
+	/**
+	 * Trova tutti i prezzi disponibili.
+	 *
+	 * @return I prezzi disponibili ordinati per id.
+	 */
+	public Flux<PrezzoSettoreEvento> findAllByIsCancellatoFalse() {
+		return client.sql(SELECT + "WHERE is_cancellato = FALSE ORDER BY id")
+				.map(PrezzoSettoreEventoRepositoryReattivo::mappa)
+				.all();
+	}
+
+	/**
+	 * Trova tutti i prezzi del settore per gli identificatori di evento indicati.
+	 *
+	 * @param idEventi Gli identificatori degli eventi, non vuoto.
+	 * @return I prezzi degli eventi ordinati per id.
+	 */
+	public Flux<PrezzoSettoreEvento> findAllByIdEventoIn(List<Long> idEventi) {
+		return client.sql(SELECT + "WHERE id_evento IN (:idEventi) ORDER BY id")
+				.bind("idEventi", idEventi)
+				.map(PrezzoSettoreEventoRepositoryReattivo::mappa)
+				.all();
+	}
+
+	private static PrezzoSettoreEvento mappa(Readable riga) {
+		PrezzoSettoreEvento pse = new PrezzoSettoreEvento();
+		pse.setId(riga.get("id", Long.class));
+		pse.setIdSettore(riga.get("id_settore", Long.class));
+		pse.setIdEvento(riga.get("id_evento", Long.class));
+		pse.setPrezzo(riga.get("prezzo", Double.class));
+		pse.setCancellato(riga.get("is_cancellato", Boolean.class));
+		pse.setVersion(riga.get("version", Long.class));
+		return pse;
+	}
+
+	@Override
+	public void destroy() {
+		pool.dispose();
+	}
+}
@@ -0,0 +1,31 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.RegolaPrezzo;
+
+/**
+ * Repository per l'entità {@code RegolaPrezzo}.
+ */
+public interface RegolaPrezzoRepository extends JpaRepository<RegolaPrezzo, Long> {
+
+    /**
+     * Trova le regole di un evento.
+     *
+     * @param idEvento L'identificatore dell'evento.
+     * @return Le regole dell'evento, ordinate per settore.
+     */
+    List<RegolaPrezzo> findAllByIdEventoOrderByIdSettore(long idEvento);
+
+    /**
+     * Trova la regola di un settore per un evento.
+     *
+     * @param idEvento L'identificatore dell'evento.
+     * @param idSettore L'identificatore del settore, {@link RegolaPrezzo#TUTTI_I_SETTORI} per la regola dell'evento.
+     * @return La regola, se esiste.
+     */
+    Optional<RegolaPrezzo> findByIdEventoAndIdSettore(long idEvento, long idSettore);
+}
@@ -0,0 +1,26 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.scrittura;
+
+import java.util.concurrent.CompletableFuture;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Una modifica del prezzo di un settore per un evento in attesa di essere scritta dalla {@link ScritturaDifferita}.
+ * Le istanze sono mutabili perché vengono riusate come slot del ring buffer.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ModificaDifferita {
+
+	private long idEvento;
+	private long idSettore;
+	private double prezzo;
+
+	/**
+	 * Completata dopo il commit della transazione che scrive la modifica, o con l'errore che l'ha impedita.
+	 */
+	private CompletableFuture<Void> conferma;
+}
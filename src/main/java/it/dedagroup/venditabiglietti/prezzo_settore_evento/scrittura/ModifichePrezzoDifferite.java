@@ -0,0 +1,55 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.scrittura;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.ModifichePrezziEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.TipoModifica;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.storico.StoricoPrezzi;
+
+/**
+ * Scrittura in blocco delle modifiche di prezzo accorpate dalla {@link ScritturaDifferita}.
+ *
+ * Ogni modifica ha lo stesso effetto di una modifica del prezzo per settore ed evento senza {@code If-Match}:
+ * aggiorna tutti i prezzi della coppia incrementandone la versione, registra nello {@link StoricoPrezzi} il nuovo
+ * prezzo disponibile e pubblica gli eventi per la cache, l'indice e il journal. Le modifiche di un lotto vengono
+ * eseguite con un solo batch JDBC in un'unica transazione, invece di una transazione per modifica.
+ */
+@Service
+public class ModifichePrezzoDifferite {
+
+	private static final String MODIFICA = "UPDATE prezzo_settore_evento SET prezzo = ?, version = version + 1 WHERE id_settore = ? AND id_evento = ?";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private StoricoPrezzi storico;
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Scrive un lotto di modifiche, al più una per coppia evento/settore.
+	 *
+	 * @param modifiche Le modifiche da scrivere.
+	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
+	 */
+	@Transactional(rollbackFor = DataAccessException.class)
+	public void applica(List<ModificaDifferita> modifiche) {
+		if (modifiche.isEmpty()) return;
+		jdbcTemplate.batchUpdate(MODIFICA, modifiche.stream()
+				.map(m -> new Object[] { m.getPrezzo(), m.getIdSettore(), m.getIdEvento() })
+				.toList());
+		storico.registraPrezziModificati(modifiche.stream().map(m -> new long[] { m.getIdEvento(), m.getIdSettore() }).toList());
+		for (ModificaDifferita m : modifiche) {
+			eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEventoESettore(m.getIdEvento(), m.getIdSettore()));
+			eventPublisher.publishEvent(ModifichePrezziEvent.perAmbito(TipoModifica.MODIFICA_PREZZO, m.getIdEvento(), m.getIdSettore(), m.getPrezzo(), 0));
+		}
+	}
+}
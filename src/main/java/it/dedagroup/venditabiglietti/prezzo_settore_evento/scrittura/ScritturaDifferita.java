@@ -0,0 +1,292 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.scrittura;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.lmax.disruptor.EventHandler;
+import com.lmax.disruptor.ExceptionHandler;
+import com.lmax.disruptor.RingBuffer;
+import com.lmax.disruptor.TimeoutBlockingWaitStrategy;
+import com.lmax.disruptor.TimeoutException;
+import com.lmax.disruptor.dsl.Disruptor;
+import com.lmax.disruptor.dsl.ProducerType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.ScritturaDifferitaProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.ScritturaNonConfermataException;
+
+/**
+ * Scrittura differita delle modifiche del prezzo per settore ed evento, attraverso un ring buffer del Disruptor.
+ *
+ * I thread delle richieste copiano la modifica in uno slot preallocato e attendono la conferma; un unico thread
+ * consumatore accorpa le modifiche per coppia evento/settore, tenendo l'ultima ricevuta, e le scrive in un'unica
+ * transazione con {@link ModifichePrezzoDifferite#applica}. Il lotto viene scritto quando raggiunge la dimensione
+ * configurata oppure quando la sua prima modifica ha atteso l'intervallo configurato. Tutte le richieste accorpate
+ * in una coppia ricevono la conferma dopo il commit del lotto, o l'errore che lo ha impedito: una modifica confermata
+ * è già nel database, una non confermata può non esserlo e va ripetuta. Se il ring buffer si riempie, i thread delle
+ * richieste attendono uno slot libero.
+ *
+ * Le modifiche sono accorpate nell'ordine in cui entrano nel ring buffer, che per richieste concorrenti sulla stessa
+ * coppia non è prevedibile, come l'ordine dei commit di altrettante transazioni. Le modifiche con {@code If-Match}
+ * restano sincrone.
+ *
+ * Alla chiusura non vengono accettate nuove modifiche, quelle in coda vengono scritte entro l'attesa configurata e
+ * quelle rimaste nel ring buffer allo scadere vengono rifiutate con una {@link ScritturaNonConfermataException}.
+ *
+ * Il numero di modifiche nel ring buffer e di coppie in attesa di scrittura sono misurati dai gauge {@value #CODA}
+ * e {@value #IN_ATTESA}, la durata della scrittura di ogni lotto dal timer {@value #SCRITTURA}.
+ *
+ * @see ScritturaDifferitaProperties
+ */
+public class ScritturaDifferita implements Closeable {
+
+	private static final Logger log = LogManager.getLogger(ScritturaDifferita.class);
+
+	public static final String CODA = "prezzi.scrittura.differita.coda";
+	public static final String IN_ATTESA = "prezzi.scrittura.differita.in.attesa";
+	public static final String SCRITTURA = "prezzi.scrittura.differita.lotto";
+	public static final String ACCORPATE = "prezzi.scrittura.differita.accorpate";
+
+	private final ModifichePrezzoDifferite modifiche;
+	private final int dimensioneBatch;
+	private final long intervallo;
+	private final long attesaConferma;
+	private final long attesaChiusura;
+	private final Disruptor<ModificaDifferita> disruptor;
+	private final RingBuffer<ModificaDifferita> ringBuffer;
+	private final Consumatore consumatore = new Consumatore();
+	private final Timer scrittura;
+	private final DistributionSummary dimensioneLotto;
+	private final Counter accorpate;
+	private final Counter lottiFalliti;
+	private volatile Thread thread;
+	private volatile boolean chiusa;
+
+	public ScritturaDifferita(ModifichePrezzoDifferite modifiche, ScritturaDifferitaProperties properties, MeterRegistry registry) {
+		this.modifiche = modifiche;
+		this.dimensioneBatch = properties.getDimensioneBatch();
+		this.intervallo = properties.getIntervallo().toNanos();
+		this.attesaConferma = properties.getAttesaConferma().toNanos();
+		this.attesaChiusura = properties.getAttesaChiusura().toMillis();
+		this.disruptor = new Disruptor<>(ModificaDifferita::new, properties.getDimensioneBuffer(),
+				r -> {
+					thread = new Thread(r, "scrittura-differita");
+					thread.setDaemon(true);
+					return thread;
+				},
+				ProducerType.MULTI, new TimeoutBlockingWaitStrategy(Math.max(intervallo, TimeUnit.MILLISECONDS.toNanos(1)), TimeUnit.NANOSECONDS));
+		disruptor.handleEventsWith(consumatore);
+		disruptor.setDefaultExceptionHandler(new ExceptionHandler<ModificaDifferita>() {
+			@Override
+			public void handleEventException(Throwable e, long sequenza, ModificaDifferita modifica) {
+				log.error("Accodamento della modifica differita non riuscito: {}", modifica, e);
+			}
+
+			@Override
+			public void handleOnStartException(Throwable e) {
+				log.error("Avvio della scrittura differita non riuscito", e);
+			}
+
+			@Override
+			public void handleOnShutdownException(Throwable e) {
+				log.error("Chiusura della scrittura differita non riuscita", e);
+			}
+		});
+		this.scrittura = Timer.builder(SCRITTURA)
+				.description("Durata della scrittura di un lotto di modifiche differite, fino al commit")
+				.register(registry);
+		this.dimensioneLotto = DistributionSummary.builder("prezzi.scrittura.differita.lotto.dimensione")
+				.description("Coppie evento/settore scritte in un lotto di modifiche differite")
+				.register(registry);
+		this.accorpate = Counter.builder(ACCORPATE)
+				.description("Modifiche differite sostituite da una successiva della stessa coppia prima della scrittura")
+				.register(registry);
+		this.lottiFalliti = Counter.builder("prezzi.scrittura.differita.lotti.falliti")
+				.description("Lotti di modifiche differite la cui scrittura è fallita")
+				.register(registry);
+		this.ringBuffer = disruptor.start();
+		// il Disruptor svuota il ring buffer alla chiusura solo se il consumatore è in esecuzione
+		try {
+			if (!consumatore.avviato.await(attesaChiusura, TimeUnit.MILLISECONDS)) log.warn("Thread della scrittura differita non avviato");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		Gauge.builder(CODA, this, ScritturaDifferita::getInCoda)
+				.description("Modifiche differite nel ring buffer non ancora lette dal thread di scrittura")
+				.register(registry);
+		Gauge.builder(IN_ATTESA, consumatore, c -> c.dimensione)
+				.description("Coppie evento/settore con una modifica differita in attesa di scrittura")
+				.register(registry);
+	}
+
+	/**
+	 * Modifica il prezzo di un settore per un evento e attende il commit del lotto che contiene la modifica.
+	 *
+	 * @param prezzo Il nuovo prezzo da impostare.
+	 * @param idSettore L'id del settore per cui modificare il prezzo.
+	 * @param idEvento L'id dell'evento per cui modificare il prezzo.
+	 * @throws ScritturaNonConfermataException Se la scrittura differita è in chiusura o il commit non arriva entro l'attesa configurata.
+	 * @throws org.springframework.dao.DataAccessException Se la scrittura del lotto è fallita.
+	 */
+	public void modifica(double prezzo, long idSettore, long idEvento) {
+		CompletableFuture<Void> conferma = accoda(prezzo, idSettore, idEvento);
+		try {
+			conferma.get(attesaConferma, TimeUnit.NANOSECONDS);
+		} catch (java.util.concurrent.TimeoutException e) {
+			throw new ScritturaNonConfermataException("Commit della modifica del prezzo con id_evento " + idEvento + " e con id_settore "
+					+ idSettore + " non confermato entro " + TimeUnit.NANOSECONDS.toMillis(attesaConferma) + " ms");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException r) throw r;
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ScritturaNonConfermataException("Attesa del commit della modifica interrotta");
+		}
+	}
+
+	/**
+	 * Accoda una modifica senza attenderne la scrittura.
+	 *
+	 * @param prezzo Il nuovo prezzo da impostare.
+	 * @param idSettore L'id del settore per cui modificare il prezzo.
+	 * @param idEvento L'id dell'evento per cui modificare il prezzo.
+	 * @return La conferma, completata dopo il commit del lotto che contiene la modifica.
+	 * @throws ScritturaNonConfermataException Se la scrittura differita è in chiusura.
+	 */
+	public CompletableFuture<Void> accoda(double prezzo, long idSettore, long idEvento) {
+		if (chiusa) throw new ScritturaNonConfermataException("Servizio in chiusura, modifica del prezzo non accettata");
+		CompletableFuture<Void> conferma = new CompletableFuture<>();
+		long sequenza = ringBuffer.next();
+		try {
+			ModificaDifferita slot = ringBuffer.get(sequenza);
+			slot.setIdEvento(idEvento);
+			slot.setIdSettore(idSettore);
+			slot.setPrezzo(prezzo);
+			slot.setConferma(conferma);
+		} finally {
+			ringBuffer.publish(sequenza);
+		}
+		return conferma;
+	}
+
+	/**
+	 * @return Il numero di modifiche nel ring buffer non ancora lette dal thread di scrittura.
+	 */
+	public long getInCoda() {
+		return ringBuffer.getBufferSize() - ringBuffer.remainingCapacity();
+	}
+
+	/**
+	 * Scrive le modifiche in coda e ferma il thread di scrittura. Le modifiche non scritte entro l'attesa
+	 * configurata vengono rifiutate.
+	 */
+	@Override
+	public void close() {
+		chiusa = true;
+		try {
+			disruptor.shutdown(attesaChiusura, TimeUnit.MILLISECONDS);
+		} catch (TimeoutException e) {
+			log.warn("Modifiche differite non scritte entro {} ms dalla chiusura", attesaChiusura);
+			disruptor.halt();
+		}
+		try {
+			if (thread != null) thread.join(attesaChiusura);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		long rifiutate = 0;
+		for (long s = disruptor.getSequenceValueFor(consumatore) + 1; s <= ringBuffer.getCursor(); s++) {
+			CompletableFuture<Void> conferma = ringBuffer.get(s).getConferma();
+			if (conferma != null && conferma.completeExceptionally(new ScritturaNonConfermataException("Servizio in chiusura, modifica del prezzo non scritta"))) {
+				rifiutate++;
+			}
+		}
+		if (rifiutate > 0) log.error("{} modifiche differite rifiutate alla chiusura", rifiutate);
+	}
+
+	/**
+	 * Il thread consumatore: accorpa le modifiche per coppia e scrive i lotti.
+	 */
+	private final class Consumatore implements EventHandler<ModificaDifferita> {
+
+		private final Map<List<Long>, InAttesa> inAttesa = new LinkedHashMap<>();
+		private final CountDownLatch avviato = new CountDownLatch(1);
+		private long inizioLotto;
+		private volatile int dimensione;
+
+		@Override
+		public void onEvent(ModificaDifferita slot, long sequenza, boolean fineLotto) {
+			InAttesa coppia = inAttesa.get(List.of(slot.getIdEvento(), slot.getIdSettore()));
+			if (coppia == null) {
+				if (inAttesa.isEmpty()) inizioLotto = System.nanoTime();
+				coppia = new InAttesa(new ModificaDifferita(slot.getIdEvento(), slot.getIdSettore(), slot.getPrezzo(), null));
+				inAttesa.put(List.of(slot.getIdEvento(), slot.getIdSettore()), coppia);
+				dimensione = inAttesa.size();
+			} else {
+				coppia.modifica.setPrezzo(slot.getPrezzo());
+				accorpate.increment();
+			}
+			coppia.conferme.add(slot.getConferma());
+			slot.setConferma(null);
+			if (inAttesa.size() >= dimensioneBatch || fineLotto && System.nanoTime() - inizioLotto >= intervallo) scrivi();
+		}
+
+		@Override
+		public void onStart() {
+			avviato.countDown();
+		}
+
+		@Override
+		public void onTimeout(long sequenza) {
+			if (!inAttesa.isEmpty() && System.nanoTime() - inizioLotto >= intervallo) scrivi();
+		}
+
+		@Override
+		public void onShutdown() {
+			if (!inAttesa.isEmpty()) scrivi();
+		}
+
+		private void scrivi() {
+			List<InAttesa> lotto = new ArrayList<>(inAttesa.values());
+			inAttesa.clear();
+			dimensione = 0;
+			long inizio = System.nanoTime();
+			try {
+				modifiche.applica(lotto.stream().map(c -> c.modifica).toList());
+			} catch (RuntimeException e) {
+				log.error("Scrittura di {} modifiche differite non riuscita", lotto.size(), e);
+				lottiFalliti.increment();
+				for (InAttesa coppia : lotto) coppia.conferme.forEach(c -> c.completeExceptionally(e));
+				return;
+			} finally {
+				scrittura.record(System.nanoTime() - inizio, TimeUnit.NANOSECONDS);
+			}
+			dimensioneLotto.record(lotto.size());
+			for (InAttesa coppia : lotto) coppia.conferme.forEach(c -> c.complete(null));
+		}
+	}
+
+	private static final class InAttesa {
+
+		final ModificaDifferita modifica;
+		final List<CompletableFuture<Void>> conferme = new ArrayList<>(1);
+
+		InAttesa(ModificaDifferita modifica) {
+			this.modifica = modifica;
+		}
+	}
+}
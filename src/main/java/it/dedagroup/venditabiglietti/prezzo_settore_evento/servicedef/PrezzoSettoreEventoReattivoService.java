@@ -0,0 +1,79 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef;
+
+import java.util.List;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import reactor.core.publisher.Flux;
+
+/**
+ * Servizio di lettura non bloccante dei prezzi dei settori per gli eventi.
+ * Ogni metodo restituisce i prezzi ordinati per id, emessi al ritmo richiesto dal sottoscrittore;
+ * se non ci sono prezzi il flusso è vuoto.
+ */
+public interface PrezzoSettoreEventoReattivoService {
+
+	/**
+	 * Trova tutti i prezzi dei settori per un determinato identificatore di evento.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @return I prezzi dell'evento.
+	 */
+	Flux<PrezzoSettoreEvento> findAllByIdEvento(long idEvento);
+
+	/**
+	 * Trova tutti i prezzi dei settori per un determinato identificatore di settore.
+	 *
+	 * @param idSettore L'identificatore del settore.
+	 * @return I prezzi del settore.
+	 */
+	Flux<PrezzoSettoreEvento> findAllByIdSettore(long idSettore);
+
+	/**
+	 * Trova tutti i prezzi dei settori per un determinato identificatore di evento e settore.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @param idSettore L'identificatore del settore.
+	 * @return I prezzi dell'evento e del settore.
+	 */
+	Flux<PrezzoSettoreEvento> findAllByIdEventoAndIdSettore(long idEvento, long idSettore);
+
+	/**
+	 * Trova i prezzi disponibili per un determinato identificatore di evento.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @return I prezzi disponibili dell'evento.
+	 */
+	Flux<PrezzoSettoreEvento> findAllByIdEventoAndIsCancellatoFalse(long idEvento);
+
+	/**
+	 * Trova i prezzi disponibili per un determinato identificatore di settore.
+	 *
+	 * @param idSettore L'identificatore del settore.
+	 * @return I prezzi disponibili del settore.
+	 */
+	Flux<PrezzoSettoreEvento> findAllByIdSettoreAndIsCancellatoFalse(long idSettore);
+
+	/**
+	 * Trova i prezzi disponibili per un determinato identificatore di evento e settore.
+	 *
+	 * @param idEvento L'identificatore dell'evento.
+	 * @param idSettore L'identificatore del settore.
+	 * @return I prezzi disponibili dell'evento e del settore.
+	 */
+	Flux<PrezzoSettoreEvento> findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore);
+
+	/**
+	 * Trova tutti i prezzi disponibili.
+	 *
+	 * @return I prezzi disponibili.
+	 */
+	Flux<PrezzoSettoreEvento> findAllByIsCancellatoFalse();
+
+	/**
+	 * Trova tutti i prezzi dei settori per gli identificatori di evento indicati.
+	 *
+	 * @param idEventi Gli identificatori degli eventi.
+	 * @return I prezzi degli eventi, vuoto se la lista è vuota o assente.
+	 */
+	Flux<PrezzoSettoreEvento> getListaPseByIdsEvento(List<Long> idEventi);
+}
@@ -1,10 +1,19 @@
 package it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.function.Consumer;
 
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.RigaPreventivoDtoRequest;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.PaginaDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.PreventivoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.VersionePrezzoDtoResponse;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotFoundExceptionCustom;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotValidDataException;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepositoryPreventivo;
 
 /**
 * Servizio per la gestione dei prezzi dei settori per gli eventi.
@@ -18,6 +27,13 @@ public interface PrezzoSettoreEventoService {
     */
    void aggiungiPrezzoSettoreEvento(PrezzoSettoreEvento pse);
 
+   /**
+    * Aggiunge più prezzi dei settori per gli eventi in un'unica transazione.
+    *
+    * @param prezzi I prezzi da aggiungere; al termine ciascuno riporta l'id assegnato.
+    */
+   void aggiungiPrezziSettoreEvento(List<PrezzoSettoreEvento> prezzi);
+
    /**
     * Modifica un prezzo del settore per un evento esistente.
     *
@@ -68,6 +84,60 @@ public interface PrezzoSettoreEventoService {
     */
    void modificaPrezzoByIdSettoreAndIdEvento(double prezzo, long idSettore, long idEvento);
 
+   /**
+    * Modifica il prezzo disponibile del settore per un evento specifico solo se la sua versione è quella attesa.
+    *
+    * @param prezzo         Il nuovo prezzo da impostare.
+    * @param idSettore      L'identificatore del settore.
+    * @param idEvento       L'identificatore dell'evento.
+    * @param versioneAttesa La versione attesa del prezzo disponibile.
+    * @return La nuova versione del prezzo.
+    * @throws NotFoundExceptionCustom se non c'è un prezzo disponibile per l'evento e il settore specificati.
+    * @throws OptimisticLockingFailureException se la versione del prezzo disponibile è diversa da quella attesa.
+    */
+   long modificaPrezzoByIdSettoreAndIdEvento(double prezzo, long idSettore, long idEvento, long versioneAttesa);
+
+   /**
+    * Modifica l'id del settore di un prezzo del settore per un evento.
+    * Senza versione attesa, se un'altra richiesta modifica lo stesso prezzo nel frattempo
+    * la modifica viene ripetuta sul prezzo riletto, fino al numero massimo di tentativi.
+    *
+    * @param idPse          L'identificatore del prezzo.
+    * @param idSettore      Il nuovo identificatore del settore.
+    * @param versioneAttesa La versione attesa del prezzo, null per non verificarla.
+    * @return Il prezzo modificato, con la nuova versione.
+    * @throws NotValidDataException se il prezzo non viene trovato.
+    * @throws OptimisticLockingFailureException se la versione del prezzo è diversa da quella attesa o i tentativi sono esauriti.
+    */
+   PrezzoSettoreEvento modificaIdSettore(long idPse, long idSettore, Long versioneAttesa);
+
+   /**
+    * Modifica l'id dell'evento di un prezzo del settore per un evento.
+    * Senza versione attesa, se un'altra richiesta modifica lo stesso prezzo nel frattempo
+    * la modifica viene ripetuta sul prezzo riletto, fino al numero massimo di tentativi.
+    *
+    * @param idPse          L'identificatore del prezzo.
+    * @param idEvento       Il nuovo identificatore dell'evento.
+    * @param versioneAttesa La versione attesa del prezzo, null per non verificarla.
+    * @return Il prezzo modificato, con la nuova versione.
+    * @throws NotValidDataException se il prezzo non viene trovato.
+    * @throws OptimisticLockingFailureException se la versione del prezzo è diversa da quella attesa o i tentativi sono esauriti.
+    */
+   PrezzoSettoreEvento modificaIdEvento(long idPse, long idEvento, Long versioneAttesa);
+
+   /**
+    * Elimina un prezzo del settore per un evento tramite il suo identificatore.
+    * Senza versione attesa, se un'altra richiesta modifica lo stesso prezzo nel frattempo
+    * l'eliminazione viene ripetuta sul prezzo riletto, fino al numero massimo di tentativi.
+    *
+    * @param id             L'identificatore del prezzo.
+    * @param versioneAttesa La versione attesa del prezzo, null per non verificarla.
+    * @return Il prezzo eliminato, con la nuova versione.
+    * @throws NotValidDataException se il prezzo non viene trovato.
+    * @throws OptimisticLockingFailureException se la versione del prezzo è diversa da quella attesa o i tentativi sono esauriti.
+    */
+   PrezzoSettoreEvento eliminaPrezzoSettoreEventoById(long id, Long versioneAttesa);
+
    /**
     * Trova tutti i prezzi dei settori per un determinato identificatore di evento e settore.
     *
@@ -87,6 +157,18 @@ public interface PrezzoSettoreEventoService {
     * @throws NotFoundExceptionCustom se non vengono trovati prezzi del settore disponibili per l'evento e settore specificati.
     */
    List<PrezzoSettoreEvento> findAllByIsCancellatoFalse() throws NotFoundExceptionCustom;
+
+   /**
+    * Esporta uno alla volta i prezzi disponibili compresi negli intervalli di eventi e settori indicati,
+    * in ordine di id, senza caricarli tutti in memoria.
+    *
+    * @param idEventoDa  Il primo id evento incluso.
+    * @param idEventoA   L'ultimo id evento incluso.
+    * @param idSettoreDa Il primo id settore incluso.
+    * @param idSettoreA  L'ultimo id settore incluso.
+    * @param consumer    La funzione che riceve ciascun prezzo esportato.
+    */
+   void esportaPrezziAttivi(long idEventoDa, long idEventoA, long idSettoreDa, long idSettoreA, Consumer<PrezzoSettoreEvento> consumer);
    
    /**
     * Trova tutti i prezzi dei settori per un determinato identificatore di evento che sono disponibili.
@@ -142,6 +224,127 @@ public interface PrezzoSettoreEventoService {
    
    List<PrezzoSettoreEvento> getListaPseByIdsEvento(List<Long> idEventi);
 
+   /**
+    * Restituisce il prezzo attualmente disponibile di un settore per un evento, calcolato con l'eventuale
+    * regola di prezzo del settore o dell'evento.
+    *
+    * @param idEvento L'identificatore dell'evento.
+    * @param idSettore L'identificatore del settore.
+    * @return Il prezzo disponibile.
+    * @throws NotFoundExceptionCustom se non esiste un prezzo disponibile per l'evento e settore specificati.
+    */
+   double getPrezzoAttivo(long idEvento, long idSettore) throws NotFoundExceptionCustom;
+
+   /**
+    * Restituisce la versione del prezzo di un settore per un evento disponibile a un dato istante.
+    *
+    * @param idEvento L'identificatore dell'evento.
+    * @param idSettore L'identificatore del settore.
+    * @param istante L'istante.
+    * @return La versione del prezzo disponibile all'istante, con il periodo di validità.
+    * @throws NotFoundExceptionCustom se all'istante non era disponibile un prezzo per l'evento e settore specificati.
+    */
+   VersionePrezzoDtoResponse getPrezzoAlMomento(long idEvento, long idSettore, Instant istante) throws NotFoundExceptionCustom;
+
+   /**
+    * Restituisce lo storico del prezzo di un settore per un evento, dalla versione meno recente.
+    * Le versioni senza prezzo indicano i periodi in cui nessun prezzo era disponibile.
+    *
+    * @param idEvento L'identificatore dell'evento.
+    * @param idSettore L'identificatore del settore.
+    * @return Le versioni del prezzo.
+    * @throws NotFoundExceptionCustom se l'evento e settore specificati non hanno storico.
+    */
+   List<VersionePrezzoDtoResponse> getStoricoPrezzo(long idEvento, long idSettore) throws NotFoundExceptionCustom;
+
+   /**
+    * Trova una pagina dei prezzi dei settori per un determinato identificatore di settore, ordinati per id.
+    *
+    * @param idSettore L'identificatore del settore.
+    * @param cursore Il cursore restituito dalla pagina precedente, {@code null} per la prima pagina.
+    * @param dimensione Il numero massimo di elementi della pagina.
+    * @return La pagina di prezzi con il cursore della pagina successiva.
+    * @throws NotValidDataException se il cursore non è valido.
+    */
+   PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdSettore(long idSettore, String cursore, int dimensione) throws NotValidDataException;
+
+   /**
+    * Trova una pagina dei prezzi dei settori per un determinato identificatore di evento, ordinati per id.
+    *
+    * @param idEvento L'identificatore dell'evento.
+    * @param cursore Il cursore restituito dalla pagina precedente, {@code null} per la prima pagina.
+    * @param dimensione Il numero massimo di elementi della pagina.
+    * @return La pagina di prezzi con il cursore della pagina successiva.
+    * @throws NotValidDataException se il cursore non è valido.
+    */
+   PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdEvento(long idEvento, String cursore, int dimensione) throws NotValidDataException;
+
+   /**
+    * Trova una pagina dei prezzi dei settori per un determinato identificatore di evento e settore, ordinati per id.
+    *
+    * @param idEvento L'identificatore dell'evento.
+    * @param idSettore L'identificatore del settore.
+    * @param cursore Il cursore restituito dalla pagina precedente, {@code null} per la prima pagina.
+    * @param dimensione Il numero massimo di elementi della pagina.
+    * @return La pagina di prezzi con il cursore della pagina successiva.
+    * @throws NotValidDataException se il cursore non è valido.
+    */
+   PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdEventoAndIdSettore(long idEvento, long idSettore, String cursore, int dimensione) throws NotValidDataException;
+
+   /**
+    * Trova una pagina dei prezzi dei settori disponibili per un determinato identificatore di settore, ordinati per id.
+    *
+    * @param idSettore L'identificatore del settore.
+    * @param cursore Il cursore restituito dalla pagina precedente, {@code null} per la prima pagina.
+    * @param dimensione Il numero massimo di elementi della pagina.
+    * @return La pagina di prezzi con il cursore della pagina successiva.
+    * @throws NotValidDataException se il cursore non è valido.
+    */
+   PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdSettoreAndIsCancellatoFalse(long idSettore, String cursore, int dimensione) throws NotValidDataException;
+
+   /**
+    * Trova una pagina dei prezzi dei settori disponibili per un determinato identificatore di evento, ordinati per id.
+    *
+    * @param idEvento L'identificatore dell'evento.
+    * @param cursore Il cursore restituito dalla pagina precedente, {@code null} per la prima pagina.
+    * @param dimensione Il numero massimo di elementi della pagina.
+    * @return La pagina di prezzi con il cursore della pagina successiva.
+    * @throws NotValidDataException se il cursore non è valido.
+    */
+   PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdEventoAndIsCancellatoFalse(long idEvento, String cursore, int dimensione) throws NotValidDataException;
+
+   /**
+    * Trova una pagina dei prezzi dei settori disponibili per un determinato identificatore di evento e settore, ordinati per id.
+    *
+    * @param idEvento L'identificatore dell'evento.
+    * @param idSettore L'identificatore del settore.
+    * @param cursore Il cursore restituito dalla pagina precedente, {@code null} per la prima pagina.
+    * @param dimensione Il numero massimo di elementi della pagina.
+    * @return La pagina di prezzi con il cursore della pagina successiva.
+    * @throws NotValidDataException se il cursore non è valido.
+    */
+   PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore, String cursore, int dimensione) throws NotValidDataException;
+
+   /**
+    * Trova una pagina dei prezzi dei settori disponibili, ordinati per id.
+    *
+    * @param cursore Il cursore restituito dalla pagina precedente, {@code null} per la prima pagina.
+    * @param dimensione Il numero massimo di elementi della pagina.
+    * @return La pagina di prezzi con il cursore della pagina successiva.
+    * @throws NotValidDataException se il cursore non è valido.
+    */
+   PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIsCancellatoFalse(String cursore, int dimensione) throws NotValidDataException;
+
+   /**
+    * Calcola il preventivo di un carrello leggendo con una sola query i prezzi di tutte le righe.
+    * Le righe senza prezzo disponibile sono riportate come cancellate o mancanti e non concorrono al totale.
+    * Ai prezzi disponibili si applicano le regole di prezzo, come in {@link #getPrezzoAttivo}.
+    *
+    * @param righe Le righe del carrello, al massimo {@link PrezzoSettoreEventoRepositoryPreventivo#COPPIE_MASSIME}.
+    * @return Il preventivo con il prezzo di ciascuna riga, nell'ordine della richiesta, e il totale.
+    */
+   PreventivoDtoResponse calcolaPreventivo(List<RigaPreventivoDtoRequest> righe);
+
    
    
    
@@ -0,0 +1,67 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.serviceimpl;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.regole.RegolePrezzi;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepositoryReattivo;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoReattivoService;
+import reactor.core.publisher.Flux;
+
+/**
+ * Implementazione del servizio di lettura non bloccante dei prezzi settore evento.
+ * Ai prezzi letti si applicano le regole di prezzo, come nelle letture di {@link PrezzoSettoreEventoServiceImpl}:
+ * le regole sono compilate all'avvio, quindi la loro applicazione non blocca il flusso.
+ */
+@Service
+public class PrezzoSettoreEventoReattivoServiceImpl implements PrezzoSettoreEventoReattivoService {
+
+	@Autowired
+	private PrezzoSettoreEventoRepositoryReattivo repo;
+	@Autowired
+	private RegolePrezzi regole;
+
+	@Override
+	public Flux<PrezzoSettoreEvento> findAllByIdEvento(long idEvento) {
+		return repo.findAllByIdEvento(idEvento).map(regole::applica);
+	}
+
+	@Override
+	public Flux<PrezzoSettoreEvento> findAllByIdSettore(long idSettore) {
+		return repo.findAllByIdSettore(idSettore).map(regole::applica);
+	}
+
+	@Override
+	public Flux<PrezzoSettoreEvento> findAllByIdEventoAndIdSettore(long idEvento, long idSettore) {
+		return repo.findAllByIdEventoAndIdSettore(idEvento, idSettore).map(regole::applica);
+	}
+
+	@Override
+	public Flux<PrezzoSettoreEvento> findAllByIdEventoAndIsCancellatoFalse(long idEvento) {
+		return repo.findAllByIdEventoAndIsCancellatoFalse(idEvento).map(regole::applica);
+	}
+
+	@Override
+	public Flux<PrezzoSettoreEvento> findAllByIdSettoreAndIsCancellatoFalse(long idSettore) {
+		return repo.findAllByIdSettoreAndIsCancellatoFalse(idSettore).map(regole::applica);
+	}
+
+	@Override
+	public Flux<PrezzoSettoreEvento> findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore) {
+		return repo.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(idEvento, idSettore).map(regole::applica);
+	}
+
+	@Override
+	public Flux<PrezzoSettoreEvento> findAllByIsCancellatoFalse() {
+		return repo.findAllByIsCancellatoFalse().map(regole::applica);
+	}
+
+	@Override
+	public Flux<PrezzoSettoreEvento> getListaPseByIdsEvento(List<Long> idEventi) {
+		if (idEventi == null || idEventi.isEmpty()) return Flux.empty();
+		return repo.findAllByIdEventoIn(idEventi).map(regole::applica);
+	}
+}
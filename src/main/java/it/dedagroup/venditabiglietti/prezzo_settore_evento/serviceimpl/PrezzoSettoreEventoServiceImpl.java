@@ -1,18 +1,48 @@
 package it.dedagroup.venditabiglietti.prezzo_settore_evento.serviceimpl;
 
+import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.cache.PrezziEventoCache;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.request.RigaPreventivoDtoRequest;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.PaginaDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.PreventivoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.RigaPreventivoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.StatoRigaPreventivo;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.VersionePrezzoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.ModifichePrezziEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.TipoModifica;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotFoundExceptionCustom;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotValidDataException;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.index.IndicePrezziAttivi;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.regole.RegolePrezzi;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepositoryPreventivo;
 import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
-import jakarta.transaction.Transactional;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.storico.StoricoPrezzi;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 
 /**
  * Implementazione del servizio {@link PrezzoSettoreEventoService} che gestisce
@@ -27,6 +57,21 @@ import jakarta.transaction.Transactional;
  * La modifica del prezzo per id settore e id evento è eseguita in due fasi, prima viene effettuata una ricerca
  * e poi viene eseguita l'effettiva modifica attraverso il repository.
  * 
+ * Le modifiche di un singolo prezzo usano il lock ottimistico sulla versione dell'entità: con una versione attesa
+ * la modifica è condizionata, senza viene ripetuta sul prezzo riletto in caso di modifica concorrente.
+ * 
+ * Le letture che arrivano al database sono eseguite in transazioni di sola lettura e restituiscono
+ * le proiezioni del repository, prezzi non gestiti dal contesto di persistenza. Le letture servite dalla
+ * cache o dall'indice non aprono transazioni: in caso di mancata corrispondenza la transazione di sola
+ * lettura è quella del repository, così che una lettura dalla memoria non occupi una connessione.
+ * 
+ * Le letture dei prezzi disponibili per evento e per id passano dalla {@link PrezziEventoCache}.
+ * Ogni operazione di scrittura pubblica un {@link PrezziEventoModificatiEvent} che ne descrive
+ * l'ambito, così che la cache venga invalidata e l'{@link IndicePrezziAttivi} aggiornato dopo il commit,
+ * e un {@link ModifichePrezziEvent} con i valori scritti, per il journal delle modifiche.
+ * Nella stessa transazione le scritture aggiungono allo {@link StoricoPrezzi} le nuove versioni dei prezzi disponibili,
+ * così che si possa risalire al prezzo di un settore per un evento a un dato istante.
+ * 
  * @see PrezzoSettoreEventoService
  * @see PrezzoSettoreEventoRepository
  * @see NotValidDataException
@@ -37,6 +82,24 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	
 	@Autowired
 	private PrezzoSettoreEventoRepository repo;
+	@Autowired
+	private PrezziEventoCache cache;
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+	@Autowired
+	private IndicePrezziAttivi indice;
+	@Autowired
+	private StoricoPrezzi storico;
+	@Autowired
+	private RegolePrezzi regole;
+	@PersistenceContext
+	private EntityManager entityManager;
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+	@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+	private int dimensioneBatch;
+	@Value("${prezzo-settore-evento.scrittura.tentativi-massimi:3}")
+	private int tentativiMassimi;
 
 	/**
 	 * Aggiunge un nuovo prezzo settore evento al repository.
@@ -45,9 +108,36 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
 	 */
 	@Override
-	@Transactional(rollbackOn = DataAccessException.class)
+	@Transactional(rollbackFor = DataAccessException.class)
 	public void aggiungiPrezzoSettoreEvento(PrezzoSettoreEvento pse) {
 		repo.save(pse);
+		storico.registraInseriti(List.of(pse));
+		eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEvento(pse.getIdEvento()));
+		eventPublisher.publishEvent(ModifichePrezziEvent.perPrezzo(TipoModifica.INSERIMENTO, pse));
+	}
+
+	/**
+	 * Aggiunge più prezzi settore evento in un'unica transazione. Gli inserimenti vengono inviati
+	 * al database in batch JDBC della dimensione configurata e il contesto di persistenza viene
+	 * svuotato dopo ogni batch, così che la memoria occupata non cresca con il numero di elementi.
+	 * 
+	 * @param prezzi I prezzi settore evento da aggiungere.
+	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
+	 */
+	@Override
+	@Transactional(rollbackFor = DataAccessException.class)
+	public void aggiungiPrezziSettoreEvento(List<PrezzoSettoreEvento> prezzi) {
+		for (int i = 0; i < prezzi.size(); i++) {
+			entityManager.persist(prezzi.get(i));
+			if ((i + 1) % dimensioneBatch == 0) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+		storico.registraInseriti(prezzi);
+		prezzi.stream().mapToLong(PrezzoSettoreEvento::getIdEvento).distinct()
+				.forEach(idEvento -> eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEvento(idEvento)));
+		eventPublisher.publishEvent(ModifichePrezziEvent.perPrezzi(TipoModifica.INSERIMENTO, prezzi));
 	}
 
 	/**
@@ -57,9 +147,9 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
 	 */
 	@Override
-	@Transactional(rollbackOn = DataAccessException.class)
+	@Transactional(rollbackFor = DataAccessException.class)
 	public void modificaPrezzoSettoreEvento(PrezzoSettoreEvento pse) {
-		repo.save(pse);
+		salvaENotifica(pse, TipoModifica.MODIFICA);
 	}
 
 	/**
@@ -70,13 +160,96 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
 	 */
 	@Override
+	@Transactional(rollbackFor = DataAccessException.class)
 	public void eliminaPrezzoSettoreEvento(PrezzoSettoreEvento pse) {
 		pse.setCancellato(true);
-		repo.save(pse);
+		salvaENotifica(pse, TipoModifica.CANCELLAZIONE);
+	}
+
+	@Override
+	public PrezzoSettoreEvento modificaIdSettore(long idPse, long idSettore, Long versioneAttesa) {
+		return modificaConRiprova(idPse, versioneAttesa, TipoModifica.MODIFICA_SETTORE, pse -> pse.setIdSettore(idSettore));
+	}
+
+	@Override
+	public PrezzoSettoreEvento modificaIdEvento(long idPse, long idEvento, Long versioneAttesa) {
+		return modificaConRiprova(idPse, versioneAttesa, TipoModifica.MODIFICA_EVENTO, pse -> pse.setIdEvento(idEvento));
+	}
+
+	@Override
+	public PrezzoSettoreEvento eliminaPrezzoSettoreEventoById(long id, Long versioneAttesa) {
+		return modificaConRiprova(id, versioneAttesa, TipoModifica.CANCELLAZIONE, pse -> pse.setCancellato(true));
+	}
+
+	/**
+	 * Legge un prezzo settore evento, applica la modifica e la salva in un'unica transazione. L'aggiornamento
+	 * è condizionato alla versione letta, quindi fallisce se nel frattempo un'altra transazione ha modificato il prezzo.
+	 * 
+	 * Con una versione attesa il conflitto viene restituito al chiamante. Senza, la modifica imposta valori
+	 * assoluti ed è quindi idempotente: viene ripetuta in una nuova transazione sul prezzo riletto,
+	 * fino a {@code prezzo-settore-evento.scrittura.tentativi-massimi} volte.
+	 * 
+	 * @param id L'id del prezzo settore evento da modificare.
+	 * @param versioneAttesa La versione attesa, null per non verificarla.
+	 * @param tipo Il tipo della modifica, per il journal.
+	 * @param modifica La modifica da applicare al prezzo letto.
+	 * @return Il prezzo modificato, con la nuova versione.
+	 * @throws OptimisticLockingFailureException Se la versione non è quella attesa o i tentativi sono esauriti.
+	 */
+	private PrezzoSettoreEvento modificaConRiprova(long id, Long versioneAttesa, TipoModifica tipo, Consumer<PrezzoSettoreEvento> modifica) {
+		int tentativi = versioneAttesa == null ? tentativiMassimi : 1;
+		for (int tentativo = 1; ; tentativo++) {
+			try {
+				return transactionTemplate.execute(stato -> {
+					PrezzoSettoreEvento pse = leggiMemorizzato(id);
+					if (versioneAttesa != null && pse.getVersion() != versioneAttesa) {
+						throw new OptimisticLockingFailureException("Versione " + versioneAttesa + " del PrezzoSettoreEvento " + id
+								+ " non più attuale, versione corrente " + pse.getVersion());
+					}
+					long idEventoPrecedente = pse.getIdEvento();
+					long idSettorePrecedente = pse.getIdSettore();
+					boolean eraDisponibile = !pse.isCancellato();
+					modifica.accept(pse);
+					repo.saveAndFlush(pse);
+					storico.registraModifica(idEventoPrecedente, idSettorePrecedente, eraDisponibile, pse);
+					eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEvento(pse.getIdEvento()));
+					if (idEventoPrecedente != pse.getIdEvento()) {
+						eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEvento(idEventoPrecedente));
+					}
+					eventPublisher.publishEvent(ModifichePrezziEvent.perPrezzo(tipo, pse));
+					return pse;
+				});
+			} catch (OptimisticLockingFailureException e) {
+				if (tentativo >= tentativi) throw e;
+			}
+		}
+	}
+
+	/**
+	 * Salva un prezzo settore evento esistente e notifica la modifica sia per l'evento attuale
+	 * sia per quello precedentemente associato, nel caso in cui l'id evento sia stato cambiato.
+	 * 
+	 * @param pse Il prezzo settore evento da salvare.
+	 * @param tipo Il tipo della modifica, per il journal.
+	 */
+	private void salvaENotifica(PrezzoSettoreEvento pse, TipoModifica tipo) {
+		Optional<PrezzoSettoreEvento> precedente = repo.findById(pse.getId());
+		Long idEventoPrecedente = precedente.map(PrezzoSettoreEvento::getIdEvento).orElse(null);
+		long idSettorePrecedente = precedente.map(PrezzoSettoreEvento::getIdSettore).orElse(pse.getIdSettore());
+		boolean eraDisponibile = precedente.map(p -> !p.isCancellato()).orElse(false);
+		// il flush assegna la nuova versione, registrata nello storico
+		PrezzoSettoreEvento salvato = repo.saveAndFlush(pse);
+		storico.registraModifica(idEventoPrecedente == null ? pse.getIdEvento() : idEventoPrecedente, idSettorePrecedente, eraDisponibile, salvato);
+		eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEvento(pse.getIdEvento()));
+		if (idEventoPrecedente != null && idEventoPrecedente != pse.getIdEvento()) {
+			eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEvento(idEventoPrecedente));
+		}
+		eventPublisher.publishEvent(ModifichePrezziEvent.perPrezzo(tipo, salvato));
 	}
 
 	/**
 	 * Trova un prezzo settore evento per l'id specificato.
+	 * Come in tutte le letture, al prezzo disponibile si applicano le regole di prezzo con {@link RegolePrezzi}.
 	 * 
 	 * @param id L'id del prezzo settore evento da cercare.
 	 * @return Il prezzo settore evento corrispondente all'id.
@@ -84,11 +257,19 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 */
 	@Override
 	public PrezzoSettoreEvento findById(long id) {
+		return regole.applica(leggiMemorizzato(id));
+	}
+
+	/**
+	 * Legge il prezzo settore evento con il prezzo memorizzato, senza regole, per modificarlo.
+	 */
+	private PrezzoSettoreEvento leggiMemorizzato(long id) {
 		return repo.findById(id).orElseThrow(() -> new NotValidDataException("Id 'PrezzoSettoreEvento' non trovato"));
 	}
 
 	/**
 	 * Trova tutti i prezzi settore evento per l'id del settore specificato.
+	 * Le richieste concorrenti dello stesso settore condividono una sola lettura, tramite {@link PrezziEventoCache}.
 	 * 
 	 * @param id L'id del settore per cui cercare i prezzi settore evento.
 	 * @return Una lista di prezzi settore evento corrispondente all'id del settore.
@@ -96,7 +277,8 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 */
 	@Override
 	public List<PrezzoSettoreEvento> findAllByIdSettore(long id) {
-		return repo.findAllByIdSettore(id).orElseThrow(() -> new NotFoundExceptionCustom("PrezzoSettoreEvento con id settore " + id + " non trovato"));
+		return Optional.ofNullable(cache.leggiByIdSettore(id, () -> repo.findAllByIdSettore(id).orElse(null)))
+				.map(regole::applica).orElseThrow(() -> new NotFoundExceptionCustom("PrezzoSettoreEvento con id settore " + id + " non trovato"));
 	}
 
 	/**
@@ -107,8 +289,9 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 * @throws NotValidDataException Se non sono presenti prezzi settore evento per l'id dell'evento specificato.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<PrezzoSettoreEvento> findAllByIdEvento(long id) {
-		return repo.findAllByIdEvento(id).orElseThrow(() -> new NotFoundExceptionCustom("PrezzoSettoreEvento con id evento " + id + " non trovato"));
+		return repo.findAllByIdEvento(id).map(regole::applica).orElseThrow(() -> new NotFoundExceptionCustom("PrezzoSettoreEvento con id evento " + id + " non trovato"));
 	}
 
 	/**
@@ -120,9 +303,40 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
 	 */
 	@Override
-	@Transactional(rollbackOn = DataAccessException.class)
+	@Transactional(rollbackFor = DataAccessException.class)
 	public void modificaPrezzoByIdSettoreAndIdEvento(double prezzo, long idSettore, long idEvento) {
 		repo.modificaPrezzoByIdSettoreAndIdEvento(prezzo, idSettore, idEvento);
+		storico.registraPrezzoModificato(idEvento, idSettore);
+		eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEventoESettore(idEvento, idSettore));
+		eventPublisher.publishEvent(ModifichePrezziEvent.perAmbito(TipoModifica.MODIFICA_PREZZO, idEvento, idSettore, prezzo, 0));
+	}
+
+	/**
+	 * Modifica il prezzo disponibile per l'id del settore e l'id dell'evento specificati con un aggiornamento
+	 * condizionato alla versione attesa, senza lock.
+	 * 
+	 * @param prezzo Il nuovo prezzo da impostare.
+	 * @param idSettore L'id del settore per cui modificare il prezzo.
+	 * @param idEvento L'id dell'evento per cui modificare il prezzo.
+	 * @param versioneAttesa La versione attesa del prezzo disponibile.
+	 * @return La nuova versione del prezzo.
+	 * @throws NotFoundExceptionCustom Se non c'è un prezzo disponibile per gli id specificati.
+	 * @throws OptimisticLockingFailureException Se la versione del prezzo disponibile è diversa da quella attesa.
+	 */
+	@Override
+	@Transactional(rollbackFor = DataAccessException.class)
+	public long modificaPrezzoByIdSettoreAndIdEvento(double prezzo, long idSettore, long idEvento, long versioneAttesa) {
+		if (repo.modificaPrezzoAttivoSeVersione(prezzo, idSettore, idEvento, versioneAttesa) == 0) {
+			if (repo.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(idEvento, idSettore).map(List::isEmpty).orElse(true)) {
+				throw new NotFoundExceptionCustom("Nessun prezzo disponibile con id_evento "+idEvento+" e con id_settore "+idSettore);
+			}
+			throw new OptimisticLockingFailureException("Versione " + versioneAttesa + " del prezzo disponibile con id_evento "
+					+ idEvento + " e con id_settore " + idSettore + " non più attuale");
+		}
+		storico.registraPrezzoModificato(idEvento, idSettore);
+		eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEventoESettore(idEvento, idSettore));
+		eventPublisher.publishEvent(ModifichePrezziEvent.perAmbito(TipoModifica.MODIFICA_PREZZO, idEvento, idSettore, prezzo, versioneAttesa + 1));
+		return versioneAttesa + 1;
 	}
 
 	/**
@@ -134,18 +348,39 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 * @throws NotFoundExceptionCustom Se non sono presenti prezzi settore evento per gli id specificati.
 	 */
 	@Override
+	@Transactional(readOnly = true)
 	public List<PrezzoSettoreEvento> findAllByIdEventoAndIdSettore(long idEvento, long idSettore) {
-		return repo.findAllByIdEventoAndIdSettore(idEvento, idSettore)
+		return repo.findAllByIdEventoAndIdSettore(idEvento, idSettore).map(regole::applica)
 				.orElseThrow(() -> new NotFoundExceptionCustom("PrezziSettoreEvento con id_evento "+idEvento+" e con id_settore "+idSettore+" non trovati"));
 	}
 
 
 	@Override
+	@Transactional(readOnly = true)
 	public List<PrezzoSettoreEvento> findAllByIsCancellatoFalse() {
-		return repo.findAllByIsCancellatoFalse().orElseThrow(() -> new NotFoundExceptionCustom("Nessun prezzo settore evento è disponibile"));
+		return repo.findAllByIsCancellatoFalse().map(regole::applica).orElseThrow(() -> new NotFoundExceptionCustom("Nessun prezzo settore evento è disponibile"));
 	}
 
 
+	/**
+	 * Esporta i prezzi disponibili scorrendo un cursore in avanti sul repository, in una transazione di sola lettura.
+	 * I prezzi sono proiezioni non gestite dal contesto di persistenza, così che la memoria occupata resti costante
+	 * qualunque sia il numero di righe.
+	 * 
+	 * @param idEventoDa Il primo id evento incluso.
+	 * @param idEventoA L'ultimo id evento incluso.
+	 * @param idSettoreDa Il primo id settore incluso.
+	 * @param idSettoreA L'ultimo id settore incluso.
+	 * @param consumer La funzione che riceve ciascun prezzo esportato.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public void esportaPrezziAttivi(long idEventoDa, long idEventoA, long idSettoreDa, long idSettoreA, Consumer<PrezzoSettoreEvento> consumer) {
+		try (Stream<PrezzoSettoreEvento> prezzi = repo.streamAllAttivi(idEventoDa, idEventoA, idSettoreDa, idSettoreA)) {
+			prezzi.map(regole::applica).forEach(consumer);
+		}
+	}
+
 	/**
 	 * Elimina i prezzi settore evento per l'id del settore specificato impostando il flag 'available' su false.
 	 * 
@@ -153,9 +388,12 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
 	 */
 	@Override
-	@Transactional(rollbackOn = DataAccessException.class)
+	@Transactional(rollbackFor = DataAccessException.class)
 	public void eliminaByIdSettore(long idSettore) {
+		storico.registraCancellazioneByIdSettore(idSettore);
 		repo.eliminaByIdSettore(idSettore);
+		eventPublisher.publishEvent(PrezziEventoModificatiEvent.perSettore(idSettore));
+		eventPublisher.publishEvent(ModifichePrezziEvent.perAmbito(TipoModifica.CANCELLAZIONE_PER_SETTORE, 0, idSettore, 0, 0));
 	}
 
 	/**
@@ -165,9 +403,12 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
 	 */
 	@Override
-	@Transactional(rollbackOn = DataAccessException.class)
+	@Transactional(rollbackFor = DataAccessException.class)
 	public void eliminaByIdEvento(long idEvento) {
+		storico.registraCancellazioneByIdEvento(idEvento);
 		repo.eliminaByIdEvento(idEvento);
+		eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEvento(idEvento));
+		eventPublisher.publishEvent(ModifichePrezziEvent.perAmbito(TipoModifica.CANCELLAZIONE_PER_EVENTO, idEvento, 0, 0, 0));
 	}
 
 	/**
@@ -178,9 +419,12 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 * @throws DataAccessException Se si verificano eccezioni di accesso ai dati durante l'operazione.
 	 */
 	@Override
-	@Transactional(rollbackOn = DataAccessException.class)
+	@Transactional(rollbackFor = DataAccessException.class)
 	public void eliminaByIdSettoreAndIdEvento(long idSettore, long idEvento) {
+		storico.registraCancellazioneByIdEventoAndIdSettore(idEvento, idSettore);
 		repo.eliminaByIdSettoreAndIdEvento(idSettore, idEvento);
+		eventPublisher.publishEvent(PrezziEventoModificatiEvent.perEventoESettore(idEvento, idSettore));
+		eventPublisher.publishEvent(ModifichePrezziEvent.perAmbito(TipoModifica.CANCELLAZIONE_PER_EVENTO_SETTORE, idEvento, idSettore, 0, 0));
 	}
 
 	/**
@@ -192,12 +436,14 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 */
 	@Override
 	public List<PrezzoSettoreEvento> findAllByIdEventoAndIsCancellatoFalse(long idEvento) {
-		return repo.findAllByIdEventoAndIsCancellatoFalse(idEvento)
+		return Optional.ofNullable(findAttiviByEventoInCache(idEvento))
+				.map(regole::applica)
 				.orElseThrow(() -> new NotFoundExceptionCustom("PrezziSettoreEvento con id evento "+idEvento+" non trovati"));
 	}
 
 	/**
 	 * Trova tutti i prezzi settore evento per l'id del settore che sono disponibili.
+	 * Le richieste concorrenti dello stesso settore condividono una sola lettura, tramite {@link PrezziEventoCache}.
 	 * 
 	 * @param idSettore L'id del settore.
 	 * @return Una lista di prezzi settore evento disponibili, se presenti.
@@ -205,7 +451,8 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 */
 	@Override
 	public List<PrezzoSettoreEvento> findAllByIdSettoreAndIsCancellatoFalse(long idSettore) {
-		return repo.findAllByIdSettoreAndIsCancellatoFalse(idSettore)
+		return Optional.ofNullable(cache.leggiAttiviByIdSettore(idSettore, () -> repo.findAllByIdSettoreAndIsCancellatoFalse(idSettore).orElse(null)))
+				.map(regole::applica)
 				.orElseThrow(() -> new NotFoundExceptionCustom("PrezziSettoreEvento con id settore "+idSettore+" non trovati"));
 	}
 
@@ -219,19 +466,242 @@ public class PrezzoSettoreEventoServiceImpl implements PrezzoSettoreEventoServic
 	 */
 	@Override
 	public List<PrezzoSettoreEvento> findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore) {
-		return repo.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(idEvento, idSettore)
+		return regole.applica(findAttiviByEventoESettore(idEvento, idSettore));
+	}
+
+	private List<PrezzoSettoreEvento> findAttiviByEventoESettore(long idEvento, long idSettore) {
+		if (!cache.isAbilitata()) {
+			return Optional.ofNullable(cache.leggiAttiviByEventoESettore(idEvento, idSettore,
+							() -> repo.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(idEvento, idSettore).orElse(null)))
+					.orElseThrow(() -> new NotFoundExceptionCustom("PrezziSettoreEvento con id_evento "+idEvento+" e con id_settore "+idSettore+" non trovati"));
+		}
+		return Optional.ofNullable(findAttiviByEventoInCache(idEvento))
+				.map(lista -> lista.stream().filter(pse -> pse.getIdSettore() == idSettore).toList())
 				.orElseThrow(() -> new NotFoundExceptionCustom("PrezziSettoreEvento con id_evento "+idEvento+" e con id_settore "+idSettore+" non trovati"));
 	}
 
+	private List<PrezzoSettoreEvento> findAttiviByEventoInCache(long idEvento) {
+		return cache.getAttiviByEvento(idEvento, () -> repo.findAllByIdEventoAndIsCancellatoFalse(idEvento).orElse(null));
+	}
+
 	@Override
 	public PrezzoSettoreEvento findPrezzoSettoreEventoById(long id) {
-		return repo.findById(id).orElseThrow(() -> new NotFoundExceptionCustom("Prezzo Settore Evento con id : " + id + " non trovato."));
+		return Optional.ofNullable(cache.getById(id, () -> repo.findById(id).orElse(null)))
+				.map(regole::applica)
+				.orElseThrow(() -> new NotFoundExceptionCustom("Prezzo Settore Evento con id : " + id + " non trovato."));
 	}
 
 	@Override
 	public List<PrezzoSettoreEvento> getListaPseByIdsEvento(List<Long> idEventi) {
 		if(idEventi.isEmpty()||idEventi ==null) return new ArrayList<>();
-		return repo.findAllByIdEventoIn(idEventi);
+		return regole.applica(cache.leggiByIdsEvento(idEventi, () -> repo.findAllByIdEventoIn(idEventi)));
+	}
+
+	/**
+	 * Legge una pagina con paginazione a cursore (keyset): il cursore codifica l'id dell'ultimo elemento
+	 * restituito e la query successiva riparte dagli id maggiori, ordinati per id, senza scansioni OFFSET.
+	 * Viene richiesto un elemento in più della dimensione per sapere se esiste una pagina successiva.
+	 * 
+	 * @param cursore Il cursore della pagina precedente, {@code null} o vuoto per la prima pagina.
+	 * @param dimensione Il numero massimo di elementi della pagina.
+	 * @param query La query del repository, che riceve l'id di partenza e il limite di righe.
+	 * @return La pagina di prezzi con il cursore della pagina successiva.
+	 */
+	private PaginaDtoResponse<PrezzoSettoreEvento> pagina(String cursore, int dimensione, QueryPagina query) {
+		List<PrezzoSettoreEvento> righe = regole.applica(query.esegui(decodificaCursore(cursore), PageRequest.of(0, dimensione + 1)));
+		if (righe.size() <= dimensione) {
+			return new PaginaDtoResponse<>(righe, null);
+		}
+		List<PrezzoSettoreEvento> elementi = righe.subList(0, dimensione);
+		return new PaginaDtoResponse<>(new ArrayList<>(elementi), codificaCursore(elementi.get(dimensione - 1).getId()));
+	}
+
+	@FunctionalInterface
+	private interface QueryPagina {
+		List<PrezzoSettoreEvento> esegui(long dopoId, Pageable pagina);
+	}
+
+	private static String codificaCursore(long id) {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(id).array());
+	}
+
+	private static long decodificaCursore(String cursore) {
+		if (cursore == null || cursore.isEmpty()) return 0;
+		try {
+			byte[] bytes = Base64.getUrlDecoder().decode(cursore);
+			// il cursore contiene l'id di un prezzo già restituito, quindi sempre positivo
+			long id = bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : 0;
+			if (id > 0) return id;
+		} catch (IllegalArgumentException e) {
+			// gestito sotto come cursore non valido
+		}
+		throw new NotValidDataException("Cursore di paginazione non valido");
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdSettore(long idSettore, String cursore, int dimensione) {
+		return pagina(cursore, dimensione, (dopoId, pagina) -> repo.findPaginaByIdSettore(idSettore, dopoId, pagina));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdEvento(long idEvento, String cursore, int dimensione) {
+		return pagina(cursore, dimensione, (dopoId, pagina) -> repo.findPaginaByIdEvento(idEvento, dopoId, pagina));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdEventoAndIdSettore(long idEvento, long idSettore, String cursore, int dimensione) {
+		return pagina(cursore, dimensione, (dopoId, pagina) -> repo.findPaginaByIdEventoAndIdSettore(idEvento, idSettore, dopoId, pagina));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdSettoreAndIsCancellatoFalse(long idSettore, String cursore, int dimensione) {
+		return pagina(cursore, dimensione, (dopoId, pagina) -> repo.findPaginaByIdSettoreAndIsCancellatoFalse(idSettore, dopoId, pagina));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdEventoAndIsCancellatoFalse(long idEvento, String cursore, int dimensione) {
+		return pagina(cursore, dimensione, (dopoId, pagina) -> repo.findPaginaByIdEventoAndIsCancellatoFalse(idEvento, dopoId, pagina));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore, String cursore, int dimensione) {
+		return pagina(cursore, dimensione, (dopoId, pagina) -> repo.findPaginaByIdEventoAndIdSettoreAndIsCancellatoFalse(idEvento, idSettore, dopoId, pagina));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public PaginaDtoResponse<PrezzoSettoreEvento> findPaginaByIsCancellatoFalse(String cursore, int dimensione) {
+		return pagina(cursore, dimensione, (dopoId, pagina) -> repo.findPaginaByIsCancellatoFalse(dopoId, pagina));
+	}
+
+	/**
+	 * Restituisce il prezzo disponibile di un settore per un evento. Se l'{@link IndicePrezziAttivi}
+	 * è disponibile la ricerca avviene in memoria, altrimenti tra i prezzi disponibili del repository,
+	 * scegliendo quello con id maggiore in caso di duplicati. Al prezzo trovato si applica l'eventuale
+	 * regola di prezzo del settore o dell'evento, con {@link RegolePrezzi}.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @return Il prezzo disponibile.
+	 * @throws NotFoundExceptionCustom Se non esiste un prezzo disponibile per gli id specificati.
+	 */
+	@Override
+	public double getPrezzoAttivo(long idEvento, long idSettore) {
+		double prezzo = indice.isDisponibile()
+				? indice.prezzo(idEvento, idSettore)
+				: findAttiviByEventoESettore(idEvento, idSettore).stream()
+						.max(Comparator.comparingLong(PrezzoSettoreEvento::getId))
+						.map(PrezzoSettoreEvento::getPrezzo)
+						.orElse(Double.NaN);
+		if (Double.isNaN(prezzo)) {
+			throw new NotFoundExceptionCustom("Nessun prezzo disponibile con id_evento "+idEvento+" e con id_settore "+idSettore);
+		}
+		return regole.applica(idEvento, idSettore, prezzo);
+	}
+
+	/**
+	 * Restituisce la versione del prezzo di un settore per un evento disponibile a un dato istante,
+	 * cercandola nello {@link StoricoPrezzi}.
+	 * 
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @param istante L'istante.
+	 * @return La versione del prezzo disponibile all'istante.
+	 * @throws NotFoundExceptionCustom Se all'istante non era disponibile un prezzo per gli id specificati.
+	 */
+	@Override
+	public VersionePrezzoDtoResponse getPrezzoAlMomento(long idEvento, long idSettore, Instant istante) {
+		return storico.getVersioneAlMomento(idEvento, idSettore, istante)
+				.filter(versione -> versione.getPrezzo() != null)
+				.orElseThrow(() -> new NotFoundExceptionCustom("Nessun prezzo disponibile con id_evento " + idEvento
+						+ " e con id_settore " + idSettore + " all'istante " + istante));
+	}
+
+	@Override
+	public List<VersionePrezzoDtoResponse> getStoricoPrezzo(long idEvento, long idSettore) {
+		List<VersionePrezzoDtoResponse> versioni = storico.getVersioni(idEvento, idSettore);
+		if (versioni.isEmpty()) {
+			throw new NotFoundExceptionCustom("Nessuno storico del prezzo con id_evento "+idEvento+" e con id_settore "+idSettore);
+		}
+		return versioni;
+	}
+
+	/**
+	 * Calcola il preventivo di un carrello. I prezzi vengono cercati prima in memoria, nell'{@link IndicePrezziAttivi}
+	 * se disponibile oppure tra gli eventi già presenti nella {@link PrezziEventoCache}, senza caricarne di nuovi;
+	 * le righe rimaste senza prezzo vengono lette con una sola query, che distingue i prezzi cancellati da quelli mancanti.
+	 * Eventi e settori sono copiati in array di primitivi e i prezzi letti vengono assegnati alle righe senza creare entità.
+	 * Ai prezzi disponibili si applicano le regole di prezzo, come in {@link #getPrezzoAttivo}.
+	 * 
+	 * @param righe Le righe del carrello.
+	 * @return Il preventivo con il prezzo di ciascuna riga e il totale delle righe disponibili.
+	 * @throws NotValidDataException Se il numero di righe non è compreso tra 1 e {@link PrezzoSettoreEventoRepositoryPreventivo#COPPIE_MASSIME}.
+	 */
+	@Override
+	public PreventivoDtoResponse calcolaPreventivo(List<RigaPreventivoDtoRequest> righe) {
+		int n = righe.size();
+		if (n == 0 || n > PrezzoSettoreEventoRepositoryPreventivo.COPPIE_MASSIME) {
+			throw new NotValidDataException("Il preventivo deve contenere da 1 a " + PrezzoSettoreEventoRepositoryPreventivo.COPPIE_MASSIME + " righe");
+		}
+		long[] idEventi = new long[n];
+		long[] idSettori = new long[n];
+		double[] prezzi = new double[n];
+		StatoRigaPreventivo[] stati = new StatoRigaPreventivo[n];
+		int daLeggere = 0;
+		for (int i = 0; i < n; i++) {
+			RigaPreventivoDtoRequest riga = righe.get(i);
+			double prezzo = prezzoInMemoria(riga.getIdEvento(), riga.getIdSettore());
+			if (Double.isNaN(prezzo)) {
+				stati[i] = StatoRigaPreventivo.MANCANTE;
+				idEventi[daLeggere] = riga.getIdEvento();
+				idSettori[daLeggere] = riga.getIdSettore();
+				daLeggere++;
+			} else {
+				stati[i] = StatoRigaPreventivo.DISPONIBILE;
+				prezzi[i] = prezzo;
+			}
+		}
+		if (daLeggere > 0) {
+			repo.leggiPrezziByCoppieEventoSettore(idEventi, idSettori, daLeggere, (idEvento, idSettore, prezzo, cancellato) -> {
+				for (int i = 0; i < n; i++) {
+					RigaPreventivoDtoRequest riga = righe.get(i);
+					if (stati[i] == StatoRigaPreventivo.DISPONIBILE || riga.getIdEvento() != idEvento || riga.getIdSettore() != idSettore) continue;
+					if (!cancellato) {
+						prezzi[i] = prezzo;
+						stati[i] = StatoRigaPreventivo.DISPONIBILE;
+					} else {
+						stati[i] = StatoRigaPreventivo.CANCELLATO;
+					}
+				}
+			});
+		}
+		List<RigaPreventivoDtoResponse> risultato = new ArrayList<>(n);
+		double totale = 0;
+		boolean completo = true;
+		for (int i = 0; i < n; i++) {
+			RigaPreventivoDtoRequest riga = righe.get(i);
+			if (stati[i] == StatoRigaPreventivo.DISPONIBILE) {
+				double prezzo = regole.applica(riga.getIdEvento(), riga.getIdSettore(), prezzi[i]);
+				double importo = prezzo * riga.getQuantita();
+				totale += importo;
+				risultato.add(new RigaPreventivoDtoResponse(riga.getIdEvento(), riga.getIdSettore(), riga.getQuantita(), prezzo, importo, stati[i]));
+			} else {
+				completo = false;
+				risultato.add(new RigaPreventivoDtoResponse(riga.getIdEvento(), riga.getIdSettore(), riga.getQuantita(), null, null, stati[i]));
+			}
+		}
+		return new PreventivoDtoResponse(risultato, totale, completo);
+	}
+
+	private double prezzoInMemoria(long idEvento, long idSettore) {
+		if (indice.isDisponibile()) return indice.prezzo(idEvento, idSettore);
+		return cache.getPrezzoSePresente(idEvento, idSettore);
 	}
 
 }
@@ -0,0 +1,52 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.SnapshotProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+
+/**
+ * Importa all'avvio lo snapshot indicato da {@code prezzo-settore-evento.snapshot.file}, con H2 come con MySQL.
+ *
+ * L'importazione avviene dopo le migrazioni Flyway e prima che l'applicazione sia pronta, quindi prima del
+ * caricamento dell'{@link it.dedagroup.venditabiglietti.prezzo_settore_evento.index.IndicePrezziAttivi}.
+ * Per popolare un ambiente solo dallo snapshot si toglie {@code classpath:db/dati} da
+ * {@code spring.flyway.locations}, oppure si abilita {@code prezzo-settore-evento.snapshot.sostituisci}.
+ * Se lo snapshot non è valido l'avvio fallisce.
+ */
+@Component
+@ConditionalOnProperty(prefix = "prezzo-settore-evento.snapshot", name = "file")
+public class CaricatoreSnapshot implements ApplicationRunner {
+
+	private static final Logger log = LogManager.getLogger(CaricatoreSnapshot.class);
+
+	private final SnapshotPrezzi snapshot;
+	private final PrezzoSettoreEventoRepository repo;
+	private final SnapshotProperties properties;
+
+	public CaricatoreSnapshot(SnapshotPrezzi snapshot, PrezzoSettoreEventoRepository repo, SnapshotProperties properties) {
+		this.snapshot = snapshot;
+		this.repo = repo;
+		this.properties = properties;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) throws Exception {
+		if (!properties.isSostituisci() && repo.count() > 0) {
+			log.info("Snapshot {} non importato: la tabella dei prezzi contiene già delle righe", properties.getFile());
+			return;
+		}
+		log.info("Importazione dello snapshot {}", properties.getFile());
+		try (InputStream in = Files.newInputStream(properties.getFile())) {
+			snapshot.importa(in, properties.isSostituisci(), properties.getDimensioneBatch());
+		}
+	}
+}
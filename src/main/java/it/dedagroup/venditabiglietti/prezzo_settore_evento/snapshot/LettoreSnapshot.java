@@ -0,0 +1,104 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Legge uno snapshot scritto da {@link ScrittoreSnapshot}, una riga alla volta.
+ *
+ * Il CRC e il numero di righe si trovano in coda al file e vengono verificati alla lettura della chiusura:
+ * chi importa le righe man mano che le legge deve poterle annullare se lo snapshot risulta non valido.
+ */
+public class LettoreSnapshot implements Closeable {
+
+	private final BufferedInputStream sorgente;
+	private final CheckedInputStream checked;
+	private final DataInputStream dati;
+	private long ultimoId;
+	private long righe;
+	private boolean finito;
+
+	/**
+	 * @param in Lo stream da leggere, chiuso da {@link #close()}.
+	 * @throws IOException Se l'intestazione non è quella di uno snapshot in un formato supportato.
+	 */
+	public LettoreSnapshot(InputStream in) throws IOException {
+		sorgente = new BufferedInputStream(in, 64 * 1024);
+		checked = new CheckedInputStream(sorgente, new CRC32C());
+		dati = new DataInputStream(checked);
+		try {
+			if (dati.readInt() != ScrittoreSnapshot.MAGIC) throw new IOException("Il file non è uno snapshot dei prezzi settore evento");
+			int versione = dati.readUnsignedByte();
+			if (versione != ScrittoreSnapshot.VERSIONE_FORMATO) throw new IOException("Versione " + versione + " del formato dello snapshot non supportata");
+		} catch (EOFException e) {
+			throw new IOException("Il file non è uno snapshot dei prezzi settore evento", e);
+		}
+	}
+
+	/**
+	 * Legge la riga successiva.
+	 *
+	 * @param destinazione L'entità in cui copiare la riga letta.
+	 * @return false se le righe sono terminate; in quel caso numero di righe e CRC sono già stati verificati.
+	 * @throws IOException Se lo snapshot è troncato o danneggiato.
+	 */
+	public boolean leggi(PrezzoSettoreEvento destinazione) throws IOException {
+		if (finito) return false;
+		try {
+			int flag = dati.readUnsignedByte();
+			if (flag == ScrittoreSnapshot.FINE) {
+				verificaChiusura();
+				finito = true;
+				return false;
+			}
+			if ((flag & ~ScrittoreSnapshot.CANCELLATO) != 0) throw new IOException("Riga " + (righe + 1) + " dello snapshot danneggiata");
+			ultimoId += leggiVarint();
+			destinazione.setId(ultimoId);
+			destinazione.setIdSettore(leggiVarint());
+			destinazione.setIdEvento(leggiVarint());
+			destinazione.setPrezzo(dati.readDouble());
+			destinazione.setVersion(leggiVarint());
+			destinazione.setCancellato((flag & ScrittoreSnapshot.CANCELLATO) != 0);
+			righe++;
+			return true;
+		} catch (EOFException e) {
+			throw new IOException("Snapshot troncato dopo " + righe + " righe", e);
+		}
+	}
+
+	public long getRighe() {
+		return righe;
+	}
+
+	@Override
+	public void close() throws IOException {
+		sorgente.close();
+	}
+
+	private void verificaChiusura() throws IOException {
+		long attese = leggiVarint();
+		int calcolato = (int) checked.getChecksum().getValue();
+		int letto = new DataInputStream(sorgente).readInt();
+		if (calcolato != letto) throw new IOException("CRC dello snapshot non valido");
+		if (attese != righe) throw new IOException("Lo snapshot dichiara " + attese + " righe ma ne contiene " + righe);
+		if (sorgente.read() != -1) throw new IOException("Dati inattesi dopo la chiusura dello snapshot");
+	}
+
+	private long leggiVarint() throws IOException {
+		long valore = 0;
+		for (int spostamento = 0; spostamento < 64; spostamento += 7) {
+			int b = dati.readUnsignedByte();
+			valore |= (long) (b & 0x7F) << spostamento;
+			if ((b & 0x80) == 0) return valore;
+		}
+		throw new IOException("Varint non valido alla riga " + (righe + 1) + " dello snapshot");
+	}
+}
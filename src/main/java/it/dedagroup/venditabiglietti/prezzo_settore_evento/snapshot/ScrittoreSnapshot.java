@@ -0,0 +1,102 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Scrive uno snapshot binario della tabella dei prezzi settore evento.
+ *
+ * Il file inizia con il magic number {@code PSES} e la versione del formato. Ogni riga è un byte di flag
+ * seguito dalla differenza di id rispetto alla riga precedente, dall'id settore e dall'id evento come
+ * varint, dal prezzo come double e dalla versione come varint: le righe, ordinate per id, occupano tipicamente
+ * 13-15 byte. Il file termina con il byte {@link #FINE}, il numero di righe come varint e il CRC32C di tutti i
+ * byte precedenti su 4 byte, che {@link LettoreSnapshot} verifica.
+ *
+ * La chiusura viene scritta solo da {@link #completa()}: uno snapshot interrotto da un errore resta senza chiusura
+ * e viene riconosciuto come troncato.
+ */
+public class ScrittoreSnapshot implements Closeable {
+
+	static final int MAGIC = 0x50534553;
+	static final int VERSIONE_FORMATO = 1;
+	static final int CANCELLATO = 0x01;
+	static final int FINE = 0xFF;
+
+	private final BufferedOutputStream destinazione;
+	private final CheckedOutputStream checked;
+	private final DataOutputStream dati;
+	private long ultimoId;
+	private long righe;
+
+	/**
+	 * @param out Lo stream su cui scrivere, chiuso da {@link #close()}.
+	 * @throws IOException Se l'intestazione non può essere scritta.
+	 */
+	public ScrittoreSnapshot(OutputStream out) throws IOException {
+		destinazione = new BufferedOutputStream(out, 64 * 1024);
+		checked = new CheckedOutputStream(destinazione, new CRC32C());
+		dati = new DataOutputStream(checked);
+		dati.writeInt(MAGIC);
+		dati.writeByte(VERSIONE_FORMATO);
+	}
+
+	/**
+	 * Scrive una riga. Le righe devono essere scritte in ordine crescente di id.
+	 *
+	 * @param pse La riga da scrivere.
+	 * @throws IOException Se la riga non può essere scritta.
+	 * @throws IllegalArgumentException Se l'id non è maggiore di quello della riga precedente.
+	 */
+	public void scrivi(PrezzoSettoreEvento pse) throws IOException {
+		if (pse.getId() <= ultimoId) {
+			throw new IllegalArgumentException("Le righe dello snapshot devono essere ordinate per id: " + pse.getId() + " dopo " + ultimoId);
+		}
+		dati.writeByte(pse.isCancellato() ? CANCELLATO : 0);
+		scriviVarint(pse.getId() - ultimoId);
+		scriviVarint(pse.getIdSettore());
+		scriviVarint(pse.getIdEvento());
+		dati.writeDouble(pse.getPrezzo());
+		scriviVarint(pse.getVersion());
+		ultimoId = pse.getId();
+		righe++;
+	}
+
+	public long getRighe() {
+		return righe;
+	}
+
+	/**
+	 * Scrive la chiusura dello snapshot con il numero di righe e il CRC; dopo non si possono scrivere altre righe.
+	 *
+	 * @throws IOException Se la chiusura non può essere scritta.
+	 */
+	public void completa() throws IOException {
+		dati.writeByte(FINE);
+		scriviVarint(righe);
+		dati.flush();
+		int crc = (int) checked.getChecksum().getValue();
+		DataOutputStream coda = new DataOutputStream(destinazione);
+		coda.writeInt(crc);
+		coda.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		destinazione.close();
+	}
+
+	private void scriviVarint(long valore) throws IOException {
+		while ((valore & ~0x7FL) != 0) {
+			dati.writeByte((int) (valore & 0x7F) | 0x80);
+			valore >>>= 7;
+		}
+		dati.writeByte((int) valore);
+	}
+}
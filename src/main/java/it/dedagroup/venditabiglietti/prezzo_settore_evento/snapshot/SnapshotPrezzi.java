@@ -0,0 +1,190 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.DatabaseDriver;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.storico.StoricoPrezzi;
+
+/**
+ * Esporta la tabella dei prezzi settore evento in uno snapshot binario e la reimporta, per popolare gli ambienti
+ * con grandi quantità di dati senza uno script SQL con un INSERT per riga.
+ *
+ * L'esportazione scorre la tabella ordinata per id con la proiezione del repository, senza caricare le righe in
+ * memoria. L'importazione inserisce le righe con batch JDBC, senza passare dal contesto di persistenza, riusando un
+ * lotto di entità preallocate; al termine allinea la sequenza degli id, così che i prezzi inseriti in seguito non
+ * entrino in conflitto con quelli importati. Se lo snapshot risulta danneggiato l'importazione viene annullata.
+ * I prezzi disponibili importati, e quelli rimossi sostituendo la tabella, vengono registrati nello {@link StoricoPrezzi}.
+ *
+ * @see ScrittoreSnapshot
+ * @see CaricatoreSnapshot
+ */
+@Service
+public class SnapshotPrezzi {
+
+	private static final Logger log = LogManager.getLogger(SnapshotPrezzi.class);
+
+	private static final String INSERT = "INSERT INTO prezzo_settore_evento (id, id_settore, id_evento, prezzo, is_cancellato, version) "
+			+ "VALUES (?, ?, ?, ?, ?, ?)";
+
+	/**
+	 * L'allocationSize della sequenza di {@link PrezzoSettoreEvento}.
+	 */
+	private static final int ALLOCAZIONE_SEQUENZA = 50;
+
+	@Autowired
+	private PrezzoSettoreEventoRepository repo;
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private StoricoPrezzi storico;
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	/**
+	 * Scrive tutti i prezzi, compresi quelli cancellati, in uno snapshot.
+	 *
+	 * @param out Lo stream di destinazione, chiuso al termine.
+	 * @return Il numero di righe esportate.
+	 * @throws IOException Se lo snapshot non può essere scritto.
+	 */
+	@Transactional(readOnly = true)
+	public long esporta(OutputStream out) throws IOException {
+		long inizio = System.nanoTime();
+		long righe;
+		try (ScrittoreSnapshot scrittore = new ScrittoreSnapshot(out); Stream<PrezzoSettoreEvento> prezzi = repo.streamAll()) {
+			Iterator<PrezzoSettoreEvento> iteratore = prezzi.iterator();
+			while (iteratore.hasNext()) scrittore.scrivi(iteratore.next());
+			scrittore.completa();
+			righe = scrittore.getRighe();
+		}
+		log.info("Snapshot dei prezzi esportato: {} righe in {} ms, {} righe/s", righe, millisecondi(inizio), righePerSecondo(righe, inizio));
+		return righe;
+	}
+
+	/**
+	 * Importa uno snapshot nella tabella dei prezzi.
+	 *
+	 * @param in Lo snapshot, chiuso al termine.
+	 * @param sostituisci Se eliminare prima i prezzi presenti; altrimenti un id già presente fa fallire l'importazione.
+	 * @param dimensioneBatch Il numero di righe per batch JDBC.
+	 * @return Il numero di righe importate.
+	 * @throws IOException Se lo snapshot non può essere letto o è danneggiato; le righe già inserite vengono annullate.
+	 */
+	@Transactional(rollbackFor = { DataAccessException.class, IOException.class })
+	public long importa(InputStream in, boolean sostituisci, int dimensioneBatch) throws IOException {
+		long inizio = System.nanoTime();
+		if (sostituisci) {
+			storico.registraRimozioneTutti();
+			jdbcTemplate.update("DELETE FROM prezzo_settore_evento");
+		}
+		Lotto lotto = new Lotto(dimensioneBatch);
+		long righe;
+		try (LettoreSnapshot lettore = new LettoreSnapshot(in)) {
+			while (lettore.leggi(lotto.prossimo())) {
+				lotto.aggiunto();
+				if (lotto.pieno()) inserisci(lotto);
+			}
+			inserisci(lotto);
+			righe = lettore.getRighe();
+		}
+		allineaSequenza();
+		eventPublisher.publishEvent(PrezziEventoModificatiEvent.perTutti());
+		log.info("Snapshot dei prezzi importato: {} righe in {} ms, {} righe/s", righe, millisecondi(inizio), righePerSecondo(righe, inizio));
+		return righe;
+	}
+
+	private void inserisci(Lotto lotto) {
+		if (lotto.dimensione == 0) return;
+		jdbcTemplate.batchUpdate(INSERT, lotto);
+		storico.registraInseriti(Arrays.asList(lotto.righe).subList(0, lotto.dimensione));
+		lotto.dimensione = 0;
+	}
+
+	/**
+	 * Porta la sequenza degli id oltre l'id massimo, tenendo conto che Hibernate alloca gli id a blocchi
+	 * di {@value #ALLOCAZIONE_SEQUENZA} a partire dal valore letto. Su H2 l'ALTER SEQUENCE esegue il commit
+	 * implicito delle righe inserite, ormai tutte verificate.
+	 */
+	private void allineaSequenza() {
+		Long massimo = jdbcTemplate.queryForObject("SELECT MAX(id) FROM prezzo_settore_evento", Long.class);
+		if (massimo == null) return;
+		long prossimo = massimo + ALLOCAZIONE_SEQUENZA;
+		String prodotto = jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+		switch (DatabaseDriver.fromProductName(prodotto)) {
+			case H2 -> jdbcTemplate.execute("ALTER SEQUENCE prezzo_settore_evento_seq RESTART WITH " + prossimo);
+			case MYSQL, MARIADB -> jdbcTemplate.update("UPDATE prezzo_settore_evento_seq SET next_val = ?", prossimo);
+			default -> throw new IllegalStateException("Allineamento della sequenza non supportato per " + prodotto);
+		}
+	}
+
+	private static long millisecondi(long inizio) {
+		return (System.nanoTime() - inizio) / 1_000_000;
+	}
+
+	private static long righePerSecondo(long righe, long inizio) {
+		return righe * 1_000_000_000L / Math.max(1, System.nanoTime() - inizio);
+	}
+
+	/**
+	 * Entità preallocate di un batch, riempite dal {@link LettoreSnapshot} e riusate per i batch successivi.
+	 */
+	private static class Lotto implements BatchPreparedStatementSetter {
+
+		private final PrezzoSettoreEvento[] righe;
+		private int dimensione;
+
+		Lotto(int capacita) {
+			righe = new PrezzoSettoreEvento[capacita];
+			for (int i = 0; i < capacita; i++) righe[i] = new PrezzoSettoreEvento();
+		}
+
+		PrezzoSettoreEvento prossimo() {
+			return righe[dimensione];
+		}
+
+		void aggiunto() {
+			dimensione++;
+		}
+
+		boolean pieno() {
+			return dimensione == righe.length;
+		}
+
+		@Override
+		public void setValues(PreparedStatement ps, int i) throws SQLException {
+			PrezzoSettoreEvento pse = righe[i];
+			ps.setLong(1, pse.getId());
+			ps.setLong(2, pse.getIdSettore());
+			ps.setLong(3, pse.getIdEvento());
+			ps.setDouble(4, pse.getPrezzo());
+			ps.setBoolean(5, pse.isCancellato());
+			ps.setLong(6, pse.getVersion());
+		}
+
+		@Override
+		public int getBatchSize() {
+			return dimensione;
+		}
+	}
+}
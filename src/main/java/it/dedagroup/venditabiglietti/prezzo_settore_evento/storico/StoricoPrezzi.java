@@ -0,0 +1,235 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento.storico;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.VersionePrezzoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+/**
+ * Storico dei prezzi disponibili per evento e settore, nella tabella {@code storico_prezzo_settore_evento}.
+ *
+ * Lo storico è in sola aggiunta: ogni scrittura sui prezzi aggiunge, nella stessa transazione, una riga per ogni
+ * coppia evento/settore di cui cambia il prezzo disponibile, con l'istante da cui vale. Una riga resta valida fino
+ * alla successiva della stessa coppia, quindi le righe precedenti non vengono mai modificate; una riga senza prezzo
+ * indica che da quell'istante la coppia non ha un prezzo disponibile. Il prezzo corrente resta quello della tabella
+ * {@code prezzo_settore_evento}, letta come prima.
+ *
+ * La ricerca del prezzo a un dato istante scende gli indici su evento, settore e istante fino all'ultima riga non
+ * successiva e alla prima successiva, senza scorrere lo storico della coppia: il costo non cresce con il numero di versioni.
+ */
+@Component
+public class StoricoPrezzi {
+
+	private static final String INSERT = "INSERT INTO storico_prezzo_settore_evento "
+			+ "(id_evento, id_settore, valido_da, prezzo, id_prezzo_settore_evento, version) ";
+
+	private static final String VALORI = INSERT + "VALUES (?, ?, ?, ?, ?, ?)";
+
+	/**
+	 * I prezzi disponibili, con il valore e la versione attuali.
+	 */
+	private static final String DISPONIBILI = INSERT
+			+ "SELECT id_evento, id_settore, ?, prezzo, id, version FROM prezzo_settore_evento WHERE is_cancellato = FALSE";
+
+	/**
+	 * I prezzi disponibili che stanno per essere cancellati, con la versione che avranno dopo l'aggiornamento massivo.
+	 */
+	private static final String CANCELLATI = INSERT
+			+ "SELECT id_evento, id_settore, ?, NULL, id, version + 1 FROM prezzo_settore_evento WHERE is_cancellato = FALSE";
+
+	private static final String COLONNE = "SELECT s.id_evento, s.id_settore, s.prezzo, s.id_prezzo_settore_evento, s.version, s.valido_da";
+
+	/**
+	 * L'ultima versione non successiva all'istante e l'istante della prima successiva. Gli ORDER BY riportano tutte
+	 * le colonne degli indici, così che H2 legga le righe nell'ordine dell'indice e si fermi alla prima.
+	 */
+	private static final String AL_MOMENTO = COLONNE
+			+ ", (SELECT n.valido_da FROM storico_prezzo_settore_evento n WHERE n.id_evento = ? AND n.id_settore = ? AND n.valido_da > ? "
+			+ "ORDER BY n.id_evento, n.id_settore, n.valido_da, n.id LIMIT 1) AS valido_a "
+			+ "FROM storico_prezzo_settore_evento s WHERE s.id_evento = ? AND s.id_settore = ? AND s.valido_da <= ? "
+			+ "ORDER BY s.id_evento, s.id_settore, s.valido_da DESC, s.id DESC LIMIT 1";
+
+	private static final String VERSIONI = COLONNE + ", NULL AS valido_a "
+			+ "FROM storico_prezzo_settore_evento s WHERE s.id_evento = ? AND s.id_settore = ? "
+			+ "ORDER BY s.id_evento, s.id_settore, s.valido_da, s.id";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	@Autowired
+	private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	/**
+	 * Registra i prezzi disponibili tra quelli appena inseriti.
+	 *
+	 * @param prezzi I prezzi inseriti, con gli id assegnati.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registraInseriti(List<PrezzoSettoreEvento> prezzi) {
+		LocalDateTime ora = ora();
+		List<Object[]> righe = prezzi.stream().filter(pse -> !pse.isCancellato())
+				.map(pse -> new Object[] { pse.getIdEvento(), pse.getIdSettore(), ora, pse.getPrezzo(), pse.getId(), pse.getVersion() })
+				.toList();
+		if (!righe.isEmpty()) jdbcTemplate.batchUpdate(VALORI, righe);
+	}
+
+	/**
+	 * Registra la modifica di un singolo prezzo confrontandolo con il suo stato precedente: se il prezzo era disponibile
+	 * e ha cambiato evento o settore, la coppia precedente resta senza prezzo disponibile; se è disponibile, la coppia
+	 * attuale riceve il nuovo prezzo; se è stato cancellato, resta senza prezzo disponibile.
+	 *
+	 * @param idEventoPrecedente L'id evento prima della modifica.
+	 * @param idSettorePrecedente L'id settore prima della modifica.
+	 * @param eraDisponibile Se il prezzo era disponibile prima della modifica.
+	 * @param pse Il prezzo modificato, con la nuova versione.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registraModifica(long idEventoPrecedente, long idSettorePrecedente, boolean eraDisponibile, PrezzoSettoreEvento pse) {
+		LocalDateTime ora = ora();
+		boolean stessaCoppia = idEventoPrecedente == pse.getIdEvento() && idSettorePrecedente == pse.getIdSettore();
+		if (eraDisponibile && (!stessaCoppia || pse.isCancellato())) {
+			jdbcTemplate.update(VALORI, idEventoPrecedente, idSettorePrecedente, ora, null, pse.getId(), pse.getVersion());
+		}
+		if (!pse.isCancellato()) {
+			jdbcTemplate.update(VALORI, pse.getIdEvento(), pse.getIdSettore(), ora, pse.getPrezzo(), pse.getId(), pse.getVersion());
+		}
+	}
+
+	/**
+	 * Registra il prezzo disponibile di un evento e di un settore dopo una modifica massiva del prezzo.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registraPrezzoModificato(long idEvento, long idSettore) {
+		jdbcTemplate.update(DISPONIBILI + " AND id_evento = ? AND id_settore = ?", ora(), idEvento, idSettore);
+	}
+
+	/**
+	 * Registra con un solo batch il prezzo disponibile di più coppie evento/settore dopo le rispettive modifiche.
+	 *
+	 * @param coppie Le coppie modificate, ciascuna come {@code {idEvento, idSettore}}.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registraPrezziModificati(List<long[]> coppie) {
+		LocalDateTime ora = ora();
+		jdbcTemplate.batchUpdate(DISPONIBILI + " AND id_evento = ? AND id_settore = ?",
+				coppie.stream().map(c -> new Object[] { ora, c[0], c[1] }).toList());
+	}
+
+	/**
+	 * Registra i prezzi disponibili delle coppie evento/settore modificate dall'applicazione di modifiche programmate.
+	 *
+	 * @param idModifiche Gli identificatori delle {@code ModificaPrezzoProgrammata} applicate.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registraModificheProgrammate(Collection<Long> idModifiche) {
+		namedParameterJdbcTemplate.update(INSERT + "SELECT p.id_evento, p.id_settore, :ora, p.prezzo, p.id, p.version "
+				+ "FROM prezzo_settore_evento p JOIN modifica_prezzo_programmata m ON m.id_evento = p.id_evento AND m.id_settore = p.id_settore "
+				+ "WHERE m.id IN (:idModifiche) AND p.is_cancellato = FALSE", Map.of("ora", ora(), "idModifiche", idModifiche));
+	}
+
+	/**
+	 * Registra la cancellazione dei prezzi disponibili di un evento. Va invocato prima dell'aggiornamento massivo.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registraCancellazioneByIdEvento(long idEvento) {
+		jdbcTemplate.update(CANCELLATI + " AND id_evento = ?", ora(), idEvento);
+	}
+
+	/**
+	 * Registra la cancellazione dei prezzi disponibili di un settore. Va invocato prima dell'aggiornamento massivo.
+	 *
+	 * @param idSettore L'id del settore.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registraCancellazioneByIdSettore(long idSettore) {
+		jdbcTemplate.update(CANCELLATI + " AND id_settore = ?", ora(), idSettore);
+	}
+
+	/**
+	 * Registra la cancellazione del prezzo disponibile di un evento e di un settore. Va invocato prima dell'aggiornamento massivo.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registraCancellazioneByIdEventoAndIdSettore(long idEvento, long idSettore) {
+		jdbcTemplate.update(CANCELLATI + " AND id_evento = ? AND id_settore = ?", ora(), idEvento, idSettore);
+	}
+
+	/**
+	 * Registra la rimozione di tutti i prezzi disponibili, prima che la tabella venga svuotata.
+	 */
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void registraRimozioneTutti() {
+		jdbcTemplate.update(INSERT + "SELECT id_evento, id_settore, ?, NULL, id, version FROM prezzo_settore_evento WHERE is_cancellato = FALSE", ora());
+	}
+
+	/**
+	 * Cerca la versione del prezzo di un settore per un evento valida a un dato istante.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @param istante L'istante.
+	 * @return La versione valida all'istante, vuoto se lo storico della coppia inizia dopo. Il prezzo della versione
+	 *         è null se all'istante nessun prezzo era disponibile.
+	 */
+	@Transactional(readOnly = true)
+	public Optional<VersionePrezzoDtoResponse> getVersioneAlMomento(long idEvento, long idSettore, Instant istante) {
+		LocalDateTime momento = LocalDateTime.ofInstant(istante, ZoneOffset.UTC);
+		return jdbcTemplate.query(AL_MOMENTO, StoricoPrezzi::versione, idEvento, idSettore, momento, idEvento, idSettore, momento)
+				.stream().findFirst();
+	}
+
+	/**
+	 * Restituisce lo storico del prezzo di un settore per un evento, dalla versione meno recente.
+	 *
+	 * @param idEvento L'id dell'evento.
+	 * @param idSettore L'id del settore.
+	 * @return Le versioni, ciascuna valida fino alla successiva; vuota se la coppia non ha storico.
+	 */
+	@Transactional(readOnly = true)
+	public List<VersionePrezzoDtoResponse> getVersioni(long idEvento, long idSettore) {
+		List<VersionePrezzoDtoResponse> versioni = jdbcTemplate.query(VERSIONI, StoricoPrezzi::versione, idEvento, idSettore);
+		for (int i = 0; i + 1 < versioni.size(); i++) {
+			versioni.get(i).setValidoA(versioni.get(i + 1).getValidoDa());
+		}
+		return versioni;
+	}
+
+	private static VersionePrezzoDtoResponse versione(ResultSet rs, int riga) throws SQLException {
+		double prezzo = rs.getDouble("prezzo");
+		Double disponibile = rs.wasNull() ? null : prezzo;
+		LocalDateTime validoA = rs.getObject("valido_a", LocalDateTime.class);
+		return new VersionePrezzoDtoResponse(rs.getLong("id_evento"), rs.getLong("id_settore"), disponibile,
+				rs.getLong("id_prezzo_settore_evento"), rs.getLong("version"),
+				rs.getObject("valido_da", LocalDateTime.class).toInstant(ZoneOffset.UTC),
+				validoA == null ? null : validoA.toInstant(ZoneOffset.UTC));
+	}
+
+	/**
+	 * L'istante corrente in UTC, alla precisione delle colonne.
+	 */
+	private static LocalDateTime ora() {
+		return LocalDateTime.ofInstant(Instant.now(), ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS);
+	}
+}
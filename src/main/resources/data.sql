@@ -1,20 +0,0 @@
-INSERT INTO PrezzoSettoreEvento (evento_id, settore_id, prezzo, is_Cancellato, version) 
-VALUES (1, 1, 30.0, false, 1);
-INSERT INTO PrezzoSettoreEvento (evento_id, settore_id, prezzo, is_Cancellato, version) 
-VALUES (2, 2, 25.5, false, 1);
-INSERT INTO PrezzoSettoreEvento (evento_id, settore_id, prezzo, is_Cancellato, version) 
-VALUES (3, 3, 15.0, false, 1);
-INSERT INTO PrezzoSettoreEvento (evento_id, settore_id, prezzo, is_Cancellato, version) 
-VALUES (4, 4, 20.0, false, 1);
-INSERT INTO PrezzoSettoreEvento (evento_id, settore_id, prezzo, is_Cancellato, version) 
-VALUES (5, 5, 18.5, false, 1);
-INSERT INTO PrezzoSettoreEvento (evento_id, settore_id, prezzo, is_Cancellato, version) 
-VALUES (6, 6, 12.0, false, 1);
-INSERT INTO PrezzoSettoreEvento (evento_id, settore_id, prezzo, is_Cancellato, version) 
-VALUES (7, 7, 25.0, false, 1);
-INSERT INTO PrezzoSettoreEvento (evento_id, settore_id, prezzo, is_Cancellato, version) 
-VALUES (8, 8, 22.5, false, 1);
-INSERT INTO PrezzoSettoreEvento (evento_id, settore_id, prezzo, is_Cancellato, version) 
-VALUES (9, 9, 28.0, false, 1);
-INSERT INTO PrezzoSettoreEvento (evento_id, settore_id, prezzo, is_Cancellato, version) 
-VALUES (10, 10, 30.0, false, 1);
@@ -0,0 +1,15 @@
+-- Dati di esempio per il profilo h2, applicati dopo le migrazioni dello schema.
+MERGE INTO prezzo_settore_evento (id, id_settore, id_evento, prezzo, is_cancellato) KEY (id) VALUES
+    (1, 1, 1, 30.0, FALSE),
+    (2, 2, 2, 25.5, FALSE),
+    (3, 3, 3, 15.0, FALSE),
+    (4, 4, 4, 20.0, FALSE),
+    (5, 5, 5, 18.5, FALSE),
+    (6, 6, 6, 12.0, FALSE),
+    (7, 7, 7, 25.0, FALSE),
+    (8, 8, 8, 22.5, FALSE),
+    (9, 9, 9, 28.0, FALSE),
+    (10, 10, 10, 30.0, FALSE);
+
+-- Gli id generati dalla sequenza partono oltre quelli dei dati di esempio.
+ALTER SEQUENCE prezzo_settore_evento_seq RESTART WITH 1001;
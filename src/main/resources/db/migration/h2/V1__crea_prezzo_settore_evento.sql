@@ -0,0 +1,14 @@
+-- Tabella dei prezzi dei settori per evento e sequenza degli id.
+-- L'incremento della sequenza corrisponde all'allocationSize dell'entità. Su un database già esistente la tabella
+-- viene mantenuta e la sequenza riparte dall'id massimo più l'allocationSize, come per MySQL.
+CREATE TABLE IF NOT EXISTS prezzo_settore_evento (
+    id BIGINT NOT NULL,
+    id_settore BIGINT NOT NULL,
+    id_evento BIGINT NOT NULL,
+    prezzo DOUBLE PRECISION NOT NULL,
+    is_cancellato BOOLEAN NOT NULL DEFAULT FALSE,
+    CONSTRAINT pk_prezzo_settore_evento PRIMARY KEY (id)
+);
+
+CREATE SEQUENCE IF NOT EXISTS prezzo_settore_evento_seq START WITH 1 INCREMENT BY 50;
+ALTER SEQUENCE prezzo_settore_evento_seq RESTART WITH (SELECT COALESCE(MAX(id), 0) + 50 FROM prezzo_settore_evento);
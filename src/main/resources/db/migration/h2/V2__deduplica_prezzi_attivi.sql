@@ -0,0 +1,10 @@
+-- Per ogni coppia evento/settore con più prezzi disponibili mantiene quello con id maggiore
+-- e cancella logicamente gli altri, così da poter introdurre il vincolo di unicità.
+UPDATE prezzo_settore_evento p
+SET is_cancellato = TRUE
+WHERE p.is_cancellato = FALSE
+  AND EXISTS (SELECT 1 FROM prezzo_settore_evento q
+              WHERE q.id_evento = p.id_evento
+                AND q.id_settore = p.id_settore
+                AND q.is_cancellato = FALSE
+                AND q.id > p.id);
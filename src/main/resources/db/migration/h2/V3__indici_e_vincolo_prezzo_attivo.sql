@@ -0,0 +1,16 @@
+-- La colonna calcolata attivo vale TRUE per i prezzi disponibili e NULL per quelli cancellati:
+-- poiché un indice univoco ammette più NULL, il vincolo riguarda solo le righe disponibili.
+ALTER TABLE prezzo_settore_evento
+    ADD COLUMN attivo BOOLEAN GENERATED ALWAYS AS (CASE WHEN is_cancellato THEN NULL ELSE TRUE END);
+
+-- Ricerche e aggiornamenti per evento e settore (findAllByIdEventoAndIdSettore*, modificaPrezzo*, elimina*AndIdEvento).
+CREATE UNIQUE INDEX uk_pse_evento_settore_attivo ON prezzo_settore_evento (id_evento, id_settore, attivo);
+
+-- Ricerche per evento, anche filtrate sui disponibili, con paginazione per id.
+CREATE INDEX idx_pse_evento_cancellato_id ON prezzo_settore_evento (id_evento, is_cancellato, id);
+
+-- Ricerche per settore, anche filtrate sui disponibili, con paginazione per id.
+CREATE INDEX idx_pse_settore_cancellato_id ON prezzo_settore_evento (id_settore, is_cancellato, id);
+
+-- Elenco e paginazione di tutti i prezzi disponibili.
+CREATE INDEX idx_pse_cancellato_id ON prezzo_settore_evento (is_cancellato, id);
@@ -0,0 +1,25 @@
+-- Storico dei prezzi disponibili per evento e settore, in sola aggiunta: ogni riga vale da valido_da fino alla
+-- riga successiva della stessa coppia. Un prezzo NULL indica che da quel momento nessun prezzo è disponibile.
+-- Gli istanti sono in UTC; a parità di istante prevale la riga con id maggiore.
+CREATE TABLE IF NOT EXISTS storico_prezzo_settore_evento (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    id_evento BIGINT NOT NULL,
+    id_settore BIGINT NOT NULL,
+    valido_da TIMESTAMP(6) NOT NULL,
+    prezzo DOUBLE PRECISION,
+    id_prezzo_settore_evento BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    CONSTRAINT pk_storico_prezzo_settore_evento PRIMARY KEY (id)
+);
+
+-- Storico di una coppia e prima riga successiva a un istante.
+CREATE INDEX idx_spse_evento_settore_valido_da ON storico_prezzo_settore_evento (id_evento, id_settore, valido_da, id);
+
+-- Su H2 un indice si legge in un solo verso: l'indice discendente serve l'ultima riga non successiva a un istante.
+CREATE INDEX idx_spse_evento_settore_valido_da_desc ON storico_prezzo_settore_evento (id_evento, id_settore, valido_da DESC, id DESC);
+
+-- I prezzi disponibili al momento della migrazione aprono lo storico.
+INSERT INTO storico_prezzo_settore_evento (id_evento, id_settore, valido_da, prezzo, id_prezzo_settore_evento, version)
+SELECT id_evento, id_settore, CAST(CURRENT_TIMESTAMP AT TIME ZONE 'UTC' AS TIMESTAMP(6)), prezzo, id, version
+FROM prezzo_settore_evento
+WHERE is_cancellato = FALSE;
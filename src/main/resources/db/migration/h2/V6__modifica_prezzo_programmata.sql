@@ -0,0 +1,20 @@
+-- Modifiche di prezzo programmate, applicate all'istante indicato (in UTC) e poi segnate come applicate.
+-- L'incremento della sequenza corrisponde all'allocationSize dell'entità.
+CREATE TABLE IF NOT EXISTS modifica_prezzo_programmata (
+    id BIGINT NOT NULL,
+    id_evento BIGINT NOT NULL,
+    id_settore BIGINT NOT NULL,
+    prezzo DOUBLE PRECISION NOT NULL,
+    istante TIMESTAMP(6) NOT NULL,
+    applicata BOOLEAN NOT NULL DEFAULT FALSE,
+    applicata_il TIMESTAMP(6),
+    CONSTRAINT pk_modifica_prezzo_programmata PRIMARY KEY (id)
+);
+
+CREATE SEQUENCE IF NOT EXISTS modifica_prezzo_programmata_seq START WITH 1 INCREMENT BY 50;
+
+-- Caricamento delle modifiche da applicare entro l'orizzonte dello scheduler.
+CREATE INDEX idx_mpp_applicata_istante ON modifica_prezzo_programmata (applicata, istante);
+
+-- Modifiche da applicare per evento.
+CREATE INDEX idx_mpp_evento_applicata_istante ON modifica_prezzo_programmata (id_evento, applicata, istante);
@@ -0,0 +1,24 @@
+-- Regole di prezzo per evento e settore (id_settore 0 per la regola valida per tutti i settori dell'evento)
+-- e fattori per evento usati dalle regole, con le sequenze degli id.
+-- L'incremento delle sequenze corrisponde all'allocationSize delle entità.
+CREATE TABLE IF NOT EXISTS regola_prezzo (
+    id BIGINT NOT NULL,
+    id_evento BIGINT NOT NULL,
+    id_settore BIGINT NOT NULL,
+    espressione VARCHAR(500) NOT NULL,
+    CONSTRAINT pk_regola_prezzo PRIMARY KEY (id),
+    CONSTRAINT uk_rp_evento_settore UNIQUE (id_evento, id_settore)
+);
+
+CREATE SEQUENCE IF NOT EXISTS regola_prezzo_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS fattore_prezzo (
+    id BIGINT NOT NULL,
+    id_evento BIGINT NOT NULL,
+    nome VARCHAR(50) NOT NULL,
+    valore DOUBLE PRECISION NOT NULL,
+    CONSTRAINT pk_fattore_prezzo PRIMARY KEY (id),
+    CONSTRAINT uk_fp_evento_nome UNIQUE (id_evento, nome)
+);
+
+CREATE SEQUENCE IF NOT EXISTS fattore_prezzo_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,19 @@
+-- Tabella dei prezzi dei settori per evento e tabella usata da Hibernate al posto della sequenza.
+-- Su un database già esistente la tabella viene mantenuta e la sequenza parte dall'id massimo più l'allocationSize
+-- dell'entità (50): Hibernate assegna il blocco di id che termina con il valore letto.
+CREATE TABLE IF NOT EXISTS prezzo_settore_evento (
+    id BIGINT NOT NULL,
+    id_settore BIGINT NOT NULL,
+    id_evento BIGINT NOT NULL,
+    prezzo DOUBLE NOT NULL,
+    is_cancellato BIT(1) NOT NULL DEFAULT 0,
+    CONSTRAINT pk_prezzo_settore_evento PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS prezzo_settore_evento_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO prezzo_settore_evento_seq (next_val)
+SELECT COALESCE(MAX(id), 0) + 50 FROM prezzo_settore_evento
+WHERE NOT EXISTS (SELECT 1 FROM prezzo_settore_evento_seq);
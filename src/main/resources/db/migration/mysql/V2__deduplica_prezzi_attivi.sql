@@ -0,0 +1,11 @@
+-- Per ogni coppia evento/settore con più prezzi disponibili mantiene quello con id maggiore
+-- e cancella logicamente gli altri, così da poter introdurre il vincolo di unicità.
+-- MySQL non consente una sottoquery sulla tabella aggiornata, da cui la JOIN.
+UPDATE prezzo_settore_evento p
+JOIN prezzo_settore_evento q
+  ON q.id_evento = p.id_evento
+ AND q.id_settore = p.id_settore
+ AND q.is_cancellato = 0
+ AND q.id > p.id
+SET p.is_cancellato = 1
+WHERE p.is_cancellato = 0;
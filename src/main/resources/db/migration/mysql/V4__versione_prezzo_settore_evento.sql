@@ -0,0 +1,4 @@
+-- Versione per il lock ottimistico: incrementata da Hibernate a ogni modifica dell'entità
+-- e dagli aggiornamenti massivi del repository.
+ALTER TABLE prezzo_settore_evento
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,26 @@
+-- Modifiche di prezzo programmate, applicate all'istante indicato (in UTC) e poi segnate come applicate,
+-- e tabella usata da Hibernate al posto della sequenza.
+CREATE TABLE IF NOT EXISTS modifica_prezzo_programmata (
+    id BIGINT NOT NULL,
+    id_evento BIGINT NOT NULL,
+    id_settore BIGINT NOT NULL,
+    prezzo DOUBLE NOT NULL,
+    istante DATETIME(6) NOT NULL,
+    applicata BIT(1) NOT NULL DEFAULT 0,
+    applicata_il DATETIME(6),
+    CONSTRAINT pk_modifica_prezzo_programmata PRIMARY KEY (id)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS modifica_prezzo_programmata_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO modifica_prezzo_programmata_seq (next_val)
+SELECT 1 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM modifica_prezzo_programmata_seq);
+
+-- Caricamento delle modifiche da applicare entro l'orizzonte dello scheduler.
+CREATE INDEX idx_mpp_applicata_istante ON modifica_prezzo_programmata (applicata, istante);
+
+-- Modifiche da applicare per evento.
+CREATE INDEX idx_mpp_evento_applicata_istante ON modifica_prezzo_programmata (id_evento, applicata, istante);
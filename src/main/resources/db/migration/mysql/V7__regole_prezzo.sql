@@ -0,0 +1,35 @@
+-- Regole di prezzo per evento e settore (id_settore 0 per la regola valida per tutti i settori dell'evento)
+-- e fattori per evento usati dalle regole, con le tabelle usate da Hibernate al posto delle sequenze.
+CREATE TABLE IF NOT EXISTS regola_prezzo (
+    id BIGINT NOT NULL,
+    id_evento BIGINT NOT NULL,
+    id_settore BIGINT NOT NULL,
+    espressione VARCHAR(500) NOT NULL,
+    CONSTRAINT pk_regola_prezzo PRIMARY KEY (id),
+    CONSTRAINT uk_rp_evento_settore UNIQUE (id_evento, id_settore)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS regola_prezzo_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO regola_prezzo_seq (next_val)
+SELECT 1 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM regola_prezzo_seq);
+
+CREATE TABLE IF NOT EXISTS fattore_prezzo (
+    id BIGINT NOT NULL,
+    id_evento BIGINT NOT NULL,
+    nome VARCHAR(50) NOT NULL,
+    valore DOUBLE NOT NULL,
+    CONSTRAINT pk_fattore_prezzo PRIMARY KEY (id),
+    CONSTRAINT uk_fp_evento_nome UNIQUE (id_evento, nome)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS fattore_prezzo_seq (
+    next_val BIGINT
+) ENGINE = InnoDB;
+
+INSERT INTO fattore_prezzo_seq (next_val)
+SELECT 1 FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM fattore_prezzo_seq);
@@ -0,0 +1,127 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.CodedInputStream;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica.CodificaProtobuf;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica.CodificaRisposta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.ErrorMessage;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:codifiche",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///codifiche",
+		"prezzo-settore-evento.cache-http.scadenza=3650d"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestCodificheBinarie {
+
+	private static final String LISTA = "/prezzi-settore-evento/lista-by-evento-is-cancellato-false/id-evento/1";
+	private static final TypeReference<List<PrezzoSettoreEvento>> TIPO_LISTA = new TypeReference<>() {};
+
+	@Autowired
+	MockMvc mock;
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Test
+	public void testJsonPredefinito() throws Exception {
+		mock.perform(get(LISTA))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+		mock.perform(get(LISTA).accept(MediaType.ALL))
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	public void testCborESmileComeJson() throws Exception {
+		List<PrezzoSettoreEvento> json = objectMapper.readValue(risposta(MediaType.APPLICATION_JSON).getResponse().getContentAsByteArray(), TIPO_LISTA);
+		List<PrezzoSettoreEvento> cbor = objectMapper.copyWith(new CBORFactory())
+				.readValue(risposta(MediaType.APPLICATION_CBOR).getResponse().getContentAsByteArray(), TIPO_LISTA);
+		List<PrezzoSettoreEvento> smile = objectMapper.copyWith(new SmileFactory())
+				.readValue(risposta(CodificaRisposta.SMILE.getMediaType()).getResponse().getContentAsByteArray(), TIPO_LISTA);
+		assertEquals(3, json.size());
+		assertEquals(json, cbor);
+		assertEquals(json, smile);
+	}
+
+	@Test
+	public void testProtobufComeJson() throws Exception {
+		List<PrezzoSettoreEvento> json = objectMapper.readValue(risposta(MediaType.APPLICATION_JSON).getResponse().getContentAsByteArray(), TIPO_LISTA);
+		byte[] protobuf = risposta(CodificaProtobuf.APPLICATION_PROTOBUF).getResponse().getContentAsByteArray();
+		assertEquals(json, CodificaProtobuf.leggiLista(CodedInputStream.newInstance(protobuf)));
+	}
+
+	@Test
+	public void testEtagPerCodifica() throws Exception {
+		String etagJson = risposta(MediaType.APPLICATION_JSON).getResponse().getHeader(HttpHeaders.ETAG);
+		String etagProtobuf = risposta(CodificaProtobuf.APPLICATION_PROTOBUF).getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etagJson, etagProtobuf);
+		mock.perform(get(LISTA).accept(CodificaProtobuf.APPLICATION_PROTOBUF).header(HttpHeaders.IF_NONE_MATCH, etagProtobuf))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etagProtobuf));
+		mock.perform(get(LISTA).accept(CodificaProtobuf.APPLICATION_PROTOBUF).header(HttpHeaders.IF_NONE_MATCH, etagJson))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void testEtagPerCodificaById() throws Exception {
+		String etagJson = mock.perform(get("/prezzi-settore-evento/id/1"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String etagProtobuf = mock.perform(get("/prezzi-settore-evento/id/1").accept(CodificaProtobuf.APPLICATION_PROTOBUF))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertEquals(etagJson.replace("\"", "") + "-protobuf", etagProtobuf.replace("\"", ""));
+		mock.perform(get("/prezzi-settore-evento/id/1").accept(CodificaProtobuf.APPLICATION_PROTOBUF).header(HttpHeaders.IF_NONE_MATCH, etagProtobuf))
+				.andExpect(status().isNotModified());
+		mock.perform(get("/prezzi-settore-evento/id/1").accept(MediaType.APPLICATION_JSON).header(HttpHeaders.IF_NONE_MATCH, etagProtobuf))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void testErroreProtobuf() throws Exception {
+		byte[] corpo = mock.perform(get("/prezzi-settore-evento/id/999").accept(CodificaProtobuf.APPLICATION_PROTOBUF))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().contentType(CodificaProtobuf.APPLICATION_PROTOBUF))
+				.andReturn().getResponse().getContentAsByteArray();
+		ErrorMessage errore = CodificaProtobuf.leggiErrore(CodedInputStream.newInstance(corpo));
+		assertEquals(400, errore.getStatusCode());
+		assertNotEquals(null, errore.getTimeStamp());
+	}
+
+	private MvcResult risposta(MediaType accept) throws Exception {
+		return mock.perform(get(LISTA).accept(accept))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(accept))
+				.andReturn();
+	}
+}
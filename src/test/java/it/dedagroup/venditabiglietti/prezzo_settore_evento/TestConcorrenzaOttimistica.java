@@ -0,0 +1,73 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:ottimistica",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///ottimistica"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestConcorrenzaOttimistica {
+
+	@Autowired
+	MockMvc mock;
+
+	@Test
+	public void testModificaConIfMatch() throws Exception {
+		mock.perform(get("/prezzi-settore-evento/id/2"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, startsWith("\"0-")))
+				.andExpect(jsonPath("$.version").value(0));
+		// l'ETag di una lettura contiene anche il marcatore delle modifiche e il suffisso della codifica, ignorati da If-Match
+		String etag = mock.perform(get("/prezzi-settore-evento/id/2").accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, allOf(startsWith("\"0-"), endsWith("-cbor\""))))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mock.perform(post("/prezzi-settore-evento/modifica-settore/id-pse/2/idSettore/7").header(HttpHeaders.IF_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+		mock.perform(post("/prezzi-settore-evento/modifica-evento/id-pse/2/id-evento/8").header(HttpHeaders.IF_MATCH, "\"0\""))
+				.andExpect(status().isConflict());
+		mock.perform(post("/prezzi-settore-evento/modifica-evento/id-pse/2/id-evento/8").header(HttpHeaders.IF_MATCH, "\"1\""))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"2\""));
+		mock.perform(get("/prezzi-settore-evento/id/2"))
+				.andExpect(jsonPath("$.idSettore").value(7))
+				.andExpect(jsonPath("$.idEvento").value(8));
+	}
+
+	@Test
+	public void testModificaPrezzoConIfMatch() throws Exception {
+		String richiesta = "{\"idEvento\":1,\"idSettore\":3,\"prezzo\":17.5}";
+		mock.perform(post("/prezzi-settore-evento/modifica-prezzo").header(HttpHeaders.IF_MATCH, "\"5\"")
+				.contentType(MediaType.APPLICATION_JSON).content(richiesta))
+				.andExpect(status().isConflict());
+		mock.perform(post("/prezzi-settore-evento/modifica-prezzo").header(HttpHeaders.IF_MATCH, "\"0\"")
+				.contentType(MediaType.APPLICATION_JSON).content(richiesta))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, "\"1\""));
+		mock.perform(post("/prezzi-settore-evento/modifica-prezzo").header(HttpHeaders.IF_MATCH, "x")
+				.contentType(MediaType.APPLICATION_JSON).content(richiesta))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,77 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.controller.DocumentazioneApiController;
+
+/**
+ * Verifica che la documentazione OpenAPI pregenerata corrisponda a quella generata da springdoc.
+ * Dopo una modifica alle API si rigenera con
+ * {@code mvn test -Dtest=TestDocumentazioneOpenApi -Dopenapi.aggiorna=true}.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:openapi",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///openapi",
+		"springdoc.writer-with-order-by-keys=true"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestDocumentazioneOpenApi {
+
+	private static final Path FILE = Path.of("src/main/resources", DocumentazioneApiController.DOCUMENTAZIONE);
+
+	@Autowired
+	MockMvc mock;
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@Test
+	public void testDocumentazionePregenerataAggiornata() throws Exception {
+		byte[] generata = mock.perform(get("/api-docs"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsByteArray();
+		ObjectNode attesa = (ObjectNode) objectMapper.readTree(generata);
+		// il server dipende dalla richiesta: senza, Swagger usa l'host da cui è stata scaricata la documentazione
+		attesa.remove("servers");
+		if (Boolean.getBoolean("openapi.aggiorna")) {
+			Files.createDirectories(FILE.getParent());
+			Files.write(FILE, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsBytes(attesa));
+		}
+		JsonNode pregenerata = objectMapper.readTree(FILE.toFile());
+		assertEquals(attesa, pregenerata, FILE + " non è aggiornato: rigenerarlo con -Dopenapi.aggiorna=true");
+	}
+
+	@Test
+	public void testDocumentazionePregenerataServita() throws Exception {
+		MockMvc standalone = MockMvcBuilders.standaloneSetup(new DocumentazioneApiController())
+				.addPlaceholderValue("springdoc.api-docs.path", "/api-docs")
+				.build();
+		byte[] servita = standalone.perform(get("/api-docs"))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+				.andReturn().getResponse().getContentAsByteArray();
+		assertEquals(objectMapper.readTree(FILE.toFile()), objectMapper.readTree(servita));
+	}
+}
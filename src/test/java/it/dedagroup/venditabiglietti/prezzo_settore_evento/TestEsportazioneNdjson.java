@@ -0,0 +1,128 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:esportazione",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///esportazione"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestEsportazioneNdjson {
+
+	private static final String URL = "/prezzi-settore-evento/lista-is-cancellato-false";
+
+	@Autowired
+	MockMvc mock;
+	@Autowired
+	PrezzoSettoreEventoService service;
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@BeforeEach
+	public void setUp() {
+		if (!service.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(401, 1).isEmpty()) return;
+		List<PrezzoSettoreEvento> prezzi = new ArrayList<>();
+		for (long idEvento = 400; idEvento <= 403; idEvento++) {
+			for (long idSettore = 1; idSettore <= 4; idSettore++) {
+				prezzi.add(new PrezzoSettoreEvento(0, idSettore, idEvento, idEvento + idSettore / 10.0, false, 0));
+			}
+		}
+		service.aggiungiPrezziSettoreEvento(prezzi);
+		service.eliminaByIdSettoreAndIdEvento(2, 402);
+	}
+
+	@Test
+	public void testEsportazioneCompleta() throws Exception {
+		List<JsonNode> righe = esporta(get(URL));
+		assertEquals(service.findAllByIsCancellatoFalse().size(), righe.size());
+		long idPrecedente = 0;
+		for (JsonNode riga : righe) {
+			assertFalse(riga.get("cancellato").asBoolean(), riga.toString());
+			assertTrue(riga.get("id").asLong() > idPrecedente, "Righe non ordinate per id");
+			idPrecedente = riga.get("id").asLong();
+		}
+	}
+
+	@Test
+	public void testIntervalli() throws Exception {
+		List<JsonNode> righe = esporta(get(URL).param("idEventoDa", "401").param("idEventoA", "402")
+				.param("idSettoreDa", "2").param("idSettoreA", "3"));
+		// estremi inclusi; il settore 2 dell'evento 402 è cancellato
+		assertEquals(List.of("401/2", "401/3", "402/3"), righe.stream()
+				.map(riga -> riga.get("idEvento").asLong() + "/" + riga.get("idSettore").asLong()).sorted().toList());
+		assertEquals(402.3, righe.get(2).get("prezzo").asDouble());
+
+		List<JsonNode> soloEvento = esporta(get(URL).param("idEventoDa", "403").param("idEventoA", "403"));
+		assertEquals(4, soloEvento.size());
+		soloEvento.forEach(riga -> assertEquals(403, riga.get("idEvento").asLong()));
+
+		List<JsonNode> daSettore = esporta(get(URL).param("idEventoDa", "400").param("idEventoA", "403").param("idSettoreDa", "4"));
+		assertEquals(4, daSettore.size());
+		daSettore.forEach(riga -> assertEquals(4, riga.get("idSettore").asLong()));
+	}
+
+	@Test
+	public void testIntervalliVuotiOInvertiti() throws Exception {
+		assertEquals(0, esporta(get(URL).param("idEventoDa", "402").param("idEventoA", "401")).size());
+		assertEquals(0, esporta(get(URL).param("idEventoDa", "400").param("idEventoA", "403")
+				.param("idSettoreDa", "3").param("idSettoreA", "2")).size());
+		assertEquals(0, esporta(get(URL).param("idEventoDa", "10000")).size());
+
+		mock.perform(get(URL).accept(MediaType.APPLICATION_NDJSON).param("idEventoDa", "0"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(jsonPath("$.message").value(containsString("L'id evento iniziale non è valido")));
+	}
+
+	/**
+	 * Esegue l'esportazione, attende la fine dello streaming e restituisce una riga JSON per prezzo.
+	 */
+	private List<JsonNode> esporta(MockHttpServletRequestBuilder richiesta) throws Exception {
+		MvcResult avviata = mock.perform(richiesta.accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		String corpo = mock.perform(asyncDispatch(avviata))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andReturn().getResponse().getContentAsString();
+		List<JsonNode> righe = new ArrayList<>();
+		for (String riga : corpo.split("\n")) {
+			if (!riga.isEmpty()) righe.add(objectMapper.readTree(riga));
+		}
+		assertTrue(corpo.isEmpty() || corpo.endsWith("\n"), "L'ultima riga non termina con un a capo");
+		return righe;
+	}
+}
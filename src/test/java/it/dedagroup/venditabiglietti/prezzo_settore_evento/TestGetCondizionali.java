@@ -0,0 +1,97 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.metriche.MetricheServizio;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:condizionali",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///condizionali",
+		"prezzo-settore-evento.cache-http.scadenza=3650d"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestGetCondizionali {
+
+	@Autowired
+	MockMvc mock;
+	@Autowired
+	MeterRegistry registry;
+
+	@Test
+	public void testNonModificatoFinoAllaScrittura() throws Exception {
+		String etag = mock.perform(get("/prezzi-settore-evento/lista-by-evento-is-cancellato-false/id-evento/1"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=2, must-revalidate"))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+				.andExpect(jsonPath("$.length()").value(3))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		String etagEvento2 = mock.perform(get("/prezzi-settore-evento/lista-by-evento/id-evento/2"))
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		mock.perform(get("/prezzi-settore-evento/lista-by-evento-is-cancellato-false/id-evento/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, etag))
+				.andExpect(content().string(""));
+
+		mock.perform(post("/prezzi-settore-evento/modifica-prezzo")
+				.contentType(MediaType.APPLICATION_JSON).content("{\"idEvento\":1,\"idSettore\":1,\"prezzo\":22}"))
+				.andExpect(status().isOk());
+
+		String nuovoEtag = mock.perform(get("/prezzi-settore-evento/lista-by-evento-is-cancellato-false/id-evento/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].prezzo").value(22.0))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		assertNotEquals(etag, nuovoEtag);
+		mock.perform(get("/prezzi-settore-evento/lista-by-evento/id-evento/2").header(HttpHeaders.IF_NONE_MATCH, etagEvento2))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	public void testNonModificatoSenzaLettura() throws Exception {
+		String etag = mock.perform(get("/prezzi-settore-evento/lista-by-settore/id-settore/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+		long letture = lettureByIdSettore();
+		mock.perform(get("/prezzi-settore-evento/lista-by-settore/id-settore/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		assertEquals(letture, lettureByIdSettore());
+		mock.perform(get("/prezzi-settore-evento/lista-is-cancellato-false").accept(MediaType.APPLICATION_NDJSON).header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, etag.substring(0, etag.length() - 1) + "-ndjson\""));
+	}
+
+	@Test
+	public void testStatisticheCacheNonMemorizzabili() throws Exception {
+		mock.perform(get("/prezzi-settore-evento/cache/statistiche"))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-store"));
+	}
+
+	private long lettureByIdSettore() {
+		Timer timer = registry.find(MetricheServizio.NOME).tags("metodo", "findAllByIdSettore").timer();
+		return timer == null ? 0 : timer.count();
+	}
+}
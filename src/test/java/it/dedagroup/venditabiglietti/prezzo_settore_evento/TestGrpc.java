@@ -0,0 +1,106 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.MessaggiGrpc.EsportazioneRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.PrezziSettoreEventoGrpc;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.PrezziSettoreEventoGrpcService;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.ServerGrpc;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:grpc",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///grpc"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+public class TestGrpc {
+
+	@Autowired
+	PrezziSettoreEventoGrpcService servizioGrpc;
+	@Autowired
+	PrezzoSettoreEventoService pseService;
+	@Autowired
+	ServerGrpc serverGrpc;
+
+	private Server server;
+	private ManagedChannel canale;
+	private PrezziSettoreEventoGrpc.BlockingStub stub;
+
+	@BeforeEach
+	public void avvia() throws Exception {
+		String nome = InProcessServerBuilder.generateName();
+		server = InProcessServerBuilder.forName(nome).addService(servizioGrpc).build().start();
+		canale = InProcessChannelBuilder.forName(nome).build();
+		stub = PrezziSettoreEventoGrpc.newBlockingStub(canale);
+	}
+
+	@AfterEach
+	public void chiudi() throws Exception {
+		canale.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+		server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+	}
+
+	@Test
+	public void testLettureComeServizio() {
+		assertEquals(pseService.findById(1), stub.findById(1));
+		assertEquals(pseService.findAllByIdEvento(1), stub.findAllByIdEvento(1));
+		assertEquals(pseService.findAllByIdSettore(1), stub.findAllByIdSettore(1));
+		assertEquals(pseService.findAllByIdEventoAndIdSettore(1, 2), stub.findAllByIdEventoAndIdSettore(1, 2));
+		assertEquals(3, stub.findAllByIdEventoAndIsCancellatoFalse(1).size());
+		assertEquals(pseService.findAllByIdSettoreAndIsCancellatoFalse(1), stub.findAllByIdSettoreAndIsCancellatoFalse(1));
+		assertEquals(pseService.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(1, 3), stub.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(1, 3));
+		assertEquals(pseService.getListaPseByIdsEvento(List.of(1L, 3L)), stub.findAllByIdsEvento(List.of(1L, 3L)));
+		assertTrue(stub.findAllByIdsEvento(List.of()).isEmpty());
+	}
+
+	@Test
+	public void testErrori() {
+		StatusRuntimeException idNonValido = assertThrows(StatusRuntimeException.class, () -> stub.findAllByIdEvento(0));
+		assertEquals(Status.Code.INVALID_ARGUMENT, idNonValido.getStatus().getCode());
+		assertEquals("L'id dell'evento non è valido", idNonValido.getStatus().getDescription());
+		StatusRuntimeException nonTrovato = assertThrows(StatusRuntimeException.class, () -> stub.findById(999));
+		assertEquals(Status.Code.INVALID_ARGUMENT, nonTrovato.getStatus().getCode());
+	}
+
+	@Test
+	public void testEsportazioneInStreaming() {
+		List<PrezzoSettoreEvento> attesi = new ArrayList<>(pseService.findAllByIsCancellatoFalse());
+		attesi.sort(Comparator.comparingLong(PrezzoSettoreEvento::getId));
+		List<PrezzoSettoreEvento> ricevuti = new ArrayList<>();
+		stub.esportaPrezziAttivi(new EsportazioneRichiesta()).forEachRemaining(ricevuti::add);
+		assertEquals(attesi, ricevuti);
+
+		Iterator<PrezzoSettoreEvento> evento1 = stub.esportaPrezziAttivi(new EsportazioneRichiesta(1, 1, 2, 0));
+		evento1.forEachRemaining(pse -> assertTrue(pse.getIdEvento() == 1 && pse.getIdSettore() >= 2));
+	}
+
+	@Test
+	public void testServerNonAvviatoSenzaServerWeb() {
+		assertEquals(-1, serverGrpc.getPorta());
+	}
+}
@@ -0,0 +1,120 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.IndicePrezziProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.index.IndicePrezziAttivi;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+
+public class TestIndicePrezziAttivi {
+
+	private PrezzoSettoreEventoRepository repo;
+	private IndicePrezziAttivi indice;
+	private List<PrezzoSettoreEvento> prezzi;
+
+	@BeforeEach
+	public void setUp() {
+		prezzi = new ArrayList<>();
+		for (long idEvento = 1; idEvento <= 50; idEvento++) {
+			for (long idSettore = 1; idSettore <= 20; idSettore++) {
+				prezzi.add(pse(idEvento * 100 + idSettore, idEvento, idSettore, idEvento + idSettore / 100.0));
+			}
+		}
+		repo = mock(PrezzoSettoreEventoRepository.class);
+		when(repo.findAllByIsCancellatoFalse()).thenAnswer(i -> Optional.of(prezzi));
+		IndicePrezziProperties properties = new IndicePrezziProperties();
+		properties.setAbilitato(true);
+		indice = new IndicePrezziAttivi(properties);
+		ReflectionTestUtils.setField(indice, "repo", repo);
+		indice.caricaAllAvvio();
+	}
+
+	private static PrezzoSettoreEvento pse(long id, long idEvento, long idSettore, double prezzo) {
+		PrezzoSettoreEvento pse = new PrezzoSettoreEvento();
+		pse.setId(id);
+		pse.setIdEvento(idEvento);
+		pse.setIdSettore(idSettore);
+		pse.setPrezzo(prezzo);
+		return pse;
+	}
+
+	@Test
+	public void testRicercaPrezzo() {
+		assertTrue(indice.isDisponibile());
+		assertEquals(50, indice.getNumeroEventi());
+		assertEquals(7.05, indice.prezzo(7, 5));
+		assertEquals(20, indice.getIstantaneaEvento(7).dimensione());
+	}
+
+	@Test
+	public void testPrezzoAssente() {
+		assertTrue(Double.isNaN(indice.prezzo(7, 21)));
+		assertTrue(Double.isNaN(indice.prezzo(51, 1)));
+		assertTrue(Double.isNaN(indice.prezzo(0, 0)));
+	}
+
+	@Test
+	public void testDuplicatiPrevaleIdMaggiore() {
+		prezzi.add(0, pse(99_999, 3, 3, 99.00));
+		indice.ricarica();
+		assertEquals(99.00, indice.prezzo(3, 3));
+	}
+
+	@Test
+	public void testAggiornamentoEvento() {
+		when(repo.findAllByIdEventoAndIsCancellatoFalse(7)).thenReturn(Optional.of(List.of(pse(701, 7, 1, 42.00))));
+		indice.onPrezziModificati(PrezziEventoModificatiEvent.perEvento(7));
+		assertEquals(42.00, indice.prezzo(7, 1));
+		assertFalse(indice.getIstantaneaEvento(7).contiene(2));
+		assertEquals(8.01, indice.prezzo(8, 1));
+	}
+
+	@Test
+	public void testEliminazioneEvento() {
+		when(repo.findAllByIdEventoAndIsCancellatoFalse(7)).thenReturn(Optional.of(List.of()));
+		indice.onPrezziModificati(PrezziEventoModificatiEvent.perEvento(7));
+		assertEquals(49, indice.getNumeroEventi());
+		assertTrue(Double.isNaN(indice.prezzo(7, 1)));
+	}
+
+	@Test
+	public void testAggiornamentiDiMoltiEventi() {
+		// gli inserimenti uno alla volta attraversano più raddoppi dei segmenti
+		for (long idEvento = 51; idEvento <= 3000; idEvento++) {
+			when(repo.findAllByIdEventoAndIsCancellatoFalse(idEvento)).thenReturn(Optional.of(List.of(pse(idEvento * 100 + 1, idEvento, 1, idEvento))));
+			indice.onPrezziModificati(PrezziEventoModificatiEvent.perEvento(idEvento));
+		}
+		for (long idEvento = 2; idEvento <= 3000; idEvento += 2) {
+			when(repo.findAllByIdEventoAndIsCancellatoFalse(idEvento)).thenReturn(Optional.of(List.of()));
+			indice.onPrezziModificati(PrezziEventoModificatiEvent.perEvento(idEvento));
+		}
+		assertEquals(1500, indice.getNumeroEventi());
+		for (long idEvento = 1; idEvento <= 3000; idEvento++) {
+			double atteso = idEvento % 2 == 0 ? Double.NaN : idEvento <= 50 ? idEvento + 0.01 : idEvento;
+			assertEquals(atteso, indice.prezzo(idEvento, 1), "Evento " + idEvento);
+		}
+	}
+
+	@Test
+	public void testEliminazioneSettore() {
+		indice.onPrezziModificati(PrezziEventoModificatiEvent.perSettore(5));
+		for (long idEvento = 1; idEvento <= 50; idEvento++) {
+			assertFalse(indice.getIstantaneaEvento(idEvento).contiene(5));
+			assertEquals(19, indice.getIstantaneaEvento(idEvento).dimensione());
+		}
+	}
+}
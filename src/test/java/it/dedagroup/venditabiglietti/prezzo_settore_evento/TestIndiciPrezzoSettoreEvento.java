@@ -0,0 +1,126 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ContextConfiguration;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+
+/**
+ * Verifica che ogni query dichiarata in {@link PrezzoSettoreEventoRepository} usi un indice.
+ *
+ * Ogni metodo del repository viene invocato con argomenti di prova; l'SQL generato da Hibernate viene
+ * intercettato e rieseguito con {@code EXPLAIN} su H2, e il test fallisce se il piano contiene una scansione
+ * completa della tabella.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "it.dedagroup.venditabiglietti.prezzo_settore_evento.TestIndiciPrezzoSettoreEvento$RegistroSql")
+@ContextConfiguration(classes = Application.class)
+public class TestIndiciPrezzoSettoreEvento {
+
+	private static final List<String> SQL_ESEGUITO = new ArrayList<>();
+
+	/**
+	 * Registra l'SQL di ogni statement preparato da Hibernate.
+	 */
+	public static class RegistroSql implements StatementInspector {
+
+		@Override
+		public String inspect(String sql) {
+			synchronized (SQL_ESEGUITO) {
+				SQL_ESEGUITO.add(sql);
+			}
+			return sql;
+		}
+	}
+
+	@Autowired
+	PrezzoSettoreEventoRepository repo;
+
+	@Autowired
+	DataSource dataSource;
+
+	@Test
+	public void testOgniQueryUsaUnIndice() throws Exception {
+		List<Method> metodi = Stream.of(PrezzoSettoreEventoRepository.class.getDeclaredMethods())
+				.filter(m -> !m.isDefault() && !m.isSynthetic())
+				.sorted(Comparator.comparing(Method::getName))
+				.toList();
+		assertFalse(metodi.isEmpty());
+		List<String> senzaIndice = new ArrayList<>();
+		for (Method metodo : metodi) {
+			for (String sql : esegui(metodo)) {
+				String piano = explain(sql);
+				if (piano.contains("tableScan")) {
+					senzaIndice.add(metodo.getName() + ": " + piano);
+				}
+			}
+		}
+		assertTrue(senzaIndice.isEmpty(), "Query senza indice:\n" + String.join("\n", senzaIndice));
+	}
+
+	private List<String> esegui(Method metodo) throws Exception {
+		synchronized (SQL_ESEGUITO) {
+			SQL_ESEGUITO.clear();
+		}
+		Object risultato = metodo.invoke(repo, argomenti(metodo));
+		if (risultato instanceof Stream<?> stream) {
+			try (stream) {
+				stream.count();
+			}
+		}
+		synchronized (SQL_ESEGUITO) {
+			List<String> sql = List.copyOf(SQL_ESEGUITO);
+			assertFalse(sql.isEmpty(), "Nessuna query eseguita da " + metodo.getName());
+			return sql;
+		}
+	}
+
+	private static Object[] argomenti(Method metodo) {
+		Class<?>[] tipi = metodo.getParameterTypes();
+		Object[] argomenti = new Object[tipi.length];
+		for (int i = 0; i < tipi.length; i++) {
+			if (tipi[i] == long.class) argomenti[i] = 1L;
+			else if (tipi[i] == double.class) argomenti[i] = 1.0;
+			else if (tipi[i] == Pageable.class) argomenti[i] = PageRequest.of(0, 10);
+			else if (tipi[i] == List.class || tipi[i] == Collection.class) argomenti[i] = List.of(1L, 2L);
+			else throw new IllegalArgumentException("Tipo di parametro non gestito in " + metodo.getName() + ": " + tipi[i]);
+		}
+		return argomenti;
+	}
+
+	private String explain(String sql) throws Exception {
+		try (Connection connection = dataSource.getConnection();
+				PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+			for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+				statement.setLong(i, 1L);
+			}
+			try (ResultSet rs = statement.executeQuery()) {
+				StringBuilder piano = new StringBuilder();
+				while (rs.next()) {
+					piano.append(rs.getString(1));
+				}
+				return piano.toString();
+			}
+		}
+	}
+}
@@ -0,0 +1,105 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:inserimentobatch",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///inserimentobatch"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestInserimentoBatch {
+
+	@Autowired
+	MockMvc mock;
+	@Autowired
+	PrezzoSettoreEventoService service;
+	@Autowired
+	JdbcTemplate jdbc;
+
+	@Test
+	public void testElementiNonValidiScartati() throws Exception {
+		mock.perform(post("/prezzi-settore-evento/add-batch").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"idEvento\":300,\"idSettore\":1,\"prezzo\":10},"
+						+ "{\"idEvento\":0,\"idSettore\":2,\"prezzo\":-1},"
+						+ "null,"
+						+ "{\"idEvento\":300,\"idSettore\":3,\"prezzo\":12}]"))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.inseriti").value(2))
+				.andExpect(jsonPath("$.id.length()").value(2))
+				.andExpect(jsonPath("$.errori.length()").value(2))
+				.andExpect(jsonPath("$.errori[0].indice").value(1))
+				.andExpect(jsonPath("$.errori[0].messaggi.length()").value(2))
+				.andExpect(jsonPath("$.errori[0].messaggi[?(@ == 'Id evento non valido')]").exists())
+				.andExpect(jsonPath("$.errori[0].messaggi[?(@ == 'Prezzo non valido')]").exists())
+				.andExpect(jsonPath("$.errori[1].indice").value(2))
+				.andExpect(jsonPath("$.errori[1].messaggi[0]").value("Elemento nullo"));
+
+		assertEquals(10.0, service.getPrezzoAttivo(300, 1));
+		assertEquals(12.0, service.getPrezzoAttivo(300, 3));
+		assertEquals(2, righe(300));
+	}
+
+	@Test
+	public void testTuttiNonValidi() throws Exception {
+		mock.perform(post("/prezzi-settore-evento/add-batch").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"idEvento\":310,\"idSettore\":0,\"prezzo\":10},{\"idEvento\":-5,\"idSettore\":1,\"prezzo\":10}]"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.inseriti").value(0))
+				.andExpect(jsonPath("$.id.length()").value(0))
+				.andExpect(jsonPath("$.errori[0].indice").value(0))
+				.andExpect(jsonPath("$.errori[0].messaggi[0]").value("Id settore non valido"))
+				.andExpect(jsonPath("$.errori[1].indice").value(1))
+				.andExpect(jsonPath("$.errori[1].messaggi[0]").value("Id evento non valido"));
+		assertEquals(0, righe(310));
+	}
+
+	@Test
+	public void testDimensioneLista() throws Exception {
+		mock.perform(post("/prezzi-settore-evento/add-batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value(containsString("La lista deve contenere da 1 a 1000 elementi")));
+
+		mock.perform(post("/prezzi-settore-evento/add-batch").contentType(MediaType.APPLICATION_JSON).content(lista(320, 1001)))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value(containsString("La lista deve contenere da 1 a 1000 elementi")));
+		assertEquals(0, righe(320));
+
+		mock.perform(post("/prezzi-settore-evento/add-batch").contentType(MediaType.APPLICATION_JSON).content(lista(321, 1000)))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.inseriti").value(1000))
+				.andExpect(jsonPath("$.errori.length()").value(0));
+		assertEquals(1000, righe(321));
+	}
+
+	private int righe(long idEvento) {
+		return jdbc.queryForObject("SELECT COUNT(*) FROM prezzo_settore_evento WHERE id_evento = ?", Integer.class, idEvento);
+	}
+
+	private static String lista(long idEvento, int elementi) {
+		return IntStream.rangeClosed(1, elementi)
+				.mapToObj(i -> "{\"idEvento\":" + idEvento + ",\"idSettore\":" + i + ",\"prezzo\":10}")
+				.collect(Collectors.joining(",", "[", "]"));
+	}
+}
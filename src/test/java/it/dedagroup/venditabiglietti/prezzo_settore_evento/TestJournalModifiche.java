@@ -0,0 +1,204 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.TipoModifica;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.JournalModifiche;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.LettoreJournal;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.RecordJournal;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.journal.RegistroModifiche;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:journal",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///journal",
+		"prezzo-settore-evento.journal.abilitato=true"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+public class TestJournalModifiche {
+
+	private static final long SEGMENTO_10_RECORD = 10L * JournalModifiche.DIMENSIONE_RECORD;
+
+	@TempDir
+	static Path directoryApplicazione;
+
+	@TempDir
+	Path directory;
+
+	@Autowired
+	PrezzoSettoreEventoService pseService;
+	@Autowired
+	RegistroModifiche registro;
+
+	@DynamicPropertySource
+	static void proprieta(DynamicPropertyRegistry registry) {
+		registry.add("prezzo-settore-evento.journal.directory", () -> directoryApplicazione.toString());
+	}
+
+	@Test
+	public void testAccodaERileggeSuPiuSegmenti() throws Exception {
+		try (JournalModifiche journal = new JournalModifiche(directory, SEGMENTO_10_RECORD)) {
+			for (int i = 0; i < 25; i++) {
+				assertEquals(i, journal.accoda(record(i)));
+			}
+			assertEquals(25, journal.getProssimoOffset());
+		}
+		try (Stream<Path> file = Files.list(directory)) {
+			assertEquals(3, file.filter(f -> f.toString().endsWith(".journal")).count());
+		}
+		try (LettoreJournal lettore = new LettoreJournal(directory)) {
+			List<RecordJournal> letti = new ArrayList<>();
+			assertEquals(25, lettore.leggi(0, r -> letti.add(copia(r))));
+			assertEquals(25, letti.size());
+			for (int i = 0; i < 25; i++) {
+				RecordJournal atteso = record(i);
+				atteso.setOffset(i);
+				assertEquals(atteso, letti.get(i));
+			}
+			List<Long> offset = new ArrayList<>();
+			assertEquals(25, lettore.leggi(12, r -> offset.add(r.getOffset())));
+			assertEquals(12L, offset.get(0));
+			assertEquals(13, offset.size());
+		}
+	}
+
+	@Test
+	public void testRipresaDopoRecordIncompleto() throws Exception {
+		try (JournalModifiche journal = new JournalModifiche(directory, SEGMENTO_10_RECORD)) {
+			for (int i = 0; i < 15; i++) journal.accoda(record(i));
+		}
+		// simula un processo interrotto durante la scrittura del record 14, nel secondo segmento
+		try (FileChannel canale = FileChannel.open(directory.resolve("modifiche-00000000000000000010.journal"), StandardOpenOption.WRITE)) {
+			canale.write(ByteBuffer.wrap(new byte[] { 42 }), 4L * JournalModifiche.DIMENSIONE_RECORD + 20);
+		}
+		try (JournalModifiche journal = new JournalModifiche(directory, SEGMENTO_10_RECORD)) {
+			assertEquals(14, journal.getProssimoOffset());
+			assertEquals(14, journal.accoda(record(99)));
+		}
+		try (LettoreJournal lettore = new LettoreJournal(directory)) {
+			List<RecordJournal> letti = new ArrayList<>();
+			assertEquals(15, lettore.leggi(0, r -> letti.add(copia(r))));
+			assertEquals(99, letti.get(14).getIdPse());
+		}
+	}
+
+	@Test
+	public void testUnSoloScrittore() throws Exception {
+		try (JournalModifiche journal = new JournalModifiche(directory, SEGMENTO_10_RECORD)) {
+			assertThrows(IllegalStateException.class, () -> new JournalModifiche(directory, SEGMENTO_10_RECORD));
+		}
+	}
+
+	@Test
+	public void testScrittoriConcorrentiELettoreInCoda() throws Exception {
+		int scrittori = 4;
+		int perScrittore = 5000;
+		RegistroModifiche registroLocale = new RegistroModifiche(new JournalModifiche(directory, 1000L * JournalModifiche.DIMENSIONE_RECORD), 1024, false);
+		ExecutorService esecutore = Executors.newFixedThreadPool(scrittori + 1);
+		try {
+			Future<List<RecordJournal>> coda = esecutore.submit(() -> {
+				List<RecordJournal> letti = new ArrayList<>();
+				try (LettoreJournal lettore = new LettoreJournal(directory)) {
+					lettore.segui(0, Duration.ofMillis(5), r -> letti.add(copia(r)) && letti.size() < scrittori * perScrittore);
+				}
+				return letti;
+			});
+			List<Future<?>> scritture = new ArrayList<>();
+			for (int s = 0; s < scrittori; s++) {
+				long scrittore = s;
+				scritture.add(esecutore.submit(() -> {
+					for (int i = 0; i < perScrittore; i++) {
+						registroLocale.registra(TipoModifica.MODIFICA_PREZZO, i, scrittore * perScrittore + i, scrittore, i, 10.5, i);
+					}
+				}));
+			}
+			for (Future<?> scrittura : scritture) scrittura.get(30, TimeUnit.SECONDS);
+			List<RecordJournal> letti = coda.get(30, TimeUnit.SECONDS);
+			assertEquals(scrittori * perScrittore, letti.size());
+			long[] idLetti = new long[letti.size()];
+			for (int i = 0; i < letti.size(); i++) {
+				assertEquals(i, letti.get(i).getOffset());
+				idLetti[i] = letti.get(i).getIdPse();
+			}
+			assertEquals(scrittori * perScrittore, Arrays.stream(idLetti).distinct().count());
+		} finally {
+			esecutore.shutdownNow();
+			registroLocale.close();
+		}
+	}
+
+	@Test
+	public void testModificheDelServizio() throws Exception {
+		long offsetIniziale = registro.getOffsetScritto() + 1;
+		PrezzoSettoreEvento pse = new PrezzoSettoreEvento(0, 1, 70, 30.0, false, 0);
+		pseService.aggiungiPrezzoSettoreEvento(pse);
+		assertThrows(DataIntegrityViolationException.class,
+				() -> pseService.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 70, 31.0, false, 0)));
+		long versione = pseService.modificaPrezzoByIdSettoreAndIdEvento(35.0, 1, 70, 0);
+		pseService.modificaIdSettore(pse.getId(), 2, null);
+		pseService.eliminaByIdEvento(70);
+
+		attendiOffset(offsetIniziale + 3);
+		List<RecordJournal> letti = new ArrayList<>();
+		try (LettoreJournal lettore = new LettoreJournal(directoryApplicazione)) {
+			lettore.leggi(offsetIniziale, r -> letti.add(copia(r)));
+		}
+		assertEquals(4, letti.size());
+		assertEquals(TipoModifica.INSERIMENTO, letti.get(0).getTipo());
+		assertEquals(pse.getId(), letti.get(0).getIdPse());
+		assertEquals(30.0, letti.get(0).getPrezzo());
+		assertEquals(TipoModifica.MODIFICA_PREZZO, letti.get(1).getTipo());
+		assertEquals(35.0, letti.get(1).getPrezzo());
+		assertEquals(versione, letti.get(1).getVersione());
+		assertEquals(TipoModifica.MODIFICA_SETTORE, letti.get(2).getTipo());
+		assertEquals(2, letti.get(2).getIdSettore());
+		assertEquals(versione + 1, letti.get(2).getVersione());
+		assertEquals(TipoModifica.CANCELLAZIONE_PER_EVENTO, letti.get(3).getTipo());
+		assertEquals(0, letti.get(3).getIdPse());
+		assertEquals(70, letti.get(3).getIdEvento());
+		assertTrue(letti.get(0).getIstante() <= letti.get(3).getIstante());
+	}
+
+	private void attendiOffset(long offset) throws InterruptedException {
+		long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (registro.getOffsetScritto() < offset && System.nanoTime() < limite) Thread.sleep(5);
+	}
+
+	private static RecordJournal record(int i) {
+		return new RecordJournal(0, 1_700_000_000_000L + i, TipoModifica.values()[i % TipoModifica.values().length], i, 100 + i, 200 + i, i * 0.5, i);
+	}
+
+	private static RecordJournal copia(RecordJournal r) {
+		return new RecordJournal(r.getOffset(), r.getIstante(), r.getTipo(), r.getIdPse(), r.getIdEvento(), r.getIdSettore(), r.getPrezzo(), r.getVersione());
+	}
+}
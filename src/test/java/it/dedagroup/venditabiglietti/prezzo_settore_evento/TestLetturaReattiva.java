@@ -0,0 +1,100 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.hamcrest.Matchers.matchesPattern;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepositoryReattivo;
+import reactor.test.StepVerifier;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:reattivo",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///reattivo"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestLetturaReattiva {
+
+	@Autowired
+	PrezzoSettoreEventoRepositoryReattivo repo;
+
+	@Autowired
+	MockMvc mock;
+
+	@Test
+	public void testFindAllByIdEvento() {
+		StepVerifier.create(repo.findAllByIdEvento(1).map(PrezzoSettoreEvento::getId))
+				.expectNext(1L, 2L, 4L)
+				.verifyComplete();
+	}
+
+	@Test
+	public void testFindAllByIdEventoAndIdSettoreAndIsCancellatoFalse() {
+		StepVerifier.create(repo.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(2, 1))
+				.expectNextMatches(pse -> pse.getId() == 3 && pse.getPrezzo() == 30.0 && !pse.isCancellato())
+				.verifyComplete();
+	}
+
+	@Test
+	public void testFindAllByIdEventoInRispettaLaRichiesta() {
+		StepVerifier.create(repo.findAllByIdEventoIn(List.of(1L, 3L)).map(PrezzoSettoreEvento::getId), 2)
+				.expectNext(1L, 2L)
+				.thenRequest(2)
+				.expectNext(4L, 5L)
+				.verifyComplete();
+	}
+
+	@Test
+	public void testListaByEventoInStreaming() throws Exception {
+		MvcResult risultato = mock.perform(get("/prezzi-settore-evento/reattivo/lista-by-evento/id-evento/1")
+				.accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mock.perform(asyncDispatch(risultato))
+				.andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+				.andExpect(content().string(matchesPattern(
+						"(?s)\\{\"id\":1,.*\\}\n\\{\"id\":2,.*\\}\n\\{\"id\":4,.*\\}\n")));
+	}
+
+	@Test
+	public void testIdsEventoInJson() throws Exception {
+		MvcResult risultato = mock.perform(post("/prezzi-settore-evento/reattivo/ids-evento")
+				.contentType(MediaType.APPLICATION_JSON)
+				.accept(MediaType.APPLICATION_JSON)
+				.content("[2,3]"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mock.perform(asyncDispatch(risultato))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(2))
+				.andExpect(jsonPath("$[0].id").value(3))
+				.andExpect(jsonPath("$[1].id").value(5));
+	}
+
+	@Test
+	public void testIdNonValido() throws Exception {
+		mock.perform(get("/prezzi-settore-evento/reattivo/lista-by-settore/id-settore/0"))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,52 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.cache.MarcatoriModifiche;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.CacheHttpProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+
+public class TestMarcatoriModifiche {
+
+	private static MarcatoriModifiche marcatori(Duration scadenza) {
+		CacheHttpProperties properties = new CacheHttpProperties();
+		properties.setScadenza(scadenza);
+		MarcatoriModifiche marcatori = new MarcatoriModifiche();
+		ReflectionTestUtils.setField(marcatori, "cacheHttp", properties);
+		return marcatori;
+	}
+
+	@Test
+	public void testModificheDiQuestaIstanza() {
+		MarcatoriModifiche marcatori = marcatori(Duration.ofDays(3650));
+		String evento1 = marcatori.etagEvento(1);
+		String evento2 = marcatori.etagEvento(2);
+		String globale = marcatori.etagGlobale();
+		assertEquals(evento1, marcatori.etagEvento(1));
+
+		marcatori.onPrezziModificati(PrezziEventoModificatiEvent.perEvento(1));
+		assertNotEquals(evento1, marcatori.etagEvento(1));
+		assertEquals(evento2, marcatori.etagEvento(2));
+		assertNotEquals(globale, marcatori.etagGlobale());
+
+		marcatori.onPrezziModificati(PrezziEventoModificatiEvent.perSettore(3));
+		assertNotEquals(evento2, marcatori.etagEvento(2));
+	}
+
+	@Test
+	public void testScadenzaSenzaModifiche() throws InterruptedException {
+		// le modifiche di altre istanze non aggiornano i contatori: gli ETag cambiano comunque a fine periodo
+		MarcatoriModifiche marcatori = marcatori(Duration.ofMillis(100));
+		String evento = marcatori.etagEvento(1);
+		String globale = marcatori.etagGlobale();
+		Thread.sleep(150);
+		assertNotEquals(evento, marcatori.etagEvento(1));
+		assertNotEquals(globale, marcatori.etagGlobale());
+	}
+}
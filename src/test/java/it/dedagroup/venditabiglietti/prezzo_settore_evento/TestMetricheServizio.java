@@ -0,0 +1,54 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotFoundExceptionCustom;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.metriche.MetricheServizio;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.serviceimpl.PrezzoSettoreEventoServiceImpl;
+
+public class TestMetricheServizio {
+
+	private SimpleMeterRegistry registry;
+	private PrezzoSettoreEventoServiceImpl target;
+	private PrezzoSettoreEventoService service;
+
+	@BeforeEach
+	public void setUp() {
+		registry = new SimpleMeterRegistry();
+		target = mock(PrezzoSettoreEventoServiceImpl.class);
+		AspectJProxyFactory factory = new AspectJProxyFactory(target);
+		factory.addAspect(new MetricheServizio(registry));
+		service = factory.getProxy();
+	}
+
+	@Test
+	public void testMetodoTransazionale() {
+		service.modificaPrezzoByIdSettoreAndIdEvento(10.0, 1, 1);
+		Timer timer = registry.find(MetricheServizio.NOME)
+				.tags("metodo", "modificaPrezzoByIdSettoreAndIdEvento", "transazionale", "true", "esito", "ok").timer();
+		assertNotNull(timer);
+		assertEquals(1, timer.count());
+	}
+
+	@Test
+	public void testMetodoNonTransazionaleConEccezione() {
+		when(target.findById(1)).thenThrow(new NotFoundExceptionCustom("Prezzo settore evento non trovato"));
+		assertThrows(NotFoundExceptionCustom.class, () -> service.findById(1));
+		service.findPrezzoSettoreEventoById(1);
+		assertEquals(1, registry.find(MetricheServizio.NOME)
+				.tags("metodo", "findById", "transazionale", "false", "esito", "NotFoundExceptionCustom").timer().count());
+		assertEquals(1, registry.find(MetricheServizio.NOME)
+				.tags("metodo", "findPrezzoSettoreEventoById", "esito", "ok").timer().count());
+	}
+}
@@ -0,0 +1,123 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.core.Flyway;
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.PooledOptimizer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+/**
+ * Migrazione di un database creato prima di Flyway, con la tabella dei prezzi già popolata: i primi inserimenti
+ * successivi non devono riusare gli id esistenti. Le migrazioni sono lette dai sorgenti per escludere i dati di prova.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:migrazione",
+		"spring.flyway.locations=filesystem:src/main/resources/db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///migrazione"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = { Application.class, TestMigrazioneDatabaseEsistente.TabellaEsistente.class })
+public class TestMigrazioneDatabaseEsistente {
+
+	private static final long ID_MASSIMO = 120;
+
+	@Autowired
+	PrezzoSettoreEventoService service;
+	@Autowired
+	JdbcTemplate jdbc;
+
+	/**
+	 * Crea e popola la tabella con lo schema generato in precedenza da Hibernate prima di eseguire le migrazioni.
+	 */
+	@TestConfiguration
+	static class TabellaEsistente {
+
+		@Bean
+		FlywayMigrationStrategy migrazioneSuTabellaEsistente() {
+			return flyway -> {
+				JdbcTemplate jdbc = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+				creaTabellaEsistente(jdbc, "BOOLEAN");
+				flyway.migrate();
+			};
+		}
+	}
+
+	private static void creaTabellaEsistente(JdbcTemplate jdbc, String tipoBooleano) {
+		jdbc.execute("CREATE TABLE prezzo_settore_evento (id BIGINT NOT NULL, id_settore BIGINT NOT NULL, id_evento BIGINT NOT NULL, "
+				+ "prezzo DOUBLE PRECISION NOT NULL, is_cancellato " + tipoBooleano + " NOT NULL, PRIMARY KEY (id))");
+		for (long id = 1; id <= ID_MASSIMO; id++) {
+			jdbc.update("INSERT INTO prezzo_settore_evento (id, id_settore, id_evento, prezzo, is_cancellato) VALUES (?, ?, 900, 10, FALSE)", id, id);
+		}
+	}
+
+	@Test
+	public void testInserimentiDopoLaMigrazione() {
+		List<PrezzoSettoreEvento> prezzi = new ArrayList<>();
+		for (long idSettore = 1; idSettore <= 3; idSettore++) {
+			prezzi.add(new PrezzoSettoreEvento(0, idSettore, 901, 20, false, 0));
+		}
+		service.aggiungiPrezziSettoreEvento(prezzi);
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 4, 901, 20, false, 0));
+		List<Long> id = jdbc.queryForList("SELECT id FROM prezzo_settore_evento WHERE id_evento = 901", Long.class);
+		assertEquals(4, id.size());
+		id.forEach(nuovo -> assertTrue(nuovo > ID_MASSIMO, "Id già esistente: " + nuovo));
+		assertEquals(ID_MASSIMO + 4, jdbc.queryForObject("SELECT COUNT(*) FROM prezzo_settore_evento", Long.class));
+	}
+
+	/**
+	 * Lo schema MySQL completo non è eseguibile su H2: si applica la sola V1 in modalità MySQL e si calcolano
+	 * gli id che l'optimizer pooled di Hibernate assegnerebbe leggendo la tabella della sequenza.
+	 */
+	@Test
+	public void testSequenzaMysql() {
+		SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new org.h2.Driver(),
+				"jdbc:h2:mem:migrazionemysql;MODE=MySQL;DB_CLOSE_DELAY=-1", "root", "root");
+		JdbcTemplate mysql = new JdbcTemplate(dataSource);
+		creaTabellaEsistente(mysql, "BIT(1)");
+		Flyway.configure().dataSource(dataSource)
+				.locations("filesystem:src/main/resources/db/migration/mysql")
+				.baselineOnMigrate(true).baselineVersion("0").target("1")
+				.load().migrate();
+		assertEquals(ID_MASSIMO + 50, mysql.queryForObject("SELECT next_val FROM prezzo_settore_evento_seq", Long.class));
+
+		PooledOptimizer optimizer = new PooledOptimizer(Long.class, 50);
+		optimizer.injectInitialValue(1);
+		AccessCallback tabellaSequenza = new AccessCallback() {
+			@Override
+			public IntegralDataTypeHolder getNextValue() {
+				long valore = mysql.queryForObject("SELECT next_val FROM prezzo_settore_evento_seq", Long.class);
+				mysql.update("UPDATE prezzo_settore_evento_seq SET next_val = ?", valore + 50);
+				return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class).initialize(valore);
+			}
+
+			@Override
+			public String getTenantIdentifier() {
+				return null;
+			}
+		};
+		for (long idSettore = 1; idSettore <= 60; idSettore++) {
+			long id = (Long) optimizer.generate(tabellaSequenza);
+			mysql.update("INSERT INTO prezzo_settore_evento (id, id_settore, id_evento, prezzo, is_cancellato) VALUES (?, ?, 901, 20, FALSE)", id, idSettore);
+		}
+		assertEquals(ID_MASSIMO + 60, mysql.queryForObject("SELECT COUNT(*) FROM prezzo_settore_evento", Long.class));
+	}
+}
@@ -0,0 +1,217 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.ProgrammazioneProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.VersionePrezzoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.ModificaPrezzoProgrammata;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.programmazione.ModifichePrezzoProgrammate;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.programmazione.ProgrammatoreModifiche;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.programmazione.RuotaTemporale;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.ModificaPrezzoProgrammataRepository;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:programmazione",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///programmazione",
+		"prezzo-settore-evento.programmazione.durata-tick=20ms"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestModifichePrezzoProgrammate {
+
+	@Autowired
+	PrezzoSettoreEventoService service;
+	@Autowired
+	ModifichePrezzoProgrammate modifiche;
+	@Autowired
+	ModificaPrezzoProgrammataRepository repoModifiche;
+	@Autowired
+	ProgrammazioneProperties properties;
+	@Autowired
+	MeterRegistry registry;
+	@Autowired
+	MockMvc mock;
+
+	@Test
+	public void testModificaApplicataAllaScadenza() throws Exception {
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 700, 10.0, false, 0));
+		Instant istante = Instant.now().plusSeconds(2);
+		mock.perform(post("/prezzi-settore-evento/modifiche-programmate").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"idEvento\":700,\"idSettore\":1,\"prezzo\":12.5,\"istante\":\"" + istante + "\"},"
+						+ "{\"idEvento\":700,\"idSettore\":0,\"prezzo\":12.5,\"istante\":\"" + istante + "\"}]"))
+				.andExpect(status().isCreated())
+				.andExpect(jsonPath("$.inseriti").value(1))
+				.andExpect(jsonPath("$.errori[0].indice").value(1));
+		mock.perform(get("/prezzi-settore-evento/modifiche-programmate/id-evento/700"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(1))
+				.andExpect(jsonPath("$[0].prezzo").value(12.5));
+		assertEquals(10.0, service.getPrezzoAttivo(700, 1));
+
+		attendi(() -> service.getPrezzoAttivo(700, 1) == 12.5);
+		assertTrue(Instant.now().isAfter(istante));
+		assertTrue(modifiche.getDaApplicare(700).isEmpty());
+		List<VersionePrezzoDtoResponse> storico = service.getStoricoPrezzo(700, 1);
+		assertEquals(2, storico.size());
+		assertEquals(12.5, storico.get(1).getPrezzo());
+		assertEquals(1, storico.get(1).getVersion());
+		assertTrue(registry.find(ProgrammatoreModifiche.RITARDO).timer().count() >= 1);
+	}
+
+	@Test
+	public void testRecuperoModificheScaduteAllAvvio() throws Exception {
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 710, 20.0, false, 0));
+		// registrata senza passare dal servizio, come una modifica scaduta mentre lo scheduler era fermo
+		repoModifiche.save(modifica(710, 1, 22.0, Instant.now().minusSeconds(60)));
+
+		SimpleMeterRegistry registroAvvio = new SimpleMeterRegistry();
+		try (ProgrammatoreModifiche riavviato = new ProgrammatoreModifiche(modifiche, properties, registroAvvio)) {
+			riavviato.avvia();
+			attendi(() -> service.getPrezzoAttivo(710, 1) == 22.0);
+		}
+		assertTrue(modifiche.getDaApplicare(710).isEmpty());
+		assertEquals(1, registroAvvio.find(ProgrammatoreModifiche.RITARDO).timer().count());
+		assertTrue(registroAvvio.find(ProgrammatoreModifiche.RITARDO).timer().max(TimeUnit.SECONDS) >= 60);
+	}
+
+	@Test
+	public void testApplicazioneInBatchConUltimaModificaPerCoppia() {
+		service.aggiungiPrezziSettoreEvento(List.of(
+				new PrezzoSettoreEvento(0, 1, 720, 30.0, false, 0),
+				new PrezzoSettoreEvento(0, 2, 720, 40.0, false, 0)));
+		Instant passato = Instant.now().minusSeconds(10);
+		List<ModificaPrezzoProgrammata> salvate = repoModifiche.saveAll(List.of(
+				modifica(720, 1, 31.0, passato),
+				modifica(720, 1, 32.0, passato.plusSeconds(1)),
+				modifica(720, 2, 41.0, passato),
+				modifica(720, 3, 50.0, passato)));
+
+		List<ModificaPrezzoProgrammata> applicate = modifiche.applica(salvate.stream().map(ModificaPrezzoProgrammata::getId).toList());
+
+		assertEquals(4, applicate.size());
+		assertTrue(modifiche.getDaApplicare(720).isEmpty());
+		assertEquals(32.0, service.getPrezzoAttivo(720, 1));
+		assertEquals(41.0, service.getPrezzoAttivo(720, 2));
+		assertEquals(2, service.getStoricoPrezzo(720, 1).size());
+		assertEquals(1, service.getStoricoPrezzo(720, 1).get(1).getVersion());
+		// già applicate: una seconda applicazione non modifica nulla
+		assertTrue(modifiche.applica(salvate.stream().map(ModificaPrezzoProgrammata::getId).toList()).isEmpty());
+		assertEquals(2, service.getStoricoPrezzo(720, 1).size());
+	}
+
+	@Test
+	public void testModificaMenoRecenteInUnLottoSuccessivo() {
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 740, 10.0, false, 0));
+		// istanti oltre l'orizzonte, così che lo scheduler non le carichi durante il test
+		Instant futuro = Instant.now().plus(Duration.ofDays(1));
+		ModificaPrezzoProgrammata recente = repoModifiche.save(modifica(740, 1, 12.0, futuro.plusSeconds(2)));
+		ModificaPrezzoProgrammata precedente = repoModifiche.save(modifica(740, 1, 11.0, futuro));
+
+		modifiche.applica(List.of(recente.getId()));
+		assertEquals(1, modifiche.applica(List.of(precedente.getId())).size());
+
+		assertEquals(12.0, service.getPrezzoAttivo(740, 1));
+		assertTrue(modifiche.getDaApplicare(740).isEmpty());
+		assertEquals(2, service.getStoricoPrezzo(740, 1).size());
+	}
+
+	@Test
+	public void testRecuperoDiPiuLottiPerCoppia() throws Exception {
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 750, 20.0, false, 0));
+		// scadute mentre lo scheduler era fermo nello stesso tick, salvate in ordine diverso da quello degli istanti
+		Instant passato = Instant.now().minusSeconds(60).truncatedTo(ChronoUnit.SECONDS);
+		List<ModificaPrezzoProgrammata> scadute = new ArrayList<>();
+		for (int micro : new int[] { 5, 9, 1, 7, 3, 8, 0, 6, 2, 4 }) {
+			scadute.add(modifica(750, 1, 100 + micro, passato.plus(micro, ChronoUnit.MICROS)));
+		}
+		repoModifiche.saveAll(scadute);
+
+		ProgrammazioneProperties lottiPiccoli = new ProgrammazioneProperties();
+		lottiPiccoli.setDurataTick(properties.getDurataTick());
+		lottiPiccoli.setDimensioneBatch(3);
+		try (ProgrammatoreModifiche riavviato = new ProgrammatoreModifiche(modifiche, lottiPiccoli, new SimpleMeterRegistry())) {
+			riavviato.avvia();
+			attendi(() -> modifiche.getDaApplicare(750).isEmpty());
+		}
+		assertEquals(109.0, service.getPrezzoAttivo(750, 1));
+		List<VersionePrezzoDtoResponse> storico = service.getStoricoPrezzo(750, 1);
+		assertEquals(109.0, storico.get(storico.size() - 1).getPrezzo());
+		for (int i = 2; i < storico.size(); i++) {
+			assertTrue(storico.get(i).getPrezzo() > storico.get(i - 1).getPrezzo(), "Modifica meno recente applicata dopo una successiva");
+		}
+	}
+
+	@Test
+	public void testRuotaTemporale() {
+		RuotaTemporale ruota = new RuotaTemporale(10, 8, 1_000);
+		ruota.aggiungi(1, 1_005);
+		ruota.aggiungi(2, 1_025);
+		ruota.aggiungi(3, 1_025 + 160);
+		ruota.aggiungi(4, 500);
+		List<Long> scadute = new ArrayList<>();
+
+		ruota.avanza(1_000, scadute::add);
+		assertEquals(List.of(4L, 1L), scadute);
+		scadute.clear();
+		ruota.avanza(1_019, scadute::add);
+		assertTrue(scadute.isEmpty());
+		ruota.avanza(1_020, scadute::add);
+		assertEquals(List.of(2L), scadute);
+		scadute.clear();
+		// stessa posizione della voce 2, ma un giro dopo
+		ruota.avanza(1_105, scadute::add);
+		assertTrue(scadute.isEmpty());
+		assertEquals(1, ruota.dimensione());
+		// una pausa più lunga di un giro consegna comunque la voce
+		ruota.avanza(3_000, scadute::add);
+		assertEquals(List.of(3L), scadute);
+		assertEquals(0, ruota.dimensione());
+	}
+
+	private static ModificaPrezzoProgrammata modifica(long idEvento, long idSettore, double prezzo, Instant istante) {
+		ModificaPrezzoProgrammata modifica = new ModificaPrezzoProgrammata();
+		modifica.setIdEvento(idEvento);
+		modifica.setIdSettore(idSettore);
+		modifica.setPrezzo(prezzo);
+		modifica.setIstante(LocalDateTime.ofInstant(istante.truncatedTo(ChronoUnit.MICROS), ZoneOffset.UTC));
+		return modifica;
+	}
+
+	private static void attendi(BooleanSupplier condizione) throws InterruptedException {
+		Instant limite = Instant.now().plus(Duration.ofSeconds(10));
+		while (!condizione.getAsBoolean()) {
+			assertTrue(Instant.now().isBefore(limite), "Modifiche programmate non applicate entro il limite");
+			Thread.sleep(20);
+		}
+	}
+}
@@ -0,0 +1,146 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:paginazione",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///paginazione"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestPaginazione {
+
+	private static final String URL = "/prezzi-settore-evento/pagina/";
+
+	@Autowired
+	MockMvc mock;
+	@Autowired
+	PrezzoSettoreEventoService service;
+	@Autowired
+	ObjectMapper objectMapper;
+
+	@BeforeEach
+	public void setUp() {
+		if (!service.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(500, 1).isEmpty()) return;
+		List<PrezzoSettoreEvento> prezzi = new ArrayList<>();
+		for (long idEvento = 500; idEvento <= 501; idEvento++) {
+			for (long idSettore = 1; idSettore <= 3; idSettore++) {
+				prezzi.add(new PrezzoSettoreEvento(0, idSettore, idEvento, 10 + idSettore, false, 0));
+			}
+		}
+		service.aggiungiPrezziSettoreEvento(prezzi);
+		// l'evento 500 ha per il settore 2 un prezzo cancellato e uno disponibile
+		service.eliminaByIdSettoreAndIdEvento(2, 500);
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 2, 500, 15, false, 0));
+	}
+
+	@Test
+	public void testPrimaPaginaSuccessivaEUltima() throws Exception {
+		// l'evento 500 ha 4 prezzi, compreso quello cancellato
+		JsonNode prima = pagina(URL + "lista-by-evento/id-evento/500?dimensione=3");
+		assertEquals(3, prima.get("elementi").size());
+		assertNotNull(prima.get("cursoreSuccessivo").textValue());
+
+		// l'ultima pagina, non piena, non ha cursore
+		JsonNode ultima = pagina(URL + "lista-by-evento/id-evento/500?dimensione=3&cursore=" + prima.get("cursoreSuccessivo").asText());
+		assertEquals(1, ultima.get("elementi").size());
+		assertTrue(ultima.get("elementi").get(0).get("id").asLong() > prima.get("elementi").get(2).get("id").asLong());
+		assertTrue(ultima.get("cursoreSuccessivo").isNull());
+	}
+
+	@Test
+	public void testConfineDimensione() throws Exception {
+		// 3 prezzi disponibili per l'evento 500: con dimensione 3 la query chiede 4 righe, ne trova 3 e non restituisce il cursore
+		JsonNode esatta = pagina(URL + "lista-by-evento-is-cancellato-false/id-evento/500?dimensione=3");
+		assertEquals(3, esatta.get("elementi").size());
+		assertTrue(esatta.get("cursoreSuccessivo").isNull());
+
+		JsonNode unaInMeno = pagina(URL + "lista-by-evento-is-cancellato-false/id-evento/500?dimensione=2");
+		assertEquals(2, unaInMeno.get("elementi").size());
+		JsonNode resto = pagina(URL + "lista-by-evento-is-cancellato-false/id-evento/500?dimensione=2&cursore="
+				+ unaInMeno.get("cursoreSuccessivo").asText());
+		assertEquals(1, resto.get("elementi").size());
+		assertTrue(resto.get("cursoreSuccessivo").isNull());
+	}
+
+	@Test
+	public void testTuttiGliEndpoint() throws Exception {
+		confronta("lista-by-settore/id-settore/2", () -> service.findAllByIdSettore(2));
+		confronta("lista-by-evento/id-evento/500", () -> service.findAllByIdEvento(500));
+		confronta("lista-by-evento-settore/id-evento/500/id-settore/2", () -> service.findAllByIdEventoAndIdSettore(500, 2));
+		confronta("lista-by-settore-is-cancellato-false/id-settore/2", () -> service.findAllByIdSettoreAndIsCancellatoFalse(2));
+		confronta("lista-by-evento-is-cancellato-false/id-evento/500", () -> service.findAllByIdEventoAndIsCancellatoFalse(500));
+		confronta("lista-by-evento-settore-is-cancellato-false/id-evento/500/id-settore/2",
+				() -> service.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(500, 2));
+		confronta("lista-is-cancellato-false", service::findAllByIsCancellatoFalse);
+	}
+
+	@Test
+	public void testCursoreNonValido() throws Exception {
+		Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+		List<String> cursori = List.of(
+				"non%20base64!",
+				base64.encodeToString(new byte[] { 1, 2, 3 }),
+				base64.encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(-7).array()),
+				base64.encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(0).array()));
+		for (String cursore : cursori) {
+			mock.perform(get(URL + "lista-by-evento/id-evento/500?cursore=" + cursore))
+					.andExpect(status().isBadRequest())
+					.andExpect(jsonPath("$.message").value("Cursore di paginazione non valido"));
+		}
+		mock.perform(get(URL + "lista-by-evento/id-evento/500?dimensione=0")).andExpect(status().isBadRequest());
+		mock.perform(get(URL + "lista-by-evento/id-evento/500?dimensione=1001")).andExpect(status().isBadRequest());
+	}
+
+	/**
+	 * Scorre tutte le pagine dell'endpoint con dimensione 2 e confronta gli id con la lista non paginata.
+	 */
+	private void confronta(String endpoint, Supplier<List<PrezzoSettoreEvento>> lista) throws Exception {
+		List<Long> letti = new ArrayList<>();
+		String cursore = null;
+		do {
+			JsonNode pagina = pagina(URL + endpoint + "?dimensione=2" + (cursore == null ? "" : "&cursore=" + cursore));
+			JsonNode elementi = pagina.get("elementi");
+			cursore = pagina.get("cursoreSuccessivo").textValue();
+			assertTrue(cursore == null ? elementi.size() <= 2 : elementi.size() == 2, endpoint);
+			elementi.forEach(elemento -> letti.add(elemento.get("id").asLong()));
+		} while (cursore != null);
+		List<Long> attesi = lista.get().stream().map(PrezzoSettoreEvento::getId).sorted().toList();
+		assertEquals(attesi, letti, endpoint);
+	}
+
+	private JsonNode pagina(String url) throws Exception {
+		String corpo = mock.perform(get(url))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(corpo);
+	}
+}
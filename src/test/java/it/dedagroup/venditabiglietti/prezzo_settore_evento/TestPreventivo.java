@@ -0,0 +1,70 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:preventivo",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///preventivo"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestPreventivo {
+
+	@Autowired
+	MockMvc mock;
+
+	@Test
+	public void testPreventivoCarrello() throws Exception {
+		mock.perform(post("/prezzi-settore-evento/elimina-by-settore-evento/id-evento/1/id-settore/3"))
+				.andExpect(status().isOk());
+		String carrello = "[{\"idEvento\":1,\"idSettore\":1,\"quantita\":2},"
+				+ "{\"idEvento\":2,\"idSettore\":1,\"quantita\":1},"
+				+ "{\"idEvento\":1,\"idSettore\":3,\"quantita\":4},"
+				+ "{\"idEvento\":9,\"idSettore\":9,\"quantita\":1},"
+				+ "{\"idEvento\":1,\"idSettore\":1,\"quantita\":1}]";
+		mock.perform(post("/prezzi-settore-evento/preventivo").contentType(MediaType.APPLICATION_JSON).content(carrello))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.righe.length()").value(5))
+				.andExpect(jsonPath("$.righe[0].stato").value("DISPONIBILE"))
+				.andExpect(jsonPath("$.righe[0].prezzoUnitario").value(20.0))
+				.andExpect(jsonPath("$.righe[0].importo").value(40.0))
+				.andExpect(jsonPath("$.righe[1].importo").value(30.0))
+				.andExpect(jsonPath("$.righe[2].stato").value("CANCELLATO"))
+				.andExpect(jsonPath("$.righe[2].prezzoUnitario").isEmpty())
+				.andExpect(jsonPath("$.righe[3].stato").value("MANCANTE"))
+				.andExpect(jsonPath("$.righe[4].importo").value(20.0))
+				.andExpect(jsonPath("$.totale").value(90.0))
+				.andExpect(jsonPath("$.completo").value(false));
+		// con i prezzi dell'evento 1 in cache le righe disponibili non vengono lette dal database
+		mock.perform(get("/prezzi-settore-evento/lista-by-evento-is-cancellato-false/id-evento/1"))
+				.andExpect(status().isOk());
+		mock.perform(post("/prezzi-settore-evento/preventivo").contentType(MediaType.APPLICATION_JSON).content(carrello))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.righe[2].stato").value("CANCELLATO"))
+				.andExpect(jsonPath("$.righe[3].stato").value("MANCANTE"))
+				.andExpect(jsonPath("$.totale").value(90.0));
+	}
+
+	@Test
+	public void testPreventivoNonValido() throws Exception {
+		mock.perform(post("/prezzi-settore-evento/preventivo").contentType(MediaType.APPLICATION_JSON).content("[]"))
+				.andExpect(status().isBadRequest());
+		mock.perform(post("/prezzi-settore-evento/preventivo").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"idEvento\":1,\"idSettore\":1,\"quantita\":0}]"))
+				.andExpect(status().isBadRequest());
+	}
+}
@@ -0,0 +1,249 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.cache.LettureCondivise;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.cache.PrezziEventoCache;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.CachePrezziProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.event.PrezziEventoModificatiEvent;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+
+public class TestPrezziEventoCache {
+
+	private PrezziEventoCache cache;
+	private SimpleMeterRegistry registry;
+	private AtomicInteger letture;
+
+	@BeforeEach
+	public void setUp() {
+		CachePrezziProperties properties = new CachePrezziProperties();
+		properties.setAbilitata(true);
+		registry = new SimpleMeterRegistry();
+		cache = new PrezziEventoCache(properties, registry);
+		letture = new AtomicInteger();
+	}
+
+	private List<PrezzoSettoreEvento> carica(long idEvento) {
+		int lettura = letture.incrementAndGet();
+		PrezzoSettoreEvento pse = new PrezzoSettoreEvento();
+		pse.setId(idEvento * 10);
+		pse.setIdEvento(idEvento);
+		pse.setIdSettore(1);
+		pse.setPrezzo(20.00 + lettura);
+		return List.of(pse);
+	}
+
+	@Test
+	public void testLettureRipetuteServiteDallaCache() {
+		cache.getAttiviByEvento(1, () -> carica(1));
+		cache.getAttiviByEvento(1, () -> carica(1));
+		assertEquals(1, letture.get());
+		assertEquals(1, cache.getStatistiche().get(0).getHit());
+	}
+
+	@Test
+	public void testInvalidazionePerEvento() {
+		cache.getAttiviByEvento(1, () -> carica(1));
+		cache.getAttiviByEvento(2, () -> carica(2));
+		cache.onPrezziModificati(PrezziEventoModificatiEvent.perEvento(1));
+		cache.getAttiviByEvento(1, () -> carica(1));
+		cache.getAttiviByEvento(2, () -> carica(2));
+		assertEquals(3, letture.get());
+	}
+
+	@Test
+	public void testInvalidazionePerSettoreSvuotaGliEventi() {
+		cache.getAttiviByEvento(1, () -> carica(1));
+		cache.getAttiviByEvento(2, () -> carica(2));
+		cache.onPrezziModificati(PrezziEventoModificatiEvent.perSettore(1));
+		cache.getAttiviByEvento(1, () -> carica(1));
+		cache.getAttiviByEvento(2, () -> carica(2));
+		assertEquals(4, letture.get());
+	}
+
+	@Test
+	public void testInvalidazionePerIdDelloStessoEvento() {
+		cache.getById(10, () -> carica(1).get(0));
+		cache.onPrezziModificati(PrezziEventoModificatiEvent.perEvento(1));
+		cache.getById(10, () -> carica(1).get(0));
+		assertEquals(2, letture.get());
+	}
+
+	@Test
+	public void testModificheDeiPrezziRestituitiNonAlteranoLaCache() {
+		PrezzoSettoreEvento letto = cache.getById(10, () -> carica(1).get(0));
+		letto.setCancellato(true);
+		letto.setPrezzo(99);
+		PrezzoSettoreEvento riletto = cache.getById(10, () -> carica(1).get(0));
+		assertNotSame(letto, riletto);
+		assertFalse(riletto.isCancellato());
+		assertEquals(21.00, riletto.getPrezzo());
+
+		List<PrezzoSettoreEvento> attivi = cache.getAttiviByEvento(1, () -> carica(1));
+		attivi.get(0).setCancellato(true);
+		assertThrows(UnsupportedOperationException.class, () -> attivi.add(new PrezzoSettoreEvento()));
+		assertFalse(cache.getAttiviByEvento(1, () -> carica(1)).get(0).isCancellato());
+		assertFalse(cache.getAttiviByEventoSePresenti(1).get(0).isCancellato());
+		assertEquals(22.00, cache.getPrezzoSePresente(1, 1));
+		assertEquals(2, letture.get());
+	}
+
+	@Test
+	public void testRisultatoAssenteNonMemorizzato() {
+		assertNull(cache.getById(99, () -> null));
+		assertEquals(0, cache.getStatistiche().get(1).getDimensione());
+	}
+
+	@Test
+	public void testCacheDisabilitata() {
+		PrezziEventoCache disabilitata = new PrezziEventoCache(new CachePrezziProperties(), registry);
+		disabilitata.getAttiviByEvento(1, () -> carica(1));
+		disabilitata.getAttiviByEvento(1, () -> carica(1));
+		assertEquals(2, letture.get());
+	}
+
+	@Test
+	public void testMissConcorrentiCondividonoUnaLettura() throws Exception {
+		CountDownLatch inLettura = new CountDownLatch(1);
+		CountDownLatch rilascia = new CountDownLatch(1);
+		Supplier<List<PrezzoSettoreEvento>> lento = () -> {
+			inLettura.countDown();
+			attendi(rilascia);
+			return carica(1);
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			List<CompletableFuture<List<PrezzoSettoreEvento>>> risultati = new ArrayList<>();
+			risultati.add(CompletableFuture.supplyAsync(() -> cache.getAttiviByEvento(1, lento), executor));
+			assertTrue(inLettura.await(5, TimeUnit.SECONDS));
+			for (int i = 0; i < 7; i++) {
+				risultati.add(CompletableFuture.supplyAsync(() -> cache.getAttiviByEvento(1, lento), executor));
+			}
+			// le letture successive alla prima sono in attesa del suo risultato
+			while (risparmiate() < 7) Thread.sleep(5);
+			rilascia.countDown();
+			for (CompletableFuture<List<PrezzoSettoreEvento>> risultato : risultati) {
+				assertEquals(risultati.get(0).get(5, TimeUnit.SECONDS), risultato.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, letture.get());
+		assertEquals(1, registry.find(LettureCondivise.ESEGUITE).tag("lettura", "prezzi-attivi-per-evento").counter().count());
+	}
+
+	@Test
+	public void testNessunaLetturaCondivisaDopoUnaScrittura() throws Exception {
+		CountDownLatch inLettura = new CountDownLatch(1);
+		CountDownLatch rilascia = new CountDownLatch(1);
+		CompletableFuture<List<PrezzoSettoreEvento>> primaDellaScrittura = CompletableFuture.supplyAsync(() -> cache.getAttiviByEvento(1, () -> {
+			inLettura.countDown();
+			attendi(rilascia);
+			return carica(1);
+		}));
+		assertTrue(inLettura.await(5, TimeUnit.SECONDS));
+
+		cache.onPrezziModificati(PrezziEventoModificatiEvent.perEvento(1));
+		// la lettura dopo il commit non attende quella iniziata prima, ne esegue una nuova
+		List<PrezzoSettoreEvento> dopoLaScrittura = cache.getAttiviByEvento(1, () -> carica(1));
+		rilascia.countDown();
+		List<PrezzoSettoreEvento> letturaPrecedente = primaDellaScrittura.get(5, TimeUnit.SECONDS);
+
+		assertNotEquals(letturaPrecedente, dopoLaScrittura);
+		assertEquals(2, letture.get());
+		assertEquals(0, risparmiate());
+		// il risultato letto prima della scrittura non resta in cache
+		assertNotEquals(letturaPrecedente, cache.getAttiviByEventoSePresenti(1));
+	}
+
+	@Test
+	public void testLettureNonMemorizzateCondiviseEScollegate() throws Exception {
+		CountDownLatch inLettura = new CountDownLatch(3);
+		CountDownLatch rilascia = new CountDownLatch(1);
+		Supplier<List<PrezzoSettoreEvento>> lento = () -> {
+			inLettura.countDown();
+			attendi(rilascia);
+			return carica(1);
+		};
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		try {
+			CompletableFuture<List<PrezzoSettoreEvento>> settore = CompletableFuture.supplyAsync(() -> cache.leggiByIdSettore(1, lento), executor);
+			CompletableFuture<List<PrezzoSettoreEvento>> eventoSettore = CompletableFuture.supplyAsync(
+					() -> cache.leggiAttiviByEventoESettore(1, 1, lento), executor);
+			CompletableFuture<List<PrezzoSettoreEvento>> eventi = CompletableFuture.supplyAsync(
+					() -> cache.leggiByIdsEvento(List.of(2L, 1L), lento), executor);
+			assertTrue(inLettura.await(5, TimeUnit.SECONDS));
+			// prima della scrittura le richieste della stessa chiave attendono la lettura in corso
+			CompletableFuture<List<PrezzoSettoreEvento>> stessoSettore = CompletableFuture.supplyAsync(() -> cache.leggiByIdSettore(1, lento), executor);
+			while (registry.find(LettureCondivise.RISPARMIATE).tag("lettura", "prezzi-per-settore").counter().count() < 1) Thread.sleep(5);
+
+			cache.onPrezziModificati(PrezziEventoModificatiEvent.perEvento(1));
+			// dopo la scrittura le stesse letture non attendono quelle iniziate prima, ne eseguono di nuove
+			assertEquals(1, cache.leggiByIdSettore(1, () -> carica(1)).size());
+			assertEquals(1, cache.leggiAttiviByEventoESettore(1, 1, () -> carica(1)).size());
+			assertEquals(1, cache.leggiByIdsEvento(List.of(2L, 1L), () -> carica(1)).size());
+			assertEquals(3, letture.get());
+			rilascia.countDown();
+			assertNotSame(settore.get(5, TimeUnit.SECONDS).get(0), stessoSettore.get(5, TimeUnit.SECONDS).get(0));
+			assertEquals(settore.get(), stessoSettore.get());
+			eventoSettore.get(5, TimeUnit.SECONDS);
+			eventi.get(5, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(6, letture.get());
+	}
+
+	@Test
+	public void testErroreCondivisoEdEsecuzioneSuccessiva() throws Exception {
+		CountDownLatch inLettura = new CountDownLatch(1);
+		CountDownLatch rilascia = new CountDownLatch(1);
+		CompletableFuture<PrezzoSettoreEvento> prima = CompletableFuture.supplyAsync(() -> cache.getById(10, () -> {
+			inLettura.countDown();
+			attendi(rilascia);
+			throw new IllegalStateException("database non disponibile");
+		}));
+		assertTrue(inLettura.await(5, TimeUnit.SECONDS));
+		CompletableFuture<PrezzoSettoreEvento> seconda = CompletableFuture.supplyAsync(() -> cache.getById(10, () -> carica(1).get(0)));
+		while (registry.find(LettureCondivise.RISPARMIATE).tag("lettura", "prezzo-settore-evento-per-id").counter().count() < 1) Thread.sleep(5);
+		rilascia.countDown();
+
+		assertThrows(Exception.class, () -> prima.get(5, TimeUnit.SECONDS));
+		assertThrows(Exception.class, () -> seconda.get(5, TimeUnit.SECONDS));
+		// l'errore non resta registrato: la lettura successiva viene eseguita
+		assertEquals(10, cache.getById(10, () -> carica(1).get(0)).getId());
+		assertEquals(1, letture.get());
+	}
+
+	private double risparmiate() {
+		return registry.find(LettureCondivise.RISPARMIATE).tag("lettura", "prezzi-attivi-per-evento").counter().count();
+	}
+
+	private static void attendi(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
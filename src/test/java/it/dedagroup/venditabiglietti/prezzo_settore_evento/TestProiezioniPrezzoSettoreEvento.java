@@ -0,0 +1,185 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.test.context.ContextConfiguration;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Confronta le proiezioni di {@code PrezzoSettoreEventoRepositoryProiezioni} con le query derivate e {@code @Query}
+ * che sostituiscono, eseguite sugli stessi dati.
+ */
+@DataJpaTest
+@ContextConfiguration(classes = Application.class)
+public class TestProiezioniPrezzoSettoreEvento {
+
+	private static final Pageable PAGINA = PageRequest.ofSize(2);
+
+	@Autowired
+	PrezzoSettoreEventoRepository repo;
+	@Autowired
+	EntityManager entityManager;
+
+	private Originali originali;
+
+	/**
+	 * Le query del repository prima delle proiezioni, che restituiscono entità gestite.
+	 */
+	interface Originali extends Repository<PrezzoSettoreEvento, Long> {
+
+		Optional<List<PrezzoSettoreEvento>> findAllByIdSettore(long id);
+
+		Optional<List<PrezzoSettoreEvento>> findAllByIdEvento(long id);
+
+		Optional<List<PrezzoSettoreEvento>> findAllByIdEventoAndIdSettore(long idEvento, long idSettore);
+
+		Optional<List<PrezzoSettoreEvento>> findAllByIdEventoAndIsCancellatoFalse(long id);
+
+		Optional<List<PrezzoSettoreEvento>> findAllByIdSettoreAndIsCancellatoFalse(long id);
+
+		Optional<List<PrezzoSettoreEvento>> findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(long idEvento, long idSettore);
+
+		Optional<List<PrezzoSettoreEvento>> findAllByIsCancellatoFalse();
+
+		List<PrezzoSettoreEvento> findAllByIdEventoIn(List<Long> idEvento);
+
+		@Query("SELECT pse FROM PrezzoSettoreEvento pse WHERE pse.idSettore = :idSettore AND pse.id > :dopoId ORDER BY pse.id")
+		List<PrezzoSettoreEvento> findPaginaByIdSettore(@Param("idSettore") long idSettore, @Param("dopoId") long dopoId, Pageable pagina);
+
+		@Query("SELECT pse FROM PrezzoSettoreEvento pse WHERE pse.idEvento = :idEvento AND pse.id > :dopoId ORDER BY pse.id")
+		List<PrezzoSettoreEvento> findPaginaByIdEvento(@Param("idEvento") long idEvento, @Param("dopoId") long dopoId, Pageable pagina);
+
+		@Query("SELECT pse FROM PrezzoSettoreEvento pse WHERE pse.idEvento = :idEvento AND pse.idSettore = :idSettore AND pse.id > :dopoId ORDER BY pse.id")
+		List<PrezzoSettoreEvento> findPaginaByIdEventoAndIdSettore(@Param("idEvento") long idEvento, @Param("idSettore") long idSettore,
+				@Param("dopoId") long dopoId, Pageable pagina);
+
+		@Query("SELECT pse FROM PrezzoSettoreEvento pse WHERE pse.idSettore = :idSettore AND pse.isCancellato = false AND pse.id > :dopoId ORDER BY pse.id")
+		List<PrezzoSettoreEvento> findPaginaByIdSettoreAndIsCancellatoFalse(@Param("idSettore") long idSettore, @Param("dopoId") long dopoId, Pageable pagina);
+
+		@Query("SELECT pse FROM PrezzoSettoreEvento pse WHERE pse.idEvento = :idEvento AND pse.isCancellato = false AND pse.id > :dopoId ORDER BY pse.id")
+		List<PrezzoSettoreEvento> findPaginaByIdEventoAndIsCancellatoFalse(@Param("idEvento") long idEvento, @Param("dopoId") long dopoId, Pageable pagina);
+
+		@Query("SELECT pse FROM PrezzoSettoreEvento pse WHERE pse.idEvento = :idEvento AND pse.idSettore = :idSettore AND pse.isCancellato = false "
+				+ "AND pse.id > :dopoId ORDER BY pse.id")
+		List<PrezzoSettoreEvento> findPaginaByIdEventoAndIdSettoreAndIsCancellatoFalse(@Param("idEvento") long idEvento, @Param("idSettore") long idSettore,
+				@Param("dopoId") long dopoId, Pageable pagina);
+
+		@Query("SELECT pse FROM PrezzoSettoreEvento pse WHERE pse.isCancellato = false AND pse.id > :dopoId ORDER BY pse.id")
+		List<PrezzoSettoreEvento> findPaginaByIsCancellatoFalse(@Param("dopoId") long dopoId, Pageable pagina);
+
+		@Query("SELECT pse FROM PrezzoSettoreEvento pse WHERE pse.isCancellato = false "
+				+ "AND pse.idEvento BETWEEN :idEventoDa AND :idEventoA AND pse.idSettore BETWEEN :idSettoreDa AND :idSettoreA ORDER BY pse.id")
+		Stream<PrezzoSettoreEvento> streamAllAttivi(@Param("idEventoDa") long idEventoDa, @Param("idEventoA") long idEventoA,
+				@Param("idSettoreDa") long idSettoreDa, @Param("idSettoreA") long idSettoreA);
+	}
+
+	@BeforeEach
+	public void setUp() {
+		originali = new JpaRepositoryFactory(entityManager).getRepository(Originali.class);
+		// ai 5 prezzi dei dati di prova si aggiungono prezzi cancellati e più prezzi per le stesse coppie
+		repo.save(new PrezzoSettoreEvento(0, 1, 1, 18.00, true, 0));
+		repo.save(new PrezzoSettoreEvento(0, 1, 1, 19.00, true, 0));
+		repo.save(new PrezzoSettoreEvento(0, 2, 2, 31.00, false, 0));
+		repo.save(new PrezzoSettoreEvento(0, 2, 2, 32.00, true, 0));
+		repo.save(new PrezzoSettoreEvento(0, 5, 1, 12.00, false, 0));
+		repo.save(new PrezzoSettoreEvento(0, 1, 3, 14.00, false, 0));
+		entityManager.flush();
+		entityManager.clear();
+	}
+
+	@Test
+	public void testListe() {
+		for (long id = 0; id <= 5; id++) {
+			final long i = id;
+			confronta(originali.findAllByIdSettore(i), repo.findAllByIdSettore(i));
+			confronta(originali.findAllByIdEvento(i), repo.findAllByIdEvento(i));
+			confronta(originali.findAllByIdEventoAndIsCancellatoFalse(i), repo.findAllByIdEventoAndIsCancellatoFalse(i));
+			confronta(originali.findAllByIdSettoreAndIsCancellatoFalse(i), repo.findAllByIdSettoreAndIsCancellatoFalse(i));
+			for (long idSettore = 1; idSettore <= 5; idSettore++) {
+				confronta(originali.findAllByIdEventoAndIdSettore(i, idSettore), repo.findAllByIdEventoAndIdSettore(i, idSettore));
+				confronta(originali.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(i, idSettore),
+						repo.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(i, idSettore));
+			}
+		}
+		confronta(originali.findAllByIsCancellatoFalse(), repo.findAllByIsCancellatoFalse());
+		confronta(originali.findAllByIdEventoIn(List.of(1L, 3L, 9L)), repo.findAllByIdEventoIn(List.of(1L, 3L, 9L)));
+		confronta(originali.findAllByIdEventoIn(List.of()), repo.findAllByIdEventoIn(List.of()));
+	}
+
+	@Test
+	public void testPagine() {
+		for (long dopoId = 0; dopoId <= 1100; dopoId += 100) {
+			final long d = dopoId;
+			assertEquals(originali.findPaginaByIsCancellatoFalse(d, PAGINA), proiezioni(repo.findPaginaByIsCancellatoFalse(d, PAGINA)));
+			for (long id = 1; id <= 3; id++) {
+				assertEquals(originali.findPaginaByIdSettore(id, d, PAGINA), proiezioni(repo.findPaginaByIdSettore(id, d, PAGINA)));
+				assertEquals(originali.findPaginaByIdEvento(id, d, PAGINA), proiezioni(repo.findPaginaByIdEvento(id, d, PAGINA)));
+				assertEquals(originali.findPaginaByIdSettoreAndIsCancellatoFalse(id, d, PAGINA),
+						proiezioni(repo.findPaginaByIdSettoreAndIsCancellatoFalse(id, d, PAGINA)));
+				assertEquals(originali.findPaginaByIdEventoAndIsCancellatoFalse(id, d, PAGINA),
+						proiezioni(repo.findPaginaByIdEventoAndIsCancellatoFalse(id, d, PAGINA)));
+				assertEquals(originali.findPaginaByIdEventoAndIdSettore(id, 1, d, PAGINA),
+						proiezioni(repo.findPaginaByIdEventoAndIdSettore(id, 1, d, PAGINA)));
+				assertEquals(originali.findPaginaByIdEventoAndIdSettoreAndIsCancellatoFalse(id, 1, d, PAGINA),
+						proiezioni(repo.findPaginaByIdEventoAndIdSettoreAndIsCancellatoFalse(id, 1, d, PAGINA)));
+			}
+		}
+	}
+
+	@Test
+	public void testStream() {
+		long[][] intervalli = { { 1, Long.MAX_VALUE, 1, Long.MAX_VALUE }, { 1, 2, 1, 1 }, { 2, 3, 2, 5 }, { 3, 1, 1, 5 } };
+		for (long[] intervallo : intervalli) {
+			try (Stream<PrezzoSettoreEvento> attesi = originali.streamAllAttivi(intervallo[0], intervallo[1], intervallo[2], intervallo[3]);
+					Stream<PrezzoSettoreEvento> letti = repo.streamAllAttivi(intervallo[0], intervallo[1], intervallo[2], intervallo[3])) {
+				assertEquals(attesi.toList(), proiezioni(letti.toList()));
+			}
+		}
+		try (Stream<PrezzoSettoreEvento> tutti = repo.streamAll()) {
+			List<PrezzoSettoreEvento> letti = proiezioni(tutti.toList());
+			assertEquals(repo.findAll().stream().sorted(Comparator.comparingLong(PrezzoSettoreEvento::getId)).toList(), letti);
+		}
+	}
+
+	/**
+	 * Confronta due liste a meno dell'ordine, che le query senza ORDER BY non garantiscono.
+	 */
+	private void confronta(Optional<List<PrezzoSettoreEvento>> attesi, Optional<List<PrezzoSettoreEvento>> letti) {
+		assertEquals(ordinati(attesi.orElseThrow()), ordinati(proiezioni(letti.orElseThrow())));
+	}
+
+	private void confronta(List<PrezzoSettoreEvento> attesi, List<PrezzoSettoreEvento> letti) {
+		assertEquals(ordinati(attesi), ordinati(proiezioni(letti)));
+	}
+
+	/**
+	 * Verifica che i prezzi letti non siano entità gestite dal contesto di persistenza.
+	 */
+	private List<PrezzoSettoreEvento> proiezioni(List<PrezzoSettoreEvento> letti) {
+		letti.forEach(pse -> assertFalse(entityManager.contains(pse), "Entità gestita: " + pse));
+		return letti;
+	}
+
+	private static List<PrezzoSettoreEvento> ordinati(List<PrezzoSettoreEvento> lista) {
+		return lista.stream().sorted(Comparator.comparingLong(PrezzoSettoreEvento::getId)).toList();
+	}
+}
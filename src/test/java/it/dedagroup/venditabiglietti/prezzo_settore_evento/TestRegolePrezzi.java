@@ -0,0 +1,207 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotValidDataException;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.RegolaPrezzo;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.regole.CompilatoreRegole;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.regole.RegolaCompilata;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.regole.RegolePrezzi;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:regole",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///regole"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestRegolePrezzi {
+
+	@Autowired
+	PrezzoSettoreEventoService service;
+	@Autowired
+	RegolePrezzi regole;
+	@Autowired
+	MockMvc mock;
+
+	@Test
+	public void testCompilazione() {
+		List<String> fattori = List.of("domanda", "sconto");
+		double[] valori = { 1.5, 2 };
+		assertEquals(17, valuta("base + 2 * 3.5", fattori, 10, valori));
+		assertEquals(14, valuta("(base - 3) * 2", fattori, 10, valori));
+		assertEquals(-8, valuta("-base + -(-2)", fattori, 10, valori));
+		assertEquals(15, valuta("base * domanda", fattori, 10, valori));
+		assertEquals(12, valuta("limita(base * domanda, base, 12)", fattori, 10, valori));
+		// con il minimo sopra il massimo prevale il massimo
+		assertEquals(12, valuta("limita(base * domanda, base, 12)", fattori, 20, valori));
+		assertEquals(3, valuta("min(base, 7, sconto + 1)", fattori, 10, valori));
+		assertEquals(10, valuta("max(base, sconto)", fattori, 10, valori));
+		assertEquals(15.5, valuta("arrotonda(base * domanda + 0.3, 0.5)", fattori, 10, valori));
+		assertEquals(2.5, valuta("base / 4", fattori, 10, valori));
+
+		NotValidDataException sconosciuto = assertThrows(NotValidDataException.class, () -> CompilatoreRegole.compila("base * affluenza", fattori));
+		assertTrue(sconosciuto.getMessage().contains("posizione 8"), sconosciuto.getMessage());
+		assertThrows(NotValidDataException.class, () -> CompilatoreRegole.compila("base *", fattori));
+		assertThrows(NotValidDataException.class, () -> CompilatoreRegole.compila("(base", fattori));
+		assertThrows(NotValidDataException.class, () -> CompilatoreRegole.compila("base 2", fattori));
+		assertThrows(NotValidDataException.class, () -> CompilatoreRegole.compila("radice(base)", fattori));
+		assertThrows(NotValidDataException.class, () -> CompilatoreRegole.compila("arrotonda(base, domanda)", fattori));
+		assertThrows(NotValidDataException.class, () -> CompilatoreRegole.compila("limita(base, 1)", fattori));
+		assertTrue(CompilatoreRegole.isNomeFattoreValido("domanda_2"));
+		assertTrue(!CompilatoreRegole.isNomeFattoreValido("base") && !CompilatoreRegole.isNomeFattoreValido("Domanda"));
+	}
+
+	@Test
+	public void testRegoleApplicateAlPrezzoDisponibile() {
+		service.aggiungiPrezziSettoreEvento(List.of(
+				new PrezzoSettoreEvento(0, 1, 800, 40.0, false, 0),
+				new PrezzoSettoreEvento(0, 2, 800, 100.0, false, 0),
+				new PrezzoSettoreEvento(0, 3, 800, 60.0, false, 0)));
+		regole.impostaFattori(800, Map.of("domanda", 1.5));
+		regole.salvaRegola(800, RegolaPrezzo.TUTTI_I_SETTORI, "limita(base * domanda, base, 120)");
+		regole.salvaRegola(800, 3, "base - 10");
+
+		assertEquals(60.0, service.getPrezzoAttivo(800, 1));
+		assertEquals(120.0, service.getPrezzoAttivo(800, 2));
+		assertEquals(50.0, service.getPrezzoAttivo(800, 3));
+
+		// i risultati memorizzati non sopravvivono al cambio del fattore né a quello del prezzo memorizzato
+		regole.impostaFattori(800, Map.of("domanda", 1.1));
+		assertEquals(44.0, service.getPrezzoAttivo(800, 1), 1e-9);
+		service.modificaPrezzoByIdSettoreAndIdEvento(50.0, 1, 800);
+		assertEquals(55.0, service.getPrezzoAttivo(800, 1), 1e-9);
+
+		regole.eliminaRegola(800, RegolaPrezzo.TUTTI_I_SETTORI);
+		assertEquals(50.0, service.getPrezzoAttivo(800, 1));
+		assertEquals(50.0, service.getPrezzoAttivo(800, 3));
+		// un evento senza regole restituisce il prezzo memorizzato
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 801, 33.0, false, 0));
+		assertEquals(33.0, service.getPrezzoAttivo(801, 1));
+	}
+
+	@Test
+	public void testApiRegole() throws Exception {
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 810, 20.0, false, 0));
+		String etag = mock.perform(get("/prezzi-settore-evento/prezzo-attivo/id-evento/810/id-settore/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$").value(20.0))
+				.andReturn().getResponse().getHeader("ETag");
+
+		mock.perform(post("/prezzi-settore-evento/regole").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"idEvento\":810,\"idSettore\":0,\"espressione\":\"base * domanda\"}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("Regola non valida alla posizione 8: fattore 'domanda' non definito per l'evento"));
+		mock.perform(post("/prezzi-settore-evento/regole/fattori/id-evento/810").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"domanda\":2}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.fattori.domanda").value(2.0));
+		mock.perform(post("/prezzi-settore-evento/regole").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"idEvento\":810,\"idSettore\":0,\"espressione\":\"base * domanda\"}"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.espressione").value("base * domanda"));
+
+		String nuovoEtag = mock.perform(get("/prezzi-settore-evento/prezzo-attivo/id-evento/810/id-settore/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$").value(40.0))
+				.andReturn().getResponse().getHeader("ETag");
+		assertNotEquals(etag, nuovoEtag);
+		mock.perform(post("/prezzi-settore-evento/preventivo").contentType(MediaType.APPLICATION_JSON)
+				.content("[{\"idEvento\":810,\"idSettore\":1,\"quantita\":3}]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.righe[0].prezzoUnitario").value(40.0))
+				.andExpect(jsonPath("$.totale").value(120.0));
+		// le letture restituiscono lo stesso prezzo calcolato, lo storico quello memorizzato
+		mock.perform(get("/prezzi-settore-evento/lista-by-evento-is-cancellato-false/id-evento/810"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].prezzo").value(40.0));
+		String id = mock.perform(get("/prezzi-settore-evento/lista-by-evento-settore-is-cancellato-false/id-evento/810/id-settore/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].prezzo").value(40.0))
+				.andReturn().getResponse().getContentAsString().replaceAll(".*\"id\":(\\d+).*", "$1");
+		String etagId = mock.perform(get("/prezzi-settore-evento/id/" + id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.prezzo").value(40.0))
+				.andReturn().getResponse().getHeader("ETag");
+		mock.perform(post("/prezzi-settore-evento/ids-evento").contentType(MediaType.APPLICATION_JSON).content("[810]"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].prezzo").value(40.0));
+		MvcResult esportazione = mock.perform(get("/prezzi-settore-evento/lista-is-cancellato-false?idEventoDa=810&idEventoA=810")
+				.accept(MediaType.APPLICATION_NDJSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mock.perform(asyncDispatch(esportazione))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("\"prezzo\":40.0")));
+		mock.perform(get("/prezzi-settore-evento/storico/id-evento/810/id-settore/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].prezzo").value(20.0));
+		mock.perform(get("/prezzi-settore-evento/regole/id-evento/810"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.regole.length()").value(1))
+				.andExpect(jsonPath("$.regole[0].idSettore").value(0));
+
+		mock.perform(post("/prezzi-settore-evento/regole/elimina/id-evento/810/id-settore/0"))
+				.andExpect(status().isOk());
+		mock.perform(post("/prezzi-settore-evento/regole/elimina/id-evento/810/id-settore/0"))
+				.andExpect(status().isNotFound());
+		mock.perform(get("/prezzi-settore-evento/prezzo-attivo/id-evento/810/id-settore/1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$").value(20.0));
+		// senza la regola l'ETag della lettura per id cambia anche se la versione del prezzo è la stessa
+		mock.perform(get("/prezzi-settore-evento/id/" + id).header("If-None-Match", etagId))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.prezzo").value(20.0));
+	}
+
+	@Test
+	public void testRegoleNonModificanoIPrezziLetti() {
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 820, 30.0, false, 0));
+		regole.salvaRegola(820, RegolaPrezzo.TUTTI_I_SETTORI, "base + 5");
+		PrezzoSettoreEvento letto = service.findAllByIdEventoAndIsCancellatoFalse(820).get(0);
+		assertEquals(35.0, letto.getPrezzo());
+		assertEquals(35.0, service.findPrezzoSettoreEventoById(letto.getId()).getPrezzo());
+		assertEquals(35.0, service.findById(letto.getId()).getPrezzo());
+		assertEquals(35.0, service.getListaPseByIdsEvento(List.of(820L)).get(0).getPrezzo());
+		// la regola si applica una sola volta, al prezzo memorizzato in cache
+		assertEquals(35.0, service.findAllByIdEventoAndIdSettoreAndIsCancellatoFalse(820, 1).get(0).getPrezzo());
+		assertEquals(35.0, service.getPrezzoAttivo(820, 1));
+		// una modifica con versione attesa parte dal prezzo memorizzato
+		service.modificaIdSettore(letto.getId(), 2, letto.getVersion());
+		assertEquals(30.0, service.getPrezzoAlMomento(820, 2, Instant.now()).getPrezzo());
+		assertEquals(35.0, service.getPrezzoAttivo(820, 2));
+	}
+
+	private static double valuta(String espressione, List<String> fattori, double base, double[] valori) {
+		RegolaCompilata regola = CompilatoreRegole.compila(espressione, fattori);
+		return regola.valuta(base, valori);
+	}
+}
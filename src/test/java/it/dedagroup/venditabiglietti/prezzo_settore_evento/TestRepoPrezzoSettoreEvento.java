@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
@@ -114,7 +115,7 @@ public class TestRepoPrezzoSettoreEvento {
 	public void modificaPrezzoByIdSettoreAndIdEvento() throws Exception{
 		PrezzoSettoreEvento pse = new PrezzoSettoreEvento();
 		pse.setIdEvento(1);
-		pse.setIdSettore(1);
+		pse.setIdSettore(9);
 		pse.setPrezzo(100.00);
 		repo.save(pse);
 		repo.modificaPrezzoByIdSettoreAndIdEvento(50.00,1,1);
@@ -127,7 +128,7 @@ public class TestRepoPrezzoSettoreEvento {
 	public void testEliminaByIdSettore() throws Exception {
 		PrezzoSettoreEvento pse = new PrezzoSettoreEvento();
 		pse.setIdEvento(1);
-		pse.setIdSettore(1);
+		pse.setIdSettore(9);
 		pse.setPrezzo(100.00);
 		repo.save(pse);
 		repo.eliminaByIdSettore(1L);
@@ -141,7 +142,7 @@ public class TestRepoPrezzoSettoreEvento {
 	public void testEliminaByIdEvento() throws Exception {
 		PrezzoSettoreEvento pse = new PrezzoSettoreEvento();
 		pse.setIdEvento(1);
-		pse.setIdSettore(1);
+		pse.setIdSettore(9);
 		pse.setPrezzo(100.00);
 		repo.save(pse);
 		repo.eliminaByIdEvento(1L);
@@ -154,7 +155,7 @@ public class TestRepoPrezzoSettoreEvento {
 	public void testEliminaByidSettoreAndIdEvento() {
 		PrezzoSettoreEvento pse = new PrezzoSettoreEvento();
 		pse.setIdEvento(1);
-		pse.setIdSettore(1);
+		pse.setIdSettore(9);
 		pse.setPrezzo(100.00);
 		repo.save(pse);
 		repo.eliminaByIdSettoreAndIdEvento(1L,1L);
@@ -162,6 +163,30 @@ public class TestRepoPrezzoSettoreEvento {
 		assertTrue(pseEliminato.isPresent());
 		assertTrue(pseEliminato.get().isCancellato());
 	}
+	
+	@Test
+	public void testModificaPrezzoIncrementaVersione() {
+		repo.modificaPrezzoByIdSettoreAndIdEvento(50.00,1,1);
+		assertEquals(1, repo.findById(1L).get().getVersion());
+	}
+	
+	@Test
+	public void testModificaPrezzoAttivoSeVersione() {
+		assertEquals(0, repo.modificaPrezzoAttivoSeVersione(40.00, 1, 1, 3));
+		assertEquals(1, repo.modificaPrezzoAttivoSeVersione(40.00, 1, 1, 0));
+		PrezzoSettoreEvento pse = repo.findById(1L).get();
+		assertEquals(40.00, pse.getPrezzo());
+		assertEquals(1, pse.getVersion());
+	}
+	
+	@Test
+	public void testLeggiPrezziByCoppieEventoSettore() {
+		repo.saveAndFlush(new PrezzoSettoreEvento(0, 1, 2, 35.00, true, 0));
+		List<String> letti = new ArrayList<>();
+		repo.leggiPrezziByCoppieEventoSettore(new long[] { 1, 2, 9 }, new long[] { 2, 1, 9 }, 3,
+				(idEvento, idSettore, prezzo, cancellato) -> letti.add(idEvento + "/" + idSettore + "/" + prezzo + "/" + cancellato));
+		assertThat(letti).containsExactlyInAnyOrder("1/2/25.0/false", "2/1/30.0/false", "2/1/35.0/true");
+	}
 		
 	
 
@@ -0,0 +1,79 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.serviceimpl.PrezzoSettoreEventoServiceImpl;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.storico.StoricoPrezzi;
+
+@ExtendWith(MockitoExtension.class)
+public class TestRiprovaModifiche {
+
+	@Mock
+	private PrezzoSettoreEventoRepository repo;
+	@Mock
+	private ApplicationEventPublisher eventPublisher;
+	@Mock
+	private TransactionTemplate transactionTemplate;
+	@Mock
+	private StoricoPrezzi storico;
+	@InjectMocks
+	private PrezzoSettoreEventoServiceImpl service;
+
+	@BeforeEach
+	public void setUp() {
+		ReflectionTestUtils.setField(service, "tentativiMassimi", 3);
+		when(transactionTemplate.execute(any())).thenAnswer(invocazione ->
+				invocazione.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+		when(repo.findById(1L)).thenAnswer(invocazione -> Optional.of(new PrezzoSettoreEvento(1, 1, 1, 20.0, false, 4)));
+	}
+
+	@Test
+	public void testRiprovaDopoModificaConcorrente() {
+		when(repo.saveAndFlush(any(PrezzoSettoreEvento.class)))
+				.thenThrow(new ObjectOptimisticLockingFailureException(PrezzoSettoreEvento.class, 1L))
+				.thenAnswer(invocazione -> invocazione.getArgument(0));
+		PrezzoSettoreEvento pse = service.modificaIdSettore(1, 7, null);
+		assertEquals(7, pse.getIdSettore());
+		verify(repo, times(2)).findById(1L);
+		verify(repo, times(2)).saveAndFlush(any(PrezzoSettoreEvento.class));
+	}
+
+	@Test
+	public void testTentativiEsauriti() {
+		when(repo.saveAndFlush(any(PrezzoSettoreEvento.class)))
+				.thenThrow(new ObjectOptimisticLockingFailureException(PrezzoSettoreEvento.class, 1L));
+		assertThrows(OptimisticLockingFailureException.class, () -> service.modificaIdEvento(1, 2, null));
+		verify(repo, times(3)).saveAndFlush(any(PrezzoSettoreEvento.class));
+		verify(eventPublisher, never()).publishEvent(any(Object.class));
+	}
+
+	@Test
+	public void testVersioneAttesaNonAttualeSenzaRiprova() {
+		assertThrows(OptimisticLockingFailureException.class, () -> service.eliminaPrezzoSettoreEventoById(1, 3L));
+		verify(repo, times(1)).findById(1L);
+		verify(repo, never()).saveAndFlush(any(PrezzoSettoreEvento.class));
+	}
+}
@@ -0,0 +1,193 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.codifica.CodificaProtobuf;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.ErrorMessage;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.MessaggiGrpc;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.PrezziSettoreEventoGrpc;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.grpc.PrezziSettoreEventoGrpcService;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.EsportazioneRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.EventoSettoreRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.IdRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.IdsEventoRichiesta;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.ListaPrezziSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.PrezziSettoreEventoGrpc.PrezziSettoreEventoBlockingStub;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+/**
+ * Confronta la codifica scritta a mano da {@link CodificaProtobuf}, {@link MessaggiGrpc} e {@link PrezziSettoreEventoGrpc}
+ * con le classi generate da protoc e protoc-gen-grpc-java per {@code proto/prezzo_settore_evento.proto}, nel package
+ * {@code proto} dei sorgenti di test: ogni messaggio deve passare nei due sensi e un client generato deve poter
+ * chiamare il servizio.
+ */
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:schemaprotobuf",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///schemaprotobuf"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+public class TestSchemaProtobuf {
+
+	@Autowired
+	PrezziSettoreEventoGrpcService servizioGrpc;
+	@Autowired
+	PrezzoSettoreEventoService pseService;
+
+	interface Scrittura<T> {
+		void scrivi(T valore, CodedOutputStream out) throws IOException;
+	}
+
+	private static <T> byte[] codifica(T valore, Scrittura<T> scrittura) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		CodedOutputStream out = CodedOutputStream.newInstance(bytes);
+		scrittura.scrivi(valore, out);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static byte[] leggiTutto(InputStream in) throws IOException {
+		try (in) {
+			return in.readAllBytes();
+		}
+	}
+
+	private static PrezzoSettoreEvento daGenerato(it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.PrezzoSettoreEvento messaggio) {
+		return new PrezzoSettoreEvento(messaggio.getId(), messaggio.getIdSettore(), messaggio.getIdEvento(),
+				messaggio.getPrezzo(), messaggio.getCancellato(), messaggio.getVersion());
+	}
+
+	private static it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.PrezzoSettoreEvento generato(PrezzoSettoreEvento pse) {
+		return it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.PrezzoSettoreEvento.newBuilder()
+				.setId(pse.getId()).setIdSettore(pse.getIdSettore()).setIdEvento(pse.getIdEvento())
+				.setPrezzo(pse.getPrezzo()).setCancellato(pse.isCancellato()).setVersion(pse.getVersion())
+				.build();
+	}
+
+	@Test
+	public void testPrezziComeClassiGenerate() throws IOException {
+		List<PrezzoSettoreEvento> prezzi = List.of(
+				new PrezzoSettoreEvento(1, 2, 3, 45.5, false, 7),
+				new PrezzoSettoreEvento(Long.MAX_VALUE, 1, -1, 0.1, true, 0),
+				new PrezzoSettoreEvento(0, 0, 0, 0, false, 0));
+		for (PrezzoSettoreEvento pse : prezzi) {
+			byte[] scritto = codifica(pse, CodificaProtobuf::scriviPrezzo);
+			assertEquals(pse, daGenerato(it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.PrezzoSettoreEvento.parseFrom(scritto)));
+			assertEquals(pse, CodificaProtobuf.leggiPrezzo(CodedInputStream.newInstance(generato(pse).toByteArray())));
+		}
+
+		ListaPrezziSettoreEvento lista = ListaPrezziSettoreEvento.parseFrom(codifica(prezzi, CodificaProtobuf::scriviLista));
+		assertEquals(prezzi, lista.getPrezziList().stream().map(TestSchemaProtobuf::daGenerato).toList());
+		ListaPrezziSettoreEvento generata = ListaPrezziSettoreEvento.newBuilder()
+				.addAllPrezzi(prezzi.stream().map(TestSchemaProtobuf::generato).toList())
+				.build();
+		assertEquals(prezzi, CodificaProtobuf.leggiLista(CodedInputStream.newInstance(generata.toByteArray())));
+		assertEquals(prezzi, MessaggiGrpc.LISTA.parse(generata.toByteString().newInput()));
+		assertEquals(generata, ListaPrezziSettoreEvento.parseFrom(leggiTutto(MessaggiGrpc.LISTA.stream(prezzi))));
+	}
+
+	@Test
+	public void testErroreComeClasseGenerata() throws IOException {
+		ErrorMessage errore = new ErrorMessage("Prezzo non trovato", 404);
+		errore.setTimeStamp(LocalDateTime.of(2024, 3, 1, 10, 15, 30));
+		it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.ErrorMessage generato =
+				it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.ErrorMessage.parseFrom(codifica(errore, CodificaProtobuf::scriviErrore));
+		assertEquals(errore.getMessage(), generato.getMessage());
+		assertEquals(errore.getStatusCode(), generato.getStatusCode());
+		assertEquals(errore.getTimeStamp().toString(), generato.getTimeStamp());
+
+		ErrorMessage letto = CodificaProtobuf.leggiErrore(CodedInputStream.newInstance(generato.toByteArray()));
+		assertEquals(errore.getMessage(), letto.getMessage());
+		assertEquals(errore.getStatusCode(), letto.getStatusCode());
+		assertEquals(errore.getTimeStamp(), letto.getTimeStamp());
+	}
+
+	@Test
+	public void testRichiesteComeClassiGenerate() throws IOException {
+		IdRichiesta id = IdRichiesta.newBuilder().setId(42).build();
+		assertEquals(id, IdRichiesta.parseFrom(leggiTutto(MessaggiGrpc.ID_RICHIESTA.stream(new MessaggiGrpc.IdRichiesta(42)))));
+		assertEquals(new MessaggiGrpc.IdRichiesta(42), MessaggiGrpc.ID_RICHIESTA.parse(id.toByteString().newInput()));
+
+		EventoSettoreRichiesta eventoSettore = EventoSettoreRichiesta.newBuilder().setIdEvento(3).setIdSettore(5).build();
+		assertEquals(eventoSettore, EventoSettoreRichiesta.parseFrom(
+				leggiTutto(MessaggiGrpc.EVENTO_SETTORE_RICHIESTA.stream(new MessaggiGrpc.EventoSettoreRichiesta(3, 5)))));
+		assertEquals(new MessaggiGrpc.EventoSettoreRichiesta(3, 5), MessaggiGrpc.EVENTO_SETTORE_RICHIESTA.parse(eventoSettore.toByteString().newInput()));
+
+		List<Long> idEventi = List.of(1L, 300L, Long.MAX_VALUE);
+		IdsEventoRichiesta idsEvento = IdsEventoRichiesta.newBuilder().addAllIdEvento(idEventi).build();
+		assertEquals(idsEvento, IdsEventoRichiesta.parseFrom(
+				leggiTutto(MessaggiGrpc.IDS_EVENTO_RICHIESTA.stream(new MessaggiGrpc.IdsEventoRichiesta(new ArrayList<>(idEventi))))));
+		assertEquals(idEventi, MessaggiGrpc.IDS_EVENTO_RICHIESTA.parse(idsEvento.toByteString().newInput()).getIdEventi());
+
+		EsportazioneRichiesta esportazione = EsportazioneRichiesta.newBuilder()
+				.setIdEventoDa(1).setIdEventoA(2).setIdSettoreDa(3).setIdSettoreA(4).build();
+		assertEquals(esportazione, EsportazioneRichiesta.parseFrom(
+				leggiTutto(MessaggiGrpc.ESPORTAZIONE_RICHIESTA.stream(new MessaggiGrpc.EsportazioneRichiesta(1, 2, 3, 4)))));
+		assertEquals(new MessaggiGrpc.EsportazioneRichiesta(1, 2, 3, 4), MessaggiGrpc.ESPORTAZIONE_RICHIESTA.parse(esportazione.toByteString().newInput()));
+	}
+
+	@Test
+	public void testMetodiComeServizioGenerato() {
+		Map<String, MethodDescriptor.MethodType> generati = it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.PrezziSettoreEventoGrpc
+				.getServiceDescriptor().getMethods().stream()
+				.collect(Collectors.toMap(MethodDescriptor::getFullMethodName, MethodDescriptor::getType));
+		Map<String, MethodDescriptor.MethodType> scritti = servizioGrpc.bindService().getServiceDescriptor().getMethods().stream()
+				.collect(Collectors.toMap(MethodDescriptor::getFullMethodName, MethodDescriptor::getType));
+		assertEquals(generati, scritti);
+		assertEquals(it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.PrezziSettoreEventoGrpc.SERVICE_NAME, PrezziSettoreEventoGrpc.SERVICE_NAME);
+	}
+
+	@Test
+	public void testClienteGenerato() throws Exception {
+		String nome = InProcessServerBuilder.generateName();
+		Server server = InProcessServerBuilder.forName(nome).addService(servizioGrpc).build().start();
+		ManagedChannel canale = InProcessChannelBuilder.forName(nome).build();
+		try {
+			PrezziSettoreEventoBlockingStub stub = it.dedagroup.venditabiglietti.prezzo_settore_evento.proto.PrezziSettoreEventoGrpc.newBlockingStub(canale);
+			assertEquals(pseService.findById(1), daGenerato(stub.findById(IdRichiesta.newBuilder().setId(1).build())));
+			assertEquals(pseService.findAllByIdEventoAndIdSettore(1, 2), stub.findAllByIdEventoAndIdSettore(
+					EventoSettoreRichiesta.newBuilder().setIdEvento(1).setIdSettore(2).build())
+					.getPrezziList().stream().map(TestSchemaProtobuf::daGenerato).toList());
+			assertEquals(pseService.getListaPseByIdsEvento(List.of(1L, 3L)), stub.findAllByIdsEvento(
+					IdsEventoRichiesta.newBuilder().addIdEvento(1).addIdEvento(3).build())
+					.getPrezziList().stream().map(TestSchemaProtobuf::daGenerato).toList());
+
+			List<PrezzoSettoreEvento> attesi = new ArrayList<>(pseService.findAllByIsCancellatoFalse());
+			attesi.sort(Comparator.comparingLong(PrezzoSettoreEvento::getId));
+			List<PrezzoSettoreEvento> ricevuti = new ArrayList<>();
+			stub.esportaPrezziAttivi(EsportazioneRichiesta.getDefaultInstance())
+					.forEachRemaining(messaggio -> ricevuti.add(daGenerato(messaggio)));
+			assertEquals(attesi, ricevuti);
+		} finally {
+			canale.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+			server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+		}
+	}
+}
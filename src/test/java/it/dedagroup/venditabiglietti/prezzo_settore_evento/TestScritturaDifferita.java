@@ -0,0 +1,118 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.ScritturaDifferitaProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.ScritturaNonConfermataException;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.scrittura.ModifichePrezzoDifferite;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.scrittura.ScritturaDifferita;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:scritturadifferita",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///scritturadifferita",
+		"prezzo-settore-evento.scrittura-differita.abilitata=true",
+		"prezzo-settore-evento.scrittura-differita.intervallo=50ms"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestScritturaDifferita {
+
+	@Autowired
+	PrezzoSettoreEventoService service;
+	@Autowired
+	ScritturaDifferita scrittura;
+	@Autowired
+	ModifichePrezzoDifferite modifiche;
+	@Autowired
+	MeterRegistry registry;
+	@Autowired
+	MockMvc mock;
+
+	@Test
+	public void testRispostaDopoIlCommit() throws Exception {
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 900, 10.0, false, 0));
+		assertEquals(10.0, service.getPrezzoAttivo(900, 1));
+
+		mock.perform(post("/prezzi-settore-evento/modifica-prezzo").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"idEvento\":900,\"idSettore\":1,\"prezzo\":11.5}"))
+				.andExpect(status().isOk());
+
+		// la risposta arriva dopo il commit e l'invalidazione della cache: la lettura successiva vede il nuovo prezzo
+		assertEquals(11.5, service.getPrezzoAttivo(900, 1));
+		assertEquals(2, service.getStoricoPrezzo(900, 1).size());
+		assertEquals(1, service.getStoricoPrezzo(900, 1).get(1).getVersion());
+		assertTrue(registry.find(ScritturaDifferita.SCRITTURA).timer().count() >= 1);
+		assertNotNull(registry.find(ScritturaDifferita.CODA).gauge());
+	}
+
+	@Test
+	public void testAccorpamentoPerCoppia() {
+		service.aggiungiPrezziSettoreEvento(List.of(
+				new PrezzoSettoreEvento(0, 1, 910, 20.0, false, 0),
+				new PrezzoSettoreEvento(0, 2, 910, 30.0, false, 0)));
+		double accorpatePrima = registry.find(ScritturaDifferita.ACCORPATE).counter().count();
+
+		List<CompletableFuture<Void>> conferme = new ArrayList<>();
+		for (int i = 1; i <= 100; i++) {
+			conferme.add(scrittura.accoda(20.0 + i, 1, 910));
+			conferme.add(scrittura.accoda(30.0 + i, 2, 910));
+		}
+		CompletableFuture.allOf(conferme.toArray(CompletableFuture[]::new)).join();
+
+		assertEquals(120.0, service.getPrezzoAttivo(910, 1));
+		assertEquals(130.0, service.getPrezzoAttivo(910, 2));
+		// ogni lotto scrive una sola versione per coppia, qualunque sia il numero di modifiche accorpate
+		int versioni = service.getStoricoPrezzo(910, 1).size() - 1;
+		assertTrue(versioni >= 1 && versioni < 100, "Versioni scritte: " + versioni);
+		assertEquals(versioni, service.getStoricoPrezzo(910, 1).get(versioni).getVersion());
+		assertEquals(200 - versioni - (service.getStoricoPrezzo(910, 2).size() - 1),
+				registry.find(ScritturaDifferita.ACCORPATE).counter().count() - accorpatePrima);
+	}
+
+	@Test
+	public void testScritturaAllaChiusura() {
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 920, 40.0, false, 0));
+		ScritturaDifferitaProperties properties = new ScritturaDifferitaProperties();
+		// un intervallo più lungo del test: le modifiche vengono scritte solo dalla chiusura
+		properties.setIntervallo(Duration.ofMinutes(1));
+		SimpleMeterRegistry registroChiusura = new SimpleMeterRegistry();
+		ScritturaDifferita inChiusura = new ScritturaDifferita(modifiche, properties, registroChiusura);
+
+		CompletableFuture<Void> prima = inChiusura.accoda(41.0, 1, 920);
+		CompletableFuture<Void> seconda = inChiusura.accoda(42.0, 1, 920);
+		assertTrue(!prima.isDone() && !seconda.isDone());
+		inChiusura.close();
+
+		prima.join();
+		seconda.join();
+		assertEquals(42.0, service.getPrezzoAttivo(920, 1));
+		assertEquals(1, registroChiusura.find(ScritturaDifferita.SCRITTURA).timer().count());
+		assertEquals(1, registroChiusura.find(ScritturaDifferita.ACCORPATE).counter().count());
+		assertThrows(ScritturaNonConfermataException.class, () -> inChiusura.modifica(43.0, 1, 920));
+	}
+}
@@ -0,0 +1,157 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.config.SnapshotProperties;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.repository.PrezzoSettoreEventoRepository;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot.CaricatoreSnapshot;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot.LettoreSnapshot;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.snapshot.SnapshotPrezzi;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:snapshot",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///snapshot"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestSnapshotPrezzi {
+
+	@Autowired
+	MockMvc mock;
+	@Autowired
+	SnapshotPrezzi snapshot;
+	@Autowired
+	PrezzoSettoreEventoRepository repo;
+	@Autowired
+	PrezzoSettoreEventoService pseService;
+
+	@TempDir
+	Path directory;
+
+	private byte[] iniziale;
+
+	@BeforeEach
+	public void salvaTabella() throws IOException {
+		iniziale = esporta();
+	}
+
+	@AfterEach
+	public void ripristinaTabella() throws IOException {
+		snapshot.importa(new ByteArrayInputStream(iniziale), true, 1000);
+	}
+
+	@Test
+	public void testEsportaEImporta() throws Exception {
+		pseService.eliminaPrezzoSettoreEventoById(2, null);
+		List<PrezzoSettoreEvento> prima = tabella();
+		byte[] dati = esporta();
+
+		repo.deleteAll();
+		assertEquals(prima.size(), snapshot.importa(new ByteArrayInputStream(dati), false, 2));
+		assertEquals(prima, tabella());
+		assertTrue(tabella().stream().anyMatch(PrezzoSettoreEvento::isCancellato));
+
+		PrezzoSettoreEvento nuovo = new PrezzoSettoreEvento(0, 9, 90, 10.0, false, 0);
+		pseService.aggiungiPrezzoSettoreEvento(nuovo);
+		assertTrue(nuovo.getId() > prima.get(prima.size() - 1).getId());
+	}
+
+	@Test
+	public void testSnapshotDanneggiatoNonModificaLaTabella() throws Exception {
+		List<PrezzoSettoreEvento> prima = tabella();
+		byte[] dati = esporta();
+		dati[10] ^= 0x01;
+		assertThrows(IOException.class, () -> snapshot.importa(new ByteArrayInputStream(dati), true, 2));
+		assertEquals(prima, tabella());
+
+		byte[] troncato = Arrays.copyOf(esporta(), dati.length - 6);
+		assertThrows(IOException.class, () -> snapshot.importa(new ByteArrayInputStream(troncato), true, 2));
+		assertEquals(prima, tabella());
+
+		assertThrows(IOException.class, () -> snapshot.importa(new ByteArrayInputStream(new byte[] { 1, 2, 3 }), true, 2));
+		assertEquals(prima, tabella());
+	}
+
+	@Test
+	public void testEndpointSnapshot() throws Exception {
+		MvcResult risultato = mock.perform(get("/prezzi-settore-evento/admin/snapshot"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		byte[] dati = mock.perform(asyncDispatch(risultato))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"prezzi-settore-evento.snapshot\""))
+				.andReturn().getResponse().getContentAsByteArray();
+		assertArrayEquals(esporta(), dati);
+		try (LettoreSnapshot lettore = new LettoreSnapshot(new ByteArrayInputStream(dati))) {
+			while (lettore.leggi(new PrezzoSettoreEvento()));
+			assertEquals(repo.count(), lettore.getRighe());
+		}
+	}
+
+	@Test
+	public void testCaricatoreImportaSoloInTabellaVuota() throws Exception {
+		List<PrezzoSettoreEvento> prima = tabella();
+		Path file = directory.resolve("prezzi.snapshot");
+		Files.write(file, esporta());
+		SnapshotProperties properties = new SnapshotProperties();
+		properties.setFile(file);
+		CaricatoreSnapshot caricatore = new CaricatoreSnapshot(snapshot, repo, properties);
+
+		pseService.eliminaPrezzoSettoreEventoById(1, null);
+		caricatore.run(null);
+		assertTrue(repo.findById(1L).orElseThrow().isCancellato());
+
+		repo.deleteAll();
+		caricatore.run(null);
+		assertEquals(prima, tabella());
+
+		pseService.eliminaPrezzoSettoreEventoById(1, null);
+		properties.setSostituisci(true);
+		caricatore.run(null);
+		assertEquals(prima, tabella());
+	}
+
+	private byte[] esporta() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		snapshot.esporta(out);
+		return out.toByteArray();
+	}
+
+	private List<PrezzoSettoreEvento> tabella() {
+		return repo.findAll().stream().sorted(Comparator.comparingLong(PrezzoSettoreEvento::getId)).toList();
+	}
+}
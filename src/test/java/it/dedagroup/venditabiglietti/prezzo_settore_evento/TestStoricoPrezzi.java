@@ -0,0 +1,128 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.dto.response.VersionePrezzoDtoResponse;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.model.NotFoundExceptionCustom;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.model.PrezzoSettoreEvento;
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.servicedef.PrezzoSettoreEventoService;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:storico",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///storico"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestStoricoPrezzi {
+
+	@Autowired
+	PrezzoSettoreEventoService service;
+	@Autowired
+	MockMvc mock;
+
+	@Test
+	public void testPrezzoAlMomento() throws InterruptedException {
+		Instant primaDellInserimento = istante();
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 600, 10.0, false, 0));
+		Instant dopoInserimento = istante();
+		service.modificaPrezzoByIdSettoreAndIdEvento(12.5, 1, 600);
+		Instant dopoModifica = istante();
+		service.eliminaByIdSettoreAndIdEvento(1, 600);
+		Instant dopoCancellazione = istante();
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 1, 600, 15.0, false, 0));
+
+		assertThrows(NotFoundExceptionCustom.class, () -> service.getPrezzoAlMomento(600, 1, primaDellInserimento));
+		VersionePrezzoDtoResponse inserito = service.getPrezzoAlMomento(600, 1, dopoInserimento);
+		assertEquals(10.0, inserito.getPrezzo());
+		assertEquals(0, inserito.getVersion());
+		VersionePrezzoDtoResponse modificato = service.getPrezzoAlMomento(600, 1, dopoModifica);
+		assertEquals(12.5, modificato.getPrezzo());
+		assertEquals(1, modificato.getVersion());
+		assertEquals(modificato.getValidoDa(), inserito.getValidoA());
+		assertThrows(NotFoundExceptionCustom.class, () -> service.getPrezzoAlMomento(600, 1, dopoCancellazione));
+		VersionePrezzoDtoResponse corrente = service.getPrezzoAlMomento(600, 1, istante());
+		assertEquals(15.0, corrente.getPrezzo());
+		assertNull(corrente.getValidoA());
+		assertEquals(service.getPrezzoAttivo(600, 1), corrente.getPrezzo());
+	}
+
+	@Test
+	public void testCambioEventoChiudeLaCoppiaPrecedente() throws InterruptedException {
+		PrezzoSettoreEvento pse = new PrezzoSettoreEvento(0, 2, 610, 30.0, false, 0);
+		service.aggiungiPrezzoSettoreEvento(pse);
+		Instant primaDelCambio = istante();
+		service.modificaIdEvento(pse.getId(), 611, null);
+
+		assertEquals(30.0, service.getPrezzoAlMomento(610, 2, primaDelCambio).getPrezzo());
+		assertThrows(NotFoundExceptionCustom.class, () -> service.getPrezzoAlMomento(610, 2, istante()));
+		VersionePrezzoDtoResponse spostato = service.getPrezzoAlMomento(611, 2, istante());
+		assertEquals(30.0, spostato.getPrezzo());
+		assertEquals(pse.getId(), spostato.getIdPrezzoSettoreEvento());
+		assertEquals(1, spostato.getVersion());
+	}
+
+	@Test
+	public void testStoricoDallaVersioneMenoRecente() throws Exception {
+		service.aggiungiPrezzoSettoreEvento(new PrezzoSettoreEvento(0, 3, 620, 40.0, false, 0));
+		istante();
+		service.eliminaByIdEvento(620);
+
+		List<VersionePrezzoDtoResponse> storico = service.getStoricoPrezzo(620, 3);
+		assertEquals(2, storico.size());
+		assertEquals(40.0, storico.get(0).getPrezzo());
+		assertEquals(storico.get(1).getValidoDa(), storico.get(0).getValidoA());
+		assertNull(storico.get(1).getPrezzo());
+		assertNull(storico.get(1).getValidoA());
+
+		mock.perform(get("/prezzi-settore-evento/storico/id-evento/620/id-settore/3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].prezzo").value(40.0))
+				.andExpect(jsonPath("$[0].validoA").value(storico.get(0).getValidoA().toString()))
+				.andExpect(jsonPath("$[1].prezzo").isEmpty());
+		mock.perform(get("/prezzi-settore-evento/prezzo-al-momento/id-evento/620/id-settore/3")
+						.param("istante", storico.get(0).getValidoDa().toString()))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.prezzo").value(40.0));
+		mock.perform(get("/prezzi-settore-evento/prezzo-al-momento/id-evento/620/id-settore/3")
+						.param("istante", storico.get(1).getValidoDa().toString()))
+				.andExpect(status().isNotFound());
+		mock.perform(get("/prezzi-settore-evento/storico/id-evento/620/id-settore/4"))
+				.andExpect(status().isNotFound());
+	}
+
+	@Test
+	public void testStoricoApertoDallaMigrazione() {
+		// i prezzi disponibili dei dati di prova entrano nello storico con la migrazione che lo crea
+		VersionePrezzoDtoResponse migrato = service.getStoricoPrezzo(1, 1).get(0);
+		assertEquals(20.0, migrato.getPrezzo());
+		assertEquals(1, migrato.getIdPrezzoSettoreEvento());
+	}
+
+	/**
+	 * L'istante corrente, separato di almeno un millisecondo dalle scritture che lo precedono e lo seguono.
+	 */
+	private static Instant istante() throws InterruptedException {
+		Thread.sleep(2);
+		Instant istante = Instant.now();
+		Thread.sleep(2);
+		return istante;
+	}
+}
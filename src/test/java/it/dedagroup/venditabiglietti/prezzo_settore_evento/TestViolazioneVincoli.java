@@ -0,0 +1,85 @@
+package it.dedagroup.venditabiglietti.prezzo_settore_evento;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.sql.SQLException;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import it.dedagroup.venditabiglietti.prezzo_settore_evento.exception.ExceptionHandlerCustom;
+
+@SpringBootTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:vincoli",
+		"spring.flyway.locations=classpath:db/migration/{vendor}",
+		"prezzo-settore-evento.lettura-reattiva.url=r2dbc:h2:mem:///vincoli"
+})
+@ActiveProfiles("h2")
+@ContextConfiguration(classes = Application.class)
+@AutoConfigureMockMvc
+public class TestViolazioneVincoli {
+
+	@Autowired
+	MockMvc mock;
+
+	@Test
+	public void testPrezzoDisponibileDuplicato() throws Exception {
+		String richiesta = "{\"idEvento\":600,\"idSettore\":1,\"prezzo\":10}";
+		mock.perform(post("/prezzi-settore-evento/add").contentType(MediaType.APPLICATION_JSON).content(richiesta))
+				.andExpect(status().isCreated());
+		mock.perform(post("/prezzi-settore-evento/add").contentType(MediaType.APPLICATION_JSON).content(richiesta))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.message").value("Esiste già un prezzo disponibile per lo stesso evento e settore"));
+	}
+
+	@Test
+	public void testAltriVincoli() throws Exception {
+		MockMvc vincoli = MockMvcBuilders.standaloneSetup(new ControllerVincoli())
+				.setControllerAdvice(new ExceptionHandlerCustom())
+				.build();
+		vincoli.perform(get("/vincolo/PUBLIC.UK_PSE_EVENTO_SETTORE_ATTIVO_INDEX_8"))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.message").value("Esiste già un prezzo disponibile per lo stesso evento e settore"));
+		for (String vincolo : new String[] { "PRIMARY", "pk_prezzo_settore_evento", "fk_evento" }) {
+			vincoli.perform(get("/vincolo/" + vincolo))
+					.andExpect(status().isConflict())
+					.andExpect(jsonPath("$.message").value("L'operazione viola un vincolo dei dati"));
+		}
+		vincoli.perform(get("/senza-vincolo"))
+				.andExpect(status().isConflict())
+				.andExpect(jsonPath("$.message").value("L'operazione viola un vincolo dei dati"));
+	}
+
+	/**
+	 * Solleva le eccezioni che Spring produce traducendo le violazioni dei vincoli rilevate da Hibernate.
+	 */
+	@RestController
+	static class ControllerVincoli {
+
+		@GetMapping("/vincolo/{nome}")
+		void vincolo(@PathVariable String nome) {
+			throw new DataIntegrityViolationException("violazione",
+					new ConstraintViolationException("violazione", new SQLException("violazione"), nome));
+		}
+
+		@GetMapping("/senza-vincolo")
+		void senzaVincolo() {
+			throw new DataIntegrityViolationException("NULL not allowed for column \"PREZZO\"", new SQLException("violazione"));
+		}
+	}
+}
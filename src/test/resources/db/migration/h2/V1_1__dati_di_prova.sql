@@ -0,0 +1,10 @@
+-- Dati di prova per i test sul repository.
+INSERT INTO prezzo_settore_evento (id, id_settore, id_evento, prezzo, is_cancellato) VALUES
+    (1, 1, 1, 20.0, FALSE),
+    (2, 2, 1, 25.0, FALSE),
+    (3, 1, 2, 30.0, FALSE),
+    (4, 3, 1, 15.0, FALSE),
+    (5, 4, 3, 18.5, FALSE);
+
+-- Gli id generati dalla sequenza partono oltre quelli dei dati di prova.
+ALTER SEQUENCE prezzo_settore_evento_seq RESTART WITH 1001;